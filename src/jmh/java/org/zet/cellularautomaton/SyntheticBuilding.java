@@ -0,0 +1,134 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton.EvacuationCellularAutomatonBuilder;
+import org.zet.cellularautomaton.potential.CellGraph;
+import org.zet.cellularautomaton.potential.ParallelPotentialBuilder;
+import org.zet.cellularautomaton.potential.StaticPotential;
+import org.zet.cellularautomaton.potential.StaticPotentialMethod;
+
+/**
+ * Generates synthetic buildings of a given size for benchmarking. The building consists of several floors, each floor
+ * is a single square room. The left column of the ground floor consists of {@link ExitCell exit cells}, the floors are
+ * connected by a staircase of {@link DoorCell door cells} at the top of their right column. Thus the building has a
+ * single exit whose potential is defined on all floors. The individuals are distributed uniformly at random over the
+ * remaining room cells. The generation is deterministic for a given seed.
+ */
+public class SyntheticBuilding {
+
+    /** The maximal number of cells on a single floor. Larger buildings are split up into several floors. */
+    public static final int MAX_CELLS_PER_FLOOR = 50_000;
+    /** The number of cells of the staircase per floor, relative to the side length of the floor. */
+    private static final int STAIRCASE_FRACTION = 8;
+
+    private final MultiFloorEvacuationCellularAutomaton cellularAutomaton;
+    private final List<EvacCell> roomCells;
+    private final int cellCount;
+
+    /**
+     * Creates a building with (approximately) the given number of cells.
+     *
+     * @param cellCount the number of cells of the building
+     */
+    public SyntheticBuilding(int cellCount) {
+        if (cellCount < 4) {
+            throw new IllegalArgumentException("Building must contain at least 4 cells.");
+        }
+        int floors = (cellCount + MAX_CELLS_PER_FLOOR - 1) / MAX_CELLS_PER_FLOOR;
+        int side = Math.max(3, (int) Math.round(Math.sqrt((double) cellCount / floors)));
+        int staircase = Math.max(1, side / STAIRCASE_FRACTION);
+
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        roomCells = new ArrayList<>(floors * side * side);
+        DoorCell[] stairsBelow = null;
+        for (int floor = 0; floor < floors; ++floor) {
+            builder.addFloor(floor, "Floor " + floor);
+            RoomImpl room = new RoomImpl(side, side, floor, 0, 0);
+            DoorCell[] stairs = floors > 1 ? new DoorCell[staircase] : null;
+            for (int y = 0; y < side; ++y) {
+                for (int x = 0; x < side; ++x) {
+                    if (x == 0 && floor == 0) {
+                        room.setCell(new ExitCell(1, x, y, room));
+                    } else if (x == side - 1 && stairs != null && y < staircase) {
+                        stairs[y] = new DoorCell(DoorCell.STANDARD_DOORCELL_SPEEDFACTOR, x, y, room);
+                        room.setCell(stairs[y]);
+                        if (stairsBelow != null) {
+                            stairs[y].addTarget(stairsBelow[y]);
+                        }
+                    } else {
+                        RoomCell cell = new RoomCell(1, x, y, room);
+                        room.setCell(cell);
+                        roomCells.add(cell);
+                    }
+                }
+            }
+            builder.addRoom(room);
+            stairsBelow = stairs;
+        }
+        ParallelPotentialBuilder.withMethod(StaticPotentialMethod.ARRAY_WAVEFRONT, CellGraph.of(builder.getRooms()))
+                .computePotentials(builder);
+        builder.setSafePotential(new StaticPotential());
+        cellularAutomaton = builder.build();
+        this.cellCount = floors * side * side;
+    }
+
+    /**
+     * Places the given number of individuals on distinct, randomly chosen room cells of the building.
+     *
+     * @param individualCount the number of individuals
+     * @param seed the seed used to distribute the individuals
+     * @return the initial configuration containing the building and the individuals
+     * @throws IllegalArgumentException if there are more individuals than room cells
+     */
+    public InitialConfiguration populate(int individualCount, long seed) {
+        if (individualCount > roomCells.size()) {
+            throw new IllegalArgumentException("Cannot place " + individualCount + " individuals on "
+                    + roomCells.size() + " cells.");
+        }
+        List<EvacCell> positions = new ArrayList<>(roomCells);
+        Collections.shuffle(positions, new Random(seed));
+
+        IndividualBuilder individualBuilder = new IndividualBuilder();
+        List<Individual> individuals = new ArrayList<>(individualCount);
+        Map<Individual, EvacCellInterface> startPositions = new HashMap<>();
+        for (int i = 0; i < individualCount; ++i) {
+            Individual individual = individualBuilder.build();
+            individuals.add(individual);
+            startPositions.put(individual, positions.get(i));
+        }
+        return new InitialConfiguration(cellularAutomaton, individuals, startPositions);
+    }
+
+    public MultiFloorEvacuationCellularAutomaton getCellularAutomaton() {
+        return cellularAutomaton;
+    }
+
+    /**
+     * Returns the number of cells in the building, including the exit cells.
+     *
+     * @return the number of cells in the building
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+}
@@ -0,0 +1,92 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm;
+
+import java.util.List;
+import java.util.Map;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.EvacuationCellularAutomaton;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.InitialConfiguration;
+import org.zet.cellularautomaton.algorithm.parameter.ParameterSet;
+import org.zet.cellularautomaton.algorithm.parameter.SimpleParameterSet;
+import org.zet.cellularautomaton.algorithm.rule.EvacuateIndividualsRule;
+import org.zet.cellularautomaton.algorithm.rule.ReactionRuleOnePerson;
+import org.zet.cellularautomaton.algorithm.rule.SaveIndividualsRule;
+import org.zet.cellularautomaton.algorithm.rule.WaitingMovementRule;
+
+/**
+ * An evacuation simulation problem for benchmarks. In contrast to {@link EvacuationSimulationProblemImpl} the rule set
+ * and parameter set are fixed and not read from the global property container. The rules resemble a typical setup
+ * with reaction, movement, saving and evacuation of individuals.
+ */
+public class BenchmarkProblem implements EvacuationSimulationProblem {
+
+    private final InitialConfiguration initialConfiguration;
+    private final EvacuationRuleSet ruleSet = new BenchmarkRuleSet();
+    private final ParameterSet parameterSet = new SimpleParameterSet();
+    private final int stepLimit;
+
+    public BenchmarkProblem(InitialConfiguration initialConfiguration, int stepLimit) {
+        this.initialConfiguration = initialConfiguration;
+        this.stepLimit = stepLimit;
+    }
+
+    private static class BenchmarkRuleSet extends EvacuationRuleSet {
+
+        BenchmarkRuleSet() {
+            add(new ReactionRuleOnePerson(), false, true);
+            add(new WaitingMovementRule(), false, true);
+            add(new SaveIndividualsRule(), false, true);
+            add(new EvacuateIndividualsRule(), false, true);
+        }
+    }
+
+    @Override
+    public EvacuationCellularAutomaton getCellularAutomaton() {
+        return initialConfiguration.getCellularAutomaton();
+    }
+
+    @Override
+    public ParameterSet getParameterSet() {
+        return parameterSet;
+    }
+
+    @Override
+    public List<Individual> getIndividuals() {
+        return initialConfiguration.getIndividuals();
+    }
+
+    @Override
+    public EvacuationRuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    @Override
+    public int getEvacuationStepLimit() {
+        return stepLimit;
+    }
+
+    @Override
+    public Map<Individual, EvacCellInterface> individualStartPositions() {
+        return initialConfiguration.getIndividualStartPositions();
+    }
+
+    @Override
+    public InitialConfiguration getInitialConfiguration() {
+        return initialConfiguration;
+    }
+}
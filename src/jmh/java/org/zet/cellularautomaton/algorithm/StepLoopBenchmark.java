@@ -0,0 +1,133 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zet.cellularautomaton.SyntheticBuilding;
+
+/**
+ * Measures a single simulation step of the {@link EvacuationCellularAutomatonAlgorithm}, the
+ * {@link SwapCellularAutomaton} and the {@link ParallelUpdateCellularAutomaton} on {@link SyntheticBuilding synthetic
+ * buildings}. The primary result is the time of a complete step, the secondary result {@code individualSteps}
+ * normalizes the time by the number of individuals that were still in the simulation at the beginning of the step,
+ * i.e. it is given in ns per individual-step. The allocation rate is reported when the benchmark is run with the gc
+ * profiler ({@code -prof gc}).
+ *
+ * The scenarios are given as {@code cells:individuals}. If all individuals are evacuated the simulation is set up
+ * again outside of the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx8g"})
+public class StepLoopBenchmark {
+
+    private static final long SEED = 42;
+    /** The time limit in seconds, large enough such that all individuals can be evacuated. */
+    private static final int STEP_LIMIT = 1_000_000;
+
+    @Param({"default", "swap", "parallel"})
+    public String algorithm;
+
+    @Param({"10000:1000", "100000:1000", "100000:10000", "1000000:10000", "1000000:100000"})
+    public String scenario;
+
+    private int cellCount;
+    private int individualCount;
+    private EvacuationCellularAutomatonAlgorithm simulation;
+    private long run;
+
+    /**
+     * Counts the individual-steps performed during an iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class IndividualSteps {
+
+        public long individualSteps;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            individualSteps = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        Logger root = Logger.getLogger("");
+        root.setLevel(java.util.logging.Level.WARNING);
+        for (Handler handler : root.getHandlers()) {
+            handler.setLevel(java.util.logging.Level.WARNING);
+        }
+        String[] parts = scenario.split(":");
+        cellCount = Integer.parseInt(parts[0]);
+        individualCount = Integer.parseInt(parts[1]);
+        setUpSimulation();
+    }
+
+    /**
+     * Restarts the simulation if all individuals have left the building. A fresh building is used, because the cells
+     * of the previous run are still occupied by dead individuals.
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        if (simulation.isFinished()) {
+            setUpSimulation();
+        }
+    }
+
+    private void setUpSimulation() {
+        switch (algorithm) {
+            case "swap":
+                simulation = new SwapCellularAutomaton();
+                break;
+            case "parallel":
+                simulation = new ParallelUpdateCellularAutomaton(Runtime.getRuntime().availableProcessors(), 0, SEED);
+                simulation.setRecordActions(false);
+                break;
+            default:
+                simulation = new EvacuationCellularAutomatonAlgorithm();
+                simulation.setRecordActions(false);
+        }
+        SyntheticBuilding building = new SyntheticBuilding(cellCount);
+        simulation.setProblem(new BenchmarkProblem(building.populate(individualCount, SEED + run++), STEP_LIMIT));
+        simulation.initialize();
+    }
+
+    @Benchmark
+    public EvacuationCellularAutomatonAlgorithm step(IndividualSteps counter) {
+        counter.individualSteps += simulation.getEvacuationState().getRemainingIndividualCount();
+        simulation.performStep();
+        return simulation;
+    }
+}
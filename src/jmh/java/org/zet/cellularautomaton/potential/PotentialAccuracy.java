@@ -0,0 +1,74 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.Collection;
+import org.zet.cellularautomaton.EvacCell;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton.EvacuationCellularAutomatonBuilder;
+import org.zet.cellularautomaton.RoomCell;
+import org.zet.cellularautomaton.RoomImpl;
+import org.zetool.common.algorithm.AbstractAlgorithm;
+
+/**
+ * Compares the accuracy of the {@link StaticPotentialMethod static potential methods}. An open square room with a
+ * single exit cell in a corner is used, thus the exact travel time to the exit is proportional to the euclidean
+ * distance of the cell centers. For each method the mean and maximal relative error of the potential is printed.
+ * Run with the benchmark class path, optionally passing the side length of the room:
+ * <pre>
+ * java -cp ... org.zet.cellularautomaton.potential.PotentialAccuracy 200
+ * </pre>
+ */
+public class PotentialAccuracy {
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        RoomImpl room = new RoomImpl(side, side, 0, 0, 0);
+        for (int x = 0; x < side; ++x) {
+            for (int y = 0; y < side; ++y) {
+                room.setCell(x == 0 && y == 0 ? new ExitCell(1, x, y) : new RoomCell(x, y));
+            }
+        }
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        builder.addRoom(room);
+        CellGraph graph = CellGraph.of(builder.getRooms());
+        Collection<ExitCell> exitCluster = builder.getExits().get(0).getExitCluster();
+
+        System.out.println(String.format("%-22s %14s %14s", "method", "mean error", "max error"));
+        for (StaticPotentialMethod method : StaticPotentialMethod.values()) {
+            AbstractAlgorithm<Collection<ExitCell>, ? extends Potential> algorithm = method.createAlgorithm(graph);
+            algorithm.setProblem(exitCluster);
+            Potential potential = algorithm.call();
+
+            double errorSum = 0;
+            double maxError = 0;
+            int count = 0;
+            for (EvacCell cell : room.getAllCells()) {
+                if (cell.getX() == 0 && cell.getY() == 0) {
+                    continue;
+                }
+                double exact = 10 * Math.hypot(cell.getX(), cell.getY());
+                double error = Math.abs(potential.getPotentialDouble(cell) - exact) / exact;
+                errorSum += error;
+                maxError = Math.max(maxError, error);
+                count++;
+            }
+            System.out.println(String.format("%-22s %13.3f%% %13.3f%%", method, 100 * errorSum / count,
+                    100 * maxError));
+        }
+    }
+}
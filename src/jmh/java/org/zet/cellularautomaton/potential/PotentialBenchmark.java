@@ -0,0 +1,86 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton;
+import org.zet.cellularautomaton.SyntheticBuilding;
+
+/**
+ * Measures the computation of the static potential for the exit of a
+ * {@link SyntheticBuilding synthetic building}. The building is generated once per trial; the time to build the
+ * {@link CellGraph} is not included, as the graph is shared by the potentials of all exits. The accuracy of the
+ * algorithms is compared by {@link PotentialAccuracy}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class PotentialBenchmark {
+
+    @Param({"10000", "50000"})
+    public int cells;
+
+    private Collection<ExitCell> exitCluster;
+    private WavefrontPotentialAlgorithm wavefront;
+    private DijkstraPotentialAlgorithm dijkstra;
+    private DijkstraPotentialAlgorithm dijkstraBucketQueue;
+
+    @Setup
+    public void setUp() {
+        MultiFloorEvacuationCellularAutomaton ca = new SyntheticBuilding(cells).getCellularAutomaton();
+        exitCluster = ca.getExits().get(0).getExitCluster();
+        CellGraph graph = CellGraph.of(ca.getRooms());
+        wavefront = new WavefrontPotentialAlgorithm(graph);
+        dijkstra = new DijkstraPotentialAlgorithm(graph);
+        dijkstraBucketQueue = DijkstraPotentialAlgorithm.withBucketQueue(graph);
+    }
+
+    @Benchmark
+    public Potential potentialAlgorithm() {
+        return new PotentialAlgorithm().createStaticPotential(exitCluster);
+    }
+
+    @Benchmark
+    public Potential wavefrontPotentialAlgorithm() {
+        return wavefront.createStaticPotential(exitCluster);
+    }
+
+    @Benchmark
+    public Potential dijkstraPotentialAlgorithm() {
+        return dijkstra.createStaticPotential(exitCluster);
+    }
+
+    @Benchmark
+    public Potential dijkstraBucketQueuePotentialAlgorithm() {
+        return dijkstraBucketQueue.createStaticPotential(exitCluster);
+    }
+}
@@ -18,6 +18,7 @@ package evacuationplan;
 import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.algorithm.state.PropertyAccess;
+import org.zet.cellularautomaton.potential.Potential;
 import org.zet.cellularautomaton.potential.StaticPotential;
 
 /**
@@ -31,14 +32,27 @@ public class EvacPotential extends StaticPotential {
     CellularAutomatonDirectionChecker checker;
     PropertyAccess es;
 
-    public EvacPotential(StaticPotential sp, Individual i, CellularAutomatonDirectionChecker checker) {
+    /**
+     * Copies the values of a potential. The exit cells, attractivity, name and id are only copied from a
+     * {@link StaticPotential}.
+     *
+     * @param potential the potential that is copied
+     * @param i the individual that uses the potential
+     * @param checker decides whether the individual can pass between cells
+     */
+    public EvacPotential(Potential potential, Individual i, CellularAutomatonDirectionChecker checker) {
         this.ind = i;
         this.checker = checker;
-        sp.getMappedCells().stream().forEach(c -> setPotential(c, sp.getPotential(c)));
-        setAssociatedExitCells(sp.getAssociatedExitCells());
-        setAttractivity(sp.getAttractivity());
-        setName(sp.getName());
-        id = sp.getID();
+        for (EvacCellInterface c : potential) {
+            setPotential(c, potential.getPotential(c));
+        }
+        if (potential instanceof StaticPotential) {
+            StaticPotential sp = (StaticPotential) potential;
+            setAssociatedExitCells(sp.getAssociatedExitCells());
+            setAttractivity(sp.getAttractivity());
+            setName(sp.getName());
+            id = sp.getID();
+        }
     }
 
     public void setPropertyAccess(PropertyAccess es) {
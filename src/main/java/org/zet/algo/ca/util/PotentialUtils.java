@@ -34,11 +34,11 @@ public class PotentialUtils {
     }
 
     /**
-     * This method merges {@link StaticPotential}s into a new one. The new potential is calculated for each cell by
-     * taking the minimum over all given static potentials. The attractivity of the new static potential is the average
-     * over all attractivity values given by the specified static potentials to merge.
+     * This method merges {@link Potential}s into a new {@link StaticPotential}. The new potential is calculated for each
+     * cell by taking the minimum over all given potentials. The attractivity of the new static potential is the average
+     * over all attractivity values given by the static potentials to merge, other potentials count as attractivity 0.
      *
-     * @param potentialsToMerge Contains an ArrayList with the StaticPotential object to merge
+     * @param potentialsToMerge Contains an ArrayList with the potentials to merge
      * @return the new potential
      */
     public static <T extends Potential> Potential mergePotentials(Collection<T> potentialsToMerge) {
@@ -125,6 +125,7 @@ public abstract class BaseTeleportCell<T> extends EvacCell implements Cloneable
     protected void addTargetSimple(T target) {
         if (!teleportTargets.contains(target)) {
             teleportTargets.add(target);
+            invalidateNeighbours();
         }
     }
 }
@@ -163,6 +163,7 @@ public class DoorCell extends BaseTeleportCell<DoorCell> {
             }
         } else {
             teleportTargets.add(door);
+            invalidateNeighbours();
         }
     }
 
@@ -175,5 +176,6 @@ public class DoorCell extends BaseTeleportCell<DoorCell> {
         if (this.teleportTargets.remove(door) == false) {
             throw new IllegalArgumentException("The door you tried to remove is not connected to this cell.");
         }
+        invalidateNeighbours();
     }
 }
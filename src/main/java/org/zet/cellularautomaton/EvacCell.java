@@ -19,7 +19,9 @@ import org.zetool.common.util.Direction8;
 import org.zetool.common.util.Level;
 import org.zetool.simulation.cellularautomaton.SquareCell;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.List;
@@ -49,6 +51,12 @@ public abstract class EvacCell extends SquareCell<EvacuationCellState> implement
     protected Map<Direction8, Level> levels;
     /** The time up to which the cell is blocked by an individuum (even if it is no longer set to the cell). */
     protected double occupiedUntil = 0;
+    /** The dense index of the cell in its cellular automaton. */
+    private int id = NO_ID;
+    /** The cached reachable neighbours, {@code null} if they have to be computed. */
+    private volatile CachedNeighbours passableNeighbours;
+    /** The cached direct neighbours, {@code null} if they have to be computed. */
+    private volatile CachedNeighbours directNeighbours;
 
     /**
      * Constructor defining the values of individual and speedFactor.
@@ -131,33 +139,86 @@ public abstract class EvacCell extends SquareCell<EvacuationCellState> implement
     }
 
     /**
-     * Returns all existing direct-neighbour-cells that are reachable of this cell
+     * Returns all existing direct-neighbour-cells that are reachable of this cell. If the cell belongs to a
+     * {@link RoomImpl} the list is computed once and cached until the bounds of the cell or the cells of the room
+     * change. The returned list is unmodifiable.
      *
      * @return ArrayList of direct-neighbour-cells of "cell"
      */
     @Override
     public List<EvacCellInterface> getNeighbours() {
-        return getNeighbours(true, false);
+        int version = neighbourCacheVersion();
+        if (version < 0) {
+            return getNeighbours(true, false);
+        }
+        CachedNeighbours cached = passableNeighbours;
+        if (cached == null || cached.version != version) {
+            cached = new CachedNeighbours(version, getNeighbours(true, false));
+            passableNeighbours = cached;
+        }
+        return cached.neighbours;
     }
 
     /**
-     * Returns all existing direct-neighbour-cells cell (even those that are not reachable).
+     * Returns all existing direct-neighbour-cells cell (even those that are not reachable). The returned collection is
+     * unmodifiable.
      *
      * @return ArrayList of direct-neighbour-cells of "cell"
      */
     @Override
     public Collection<EvacCellInterface> getDirectNeighbors() {
-        return getNeighbours(false, false);
+        int version = neighbourCacheVersion();
+        if (version < 0) {
+            return getNeighbours(false, false);
+        }
+        CachedNeighbours cached = directNeighbours;
+        if (cached == null || cached.version != version) {
+            cached = new CachedNeighbours(version, getNeighbours(false, false));
+            directNeighbours = cached;
+        }
+        return cached.neighbours;
     }
 
     /**
-     * Returns a list of all free neighbour cells.
+     * Returns a list of all free neighbour cells. If none of the reachable neighbours is occupied, the unmodifiable
+     * list of {@link #getNeighbours() reachable neighbours} is returned without creating a new list.
      *
      * @return a list of all free neighbour cells
      */
     @Override
     public List<EvacCellInterface> getFreeNeighbours() {
-        return getNeighbours(true, true);
+        List<EvacCellInterface> neighbours = getNeighbours();
+        for (int i = 0; i < neighbours.size(); ++i) {
+            if (neighbours.get(i).isOccupied()) {
+                List<EvacCellInterface> free = new ArrayList<>(neighbours.size() - 1);
+                for (int j = 0; j < neighbours.size(); ++j) {
+                    if (!neighbours.get(j).isOccupied()) {
+                        free.add(neighbours.get(j));
+                    }
+                }
+                return free;
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * Returns the structure version of the room for which neighbours are cached. Neighbours are only cached for cells
+     * of a {@link RoomImpl} which reports changes of its cells.
+     *
+     * @return the structure version of the room, -1 if the neighbours have to be computed on each access
+     */
+    private int neighbourCacheVersion() {
+        return room instanceof RoomImpl ? ((RoomImpl) room).getStructureVersion() : -1;
+    }
+
+    /**
+     * Discards the cached neighbours. Must be called by subclasses whenever the result of
+     * {@link #getNeighbours(boolean, boolean)} changes for other reasons than the bounds or the cells of the room.
+     */
+    protected void invalidateNeighbours() {
+        passableNeighbours = null;
+        directNeighbours = null;
     }
 
     /**
@@ -199,11 +260,28 @@ public abstract class EvacCell extends SquareCell<EvacuationCellState> implement
      */
     final void setRoom(Room room) {
         this.room = room;
+        invalidateNeighbours();
 
         String s = ((room != null) ? room.getID() : "") + "-" + y + "-" + x;
         //hash = s.hashCode();
     }
 
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the dense index of the cell. This method can only be called by classes belonging to the same package. It
+     * should only be called by the {@link MultiFloorEvacuationCellularAutomaton.EvacuationCellularAutomatonBuilder}
+     * when the cell is added to a cellular automaton.
+     *
+     * @param id the index of the cell
+     */
+    final void setId(int id) {
+        this.id = id;
+    }
+
     /**
      * Specifies the level difference between this cell and the cell at the relative position {@code relPosition}.
      *
@@ -241,6 +319,7 @@ public abstract class EvacCell extends SquareCell<EvacuationCellState> implement
 
     private void internalSetUnPassable(Direction8 relPosition) {
         bounds.add(relPosition);
+        passableNeighbours = null;
     }
 
     /**
@@ -258,6 +337,7 @@ public abstract class EvacCell extends SquareCell<EvacuationCellState> implement
 
     private void internalSetPassable(Direction8 relPosition) {
         bounds.remove(relPosition);
+        passableNeighbours = null;
     }
 
     /**
@@ -460,6 +540,7 @@ public abstract class EvacCell extends SquareCell<EvacuationCellState> implement
         for (Direction8 bound : this.bounds) {
             aClone.bounds.add(bound);
         }
+        aClone.invalidateNeighbours();
 
         return aClone;
     }
@@ -474,4 +555,20 @@ public abstract class EvacCell extends SquareCell<EvacuationCellState> implement
     public Direction8 getRelative(EvacCellInterface c) {
         return Direction8.getDirection(c.getAbsoluteX() - getAbsoluteX(), c.getAbsoluteY() - getAbsoluteY());
     }
+
+    /**
+     * The neighbours of a cell computed for a structure version of its room. Instances are immutable, such that they
+     * can be shared between threads computing potentials concurrently.
+     */
+    private static final class CachedNeighbours {
+
+        private final int version;
+        private final List<EvacCellInterface> neighbours;
+
+        private CachedNeighbours(int version, List<EvacCellInterface> neighbours) {
+            this.version = version;
+            this.neighbours = Collections.unmodifiableList(
+                    Arrays.asList(neighbours.toArray(new EvacCellInterface[neighbours.size()])));
+        }
+    }
 }
@@ -27,6 +27,20 @@ import org.zetool.simulation.cellularautomaton.Cell;
  */
 public interface EvacCellInterface extends Cell<EvacuationCellState> {
 
+    /** The id of cells that do not belong to a cellular automaton. */
+    public static final int NO_ID = -1;
+
+    /**
+     * Returns the dense index of the cell within its cellular automaton. The cells of an automaton are numbered
+     * consecutively from {@code 0} to {@code n - 1} when they are added, where {@code n} is the number of cells. The
+     * id can be used to store per cell values in arrays instead of maps.
+     *
+     * @return the id of the cell or {@link #NO_ID} if the cell has not been added to a cellular automaton
+     */
+    default int getId() {
+        return NO_ID;
+    }
+
     /**
      * Returns all existing direct-neighbour-cells cell (even those that are not reachable).
      *
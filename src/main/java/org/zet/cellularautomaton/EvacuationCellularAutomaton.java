@@ -63,4 +63,22 @@ public interface EvacuationCellularAutomaton extends CellularAutomaton<EvacCellI
 
     public Potential minPotentialFor(EvacCellInterface c);
 
+    /**
+     * Returns the number of cells that have been indexed by the cellular automaton. The
+     * {@link EvacCellInterface#getId() ids} of the cells are the numbers between {@code 0} and
+     * {@code getCellCount() - 1}. If the cells are not indexed, {@code 0} is returned.
+     *
+     * @return the number of indexed cells
+     */
+    public int getCellCount();
+
+    /**
+     * Returns the cell with a given {@link EvacCellInterface#getId() id}.
+     *
+     * @param id the id of the cell
+     * @return the cell with the given id
+     * @throws IllegalArgumentException if no cell with the id exists
+     */
+    public EvacCellInterface getCell(int id);
+
 }
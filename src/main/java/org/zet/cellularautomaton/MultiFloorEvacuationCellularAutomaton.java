@@ -74,6 +74,8 @@ public class MultiFloorEvacuationCellularAutomaton implements EvacuationCellular
      */
     private Potential safePotential;
     private final Collection<Room> rooms = new LinkedList<>();
+    /** All cells of the cellular automaton, indexed by their {@link EvacCellInterface#getId() id}. */
+    private final EvacCell[] cells;
 
     /**
      * Constructs a EvacuationCellularAutomaton object with empty default objects.
@@ -87,11 +89,13 @@ public class MultiFloorEvacuationCellularAutomaton implements EvacuationCellular
 
         staticPotentials = new HashMap<>();
         safePotential = new StaticPotential();
+        cells = new EvacCell[0];
     }
 
     private MultiFloorEvacuationCellularAutomaton(Map<Integer, RoomCollection> floorRoomMapping, Map<Integer, String> floorNames,
-            List<Exit> exits, Map<Exit, Potential> potentials, Potential safePotential) {
+            List<Exit> exits, Map<Exit, Potential> potentials, Potential safePotential, EvacCell[] cells) {
         this.floorRoomMapping = floorRoomMapping;
+        this.cells = cells;
         this.floorNames = floorNames;
         this.exits = exits;
         neighborhood = null;
@@ -144,6 +148,33 @@ public class MultiFloorEvacuationCellularAutomaton implements EvacuationCellular
         return count;
     }
 
+    /**
+     * Returns the number of cells that have been indexed by the cellular automaton. The
+     * {@link EvacCellInterface#getId() ids} of the cells are the numbers between {@code 0} and
+     * {@code getCellCount() - 1}.
+     *
+     * @return the number of indexed cells
+     */
+    @Override
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    /**
+     * Returns the cell with a given {@link EvacCellInterface#getId() id}.
+     *
+     * @param id the id of the cell
+     * @return the cell with the given id
+     * @throws IllegalArgumentException if no cell with the id exists
+     */
+    @Override
+    public EvacCell getCell(int id) {
+        if (id < 0 || id >= cells.length) {
+            throw new IllegalArgumentException("No cell with id " + id + " exists.");
+        }
+        return cells[id];
+    }
+
     /**
      * Returns an ArrayList of all rooms of the cellular automaton
      *
@@ -266,7 +297,8 @@ public class MultiFloorEvacuationCellularAutomaton implements EvacuationCellular
         private final Map<Integer, String> floorNames = new HashMap<>();
         private final List<Exit> exits = new LinkedList<>();
         private final Map<Exit, Potential> potentials = new HashMap<>();
-        private StaticPotential safePotential = new StaticPotential();
+        private Potential safePotential = new StaticPotential();
+        private final List<EvacCell> cells = new ArrayList<>();
 
         /**
          * Adds a new floor.
@@ -293,6 +325,7 @@ public class MultiFloorEvacuationCellularAutomaton implements EvacuationCellular
         public final Collection<Exit> addRoom(Room room) {
             checkValidity(room.getFloor(), room);
             floorRoomMapping.get(room.getFloor()).addMatrix(room);
+            indexCells(room);
             Collection<Exit> newExits = computeAndAddExits(room);
             exits.addAll(newExits);
             return newExits;
@@ -302,6 +335,7 @@ public class MultiFloorEvacuationCellularAutomaton implements EvacuationCellular
             checkValidity(room.getFloor(), room);
             floorRoomMapping.get(room.getFloor()).addMatrix(room);
             checkValidity(room, exits);
+            indexCells(room);
             this.exits.addAll(exits);
         }
 
@@ -332,6 +366,31 @@ public class MultiFloorEvacuationCellularAutomaton implements EvacuationCellular
             }
         }
 
+        /**
+         * Assigns consecutive {@link EvacCellInterface#getId() ids} to the cells of a new room. The ids are continued
+         * from the rooms that have been added before, thus after all rooms are added the ids are dense. Ids are
+         * assigned when the room is added, such that potentials can already be computed using the ids before the
+         * cellular automaton is built.
+         *
+         * @param room the new room
+         */
+        private void indexCells(Room room) {
+            for (EvacCell cell : room.getAllCells()) {
+                cell.setId(cells.size());
+                cells.add(cell);
+            }
+        }
+
+        /**
+         * Returns the number of cells that have been indexed so far. Arrays of this size can store values for each
+         * cell of the rooms that have been added.
+         *
+         * @return the number of indexed cells
+         */
+        public int getCellCount() {
+            return cells.size();
+        }
+
         /**
          * Checks that all cells of the exit cluster are contained in the room.
          *
@@ -406,7 +465,17 @@ public class MultiFloorEvacuationCellularAutomaton implements EvacuationCellular
         }
 
         public MultiFloorEvacuationCellularAutomaton build() {
-            return new MultiFloorEvacuationCellularAutomaton(floorRoomMapping, floorNames, exits, potentials, safePotential);
+            return new MultiFloorEvacuationCellularAutomaton(floorRoomMapping, floorNames, exits, potentials,
+                    safePotential, cells.toArray(new EvacCell[cells.size()]));
+        }
+
+        /**
+         * Returns the exits of all rooms that have been added so far.
+         *
+         * @return the exits of all rooms that have been added
+         */
+        public List<Exit> getExits() {
+            return Collections.unmodifiableList(exits);
         }
 
         public void setPotentialFor(Exit exit, Potential potential) {
@@ -418,7 +487,7 @@ public class MultiFloorEvacuationCellularAutomaton implements EvacuationCellular
             return () -> new IterableIterator<>(cir);
         }
 
-        public void setSafePotential(StaticPotential safePotential) {
+        public void setSafePotential(Potential safePotential) {
             this.safePotential = Objects.requireNonNull(safePotential);
         }
     }
@@ -91,6 +91,16 @@ public class RoomImpl extends GeometricCellMatrix<EvacCell> implements Room {
         cell.setRoom(this);
     }
 
+    /**
+     * Returns a number that changes whenever cells are added to or removed from the room. Cells use it to detect that
+     * their cached neighbours are outdated.
+     *
+     * @return the structure version of the room
+     */
+    int getStructureVersion() {
+        return getModificationCount();
+    }
+
     /**
      * Returns the setAlarmed status of this room.
      *
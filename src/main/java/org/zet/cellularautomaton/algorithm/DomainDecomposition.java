@@ -0,0 +1,129 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.zet.cellularautomaton.BaseTeleportCell;
+import org.zet.cellularautomaton.EvacCell;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.EvacuationCellularAutomaton;
+import org.zet.cellularautomaton.Room;
+
+/**
+ * A partition of the rooms of a cellular automaton into domains. Individuals can only move between rooms using
+ * {@link BaseTeleportCell teleport cells}, e.g. {@link org.zet.cellularautomaton.DoorCell doors}. Teleport cells that
+ * are connected to a cell in another domain are the boundary of their domain, all other cells can only be reached from
+ * within their own domain.
+ */
+public final class DomainDecomposition {
+
+    private final Map<Room, Integer> domains;
+    private final int domainCount;
+    private final Set<EvacCellInterface> boundary;
+
+    private DomainDecomposition(Map<Room, Integer> domains, int domainCount) {
+        this.domains = domains;
+        this.domainCount = domainCount;
+        this.boundary = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Room room : domains.keySet()) {
+            for (EvacCell cell : room.getAllCells()) {
+                if (cell instanceof BaseTeleportCell && isConnectedToOtherDomain((BaseTeleportCell<?>) cell)) {
+                    boundary.add(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a decomposition with one domain for each floor.
+     *
+     * @param ca the cellular automaton
+     * @return the decomposition by floors
+     */
+    public static DomainDecomposition byFloor(EvacuationCellularAutomaton ca) {
+        return by(ca, Room::getFloor);
+    }
+
+    /**
+     * Creates a decomposition with one domain for each room.
+     *
+     * @param ca the cellular automaton
+     * @return the decomposition by rooms
+     */
+    public static DomainDecomposition byRoom(EvacuationCellularAutomaton ca) {
+        return by(ca, Function.identity());
+    }
+
+    /**
+     * Creates a decomposition where rooms with the same key are in the same domain. The domains are numbered in the
+     * order the keys first occur in the rooms of the cellular automaton.
+     *
+     * @param ca the cellular automaton
+     * @param key maps a room to the key of its domain
+     * @return the decomposition
+     */
+    public static DomainDecomposition by(EvacuationCellularAutomaton ca, Function<Room, ?> key) {
+        Map<Object, Integer> domainOfKey = new HashMap<>();
+        Map<Room, Integer> domains = new IdentityHashMap<>();
+        for (Room room : ca.getRooms()) {
+            domains.put(room, domainOfKey.computeIfAbsent(key.apply(room), k -> domainOfKey.size()));
+        }
+        return new DomainDecomposition(domains, domainOfKey.size());
+    }
+
+    private boolean isConnectedToOtherDomain(BaseTeleportCell<?> cell) {
+        for (int i = 0; i < cell.targetCount(); ++i) {
+            if (domainOf((EvacCellInterface) cell.getTarget(i)) != domainOf(cell)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getDomainCount() {
+        return domainCount;
+    }
+
+    /**
+     * Returns the domain of a cell.
+     *
+     * @param cell the cell
+     * @return the index of the domain, between {@code 0} and {@code getDomainCount() - 1}
+     * @throws IllegalArgumentException if the room of the cell is not contained in the decomposition
+     */
+    public int domainOf(EvacCellInterface cell) {
+        Integer domain = domains.get(cell.getRoom());
+        if (domain == null) {
+            throw new IllegalArgumentException("Cell " + cell + " is not contained in a domain.");
+        }
+        return domain;
+    }
+
+    /**
+     * Decides whether a cell can be reached from another domain.
+     *
+     * @param cell the cell
+     * @return {@code true} if the cell is a teleport cell connected to a cell of another domain
+     */
+    public boolean isBoundary(EvacCellInterface cell) {
+        return boundary.contains(cell);
+    }
+}
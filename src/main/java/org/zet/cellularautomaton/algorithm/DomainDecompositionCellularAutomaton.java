@@ -0,0 +1,205 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm;
+
+import static org.zetool.common.util.Helper.in;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.EvacuationCellularAutomaton;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.algorithm.computation.DefaultComputation;
+import org.zet.cellularautomaton.algorithm.rule.EvacuationRule;
+import org.zet.cellularautomaton.algorithm.state.DomainStateController;
+import org.zet.cellularautomaton.random.RandomSource;
+import org.zet.cellularautomaton.results.Action;
+
+/**
+ * An evacuation cellular automaton whose rooms are partitioned into {@link DomainDecomposition domains} that are
+ * stepped concurrently. Each step consists of three phases:
+ * <ol>
+ * <li>The loop rules are executed for the individuals inside of each domain, one task per domain. Each domain has its
+ * own rule instances created by a factory, its own random source split from the random source of the simulation and a
+ * {@link DomainStateController} that confines the movements to the domain and collects the changes of the shared
+ * state.</li>
+ * <li>The collected changes of the domains are merged in the order of the domains.</li>
+ * <li>The individuals standing on boundary cells, i.e. on doors to another domain, are stepped sequentially with the
+ * rules of the problem, as in the sequential algorithm. Only these individuals can enter another domain.</li>
+ * </ol>
+ * A domain only reads and writes its own cells during the first phase, the shared state is only read. The rules of a
+ * domain therefore see the lists of safe, evacuated and dead individuals and the dynamic potential as they were at the
+ * beginning of the step. The result only depends on the random source and the decomposition, not on the number of
+ * threads.
+ */
+public class DomainDecompositionCellularAutomaton extends EvacuationCellularAutomatonAlgorithm {
+
+    /** Creates the rule instances of a domain. */
+    private final Supplier<? extends EvacuationRuleSet> ruleSets;
+    private final Function<EvacuationCellularAutomaton, DomainDecomposition> partitioning;
+    private final int parallelism;
+    private final BoundaryOrder boundary;
+    private DomainDecomposition decomposition;
+    private final List<Domain> domains = new ArrayList<>();
+    private ForkJoinPool pool;
+
+    /**
+     * Creates a domain decomposition stepping the floors concurrently using as many threads as processors are
+     * available.
+     *
+     * @param ruleSets creates new rule instances for each domain, the rules must equal the rules of the problem
+     */
+    public DomainDecompositionCellularAutomaton(Supplier<? extends EvacuationRuleSet> ruleSets) {
+        this(ruleSets, DomainDecomposition::byFloor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a domain decomposition with the given partitioning and number of threads.
+     *
+     * @param ruleSets creates new rule instances for each domain, the rules must equal the rules of the problem
+     * @param partitioning creates the domains for the cellular automaton of the problem
+     * @param parallelism the number of threads
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public DomainDecompositionCellularAutomaton(Supplier<? extends EvacuationRuleSet> ruleSets,
+            Function<EvacuationCellularAutomaton, DomainDecomposition> partitioning, int parallelism) {
+        this(ruleSets, partitioning, parallelism, new BoundaryOrder());
+    }
+
+    private DomainDecompositionCellularAutomaton(Supplier<? extends EvacuationRuleSet> ruleSets,
+            Function<EvacuationCellularAutomaton, DomainDecomposition> partitioning, int parallelism,
+            BoundaryOrder boundary) {
+        super(boundary);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive, was " + parallelism);
+        }
+        this.ruleSets = Objects.requireNonNull(ruleSets, "Rule set factory must not be null.");
+        this.partitioning = Objects.requireNonNull(partitioning, "Partitioning must not be null.");
+        this.parallelism = parallelism;
+        this.boundary = boundary;
+    }
+
+    @Override
+    protected void initialize() {
+        super.initialize();
+        decomposition = partitioning.apply(getProblem().getCellularAutomaton());
+        domains.clear();
+        for (int d = 0; d < decomposition.getDomainCount(); ++d) {
+            domains.add(new Domain(d, es.getRandomSource().split()));
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+    }
+
+    @Override
+    protected void performStep() {
+        boundary.individuals.clear();
+        domains.forEach(domain -> domain.individuals.clear());
+        for (Individual i : es.getRemainingIndividuals()) {
+            EvacCellInterface cell = es.propertyFor(i).getCell();
+            if (decomposition.isBoundary(cell)) {
+                boundary.individuals.add(i);
+            } else {
+                domains.get(decomposition.domainOf(cell)).individuals.add(i);
+            }
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(domains.size());
+        for (Domain domain : domains) {
+            if (!domain.individuals.isEmpty()) {
+                tasks.add(pool.submit(domain::step));
+            }
+        }
+        tasks.forEach(ForkJoinTask::join);
+        for (Domain domain : domains) {
+            domain.controller.merge();
+            addLastStepActions(domain.actions);
+            domain.actions.clear();
+        }
+        super.performStep();
+    }
+
+    @Override
+    protected EvacuationSimulationResult terminate() {
+        pool.shutdown();
+        pool = null;
+        return super.terminate();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public String toString() {
+        return "DomainDecompositionCellularAutomaton";
+    }
+
+    /**
+     * The rules, the random source and the controller of a domain together with the individuals inside of the domain
+     * in the current step.
+     */
+    private class Domain {
+
+        private final DomainStateController controller;
+        private final EvacuationRuleSet ruleSet;
+        private final List<Individual> individuals = new ArrayList<>();
+        private final List<Action> actions = new ArrayList<>();
+
+        private Domain(int index, RandomSource random) {
+            controller = new DomainStateController(es, ec, cell -> decomposition.domainOf(cell) == index);
+            ruleSet = Objects.requireNonNull(ruleSets.get(), "Rule set must not be null.");
+            DefaultComputation c = new DefaultComputation(es, getProblem().getParameterSet(), random);
+            for (EvacuationRule<?> r : ruleSet) {
+                initRule(r, c, random, controller);
+            }
+        }
+
+        /**
+         * Executes the loop rules for the individuals inside of the domain.
+         */
+        private void step() {
+            for (Individual i : individuals) {
+                for (EvacuationRule r : in(ruleSet.loopIterator())) {
+                    Optional<Action> a = r.execute(es.propertyFor(i).getCell());
+                    a.ifPresent(action -> handleAction(action, controller, actions));
+                }
+            }
+        }
+    }
+
+    /**
+     * Orders the individuals for the sequential phase of a step. Only the individuals standing on a boundary cell at
+     * the beginning of the step are executed sequentially, all others have already been executed by their domain.
+     */
+    private static class BoundaryOrder implements Function<List<Individual>, Iterator<Individual>> {
+
+        private final List<Individual> individuals = new ArrayList<>();
+
+        @Override
+        public Iterator<Individual> apply(List<Individual> remaining) {
+            return individuals.iterator();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import org.zet.cellularautomaton.random.SplittableRandomSource;
+import org.zet.cellularautomaton.statistic.CAStatistic;
+import org.zet.cellularautomaton.statistic.MultipleCycleCAStatistic;
+
+/**
+ * Runs an ensemble of independent simulations concurrently, one for each seed. The cells of the cellular automaton
+ * and the rules carry the state of a simulation, thus each replication obtains a fresh problem instance from a
+ * factory and runs it with its own algorithm instance. Each replication draws its random numbers from a
+ * {@link SplittableRandomSource} seeded with the seed of the replication, thus the result of a replication only
+ * depends on its seed and not on the other replications or the number of threads. The statistics of the replications
+ * are collected as cycles of a {@link MultipleCycleCAStatistic} in the order of the seeds.
+ */
+public class EnsembleRunner {
+
+    /** Creates an independent problem instance for a seed. */
+    private final LongFunction<? extends EvacuationSimulationProblem> problemFactory;
+    /** Creates a new algorithm instance for each replication. */
+    private final Supplier<? extends EvacuationCellularAutomatonAlgorithm> algorithmFactory;
+    /** The number of replications that are run concurrently. */
+    private final int parallelism;
+
+    /**
+     * Initializes the runner with the default {@link EvacuationCellularAutomatonAlgorithm} using as many threads as
+     * processors are available. The actions of the replications are not recorded.
+     *
+     * @param problemFactory creates an independent problem instance for each seed
+     */
+    public EnsembleRunner(LongFunction<? extends EvacuationSimulationProblem> problemFactory) {
+        this(problemFactory, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Initializes the runner with the default {@link EvacuationCellularAutomatonAlgorithm} and the parallelism. The
+     * actions of the replications are not recorded.
+     *
+     * @param problemFactory creates an independent problem instance for each seed
+     * @param parallelism the number of threads
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public EnsembleRunner(LongFunction<? extends EvacuationSimulationProblem> problemFactory, int parallelism) {
+        this(problemFactory, EnsembleRunner::withoutRecording, parallelism);
+    }
+
+    /**
+     * Initializes the runner with an algorithm and the parallelism.
+     *
+     * @param problemFactory creates an independent problem instance for each seed
+     * @param algorithmFactory creates a new algorithm instance for each replication
+     * @param parallelism the number of threads
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public EnsembleRunner(LongFunction<? extends EvacuationSimulationProblem> problemFactory,
+            Supplier<? extends EvacuationCellularAutomatonAlgorithm> algorithmFactory, int parallelism) {
+        this.problemFactory = Objects.requireNonNull(problemFactory, "Problem factory must not be null.");
+        this.algorithmFactory = Objects.requireNonNull(algorithmFactory, "Algorithm factory must not be null.");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive, was " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs one replication for each seed and collects the statistics. The problems created for different seeds must
+     * not share cells or rules.
+     *
+     * @param seeds the seeds of the replications
+     * @return the statistic containing one cycle for each seed, in the order of the seeds
+     */
+    public MultipleCycleCAStatistic run(List<Long> seeds) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<CAStatistic>> tasks = new ArrayList<>(seeds.size());
+            for (long seed : seeds) {
+                tasks.add(pool.submit(() -> runReplication(seed)));
+            }
+            CAStatistic[] cycles = new CAStatistic[tasks.size()];
+            for (int i = 0; i < cycles.length; ++i) {
+                cycles[i] = tasks.get(i).join();
+            }
+            return new MultipleCycleCAStatistic(cycles);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private CAStatistic runReplication(long seed) {
+        EvacuationSimulationProblem problem = problemFactory.apply(seed);
+        EvacuationCellularAutomatonAlgorithm algorithm = algorithmFactory.get();
+        algorithm.setProblem(problem);
+        algorithm.setRandomSource(new SplittableRandomSource(seed));
+        algorithm.runAlgorithm();
+        return new CAStatistic(algorithm.getStatisticResults());
+    }
+
+    private static EvacuationCellularAutomatonAlgorithm withoutRecording() {
+        EvacuationCellularAutomatonAlgorithm algorithm = new EvacuationCellularAutomatonAlgorithm();
+        algorithm.setRecordActions(false);
+        return algorithm;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+}
@@ -21,7 +21,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -40,6 +39,7 @@ import org.zet.cellularautomaton.algorithm.state.MutableEvacuationState;
 import org.zet.cellularautomaton.algorithm.state.EvacuationState;
 import org.zet.cellularautomaton.algorithm.state.EvacuationStateController;
 import org.zet.cellularautomaton.algorithm.state.EvacuationStateControllerInterface;
+import org.zet.cellularautomaton.random.RandomSource;
 import org.zet.cellularautomaton.results.Action;
 import org.zet.cellularautomaton.results.InconsistentPlaybackStateException;
 import org.zet.cellularautomaton.statistic.results.StoredCAStatisticResults;
@@ -68,7 +68,11 @@ public class EvacuationCellularAutomatonAlgorithm
     protected MutableEvacuationState es = new MutableEvacuationState(new MultiFloorEvacuationCellularAutomaton(),
             Collections.emptyList());
     protected EvacuationStateController ec = null;
-    private List<Action> lastStepActions = new LinkedList<>();
+    private List<Action> lastStepActions = new ArrayList<>();
+    /** Whether the actions of the simulation are handed to the listeners. */
+    private boolean recording = true;
+    /** The source of random numbers for the next simulation run. */
+    private RandomSource randomSource = RandomSource.global();
     
     public EvacuationCellularAutomatonAlgorithm() {
         this(DEFAULT_ORDER);
@@ -99,8 +103,30 @@ public class EvacuationCellularAutomatonAlgorithm
             }
         }
 
-        fireEvent(new EvacuationInitializationCompleteEvent(this, lastStepActions));
-        lastStepActions = new LinkedList<>();
+        es.takeDynamicPotentialDiff().ifPresent(lastStepActions::add);
+        fireEvent(new EvacuationInitializationCompleteEvent(this, takeLastStepActions()));
+    }
+
+    /**
+     * Sets whether the actions of the simulation are handed to the listeners of the
+     * {@link EvacuationInitializationCompleteEvent} and the {@link EvacuationStepCompleteEvent}s. By default, actions
+     * are recorded. Must be called before the simulation is initialized. If actions are not recorded, the movement
+     * rules change the state directly without creating actions and the events do not contain any actions.
+     *
+     * @param recordActions whether the actions are handed to the listeners
+     */
+    public void setRecordActions(boolean recordActions) {
+        recording = recordActions;
+    }
+
+    /**
+     * Sets the source of random numbers that is used by the state, the rules and the computation of the simulation
+     * run. By default the global random generator is used, which must not be shared by concurrent simulations.
+     *
+     * @param randomSource the random source
+     */
+    public void setRandomSource(RandomSource randomSource) {
+        this.randomSource = Objects.requireNonNull(randomSource, "Random source must not be null.");
     }
 
     public void setNeededTime(int i) {
@@ -110,28 +136,58 @@ public class EvacuationCellularAutomatonAlgorithm
     private EvacuationSimulationSpeed sp;
 
     private void initRulesAndState() {
-        es = new MutableEvacuationState(getProblem().getCellularAutomaton(), getProblem().getIndividuals());
+        es = new MutableEvacuationState(getProblem().getCellularAutomaton(), getProblem().getIndividuals(),
+                randomSource, getProblem().getParameterSet().dynamicPotentialMode());
+        sp = new EvacuationSimulationSpeed(getProblem().getParameterSet().getAbsoluteMaxSpeed());
+        int maxSteps = (int) (getProblem().getEvacuationStepLimit() * sp.getStepsPerSecond());
+        es.getStatisticWriter().setLevel(getProblem().getParameterSet().statisticLevel()
+                .forRun(getProblem().getIndividuals().size(), maxSteps));
+        if (getProblem().getParameterSet().recordDynamicPotentialDiffs()) {
+            es.recordDynamicPotentialDiffs();
+        }
         EvacuationCellularAutomaton eca = getProblem().getCellularAutomaton();
         for (Map.Entry<Individual, ? extends EvacCellInterface> e : getProblem().individualStartPositions().entrySet()) {
             es.propertyFor(e.getKey()).setCell(e.getValue());
             es.propertyFor(e.getKey()).setStaticPotential(eca.minPotentialFor(e.getValue()));
         }
         ec = new EvacuationStateController((MutableEvacuationState) es);
-        sp = new EvacuationSimulationSpeed(getProblem().getParameterSet().getAbsoluteMaxSpeed());
-        Computation c = new DefaultComputation(es, getProblem().getParameterSet());
+        Computation c = new DefaultComputation(es, getProblem().getParameterSet(), randomSource);
         for (EvacuationRule r : getProblem().getRuleSet()) {
-            r.setEvacuationState(es);
-            r.setEvacuationSimulationSpeed(sp);
-            r.setComputation(c);
+            initRule(r, c, randomSource, ec);
+        }
+        if (reorder instanceof RandomOrdering) {
+            ((RandomOrdering) reorder).setRandomSource(randomSource);
+        }
+        setMaxSteps(maxSteps);
+    }
+
+    /**
+     * Hands the state of the simulation run to a rule. The controller is only handed over if the actions are not
+     * recorded.
+     *
+     * @param r the rule
+     * @param c the computation used by the rule
+     * @param random the random source used by the rule
+     * @param controller the controller that changes the state on behalf of the rule
+     */
+    void initRule(EvacuationRule<?> r, Computation c, RandomSource random,
+            EvacuationStateControllerInterface controller) {
+        r.setEvacuationState(es);
+        r.setEvacuationSimulationSpeed(sp);
+        r.setComputation(c);
+        r.setRandomSource(random);
+        if (!recording) {
+            r.setEvacuationStateController(controller);
         }
-        setMaxSteps((int)(getProblem().getEvacuationStepLimit() * sp.getStepsPerSecond()));
     }
 
     @Override
     protected void performStep() {
         log.info("Perform step " + es.getTimeStep());
         super.performStep();
-        lastStepActions.forEach(a -> a.executeDelayed(es, ec));
+        for (int i = 0; i < lastStepActions.size(); ++i) {
+            lastStepActions.get(i).executeDelayed(es, ec);
+        }
         super.increaseStep();
         es.increaseStep();
 
@@ -142,8 +198,24 @@ public class EvacuationCellularAutomatonAlgorithm
         fireProgressEvent(getProgress(), String.format("%1$s von %2$s individuals evacuated.",
                 es.getInitialIndividualCount() - es.getRemainingIndividualCount(),
                 es.getInitialIndividualCount()));
-        fireEvent(new EvacuationStepCompleteEvent(this, getProgress(), lastStepActions));
-        lastStepActions = new LinkedList<>();
+        es.takeDynamicPotentialDiff().ifPresent(lastStepActions::add);
+        fireEvent(new EvacuationStepCompleteEvent(this, getProgress(), takeLastStepActions()));
+    }
+
+    /**
+     * Returns the actions of the last step for the listeners. The actions are handed over if they are recorded,
+     * otherwise the list is reused for the next step.
+     *
+     * @return the actions of the last step, or an empty list if actions are not recorded
+     */
+    private List<Action> takeLastStepActions() {
+        if (!recording) {
+            lastStepActions.clear();
+            return Collections.emptyList();
+        }
+        List<Action> actions = lastStepActions;
+        lastStepActions = new ArrayList<>();
+        return actions;
     }
 
     @Override
@@ -219,14 +291,34 @@ public class EvacuationCellularAutomatonAlgorithm
     }
 
     private void handleAction(Action a) {
-        lastStepActions.add(a);
+        handleAction(a, ec, lastStepActions);
+    }
+
+    /**
+     * Executes an action using a controller and collects it.
+     *
+     * @param a the action
+     * @param controller the controller that changes the state
+     * @param actions the actions of the current step
+     */
+    void handleAction(Action a, EvacuationStateControllerInterface controller, List<Action> actions) {
+        actions.add(a);
         try {
-            a.execute (es, ec);
+            a.execute(es, controller);
         } catch (InconsistentPlaybackStateException ex) {
             throw new AssertionError("Actions must always be directly executeable", ex);
         }
     }
 
+    /**
+     * Adds actions that have been executed outside of the rule loop to the actions of the current step.
+     *
+     * @param actions the executed actions
+     */
+    void addLastStepActions(List<Action> actions) {
+        lastStepActions.addAll(actions);
+    }
+
     /**
      * A simple iterator that iterates over all cells of the cellular automaton that contain an individual. The
      * iteration order equals the order of the individuals given.
@@ -34,6 +34,12 @@ public class EvacuationInitializationCompleteEvent extends AlgorithmProgressEven
         this.initializationActions = initializationActions;
     }
 
+    /**
+     * Returns the actions performed during the initialization. The actions are only contained if the algorithm
+     * records them, see {@link EvacuationCellularAutomatonAlgorithm#setRecordActions(boolean)}.
+     *
+     * @return an unmodifiable view of the actions
+     */
     public List<Action> getInitializationActions() {
         return Collections.unmodifiableList(initializationActions);
     }
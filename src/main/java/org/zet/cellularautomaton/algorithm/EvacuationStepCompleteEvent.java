@@ -35,6 +35,12 @@ public class EvacuationStepCompleteEvent extends AlgorithmProgressEvent<Evacuati
         this.initializationActions = initializationActions;
     }
 
+    /**
+     * Returns the actions performed in the step. The actions are only contained if the algorithm records them, see
+     * {@link EvacuationCellularAutomatonAlgorithm#setRecordActions(boolean)}.
+     *
+     * @return an unmodifiable view of the actions
+     */
     public List<Action> getInitializationActions() {
         return Collections.unmodifiableList(initializationActions);
     }
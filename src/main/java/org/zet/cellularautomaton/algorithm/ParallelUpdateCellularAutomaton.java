@@ -0,0 +1,316 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.algorithm.computation.Computation;
+import org.zet.cellularautomaton.algorithm.computation.DefaultComputation;
+import org.zet.cellularautomaton.algorithm.rule.AbstractMovementRule;
+import org.zet.cellularautomaton.algorithm.rule.EvacuationRule;
+import org.zet.cellularautomaton.algorithm.rule.SmoothMovementRule;
+import org.zet.cellularautomaton.algorithm.state.IndividualProperty;
+
+/**
+ * An evacuation cellular automaton with a parallel update scheme. Each step consists of three phases:
+ * <ol>
+ * <li>All individuals that can move choose a target concurrently. The choice is made against the state at the
+ * beginning of the step, which is not modified in this phase. A target is chosen among the current cell and the free
+ * neighbours with a probability proportional to {@code exp} of the effective potential, as in floor field
+ * models.</li>
+ * <li>If several individuals chose the same target cell, the conflict is resolved: with the probability given by the
+ * friction none of them moves, otherwise one of them is selected uniformly at random.</li>
+ * <li>The rules are executed sequentially for all individuals. The movement rule moves the individuals to the
+ * targets decided in the first two phases.</li>
+ * </ol>
+ * The random decisions of the first two phases are derived from the seed, the time step and the individuals involved.
+ * Thus the result does not depend on the number of threads, their scheduling or the order of the individuals.
+ *
+ * Individuals that are alarmed during a step, start to move in the next step. The movement rule of the rule set has
+ * to be a {@link SmoothMovementRule}.
+ */
+public class ParallelUpdateCellularAutomaton extends EvacuationCellularAutomatonAlgorithm {
+
+    /** Individuals are split up into that many chunks per thread to balance the load. */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int parallelism;
+    private final double friction;
+    private final boolean fixedSeed;
+    private long seed;
+    private ForkJoinPool pool;
+    private Computation computation;
+    private SmoothMovementRule movement;
+    /** The targets of the individuals that won their conflicts in the current step. */
+    private final Map<Individual, EvacCellInterface> assignedTargets = new HashMap<>();
+    /** Scratch buffers of the worker threads, such that choosing a target does not allocate. */
+    private final ThreadLocal<TargetBuffer> buffers = ThreadLocal.withInitial(TargetBuffer::new);
+    private final Function<EvacCellInterface, Double> dynamicPotential = cell -> es.getDynamicPotential(cell);
+
+    /**
+     * Creates a parallel update without friction using as many threads as processors are available. The seed is drawn
+     * from the random source of the simulation when it is initialized.
+     */
+    public ParallelUpdateCellularAutomaton() {
+        this(Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    /**
+     * Creates a parallel update using the given number of threads and friction. The seed is drawn from the random
+     * source of the simulation when it is initialized.
+     *
+     * @param parallelism the number of threads
+     * @param friction the probability that no individual moves if several individuals chose the same target
+     */
+    public ParallelUpdateCellularAutomaton(int parallelism, double friction) {
+        this(parallelism, friction, 0, false);
+    }
+
+    /**
+     * Creates a parallel update using the given number of threads, friction and seed.
+     *
+     * @param parallelism the number of threads
+     * @param friction the probability that no individual moves if several individuals chose the same target
+     * @param seed the seed for the target choices and conflict resolution
+     */
+    public ParallelUpdateCellularAutomaton(int parallelism, double friction, long seed) {
+        this(parallelism, friction, seed, true);
+    }
+
+    private ParallelUpdateCellularAutomaton(int parallelism, double friction, long seed, boolean fixedSeed) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive, was " + parallelism);
+        }
+        if (friction < 0 || friction > 1) {
+            throw new IllegalArgumentException("Friction not in [0, 1]: " + friction);
+        }
+        this.parallelism = parallelism;
+        this.friction = friction;
+        this.seed = seed;
+        this.fixedSeed = fixedSeed;
+    }
+
+    @Override
+    protected void initialize() {
+        super.initialize();
+        movement = findMovementRule();
+        movement.setAssignedTargets(cell -> assignedTargets.getOrDefault(cell.getState().getIndividual(), cell));
+        computation = new DefaultComputation(es, getProblem().getParameterSet(), es.getRandomSource());
+        if (!fixedSeed) {
+            seed = es.getRandomSource().nextLong();
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+    }
+
+    private SmoothMovementRule findMovementRule() {
+        Iterator<EvacuationRule<?>> loop = getProblem().getRuleSet().loopIterator();
+        while (loop.hasNext()) {
+            EvacuationRule<?> r = loop.next();
+            if (r instanceof SmoothMovementRule) {
+                return (SmoothMovementRule) r;
+            }
+        }
+        throw new IllegalStateException("Parallel update requires a smooth movement rule.");
+    }
+
+    @Override
+    protected void performStep() {
+        assignedTargets.clear();
+        assignTargets(new ArrayList<>(es.getRemainingIndividuals()));
+        super.performStep();
+    }
+
+    /**
+     * Chooses the targets of the individuals concurrently and resolves the conflicts. The winners are stored using
+     * {@link #assign(Individual, EvacCellInterface)}.
+     *
+     * @param individuals the individuals in the simulation
+     */
+    void assignTargets(List<Individual> individuals) {
+        EvacCellInterface[] targets = new EvacCellInterface[individuals.size()];
+        int chunkSize = Math.max(1, individuals.size() / (parallelism * CHUNKS_PER_THREAD) + 1);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int start = 0; start < individuals.size(); start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(individuals.size(), start + chunkSize);
+            tasks.add(pool.submit(() -> {
+                for (int k = from; k < to; ++k) {
+                    targets[k] = chooseTarget(individuals.get(k));
+                }
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+
+        Map<EvacCellInterface, List<Individual>> claims = new LinkedHashMap<>();
+        for (int k = 0; k < targets.length; ++k) {
+            claimOrStay(individuals.get(k), targets[k], claims, assignedTargets);
+        }
+        for (Map.Entry<EvacCellInterface, List<Individual>> claim : claims.entrySet()) {
+            Individual winner = resolveConflict(claim.getValue());
+            if (winner != null) {
+                assign(winner, claim.getKey());
+            }
+        }
+    }
+
+    /**
+     * Chooses a target for an individual. Only reads the state of the simulation, thus it can be called concurrently
+     * for different individuals.
+     *
+     * @param individual the individual
+     * @return the target of the individual, {@code null} if the individual does not move in this step
+     */
+    EvacCellInterface chooseTarget(Individual individual) {
+        IndividualProperty property = es.propertyFor(individual);
+        EvacCellInterface cell = property.getCell();
+        if (cell instanceof ExitCell || !property.isAlarmed() || es.getTimeStep() < property.getStepEndTime()) {
+            return null;
+        }
+        TargetBuffer buffer = buffers.get();
+        List<EvacCellInterface> candidates = buffer.candidates;
+        candidates.clear();
+        AbstractMovementRule.addPossibleTargets(cell, cell.getFreeNeighbours(), property.getDirection(),
+                property.isSafe(), candidates);
+        if (candidates.isEmpty()) {
+            return cell;
+        }
+        double[] weights = buffer.weights(candidates.size());
+        double max = 0; // the effective potential of the current cell
+        for (int i = 0; i < candidates.size(); ++i) {
+            weights[i] = computation.effectivePotential(individual, candidates.get(i), dynamicPotential);
+            max = Math.max(max, weights[i]);
+        }
+        double sum = Math.exp(-max);
+        for (int i = 0; i < candidates.size(); ++i) {
+            weights[i] = Math.exp(weights[i] - max);
+            sum += weights[i];
+        }
+        double random = randomFor(individual.getNumber()).nextDouble() * sum;
+        for (int i = 0; i < candidates.size(); ++i) {
+            random -= weights[i];
+            if (random < 0) {
+                return candidates.get(i);
+            }
+        }
+        return cell;
+    }
+
+    /**
+     * Records the choice of an individual. An individual staying on its cell is assigned directly, a move to another
+     * cell is added to the claims of the target.
+     *
+     * @param individual the individual
+     * @param target the chosen target, {@code null} if the individual does not move in this step
+     * @param claims the individuals claiming each target
+     * @param stays the individuals staying on their cell
+     */
+    void claimOrStay(Individual individual, EvacCellInterface target, Map<EvacCellInterface, List<Individual>> claims,
+            Map<Individual, EvacCellInterface> stays) {
+        if (target == es.propertyFor(individual).getCell()) {
+            stays.put(individual, target);
+        } else if (target != null) {
+            claims.computeIfAbsent(target, c -> new ArrayList<>(1)).add(individual);
+        }
+    }
+
+    /**
+     * Resolves the conflict between individuals that claim the same target. The result only depends on the set of
+     * claimants, not on their order: with the probability given by the friction none of them wins, otherwise one of
+     * them is selected uniformly at random.
+     *
+     * @param claimants the individuals claiming the same target
+     * @return the individual that moves to the target or {@code null} if no individual moves
+     */
+    Individual resolveConflict(List<Individual> claimants) {
+        if (claimants.size() == 1) {
+            return claimants.get(0);
+        }
+        claimants.sort(Comparator.comparingInt(Individual::getNumber));
+        SplittableRandom random = randomFor(~claimants.get(0).getNumber());
+        if (random.nextDouble() < friction) {
+            return null;
+        }
+        return claimants.get(random.nextInt(claimants.size()));
+    }
+
+    /**
+     * Assigns the target to an individual for the current step.
+     *
+     * @param individual the individual
+     * @param target the target cell
+     */
+    void assign(Individual individual, EvacCellInterface target) {
+        assignedTargets.put(individual, target);
+    }
+
+    /**
+     * Returns a random generator for the current step that only depends on the seed and the given key.
+     */
+    private SplittableRandom randomFor(int key) {
+        return new SplittableRandom(seed ^ ((long) es.getTimeStep() << 32 | (key & 0xffffffffL)));
+    }
+
+    @Override
+    protected EvacuationSimulationResult terminate() {
+        movement.setAssignedTargets(null);
+        pool.shutdown();
+        pool = null;
+        return super.terminate();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public double getFriction() {
+        return friction;
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelUpdateCellularAutomaton";
+    }
+
+    /**
+     * The candidates and their weights of the individual whose target is currently chosen by a worker thread.
+     */
+    private static class TargetBuffer {
+
+        private final List<EvacCellInterface> candidates = new ArrayList<>(8);
+        private double[] weights = new double[8];
+
+        private double[] weights(int size) {
+            if (weights.length < size) {
+                weights = new double[size];
+            }
+            return weights;
+        }
+    }
+}
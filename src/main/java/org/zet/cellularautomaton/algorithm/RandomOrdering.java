@@ -15,13 +15,13 @@
  */
 package org.zet.cellularautomaton.algorithm;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 import org.zet.cellularautomaton.Individual;
-import org.zetool.rndutils.generators.GeneralRandomWrapper;
+import org.zet.cellularautomaton.random.RandomSource;
 import org.zetool.rndutils.RandomUtils;
 import org.zetool.rndutils.generators.GeneralRandom;
 
@@ -31,13 +31,31 @@ import org.zetool.rndutils.generators.GeneralRandom;
  */
 public class RandomOrdering implements Function<List<Individual>, Iterator<Individual>> {
 
+    private RandomSource random = RandomSource.global();
+
     @Override
     public Iterator<Individual> apply(List<Individual> t) {
-        List<Individual> individualsCopy = new LinkedList<>(t);
-        Collections.shuffle(individualsCopy, new GeneralRandomWrapper(getRandomGenerator()));
+        List<Individual> individualsCopy = new ArrayList<>(t);
+        random.shuffle(individualsCopy);
         return individualsCopy.iterator();
     }
-    
+
+    /**
+     * Sets the source of random numbers used to shuffle the individuals. By default the global generator is used.
+     *
+     * @param random the random source of the simulation
+     */
+    public void setRandomSource(RandomSource random) {
+        this.random = Objects.requireNonNull(random, "Random source must not be null.");
+    }
+
+    /**
+     * Returns the global random generator.
+     *
+     * @return the global random generator
+     * @deprecated the ordering uses its {@link #setRandomSource(RandomSource) random source}
+     */
+    @Deprecated
     protected GeneralRandom getRandomGenerator() {
         return (RandomUtils.getInstance()).getRandomGenerator();
     }
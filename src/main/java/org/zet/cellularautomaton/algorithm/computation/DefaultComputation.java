@@ -17,14 +17,16 @@ package org.zet.cellularautomaton.algorithm.computation;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.algorithm.parameter.ParameterSet;
+import org.zet.cellularautomaton.algorithm.state.IndividualProperty;
 import org.zet.cellularautomaton.algorithm.state.PropertyAccess;
 import org.zet.cellularautomaton.potential.Potential;
+import org.zet.cellularautomaton.random.RandomSource;
 import org.zetool.math.averaging.NonLinearAverages;
-import org.zetool.rndutils.RandomUtils;
 
 /**
  *
@@ -34,14 +36,21 @@ public class DefaultComputation implements Computation {
 
     protected final PropertyAccess es;
     protected final ParameterSet parameterSet;
+    /** The random source of the simulation run. */
+    protected final RandomSource random;
     private static final double MINIMUM_PANIC = 0.0d;
     private static final double MAXIMUM_PANIC = 1.0d;
     private static final double MIN_EXHAUSTION = 0d;
     private static final double MAX_EXHAUSTION = 0.999d;
 
     public DefaultComputation(PropertyAccess es, ParameterSet parameterSet) {
+        this(es, parameterSet, RandomSource.global());
+    }
+
+    public DefaultComputation(PropertyAccess es, ParameterSet parameterSet, RandomSource random) {
         this.es = es;
         this.parameterSet = parameterSet;
+        this.random = Objects.requireNonNull(random, "Random source must not be null.");
     }
 
     /**
@@ -150,31 +159,30 @@ public class DefaultComputation implements Computation {
 
     @Override
     public double updatePanic(Individual individual, EvacCellInterface targetCell, Collection<EvacCellInterface> preferedCells) {
-        List<EvacCellInterface> possibleNeighbours = es.propertyFor(individual).getCell().getNeighbours();
+        IndividualProperty property = es.propertyFor(individual);
+        List<EvacCellInterface> possibleNeighbours = property.getCell().getNeighbours();
         if (possibleNeighbours.isEmpty()) {
-            return es.propertyFor(individual).getPanic();
+            return property.getPanic();
         }
 
+        Potential staticPotential = property.getStaticPotential();
+        double currentPotential = staticPotential.getPotential(property.getCell());
         double[] potentials = new double[possibleNeighbours.size()];
-        int idx = 0;
-        for (EvacCellInterface cell : possibleNeighbours) {
-            double potentialDifference = (double)es.propertyFor(individual).getStaticPotential().getPotential(
-                    es.propertyFor(individual).getCell())
-                    - es.propertyFor(individual).getStaticPotential().getPotential(cell);
+        for (int idx = 0; idx < potentials.length; ++idx) {
+            double potentialDifference = currentPotential - staticPotential.getPotential(possibleNeighbours.get(idx));
             potentials[idx] = Math.exp(potentialDifference);
-            idx++;
         }
 
         int failures = 0;
 
-        int chosenNeighbour = RandomUtils.getInstance().chooseRandomlyAbsolute(potentials);
+        int chosenNeighbour = random.chooseRandomlyAbsolute(potentials);
         while (!possibleNeighbours.get(chosenNeighbour).getState().isEmpty() && failures < possibleNeighbours.size()) {
             failures++;
             potentials[chosenNeighbour] = 0;
-            chosenNeighbour = RandomUtils.getInstance().chooseRandomlyAbsolute(potentials);
+            chosenNeighbour = random.chooseRandomlyAbsolute(potentials);
         }
 
-        double newPanic = es.propertyFor(individual).getPanic();
+        double newPanic = property.getPanic();
         if (failures < parameterSet.getPanicThreshold()) {
             newPanic = newPanic - individual.getPanicFactor() * parameterSet.getPanicDecrease()
                     * (parameterSet.getPanicThreshold() - failures);
@@ -186,7 +194,7 @@ public class DefaultComputation implements Computation {
         newPanic = Math.max(MINIMUM_PANIC, newPanic);
         newPanic = Math.min(MAXIMUM_PANIC, newPanic);
 
-        es.propertyFor(individual).setPanic(newPanic);
+        property.setPanic(newPanic);
         return newPanic;
     }
 
@@ -15,6 +15,9 @@
  */
 package org.zet.cellularautomaton.algorithm.parameter;
 
+import org.zet.cellularautomaton.potential.DynamicPotentialMode;
+import org.zet.cellularautomaton.statistic.StatisticLevel;
+
 /**
  * An abstract class defining all methods that parameter sets have to support.
  *
@@ -39,6 +42,36 @@ public interface ParameterSet {
 
     public double probabilityChangePotentialFamiliarityOrAttractivityOfExitRule();
 
+    /**
+     * Returns the storage scheme of the dynamic potential. By default the map based scheme is used, which reproduces
+     * the results of the original model for a given seed.
+     *
+     * @return the storage scheme of the dynamic potential
+     */
+    default DynamicPotentialMode dynamicPotentialMode() {
+        return DynamicPotentialMode.MAP;
+    }
+
+    /**
+     * Returns the amount of statistic values recorded during a simulation run. By default, all values are recorded.
+     * Large runs can use {@link StatisticLevel#AUTOMATIC} to drop the per step traces if they do not fit into memory.
+     *
+     * @return the statistic level
+     */
+    default StatisticLevel statisticLevel() {
+        return StatisticLevel.FULL;
+    }
+
+    /**
+     * Returns whether the changes of the dynamic potential are recorded as one diff per step. The diff is appended to
+     * the actions of the step. By default the changes are not recorded.
+     *
+     * @return {@code true} if the changes of the dynamic potential are recorded
+     */
+    default boolean recordDynamicPotentialDiffs() {
+        return false;
+    }
+
     double getAbsoluteMaxSpeed();
 
     /* Other dynamic parameters */
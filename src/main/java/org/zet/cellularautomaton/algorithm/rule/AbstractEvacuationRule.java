@@ -26,6 +26,7 @@ import org.zet.cellularautomaton.algorithm.computation.Computation;
 import org.zet.cellularautomaton.algorithm.state.EvacuationState;
 import org.zet.cellularautomaton.localization.CellularAutomatonLocalization;
 import org.zet.cellularautomaton.potential.Potential;
+import org.zet.cellularautomaton.random.RandomSource;
 import org.zet.cellularautomaton.results.Action;
 
 /**
@@ -37,6 +38,8 @@ public abstract class AbstractEvacuationRule<R extends Action> implements Evacua
     protected EvacuationState es;
     protected Computation c;
     protected EvacuationSimulationSpeed sp;
+    /** The random source of the simulation run. Defaults to the global generator. */
+    protected RandomSource random = RandomSource.global();
 
     /**
      * Returns if the rule is executable on the cell. The default behavior is, that a rule is
@@ -87,6 +90,11 @@ public abstract class AbstractEvacuationRule<R extends Action> implements Evacua
                 "zet.eca.rule.TimingInformationNullException"));
     }
 
+    @Override
+    public void setRandomSource(RandomSource random) {
+        this.random = Objects.requireNonNull(random, "Random source must not be null.");
+    }
+
     protected static Exit getNearestExit(EvacuationCellularAutomaton ca, EvacCellInterface cell) {
         Exit nearestExit = null;
         int distance = Integer.MAX_VALUE;
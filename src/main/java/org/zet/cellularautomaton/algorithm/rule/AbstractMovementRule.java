@@ -20,7 +20,9 @@ import org.zet.cellularautomaton.DoorCell;
 import org.zet.cellularautomaton.Individual;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.algorithm.state.IndividualProperty;
 import org.zetool.common.debug.Debug;
 
 /**
@@ -35,6 +37,7 @@ public abstract class AbstractMovementRule extends AbstractMoveRule implements M
     private boolean directExecute;
     private boolean moveCompleted;
     private List<EvacCellInterface> possibleTargets;
+    private Function<EvacCellInterface, EvacCellInterface> assignedTargets;
 
     public AbstractMovementRule() {
         directExecute = true;
@@ -53,30 +56,46 @@ public abstract class AbstractMovementRule extends AbstractMoveRule implements M
         possibleTargets = new ArrayList<>();
         List<EvacCellInterface> neighbors = onlyFreeNeighbours ? fromCell.getFreeNeighbours() : fromCell.getNeighbours();
 
-        Direction8 dir = es.propertyFor(fromCell.getState().getIndividual()).getDirection();
+        IndividualProperty property = es.propertyFor(fromCell.getState().getIndividual());
+        addPossibleTargets(fromCell, neighbors, property.getDirection(), property.isSafe(), possibleTargets);
+        return possibleTargets;
+    }
 
-        for (EvacCellInterface evacCell : neighbors) {
-            if (es.propertyFor(fromCell.getState().getIndividual()).isSafe() && !evacCell.isSafe()) {
+    /**
+     * Adds the neighbours of a cell to a list of targets that an individual can reach in one step. An individual can
+     * turn at most 90 degrees in either direction, and safe individuals do not leave safe areas. Moves between doors
+     * are always possible. Only reads its parameters, thus it can be called concurrently.
+     *
+     * @param fromCell the cell of the individual
+     * @param neighbors the neighbours of the cell that are considered
+     * @param dir the direction the individual is facing
+     * @param safe whether the individual is safe
+     * @param targets the list the possible targets are added to
+     */
+    public static void addPossibleTargets(EvacCellInterface fromCell, List<EvacCellInterface> neighbors, Direction8 dir,
+            boolean safe, List<EvacCellInterface> targets) {
+        for (int i = 0; i < neighbors.size(); ++i) {
+            EvacCellInterface evacCell = neighbors.get(i);
+            if (safe && !evacCell.isSafe()) {
                 continue; // ignore all moves that would mean walking out of safe areas
             }
             if (fromCell instanceof DoorCell && evacCell instanceof DoorCell) {
-                possibleTargets.add(evacCell);
+                targets.add(evacCell);
                 continue;
             }
             Direction8 rel = fromCell.getRelative(evacCell);
             if (dir == rel) {
-                possibleTargets.add(evacCell);
+                targets.add(evacCell);
             } else if (dir == rel.getClockwise()) {
-                possibleTargets.add(evacCell);
+                targets.add(evacCell);
             } else if (dir == rel.getClockwise().getClockwise()) {
-                possibleTargets.add(evacCell);
+                targets.add(evacCell);
             } else if (dir == rel.getCounterClockwise()) {
-                possibleTargets.add(evacCell);
+                targets.add(evacCell);
             } else if (dir == rel.getCounterClockwise().getCounterClockwise()) {
-                possibleTargets.add(evacCell);
+                targets.add(evacCell);
             }
         }
-        return possibleTargets;
     }
 
     /**
@@ -141,6 +160,29 @@ public abstract class AbstractMovementRule extends AbstractMoveRule implements M
         es.propertyFor(i).setStepEndTime(d);
     }
 
+    /**
+     * Sets targets that have been decided outside of the rule, e.g. by a parallel update scheme. If set, the rule moves
+     * an individual to the cell assigned to its current cell instead of {@link #selectTargetCell(EvacCellInterface,
+     * List) selecting} a target itself. The assignment is supported by the {@link SmoothMovementRule} and its
+     * subclasses.
+     *
+     * @param assignedTargets maps the cell of an individual to its target cell, {@code null} to let the rule select the
+     * targets again
+     */
+    public void setAssignedTargets(Function<EvacCellInterface, EvacCellInterface> assignedTargets) {
+        this.assignedTargets = assignedTargets;
+    }
+
+    /**
+     * Returns the externally assigned target for the individual on a cell.
+     *
+     * @param cell the cell of the individual
+     * @return the assigned target, or {@code null} if no targets are assigned
+     */
+    protected EvacCellInterface getAssignedTarget(EvacCellInterface cell) {
+        return assignedTargets == null ? null : assignedTargets.apply(cell);
+    }
+
     @Override
     public boolean isDirectExecute() {
         return directExecute;
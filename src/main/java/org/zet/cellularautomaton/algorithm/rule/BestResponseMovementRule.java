@@ -22,9 +22,9 @@ import org.zet.cellularautomaton.StairCell;
 import org.zet.cellularautomaton.results.IndividualStateChangeAction;
 import org.zet.cellularautomaton.results.MoveAction;
 import org.zet.cellularautomaton.results.SwapAction;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 import org.zetool.common.util.Direction8;
 import org.zetool.common.util.Level;
-import org.zetool.rndutils.RandomUtils;
 
 /**
  *
@@ -78,11 +78,17 @@ public class BestResponseMovementRule extends AbstractMovementRule {
             targetCell = from;
         }
         if (es.propertyFor(ind).getCell().equals(targetCell)) {
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addWaitedTimeToStatistic(ind, es.getTimeStep());
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForCells().addCellToWaitingStatistic(targetCell, es.getTimeStep());
+            if (es.getStatisticWriter().isRecording(StatisticMetric.WAITED_TIME)) {
+                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addWaitedTimeToStatistic(ind, es.getTimeStep());
+            }
+            if (es.getStatisticWriter().isRecording(StatisticMetric.CELL_WAITING)) {
+                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForCells().addCellToWaitingStatistic(targetCell, es.getTimeStep());
+            }
         }
         //set statistic for targetCell and timestep
-        es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForCells().addCellToUtilizationStatistic(targetCell, es.getTimeStep());
+        if (es.getStatisticWriter().isRecording(StatisticMetric.CELL_UTILIZATION)) {
+            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForCells().addCellToUtilizationStatistic(targetCell, es.getTimeStep());
+        }
         setMoveRuleCompleted(false);
         return this.doMove(ind, targetCell);
     }
@@ -90,7 +96,9 @@ public class BestResponseMovementRule extends AbstractMovementRule {
     private MoveAction doMove(Individual i, EvacCellInterface targetCell) {
         if (es.propertyFor(i).getCell().equals(targetCell)) {
             setMoveRuleCompleted(false);
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCurrentSpeedToStatistic(i, es.getTimeStep(), 0);
+            if (es.getStatisticWriter().isRecording(StatisticMetric.CURRENT_SPEED)) {
+                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCurrentSpeedToStatistic(i, es.getTimeStep(), 0);
+            }
             double oldStepEndTime = es.propertyFor(i).getStepEndTime();
             return new MoveAction(es.propertyFor(i).getCell(), targetCell, oldStepEndTime + 1, oldStepEndTime);
         }
@@ -153,8 +161,12 @@ public class BestResponseMovementRule extends AbstractMovementRule {
             setStepEndTime(i, es.propertyFor(i).getStepEndTime() + (dist / speed) * sp.getStepsPerSecond());
             if (performMove) {
                 //ec.move(es.propertyFor(i).getCell(), targetCell);
-                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCurrentSpeedToStatistic(i, es.getTimeStep(), speed * sp.getSecondsPerStep());
-                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCoveredDistanceToStatistic(i, (int) Math.ceil(es.propertyFor(i).getStepEndTime()), dist);
+                if (es.getStatisticWriter().isRecording(StatisticMetric.CURRENT_SPEED)) {
+                    es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCurrentSpeedToStatistic(i, es.getTimeStep(), speed * sp.getSecondsPerStep());
+                }
+                if (es.getStatisticWriter().isRecording(StatisticMetric.COVERED_DISTANCE)) {
+                    es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCoveredDistanceToStatistic(i, (int) Math.ceil(es.propertyFor(i).getStepEndTime()), dist);
+                }
             }
         } else {
             throw new IllegalStateException("Individuum has no speed.");
@@ -181,7 +193,7 @@ public class BestResponseMovementRule extends AbstractMovementRule {
             p[i] = Math.exp(c.effectivePotential(ind, targets.get(i), es::getDynamicPotential));
         }
 
-        int number = RandomUtils.getInstance().chooseRandomlyAbsolute(p);
+        int number = random.chooseRandomlyAbsolute(p);
         return targets.get(number);
     }
 
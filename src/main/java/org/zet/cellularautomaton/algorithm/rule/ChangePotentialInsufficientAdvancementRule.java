@@ -24,6 +24,7 @@ import org.zet.cellularautomaton.Exit;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.potential.Potential;
 import org.zet.cellularautomaton.results.VoidAction;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 
 /**
  *
@@ -164,7 +165,9 @@ public class ChangePotentialInsufficientAdvancementRule extends AbstractPotentia
 
             if (promisingNeighbours > CHANGE_THRESHOLD) {
                 es.propertyFor(individual).setStaticPotential(minWayLengthPotential);
-                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addChangedPotentialToStatistic(individual, es.getTimeStep());
+                if (es.getStatisticWriter().isRecording(StatisticMetric.POTENTIAL_CHANGE)) {
+                    es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addChangedPotentialToStatistic(individual, es.getTimeStep());
+                }
             }
         }
 
@@ -19,6 +19,7 @@ import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.Exit;
 import org.zet.cellularautomaton.ExitCell;
 import org.zet.cellularautomaton.results.ExitAction;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 
 /**
  * A rule that evacuates the individuals.
@@ -39,9 +40,11 @@ public class EvacuateIndividualsRule extends AbstractEvacuationRule<ExitAction>
     @Override
     protected ExitAction onExecute(EvacCellInterface cell) {
         //es.markIndividualForRemoval(cell.getState().getIndividual());
-        // Potential needed for statistics:
-        Exit exit = getNearestExit(es.getCellularAutomaton(), cell);
-        es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addExitToStatistic(cell.getState().getIndividual(), exit);
+        if (es.getStatisticWriter().isRecording(StatisticMetric.TAKEN_EXIT)) {
+            // Potential needed for statistics:
+            Exit exit = getNearestExit(es.getCellularAutomaton(), cell);
+            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addExitToStatistic(cell.getState().getIndividual(), exit);
+        }
         // safetyTime etc will be set in the SaveIndividualsRule
         return new ExitAction((ExitCell)cell, es.getTimeStep());
     }
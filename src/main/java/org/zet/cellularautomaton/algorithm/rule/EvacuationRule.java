@@ -20,6 +20,8 @@ import org.zet.cellularautomaton.algorithm.state.EvacuationState;
 import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.algorithm.EvacuationSimulationSpeed;
 import org.zet.cellularautomaton.algorithm.computation.Computation;
+import org.zet.cellularautomaton.algorithm.state.EvacuationStateControllerInterface;
+import org.zet.cellularautomaton.random.RandomSource;
 import org.zet.cellularautomaton.results.Action;
 import org.zetool.algorithm.simulation.cellularautomaton.Rule;
 
@@ -38,4 +40,21 @@ public interface EvacuationRule<R extends Action> extends Rule<R, EvacCellInterf
     void setEvacuationState(EvacuationState es);
     void setComputation(Computation c);
     void setEvacuationSimulationSpeed(EvacuationSimulationSpeed sp);
+
+    /**
+     * Sets the source of random numbers of the simulation run. Rules that do not make random decisions can ignore it.
+     *
+     * @param random the random source of the simulation
+     */
+    default void setRandomSource(RandomSource random) {
+    }
+
+    /**
+     * Sets the controller that is used to change the state directly instead of returning an action. It is only set if
+     * the actions of the simulation are not recorded. Rules that always return their actions can ignore it.
+     *
+     * @param ec the controller of the simulation state
+     */
+    default void setEvacuationStateController(EvacuationStateControllerInterface ec) {
+    }
 }
@@ -19,6 +19,7 @@ import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.Exit;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.results.VoidAction;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 
 public class ICEM09EvacuateIndividualsRule extends AbstractEvacuationRule {
 
@@ -27,9 +28,11 @@ public class ICEM09EvacuateIndividualsRule extends AbstractEvacuationRule {
 
     @Override
     protected VoidAction onExecute(EvacCellInterface cell) {
-        // Potential needed for statistics:
-        Exit exit = getNearestExit(es.getCellularAutomaton(), cell );
-        es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addExitToStatistic( cell.getState().getIndividual(), exit );
+        if (es.getStatisticWriter().isRecording(StatisticMetric.TAKEN_EXIT)) {
+            // Potential needed for statistics:
+            Exit exit = getNearestExit(es.getCellularAutomaton(), cell );
+            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addExitToStatistic( cell.getState().getIndividual(), exit );
+        }
         // safetyTime etc will be set in the SaveIndividualsRule
         return VoidAction.VOID_ACTION;
     }
@@ -16,7 +16,6 @@
 package org.zet.cellularautomaton.algorithm.rule;
 
 import org.zet.cellularautomaton.results.IndividualStateChangeAction;
-import org.zetool.rndutils.RandomUtils;
 import java.util.List;
 import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.Individual;
@@ -79,7 +78,7 @@ public class ICEM09MovementRule extends SimpleMovementRule2 {
             p[i] = Math.exp(c.effectivePotential(ind, targets.get(i), es::getDynamicPotential));
         }
 
-        int number = RandomUtils.getInstance().chooseRandomlyAbsolute(p);
+        int number = random.chooseRandomlyAbsolute(p);
         return targets.get(number);
     }
 }
@@ -18,6 +18,7 @@ package org.zet.cellularautomaton.algorithm.rule;
 import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.results.SaveAction;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 
 /**
  * Sets an individual save. The time is stored in the cellular automaton statistic. This rule is supposed to be called
@@ -35,7 +36,9 @@ public class ICEM09SaveIndividualsRule extends AbstractSaveRule {
     protected SaveAction onExecute(EvacCellInterface cell) {
         Individual savedIndividual = cell.getState().getIndividual();
         if (!(es.propertyFor(savedIndividual).isSafe())) {            
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addSafeIndividualToStatistic(savedIndividual);
+            if (es.getStatisticWriter().isRecording(StatisticMetric.SAFETY_TIME)) {
+                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addSafeIndividualToStatistic(savedIndividual);
+            }
             return new SaveAction(savedIndividual, es.getTimeStep());
         }
         return null;
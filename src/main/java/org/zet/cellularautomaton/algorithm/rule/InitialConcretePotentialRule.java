@@ -28,6 +28,7 @@ import org.zet.cellularautomaton.potential.StaticPotential;
 import org.zet.cellularautomaton.results.Action;
 import org.zet.cellularautomaton.results.DieAction;
 import org.zet.cellularautomaton.results.VoidAction;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 
 /**
  * This rule chooses an {@link Individual}'s initial {@link StaticPotential} according to the attractivity value of
@@ -101,10 +102,18 @@ public class InitialConcretePotentialRule extends AbstractInitialRule {
                 }
             }
             es.propertyFor(individual).setStaticPotential(ca.getPotentialFor(potentialToLengthOfWayMapper.get(best)));
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addMinDistancesToStatistic(individual, minDistanceToEvacArea, ca.getPotentialFor(potentialToLengthOfWayMapper.get(best)).getPotentialDouble(cell));
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addChangedPotentialToStatistic(individual, 0);
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addExhaustionToStatistic(individual, 0, es.propertyFor(individual).getExhaustion());
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addPanicToStatistic(individual, 0, es.propertyFor(individual).getPanic());
+            if (es.getStatisticWriter().isRecording(StatisticMetric.MIN_DISTANCE)) {
+                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addMinDistancesToStatistic(individual, minDistanceToEvacArea, ca.getPotentialFor(potentialToLengthOfWayMapper.get(best)).getPotentialDouble(cell));
+            }
+            if (es.getStatisticWriter().isRecording(StatisticMetric.POTENTIAL_CHANGE)) {
+                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addChangedPotentialToStatistic(individual, 0);
+            }
+            if (es.getStatisticWriter().isRecording(StatisticMetric.EXHAUSTION)) {
+                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addExhaustionToStatistic(individual, 0, es.propertyFor(individual).getExhaustion());
+            }
+            if (es.getStatisticWriter().isRecording(StatisticMetric.PANIC)) {
+                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addPanicToStatistic(individual, 0, es.propertyFor(individual).getPanic());
+            }
         }
         
         return VoidAction.VOID_ACTION;
@@ -28,8 +28,6 @@ import org.zet.cellularautomaton.potential.StaticPotential;
 import org.zet.cellularautomaton.results.Action;
 import org.zet.cellularautomaton.results.DieAction;
 import org.zet.cellularautomaton.results.VoidAction;
-import org.zetool.rndutils.RandomUtils;
-import org.zetool.rndutils.generators.GeneralRandom;
 
 /**
  * This sets Individual's initial {@link StaticPotential} according to the Individual's familiarity. If this
@@ -79,8 +77,7 @@ public class InitialPotentialFamiliarityRule extends AbstractInitialRule {
         int nrOfPossiblePotentials = Math.max((int) Math.round(
                 (1 - individual.getFamiliarity()) * distanceMapping.size()), 1);
 
-        GeneralRandom rnd = (RandomUtils.getInstance()).getRandomGenerator();
-        int randomPotentialNumber = rnd.nextInt(nrOfPossiblePotentials);
+        int randomPotentialNumber = random.nextInt(nrOfPossiblePotentials);
 
         Potential potential = distanceMapping.get(randomPotentialNumber).getStaticPotential();
         es.propertyFor(individual).setStaticPotential(potential);            
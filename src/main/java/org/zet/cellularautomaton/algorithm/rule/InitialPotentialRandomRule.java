@@ -22,7 +22,6 @@ import org.zet.cellularautomaton.potential.Potential;
 import org.zet.cellularautomaton.results.Action;
 import org.zet.cellularautomaton.results.DieAction;
 import org.zet.cellularautomaton.results.VoidAction;
-import org.zetool.rndutils.RandomUtils;
 
 /**
  * Sets a random exit to an individual.
@@ -43,8 +42,7 @@ public class InitialPotentialRandomRule extends AbstractInitialRule {
             return new DieAction(cell, DeathCause.EXIT_UNREACHABLE, cell.getState().getIndividual());
         } else {
             int numberOfExits = exits.size();
-            RandomUtils random = RandomUtils.getInstance();
-            int randomExitNumber = random.getRandomGenerator().nextInt(numberOfExits);
+            int randomExitNumber = random.nextInt(numberOfExits);
             es.propertyFor(cell.getState().getIndividual()).setStaticPotential(exits.get(randomExitNumber));
         }
         return VoidAction.VOID_ACTION;
@@ -24,6 +24,7 @@ import org.zet.cellularautomaton.potential.Potential;
 import org.zet.cellularautomaton.potential.StaticPotential;
 import org.zet.cellularautomaton.results.Action;
 import org.zet.cellularautomaton.results.DieAction;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 
 /**
  * This rule chooses an Individual's (the one standing on the current cell) initial StaticPotential according to the
@@ -73,9 +74,15 @@ public class InitialPotentialShortestPathRule extends AbstractInitialRule {
 
         es.propertyFor(individual).setStaticPotential(initialPotential);
         //es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addMinDistancesToStatistic(individual, minDistanceToEvacArea, initialPotential.getPotential(cell));
-        es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addChangedPotentialToStatistic(individual, 0);
-        es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addExhaustionToStatistic(individual, 0, es.propertyFor(individual).getExhaustion());
-        es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addPanicToStatistic(individual, 0, es.propertyFor(individual).getPanic());
+        if (es.getStatisticWriter().isRecording(StatisticMetric.POTENTIAL_CHANGE)) {
+            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addChangedPotentialToStatistic(individual, 0);
+        }
+        if (es.getStatisticWriter().isRecording(StatisticMetric.EXHAUSTION)) {
+            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addExhaustionToStatistic(individual, 0, es.propertyFor(individual).getExhaustion());
+        }
+        if (es.getStatisticWriter().isRecording(StatisticMetric.PANIC)) {
+            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addPanicToStatistic(individual, 0, es.propertyFor(individual).getPanic());
+        }
         return null;
     }
 }
@@ -21,6 +21,7 @@ import org.zet.cellularautomaton.SaveCell;
 import org.zet.cellularautomaton.potential.Potential;
 import org.zet.cellularautomaton.results.Action;
 import org.zet.cellularautomaton.results.SaveAction;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 
 /**
  * The save rule must be executed before the evacuation rule is executed.
@@ -52,7 +53,9 @@ public class SaveIndividualsRule extends AbstractSaveRule {
             es.propertyFor(savedIndividual).setStaticPotential(es.getCellularAutomaton().getSafePotential());
         } else {
             if (es.propertyFor(savedIndividual).getStaticPotential() != correspondingExitPotential) {
-                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addChangedPotentialToStatistic(savedIndividual, es.getTimeStep());
+                if (es.getStatisticWriter().isRecording(StatisticMetric.POTENTIAL_CHANGE)) {
+                    es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addChangedPotentialToStatistic(savedIndividual, es.getTimeStep());
+                }
                 es.propertyFor(savedIndividual).setStaticPotential(correspondingExitPotential);
             }
             //TODO: exit for the save potential?
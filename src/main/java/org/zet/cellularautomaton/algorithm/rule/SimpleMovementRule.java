@@ -18,7 +18,6 @@ package org.zet.cellularautomaton.algorithm.rule;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.zetool.rndutils.RandomUtils;
 import org.zet.cellularautomaton.EvacCell;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.EvacCellInterface;
@@ -79,7 +78,7 @@ public class SimpleMovementRule extends AbstractMovementRule {
             p[i] = Math.exp(c.effectivePotential(ind, targets.get(i), es::getDynamicPotential));
         }
 
-        return targets.get(RandomUtils.getInstance().chooseRandomlyAbsolute(p));
+        return targets.get(random.chooseRandomlyAbsolute(p));
     }
 
     @Override
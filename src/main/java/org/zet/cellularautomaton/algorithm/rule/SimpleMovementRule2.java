@@ -18,17 +18,18 @@ package org.zet.cellularautomaton.algorithm.rule;
 import java.util.Collections;
 import java.util.List;
 import org.zetool.common.util.Direction8;
-import org.zetool.rndutils.RandomUtils;
-import org.zetool.rndutils.generators.GeneralRandom;
 import org.zet.cellularautomaton.DoorCell;
 import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.Stairs;
+import org.zet.cellularautomaton.algorithm.state.EvacuationStateControllerInterface;
 import org.zet.cellularautomaton.algorithm.state.PropertyUpdate;
 import org.zet.cellularautomaton.algorithm.state.PropertyUpdate.PropertyUpdateBuilder;
 import org.zet.cellularautomaton.potential.Potential;
 import org.zet.cellularautomaton.results.MoveAction;
 import org.zet.cellularautomaton.results.SwapAction;
+import org.zet.cellularautomaton.statistic.CAStatisticWriter;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 
 /**
  *
@@ -37,25 +38,55 @@ import org.zet.cellularautomaton.results.SwapAction;
  */
 public class SimpleMovementRule2 extends SmoothMovementRule {
 
+    /** Applies the moves directly if the actions are not recorded, {@code null} if actions are returned. */
+    private EvacuationStateControllerInterface directController;
+
+    @Override
+    public void setEvacuationStateController(EvacuationStateControllerInterface ec) {
+        this.directController = ec;
+    }
+
     @Override
     public MoveAction move(EvacCellInterface from, EvacCellInterface targetCell) {
+        return move(from, targetCell, new PropertyUpdateBuilder());
+    }
+
+    /**
+     * Moves the individual standing on {@code from} to the target cell. The step times and the direction of the move
+     * are added to the given update, which may already contain further properties computed by subclasses.
+     *
+     * @param from the cell of the moving individual
+     * @param targetCell the target cell, the individual does not move if it is the current cell
+     * @param update the properties of the individual that are updated by the move
+     * @return the move action or {@code null} if the move has been applied directly
+     */
+    protected MoveAction move(EvacCellInterface from, EvacCellInterface targetCell, PropertyUpdateBuilder update) {
         if (es.propertyFor(individual).getCell().equals(targetCell)) {
             // We do not actually move
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals()
-                    .addWaitedTimeToStatistic(individual, es.getTimeStep());
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForCells()
-                    .addCellToWaitingStatistic(targetCell, es.getTimeStep());
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForCells()
-                    .addCellToUtilizationStatistic(targetCell, es.getTimeStep());
-            return noMove(from);
+            CAStatisticWriter statistic = es.getStatisticWriter();
+            if (statistic.isRecording(StatisticMetric.WAITED_TIME)) {
+                statistic.getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals()
+                        .addWaitedTimeToStatistic(individual, es.getTimeStep());
+            }
+            if (statistic.isRecording(StatisticMetric.CELL_WAITING)) {
+                statistic.getStoredCAStatisticResults().getStoredCAStatisticResultsForCells()
+                        .addCellToWaitingStatistic(targetCell, es.getTimeStep());
+            }
+            if (statistic.isRecording(StatisticMetric.CELL_UTILIZATION)) {
+                statistic.getStoredCAStatisticResults().getStoredCAStatisticResultsForCells()
+                        .addCellToUtilizationStatistic(targetCell, es.getTimeStep());
+            }
+            return noMove(from, update);
         } else {
             // We actually move
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForCells()
-                    .addCellToUtilizationStatistic(targetCell, es.getTimeStep());
-            PropertyUpdate update = initializeMove(from, targetCell);
+            if (es.getStatisticWriter().isRecording(StatisticMetric.CELL_UTILIZATION)) {
+                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForCells()
+                        .addCellToUtilizationStatistic(targetCell, es.getTimeStep());
+            }
+            initializeMove(from, targetCell, update);
             performMove(from, targetCell);
             setMoveRuleCompleted(false);
-            return new MoveAction(from, targetCell, update);
+            return complete(from, targetCell, update);
         }
     }
 
@@ -77,12 +108,48 @@ public class SimpleMovementRule2 extends SmoothMovementRule {
      */
     @Override
     protected MoveAction noMove(EvacCellInterface cell) {
+        return noMove(cell, new PropertyUpdateBuilder());
+    }
+
+    /**
+     * Lets the individual stand on its cell for one time step. The step times and the new direction are added to the
+     * given update, which may already contain further properties computed by subclasses.
+     *
+     * @param cell the cell of the individual
+     * @param update the properties of the individual that are updated
+     * @return the move action or {@code null} if the non-move has been applied directly
+     */
+    protected MoveAction noMove(EvacCellInterface cell, PropertyUpdateBuilder update) {
         setMoveRuleCompleted(false);
-        es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCurrentSpeedToStatistic(individual, es.getTimeStep(), 0);
+        if (es.getStatisticWriter().isRecording(StatisticMetric.CURRENT_SPEED)) {
+            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCurrentSpeedToStatistic(individual, es.getTimeStep(), 0);
+        }
         final double stepStartTime = es.propertyFor(individual).getStepEndTime();
         final double stepEndTime = stepStartTime + 1;
-        PropertyUpdate update = new PropertyUpdateBuilder().withDirection(getDirection()).createUpdate();
-        return new MoveAction(cell, cell, stepEndTime, stepStartTime, update);
+        update.withStepStartTime(stepStartTime).withStepEndTime(stepEndTime).withDirection(getDirection());
+        return complete(cell, cell, update);
+    }
+
+    /**
+     * Completes a move of the individual standing on {@code from}. If the actions of the simulation are not recorded,
+     * the update is applied directly and no action is created.
+     *
+     * @param from the cell of the individual
+     * @param to the target cell, may be equal to {@code from}
+     * @param update the properties of the individual that are updated
+     * @return the move action or {@code null} if the move has been applied directly
+     */
+    private MoveAction complete(EvacCellInterface from, EvacCellInterface to, PropertyUpdateBuilder update) {
+        if (directController == null) {
+            return new MoveAction(from, to, update.createUpdate());
+        }
+        if (from != to && !to.getState().isEmpty()) {
+            throw new IllegalStateException("The target cell is not empty!");
+        }
+        update.createUpdate().apply(es.propertyFor(from.getState().getIndividual()));
+        directController.increaseDynamicPotential(to);
+        directController.move(from, to);
+        return null;
     }
 
     /**
@@ -116,8 +183,7 @@ public class SimpleMovementRule2 extends SmoothMovementRule {
             return ret;
         }
 
-        GeneralRandom rnd = (RandomUtils.getInstance()).getRandomGenerator();
-        int randomDirection = rnd.nextInt(5);
+        int randomDirection = random.nextInt(5);
         return possible[randomDirection];
     }
 
@@ -129,7 +195,8 @@ public class SimpleMovementRule2 extends SmoothMovementRule {
      * @param performMove decides if the move is actually performed. If swapping is active, only values have to be
      * updated.
      */
-    private PropertyUpdate initializeMove(EvacCellInterface from, EvacCellInterface targetCell) {
+    private PropertyUpdateBuilder initializeMove(EvacCellInterface from, EvacCellInterface targetCell,
+            PropertyUpdateBuilder update) {
         // We need to use a special individual here, because it is called from swap with different start cells
         Individual fromIndividual = from.getState().getIndividual();
 
@@ -144,7 +211,8 @@ public class SimpleMovementRule2 extends SmoothMovementRule {
             final double startTime = Math.max(es.propertyFor(fromIndividual).getCell().getOccupiedUntil(), es.propertyFor(fromIndividual).getStepEndTime());
             final double endTime = es.propertyFor(fromIndividual).getStepEndTime() + (dist / speed) * sp.getStepsPerSecond() + 0;
             
-            return PropertyUpdate.forMove(startTime, endTime).withDirection(es.propertyFor(fromIndividual).getDirection()).createUpdate();
+            return update.withStepStartTime(startTime).withStepEndTime(endTime)
+                    .withDirection(es.propertyFor(fromIndividual).getDirection());
         } else {
             Direction8 direction = from.getRelative(targetCell);
 
@@ -158,7 +226,7 @@ public class SimpleMovementRule2 extends SmoothMovementRule {
             final double endTime = es.propertyFor(fromIndividual).getStepEndTime() + (dist / speed) * sp.getStepsPerSecond() + add * sp.getStepsPerSecond();
             final double startTime = Math.max(from.getOccupiedUntil(), es.propertyFor(fromIndividual).getStepEndTime());
             
-            return PropertyUpdate.forMove(startTime, endTime).withDirection(direction).createUpdate();
+            return update.withStepStartTime(startTime).withStepEndTime(endTime).withDirection(direction);
         }
     }
 
@@ -172,8 +240,13 @@ public class SimpleMovementRule2 extends SmoothMovementRule {
     protected void performMove(EvacCellInterface from, EvacCellInterface targetCell) {
         from.setOccupiedUntil(es.propertyFor(individual).getStepEndTime());
         //ec.move(from, targetCell);
-        es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCurrentSpeedToStatistic(individual, es.getTimeStep(), speed * sp.getSecondsPerStep());
-        es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCoveredDistanceToStatistic(individual, (int) Math.ceil(es.propertyFor(individual).getStepEndTime()), dist);
+        CAStatisticWriter statistic = es.getStatisticWriter();
+        if (statistic.isRecording(StatisticMetric.CURRENT_SPEED)) {
+            statistic.getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCurrentSpeedToStatistic(individual, es.getTimeStep(), speed * sp.getSecondsPerStep());
+        }
+        if (statistic.isRecording(StatisticMetric.COVERED_DISTANCE)) {
+            statistic.getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addCoveredDistanceToStatistic(individual, (int) Math.ceil(es.propertyFor(individual).getStepEndTime()), dist);
+        }
     }
 
     /**
@@ -210,9 +283,10 @@ public class SimpleMovementRule2 extends SmoothMovementRule {
             throw new IllegalArgumentException("The cells are equal. Can't swap on equal cells.");
         }
         individual = cell1.getState().getIndividual();
-        PropertyUpdate c1update = initializeMove(cell1, cell2);
+        PropertyUpdate c1update = initializeMove(cell1, cell2, new PropertyUpdateBuilder()).createUpdate();
         individual = cell2.getState().getIndividual();
-        PropertyUpdate c2update = initializeMove(cell2, cell1); // do not actually move!
+        // do not actually move!
+        PropertyUpdate c2update = initializeMove(cell2, cell1, new PropertyUpdateBuilder()).createUpdate();
         //ec.swap(cell1, cell2);
         return new SwapAction(cell1, cell2, c1update, c2update);
     }
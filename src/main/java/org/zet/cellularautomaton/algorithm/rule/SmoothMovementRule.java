@@ -135,7 +135,9 @@ public abstract class SmoothMovementRule extends AbstractMovementRule {
      */
     protected MoveAction performMove(EvacCellInterface cell) {
         if (isDirectExecute()) { // we are in a "normal" simulation
-            EvacCellInterface targetCell = selectTargetCell(cell, computePossibleTargets(cell, true));
+            EvacCellInterface assignedTarget = getAssignedTarget(cell);
+            EvacCellInterface targetCell = assignedTarget != null
+                    ? assignedTarget : selectTargetCell(cell, computePossibleTargets(cell, true));
             setMoveRuleCompleted(true);
             return move(cell, targetCell);
         } else { // only calculate possible movements, used for swap cellular automaton
@@ -23,6 +23,7 @@ import org.zet.cellularautomaton.algorithm.EvacuationSimulationSpeed;
 import org.zet.cellularautomaton.algorithm.computation.Computation;
 import org.zet.cellularautomaton.algorithm.state.EvacuationState;
 import org.zet.cellularautomaton.algorithm.state.EvacuationStateControllerInterface;
+import org.zet.cellularautomaton.random.RandomSource;
 import org.zet.cellularautomaton.results.MoveAction;
 import org.zet.cellularautomaton.results.SwapAction;
 
@@ -115,4 +116,14 @@ public class TeleportMovementRule implements MovementRule {
         movementRule.setEvacuationSimulationSpeed(sp);
     }
 
+    @Override
+    public void setRandomSource(RandomSource random) {
+        movementRule.setRandomSource(random);
+    }
+
+    @Override
+    public void setEvacuationStateController(EvacuationStateControllerInterface ec) {
+        movementRule.setEvacuationStateController(ec);
+    }
+
 }
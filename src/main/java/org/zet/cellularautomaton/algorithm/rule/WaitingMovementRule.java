@@ -20,11 +20,11 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import org.zetool.common.util.Direction8;
-import org.zetool.rndutils.RandomUtils;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.EvacCellInterface;
-import org.zet.cellularautomaton.algorithm.state.PropertyUpdate;
+import org.zet.cellularautomaton.algorithm.state.PropertyUpdate.PropertyUpdateBuilder;
 import org.zet.cellularautomaton.results.MoveAction;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 
 /**
  * Waiting movement rule that allows individuals to wait when they are not able to walk in a direction nearer to an
@@ -44,20 +44,17 @@ public class WaitingMovementRule extends SimpleMovementRule2 {
      */
     @Override
     boolean wishToMove() {
-        double randomNumber = RandomUtils.getInstance().getRandomGenerator().nextDouble();
+        double randomNumber = random.nextDouble();
         return (c.idleThreshold(individual) <= randomNumber);
     }
 
     @Override
     protected MoveAction noMove(EvacCellInterface cell) {
-        MoveAction a = super.noMove(cell);
-
+        PropertyUpdateBuilder update = new PropertyUpdateBuilder();
         if (es.propertyFor(individual).isAlarmed()) {
-            double newExhaustion = updateExhaustion(individual, cell);
-            PropertyUpdate update = PropertyUpdate.extend(a.getPropertyUpdate()).withExhaustion(newExhaustion).createUpdate();
-            return new MoveAction(a, update);
+            update.withExhaustion(updateExhaustion(individual, cell));
         }
-        return a;
+        return noMove(cell, update);
     }
 
     @Override
@@ -65,16 +62,16 @@ public class WaitingMovementRule extends SimpleMovementRule2 {
         Individual ind = from.getState().getIndividual();
         double newPanic = updatePanic(ind, targetCell);
         double newExhaustion = updateExhaustion(ind, targetCell);
-        MoveAction a = super.move(from, targetCell);
-        PropertyUpdate update = PropertyUpdate.extend(a.getPropertyUpdate()).withPanic(newPanic).withExhaustion(newExhaustion).createUpdate();
-        return new MoveAction(a, update);
+        return move(from, targetCell, new PropertyUpdateBuilder().withPanic(newPanic).withExhaustion(newExhaustion));
     }
 
     protected double updatePanic(Individual individual, EvacCellInterface targetCell) {
         double oldPanic = es.propertyFor(individual).getPanic();
         double newPanic = c.updatePanic(individual, targetCell, this.neighboursByPriority(es.propertyFor(individual).getCell()));
         if (oldPanic != newPanic) {
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addPanicToStatistic(individual, es.getTimeStep(), es.propertyFor(individual).getPanic());
+            if (es.getStatisticWriter().isRecording(StatisticMetric.PANIC)) {
+                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addPanicToStatistic(individual, es.getTimeStep(), es.propertyFor(individual).getPanic());
+            }
         }
         return newPanic;
     }
@@ -182,7 +179,7 @@ public class WaitingMovementRule extends SimpleMovementRule2 {
             }
         }// end if inSameRoom
 
-        int number = RandomUtils.getInstance().chooseRandomlyAbsolute(p);
+        int number = random.chooseRandomlyAbsolute(p);
         return targets.get(number);
     }
 
@@ -197,7 +194,9 @@ public class WaitingMovementRule extends SimpleMovementRule2 {
         double oldExhaustion = es.propertyFor(individual).getExhaustion();
         double newExhaustion = c.updateExhaustion(individual, targetCell);
         if (oldExhaustion != newExhaustion) {
-            es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addExhaustionToStatistic(individual, es.getTimeStep(), newExhaustion);
+            if (es.getStatisticWriter().isRecording(StatisticMetric.EXHAUSTION)) {
+                es.getStatisticWriter().getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals().addExhaustionToStatistic(individual, es.getTimeStep(), newExhaustion);
+            }
         }
         return newExhaustion;
     }
@@ -0,0 +1,170 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm.state;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import org.zet.cellularautomaton.Individual;
+
+/**
+ * The individuals that are still active in a simulation, in the order in which they have been added. The slots of the
+ * individuals are kept in a dense array. Removing an individual only clears its bit in a {@link SlotSet} and takes
+ * constant time; the array is compacted lazily, at most once before the list is read again. Thus removing many
+ * individuals in the same step costs time linear in the number of active individuals, instead of one linear removal
+ * per individual.
+ */
+class ActiveIndividuals {
+
+    private final IndividualStateStore store;
+    private final SlotSet active;
+    /** The slots in insertion order, the first {@code end} entries are valid, some may be inactive. */
+    private int[] order = new int[16];
+    private int end;
+    /** Counts the compactions, to detect iterators that are invalidated. */
+    private int compactions;
+    private final List<Individual> view = new View();
+
+    ActiveIndividuals(IndividualStateStore store) {
+        this.store = store;
+        this.active = new SlotSet(store);
+    }
+
+    void add(int slot) {
+        if (!active.add(slot)) {
+            throw new IllegalArgumentException("Slot already active: " + slot);
+        }
+        if (end == order.length) {
+            order = Arrays.copyOf(order, 2 * order.length);
+        }
+        order[end++] = slot;
+    }
+
+    /**
+     * Removes a slot from the active individuals. The step end time of a removed individual no longer contributes to
+     * the {@link IndividualStateStore#getMaxStepEndTime() maximal step end time}.
+     *
+     * @param slot the slot
+     * @return {@code true} if the slot was active
+     */
+    boolean remove(int slot) {
+        if (active.remove(slot)) {
+            store.excludeFromStepEndTimeMax(slot);
+            return true;
+        }
+        return false;
+    }
+
+    boolean contains(int slot) {
+        return active.contains(slot);
+    }
+
+    int size() {
+        return active.size();
+    }
+
+    private void compact() {
+        if (end == active.size()) {
+            return;
+        }
+        int count = 0;
+        for (int i = 0; i < end; ++i) {
+            if (active.contains(order[i])) {
+                order[count++] = order[i];
+            }
+        }
+        end = count;
+        compactions++;
+    }
+
+    /**
+     * Returns an unmodifiable view of the active individuals.
+     *
+     * @return the view
+     */
+    List<Individual> view() {
+        return view;
+    }
+
+    private class View extends AbstractList<Individual> implements RandomAccess {
+
+        @Override
+        public Individual get(int index) {
+            if (index < 0 || index >= active.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + active.size());
+            }
+            compact();
+            return store.getIndividual(order[index]);
+        }
+
+        @Override
+        public int size() {
+            return active.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Individual && active.contains(store.slotOf((Individual) o));
+        }
+
+        /**
+         * Iterates the individuals that are active when they are reached. Individuals may be removed during the
+         * iteration.
+         *
+         * @return the iterator
+         */
+        @Override
+        public Iterator<Individual> iterator() {
+            compact();
+            return new Iterator<Individual>() {
+                private final int expectedCompactions = compactions;
+                private int position = advance(0);
+
+                private int advance(int from) {
+                    while (from < end && !active.contains(order[from])) {
+                        from++;
+                    }
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    checkCompactions();
+                    position = advance(position);
+                    return position < end;
+                }
+
+                @Override
+                public Individual next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return store.getIndividual(order[position++]);
+                }
+
+                private void checkCompactions() {
+                    if (compactions != expectedCompactions) {
+                        throw new ConcurrentModificationException();
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm.state;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import org.zet.cellularautomaton.DeathCause;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.Individual;
+
+/**
+ * Changes the evacuation state on behalf of the rules of one domain of a simulation whose rooms are decomposed into
+ * domains. The cells, rooms and individuals of a domain are only changed by its own controller, thus the changes are
+ * applied immediately. The lists of safe, evacuated and dead individuals and the dynamic potential are shared by all
+ * domains. Their changes are collected and applied by {@link #merge()} after all domains have completed the step.
+ */
+public class DomainStateController implements EvacuationStateControllerInterface {
+
+    private final MutableEvacuationState evacuationState;
+    private final EvacuationStateController controller;
+    /** Decides whether a cell belongs to the domain. */
+    private final Predicate<EvacCellInterface> domain;
+    private final List<Individual> safe = new ArrayList<>();
+    private final List<Individual> evacuated = new ArrayList<>();
+    private final List<Individual> dead = new ArrayList<>();
+    private final List<EvacCellInterface> dynamicPotentialIncreases = new ArrayList<>();
+
+    /**
+     * Creates a controller for a domain.
+     *
+     * @param evacuationState the state shared by all domains
+     * @param controller the controller of the shared state
+     * @param domain decides whether a cell belongs to the domain
+     */
+    public DomainStateController(MutableEvacuationState evacuationState, EvacuationStateController controller,
+            Predicate<EvacCellInterface> domain) {
+        this.evacuationState = Objects.requireNonNull(evacuationState, "Evacuation state must not be null.");
+        this.controller = Objects.requireNonNull(controller, "Controller must not be null.");
+        this.domain = Objects.requireNonNull(domain, "Domain must not be null.");
+    }
+
+    @Override
+    public void move(EvacCellInterface from, EvacCellInterface to) {
+        controller.move(checkDomain(from), checkDomain(to));
+    }
+
+    @Override
+    public void swap(EvacCellInterface cell1, EvacCellInterface cell2) {
+        controller.swap(checkDomain(cell1), checkDomain(cell2));
+    }
+
+    private EvacCellInterface checkDomain(EvacCellInterface cell) {
+        if (!domain.test(cell)) {
+            throw new IllegalStateException("Cell " + cell + " is not in the domain.");
+        }
+        return cell;
+    }
+
+    @Override
+    public void die(Individual i, DeathCause cause) {
+        evacuationState.propertyFor(i).setDeathCause(cause);
+        controller.remove(i);
+        dead.add(i);
+    }
+
+    @Override
+    public void setSafe(Individual i) {
+        evacuationState.propertyFor(i).setSafetyTime(evacuationState.getStep());
+        safe.add(i);
+    }
+
+    @Override
+    public void evacuate(Individual i) {
+        evacuationState.propertyFor(i).setEvacuationTime(evacuationState.getStep());
+        controller.remove(i);
+        evacuated.add(i);
+    }
+
+    @Override
+    public void increaseDynamicPotential(EvacCellInterface c) {
+        dynamicPotentialIncreases.add(c);
+    }
+
+    /**
+     * The dynamic potential is updated for all domains at once at the end of a step.
+     *
+     * @throws IllegalStateException always
+     */
+    @Override
+    public void updateDynamicPotential(double probabilityDynamicIncrease, double probabilityDynamicDecrease) {
+        throw new IllegalStateException("The dynamic potential is not updated by a domain.");
+    }
+
+    /**
+     * Applies the collected changes to the shared state. Must not be called concurrently with any other controller of
+     * the same state.
+     */
+    public void merge() {
+        safe.forEach(evacuationState::addToSafe);
+        evacuated.forEach(evacuationState::addToEvacuated);
+        dead.forEach(evacuationState::addToDead);
+        dynamicPotentialIncreases.forEach(evacuationState::increaseDynamicPotential);
+        safe.clear();
+        evacuated.clear();
+        dead.clear();
+        dynamicPotentialIncreases.clear();
+    }
+}
@@ -25,55 +25,42 @@ import org.zetool.common.util.Helper;
 
 /**
  * Stores the mutable {@link Individual} properties during a simulation run. Instances of the class
- * are created in the initialization phase of the cellular automaton.
+ * are created in the initialization phase of the cellular automaton. The values are kept in an
+ * {@link IndividualStateStore}, a property is a view on the slot of the individual in the store.
  *
  * @author Jan-Philipp Kappmeier
  */
 public class IndividualProperty {
 
-    /** The alarmstatus of the individual. */
-    private boolean alarmed;
-    /** The current relative speed of the individual. */
-    private double relativeSpeed;
-    /** The current exhaustion of the individual. */
-    private double exhaustion = 0;
-    /** The current panic of the individual. */
-    private double panic = 0.0000;
-
-    /** The potential the individual is following. */
-    private Potential staticPotential;
+    /** The store containing the values. */
+    private final IndividualStateStore store;
+    /** The slot of the individual in the store. */
+    private final int slot;
+
     /**
-     * The (accurate) time when the moving of the individual is over. Initializes with 0 as step 0
-     * is the first cellular automaton step.
+     * Creates the properties of an individual that is not part of a simulation run. The values are
+     * kept in a store of their own.
+     *
+     * @param i the individual
      */
-    private double stepEndTime = 0;
-    /** The (accurate) time when the first moving of the individual starts. Initializes invalid. */
-    private double stepStartTime = -1;
-    /** The current direction the individual is heading to. */
-    private Direction8 dir = Direction8.Top;
-
-    /** The reason why the individual dies, if it is dead. */
-    private DeathCause deathCause = null;
-    /** The time, when the individual has last entered an area, where it is safe ( = area of save- and exitcells). */
-    private int safetyTime = -1;
-    /** The evacuation time of the individual. Strictly larger than the {@link #safetyTime}. */
-    private int evacuationTime = -1;
-
-    // outdated and to delete?
-    private EvacCellInterface cell;
-
     public IndividualProperty(Individual i) {
-        this.relativeSpeed = i.getMaxSpeed();
-        this.alarmed = false;
-        this.cell = null;
-        this.staticPotential = null;
+        this(new IndividualStateStore(1), i);
+    }
+
+    private IndividualProperty(IndividualStateStore store, Individual i) {
+        this(store, store.add(i));
+    }
+
+    IndividualProperty(IndividualStateStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
     }
 
     /**
      * Alarms the Individual and also alarms the room of the cell of the individual.
      */
     public void setAlarmed() {
-        this.alarmed = true;
+        store.setAlarmed(slot);
     }
 
     /**
@@ -82,7 +69,7 @@ public class IndividualProperty {
      * @return {@code true} if the individual is alarmed, {@code false} otherwise
      */
     public boolean isAlarmed() {
-        return alarmed;
+        return store.isAlarmed(slot);
     }
 
     /**
@@ -92,7 +79,7 @@ public class IndividualProperty {
      * @param relativeSpeed the new speed
      */
     public void setRelativeSpeed(double relativeSpeed) {
-        this.relativeSpeed = Helper.requireInRange(0, 1, relativeSpeed);
+        store.setRelativeSpeed(slot, Helper.requireInRange(0, 1, relativeSpeed));
     }
 
     /**
@@ -102,7 +89,7 @@ public class IndividualProperty {
      * @return the current speed
      */
     public double getRelativeSpeed() {
-        return relativeSpeed;
+        return store.getRelativeSpeed(slot);
     }
 
     /**
@@ -111,7 +98,7 @@ public class IndividualProperty {
      * @return the exhaustion
      */
     public double getExhaustion() {
-        return exhaustion;
+        return store.getExhaustion(slot);
     }
 
     /**
@@ -120,7 +107,7 @@ public class IndividualProperty {
      * @param val the exhaustion
      */
     public void setExhaustion(double val) {
-        this.exhaustion = Helper.requireNonNegative(val);
+        store.setExhaustion(slot, Helper.requireNonNegative(val));
     }
 
     /**
@@ -129,7 +116,7 @@ public class IndividualProperty {
      * @return the panic
      */
     public double getPanic() {
-        return panic;
+        return store.getPanic(slot);
     }
 
     /**
@@ -138,7 +125,7 @@ public class IndividualProperty {
      * @param val the panic in range [0,1]
      */
     public void setPanic(double val) {
-        this.panic = Helper.requireInRange(0, 1, val);
+        store.setPanic(slot, Helper.requireInRange(0, 1, val));
     }
 
     /**
@@ -147,7 +134,7 @@ public class IndividualProperty {
      * @param sp
      */
     public void setStaticPotential(Potential sp) {
-        this.staticPotential = sp;
+        store.setStaticPotential(slot, sp);
     }
 
     /**
@@ -156,53 +143,64 @@ public class IndividualProperty {
      * @return the static potential the individual is following
      */
     public Potential getStaticPotential() {
-        return staticPotential;
+        return store.getStaticPotential(slot);
     }
     
     public Exit getExit() {
         return null;
     }
 
+    /**
+     * The (accurate) time when the moving of the individual is over. Initially 0 as step 0 is the
+     * first cellular automaton step.
+     *
+     * @return the time when the current movement is over
+     */
     public double getStepEndTime() {
-        return stepEndTime;
+        return store.getStepEndTime(slot);
     }
 
     public void setStepEndTime(double stepEndTime) {
-        this.stepEndTime = stepEndTime;
+        store.setStepEndTime(slot, stepEndTime);
     }
 
+    /**
+     * The (accurate) time when the first moving of the individual starts. Initially invalid.
+     *
+     * @return the time when the first movement starts, or -1
+     */
     public double getStepStartTime() {
-        return stepStartTime;
+        return store.getStepStartTime(slot);
     }
 
     public void setStepStartTime(double stepStartTime) {
-        this.stepStartTime = stepStartTime;
+        store.setStepStartTime(slot, stepStartTime);
     }
 
     public Direction8 getDirection() {
-        return dir;
+        return store.getDirection(slot);
     }
 
     public void setDirection(Direction8 dir) {
-        this.dir = dir;
+        store.setDirection(slot, dir);
     }
 
     public DeathCause getDeathCause() {
         if (!isDead()) {
             throw new IllegalStateException("Individual not dead");
         }
-        return deathCause;
+        return store.getDeathCause(slot);
     }
 
     void setDeathCause(DeathCause deathCause) {
         if (isDead()) {
-            throw new IllegalStateException("Cannot set death cause twice. Is: " + this.deathCause);
+            throw new IllegalStateException("Cannot set death cause twice. Is: " + store.getDeathCause(slot));
         }
-        this.deathCause = deathCause;
+        store.setDeathCause(slot, deathCause);
     }
 
     public boolean isDead() {
-        return deathCause != null;
+        return store.getDeathCause(slot) != null;
     }
 
     /**
@@ -214,7 +212,7 @@ public class IndividualProperty {
         if (!isSafe()) {
             throw new IllegalStateException("Individual is not safe.");
         }
-        return safetyTime;
+        return store.getSafetyTime(slot);
     }
 
     /**
@@ -223,14 +221,14 @@ public class IndividualProperty {
      * @param time The time when the individual is evacuated.
      */
     void setSafetyTime(int time) {
-        if (isSafe() && time != safetyTime) {
-            throw new IllegalStateException("Individual already safe: " + safetyTime);
+        if (isSafe() && time != store.getSafetyTime(slot)) {
+            throw new IllegalStateException("Individual already safe: " + store.getSafetyTime(slot));
         }
-        safetyTime = Helper.requireNonNegative(time);
+        store.setSafetyTime(slot, Helper.requireNonNegative(time));
     }
 
     public boolean isSafe() {
-        return safetyTime >= 0;
+        return store.getSafetyTime(slot) >= 0;
     }
 
     /**
@@ -242,7 +240,7 @@ public class IndividualProperty {
         if (!isEvacuated()) {
             throw new IllegalStateException("Individual is not evacuated.");
         }
-        return evacuationTime;
+        return store.getEvacuationTime(slot);
     }
 
     /**
@@ -252,19 +250,19 @@ public class IndividualProperty {
      */
     public void setEvacuationTime(int time) {
         if (isEvacuated()) {
-            throw new IllegalStateException("Individual already evacuated at " + evacuationTime);
+            throw new IllegalStateException("Individual already evacuated at " + store.getEvacuationTime(slot));
         }
         if (isSafe() && getSafetyTime() > time) {
             throw new IllegalArgumentException("Individual safe at time: " + getSafetyTime());
         }
-        evacuationTime = Helper.requireNonNegative(time);
+        store.setEvacuationTime(slot, Helper.requireNonNegative(time));
         if (!isSafe()) {
             setSafetyTime(time);
         }
     }
 
     public boolean isEvacuated() {
-        return evacuationTime >= 0;
+        return store.getEvacuationTime(slot) >= 0;
     }
 
     /**
@@ -273,7 +271,7 @@ public class IndividualProperty {
      * @param c the cell
      */
     public void setCell(EvacCellInterface c) {
-        this.cell = c;
+        store.setCell(slot, c);
     }
 
     /**
@@ -282,6 +280,6 @@ public class IndividualProperty {
      * @return The EvacCell
      */
     public EvacCellInterface getCell() {
-        return cell;
+        return store.getCell(slot);
     }
 }
@@ -0,0 +1,356 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm.state;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import org.zet.cellularautomaton.DeathCause;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.potential.Potential;
+import org.zetool.common.util.Direction8;
+
+/**
+ * Stores the mutable properties of all individuals of a simulation run in parallel arrays. Each individual occupies a
+ * slot; the slot of an individual is found in an array indexed by its {@link Individual#getNumber() number}, such that
+ * no hashing is necessary. The {@link IndividualProperty} of an individual is a view on its slot. The views are
+ * created once and reused.
+ */
+public class IndividualStateStore {
+
+    /** Flag indicating that the individual is alarmed. */
+    private static final byte ALARMED = 1;
+    /** Flag indicating that the step end time of the individual no longer counts for the maximum. */
+    private static final byte EXCLUDED = 2;
+    private static final Direction8[] DIRECTIONS = Direction8.values();
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The slot of each individual indexed by the individual's number, -1 for unknown numbers. */
+    private int[] slotOf = new int[0];
+    private int size;
+
+    private Individual[] individuals;
+    private IndividualProperty[] views;
+    private byte[] flags;
+    private double[] relativeSpeed;
+    private double[] exhaustion;
+    private double[] panic;
+    private double[] stepEndTime;
+    private double[] stepStartTime;
+    private byte[] direction;
+    private int[] safetyTime;
+    private int[] evacuationTime;
+    private EvacCellInterface[] cell;
+    private Potential[] staticPotential;
+    private DeathCause[] deathCause;
+    /** The maximum of the step end times of all individuals that are not excluded. */
+    private MaxTree stepEndTimeMax;
+    private final List<Individual> individualsView = new IndividualsView();
+
+    /**
+     * Creates an empty store.
+     */
+    public IndividualStateStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty store with space for the given number of individuals.
+     *
+     * @param capacity the initial number of individuals that can be stored
+     */
+    public IndividualStateStore(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative, was " + capacity);
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        individuals = new Individual[capacity];
+        views = new IndividualProperty[capacity];
+        flags = new byte[capacity];
+        relativeSpeed = new double[capacity];
+        exhaustion = new double[capacity];
+        panic = new double[capacity];
+        stepEndTime = new double[capacity];
+        stepStartTime = new double[capacity];
+        direction = new byte[capacity];
+        safetyTime = new int[capacity];
+        evacuationTime = new int[capacity];
+        cell = new EvacCellInterface[capacity];
+        staticPotential = new Potential[capacity];
+        deathCause = new DeathCause[capacity];
+        stepEndTimeMax = new MaxTree(capacity);
+    }
+
+    /**
+     * Adds an individual with its initial properties to the store.
+     *
+     * @param i the individual
+     * @return the slot of the individual
+     * @throws IllegalArgumentException if the individual is already stored or its number is negative
+     */
+    public int add(Individual i) {
+        int number = i.getNumber();
+        if (number < 0) {
+            throw new IllegalArgumentException("Individual number must be non-negative: " + i);
+        }
+        if (slotOf(i) >= 0) {
+            throw new IllegalArgumentException("Individual already stored: " + i);
+        }
+        if (number >= slotOf.length) {
+            int oldLength = slotOf.length;
+            slotOf = Arrays.copyOf(slotOf, Math.max(number + 1, 2 * oldLength));
+            Arrays.fill(slotOf, oldLength, slotOf.length, -1);
+        }
+        if (size == individuals.length) {
+            grow(Math.max(INITIAL_CAPACITY, 2 * size));
+        }
+        int slot = size++;
+        slotOf[number] = slot;
+        individuals[slot] = i;
+        relativeSpeed[slot] = i.getMaxSpeed();
+        stepStartTime[slot] = -1;
+        direction[slot] = (byte) Direction8.Top.ordinal();
+        safetyTime[slot] = -1;
+        evacuationTime[slot] = -1;
+        stepEndTimeMax.set(slot, stepEndTime[slot]);
+        return slot;
+    }
+
+    private void grow(int capacity) {
+        individuals = Arrays.copyOf(individuals, capacity);
+        views = Arrays.copyOf(views, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        relativeSpeed = Arrays.copyOf(relativeSpeed, capacity);
+        exhaustion = Arrays.copyOf(exhaustion, capacity);
+        panic = Arrays.copyOf(panic, capacity);
+        stepEndTime = Arrays.copyOf(stepEndTime, capacity);
+        stepStartTime = Arrays.copyOf(stepStartTime, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        safetyTime = Arrays.copyOf(safetyTime, capacity);
+        evacuationTime = Arrays.copyOf(evacuationTime, capacity);
+        cell = Arrays.copyOf(cell, capacity);
+        staticPotential = Arrays.copyOf(staticPotential, capacity);
+        deathCause = Arrays.copyOf(deathCause, capacity);
+    }
+
+    /**
+     * Returns the slot of an individual.
+     *
+     * @param i the individual
+     * @return the slot of the individual or -1 if the individual is not stored
+     */
+    public int slotOf(Individual i) {
+        int number = i.getNumber();
+        return number >= 0 && number < slotOf.length ? slotOf[number] : -1;
+    }
+
+    /**
+     * Returns the view on the properties of an individual.
+     *
+     * @param i the individual
+     * @return the properties of the individual or {@code null} if the individual is not stored
+     */
+    public IndividualProperty propertyFor(Individual i) {
+        int slot = slotOf(i);
+        return slot < 0 ? null : property(slot);
+    }
+
+    /**
+     * Returns the view on the properties stored in a slot.
+     *
+     * @param slot the slot
+     * @return the properties stored in the slot
+     */
+    public IndividualProperty property(int slot) {
+        IndividualProperty view = views[checkSlot(slot)];
+        if (view == null) {
+            view = new IndividualProperty(this, slot);
+            views[slot] = view;
+        }
+        return view;
+    }
+
+    private int checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " not in [0," + size + ")");
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the number of stored individuals.
+     *
+     * @return the number of stored individuals
+     */
+    public int size() {
+        return size;
+    }
+
+    public Individual getIndividual(int slot) {
+        return individuals[checkSlot(slot)];
+    }
+
+    /**
+     * Returns an unmodifiable view of the stored individuals in the order of their slots.
+     *
+     * @return the view
+     */
+    public List<Individual> individuals() {
+        return individualsView;
+    }
+
+    private class IndividualsView extends AbstractList<Individual> implements RandomAccess {
+
+        @Override
+        public Individual get(int index) {
+            return getIndividual(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Individual && slotOf((Individual) o) >= 0;
+        }
+    }
+
+    boolean isAlarmed(int slot) {
+        return (flags[slot] & ALARMED) != 0;
+    }
+
+    void setAlarmed(int slot) {
+        flags[slot] |= ALARMED;
+    }
+
+    double getRelativeSpeed(int slot) {
+        return relativeSpeed[slot];
+    }
+
+    void setRelativeSpeed(int slot, double value) {
+        relativeSpeed[slot] = value;
+    }
+
+    double getExhaustion(int slot) {
+        return exhaustion[slot];
+    }
+
+    void setExhaustion(int slot, double value) {
+        exhaustion[slot] = value;
+    }
+
+    double getPanic(int slot) {
+        return panic[slot];
+    }
+
+    void setPanic(int slot, double value) {
+        panic[slot] = value;
+    }
+
+    double getStepEndTime(int slot) {
+        return stepEndTime[slot];
+    }
+
+    void setStepEndTime(int slot, double value) {
+        stepEndTime[slot] = value;
+        if ((flags[slot] & EXCLUDED) == 0) {
+            stepEndTimeMax.set(slot, value);
+        }
+    }
+
+    /**
+     * Returns the maximal step end time of all individuals that have not been
+     * {@link #excludeFromStepEndTimeMax(int) excluded}. The value is maintained whenever a step end time changes.
+     *
+     * @return the maximal step end time, {@link Double#NEGATIVE_INFINITY} if all individuals are excluded
+     */
+    double getMaxStepEndTime() {
+        return stepEndTimeMax.max();
+    }
+
+    /**
+     * Excludes the step end time of an individual from the maximum, for example because it left the simulation.
+     *
+     * @param slot the slot of the individual
+     */
+    void excludeFromStepEndTimeMax(int slot) {
+        flags[slot] |= EXCLUDED;
+        stepEndTimeMax.set(slot, Double.NEGATIVE_INFINITY);
+    }
+
+    double getStepStartTime(int slot) {
+        return stepStartTime[slot];
+    }
+
+    void setStepStartTime(int slot, double value) {
+        stepStartTime[slot] = value;
+    }
+
+    Direction8 getDirection(int slot) {
+        return direction[slot] < 0 ? null : DIRECTIONS[direction[slot]];
+    }
+
+    void setDirection(int slot, Direction8 value) {
+        direction[slot] = value == null ? -1 : (byte) value.ordinal();
+    }
+
+    int getSafetyTime(int slot) {
+        return safetyTime[slot];
+    }
+
+    void setSafetyTime(int slot, int value) {
+        safetyTime[slot] = value;
+    }
+
+    int getEvacuationTime(int slot) {
+        return evacuationTime[slot];
+    }
+
+    void setEvacuationTime(int slot, int value) {
+        evacuationTime[slot] = value;
+    }
+
+    EvacCellInterface getCell(int slot) {
+        return cell[slot];
+    }
+
+    void setCell(int slot, EvacCellInterface value) {
+        cell[slot] = value;
+    }
+
+    Potential getStaticPotential(int slot) {
+        return staticPotential[slot];
+    }
+
+    void setStaticPotential(int slot, Potential value) {
+        staticPotential[slot] = value;
+    }
+
+    DeathCause getDeathCause(int slot) {
+        return deathCause[slot];
+    }
+
+    void setDeathCause(int slot, DeathCause value) {
+        deathCause[slot] = value;
+    }
+}
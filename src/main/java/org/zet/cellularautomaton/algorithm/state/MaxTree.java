@@ -0,0 +1,83 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm.state;
+
+import java.util.Arrays;
+
+/**
+ * Maintains the maximum of a sequence of values under point updates. The values are the leaves of a complete binary
+ * tree whose inner nodes store the maximum of their children, thus an update takes logarithmic time and the maximum is
+ * available in constant time. Unset positions have the value {@link Double#NEGATIVE_INFINITY}. Updates are
+ * synchronized, such that the values of different positions can be set concurrently.
+ */
+class MaxTree {
+
+    /** The number of leaves, a power of two. */
+    private int leaves;
+    /** The nodes of the tree, the root is at index 1 and the leaves start at index {@link #leaves}. */
+    private double[] nodes;
+
+    MaxTree(int capacity) {
+        leaves = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        nodes = new double[2 * leaves];
+        Arrays.fill(nodes, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Sets the value at a position.
+     *
+     * @param position the position
+     * @param value the new value, {@link Double#NEGATIVE_INFINITY} removes the position from the maximum
+     */
+    synchronized void set(int position, double value) {
+        if (position >= leaves) {
+            grow(position + 1);
+        }
+        int node = leaves + position;
+        nodes[node] = value;
+        for (node >>= 1; node > 0; node >>= 1) {
+            double max = Math.max(nodes[2 * node], nodes[2 * node + 1]);
+            if (nodes[node] == max) {
+                break;
+            }
+            nodes[node] = max;
+        }
+    }
+
+    /**
+     * Returns the maximal value.
+     *
+     * @return the maximal value, {@link Double#NEGATIVE_INFINITY} if no value is set
+     */
+    synchronized double max() {
+        return nodes[1];
+    }
+
+    private void grow(int capacity) {
+        int newLeaves = leaves;
+        while (newLeaves < capacity) {
+            newLeaves <<= 1;
+        }
+        double[] newNodes = new double[2 * newLeaves];
+        Arrays.fill(newNodes, Double.NEGATIVE_INFINITY);
+        System.arraycopy(nodes, leaves, newNodes, newLeaves, leaves);
+        for (int node = newLeaves - 1; node > 0; --node) {
+            newNodes[node] = Math.max(newNodes[2 * node], newNodes[2 * node + 1]);
+        }
+        leaves = newLeaves;
+        nodes = newNodes;
+    }
+}
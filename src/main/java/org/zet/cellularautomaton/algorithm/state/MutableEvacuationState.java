@@ -18,21 +18,23 @@ package org.zet.cellularautomaton.algorithm.state;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.Optional;
 import org.zet.cellularautomaton.DeathCause;
 import org.zet.cellularautomaton.EvacCell;
 import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.IndividualToExitMapping;
+import org.zet.cellularautomaton.potential.AdaptiveDynamicPotential;
+import org.zet.cellularautomaton.potential.DenseDynamicPotential;
+import org.zet.cellularautomaton.potential.DynamicFloorField;
 import org.zet.cellularautomaton.potential.DynamicPotential;
+import org.zet.cellularautomaton.potential.DynamicPotentialMode;
+import org.zet.cellularautomaton.potential.GridDynamicPotential;
+import org.zet.cellularautomaton.random.RandomSource;
+import org.zet.cellularautomaton.results.DynamicPotentialDiffAction;
 import org.zet.cellularautomaton.statistic.CAStatisticWriter;
 import org.zet.cellularautomaton.EvacuationCellularAutomaton;
 
@@ -54,19 +56,19 @@ public class MutableEvacuationState implements EvacuationState {
     private final EvacuationCellularAutomaton ca;
     /** The parameter set of the simulation run. */
 
-    /** Mapping of individuals to their dynamic properties. */
-    private final Map<Individual, IndividualProperty> individualProperties;
+    /** The dynamic properties of the individuals. */
+    private final IndividualStateStore individualProperties;
     
-    /** The individuals initially in the simulation. */
-    private final List<Individual> initialIndividuals = new LinkedList<>();
+    /** The individuals initially in the simulation, in the order of their slots in the store. */
+    private final List<Individual> initialIndividuals;
     /** The individuals that are still active in the simulation, i.e. living, unsafe. */
-    private final List<Individual> remainingIndividuals = new LinkedList<>();
+    private final ActiveIndividuals remainingIndividuals;
     /** The individuals that are already dead. */
-    private final Set<Individual> deadIndividuals = new HashSet<>();
+    private final SlotSet deadIndividuals;
     /** The individuals that are safe, but not necessarily evacuated. */
-    private final Set<Individual> safeIndividuals = new HashSet<>();
+    private final SlotSet safeIndividuals;
     /** The individuals which are already out of the simulation because they are evacuated. */
-    private final Set<Individual> evacuatedIndividuals = new HashSet<>();
+    private final SlotSet evacuatedIndividuals;
     /** The number of individuals that are active but not yet safe. */
     private int notSaveIndividualsCount = 0;
 
@@ -77,8 +79,12 @@ public class MutableEvacuationState implements EvacuationState {
     /** The individuals that are to be removed at the end of the current step. */
     private final List<Individual> markedForRemoval = new ArrayList<>();
 
-    /** The single DynamicPotential. */
-    private final DynamicPotential dynamicPotential;
+    /** The single dynamic floor field. */
+    private final DynamicFloorField dynamicPotential;
+    /** Collects the changes of the dynamic potential, {@code null} if the changes are not recorded. */
+    private DynamicPotentialDiffAction.Builder dynamicPotentialDiff;
+    /** The source of random numbers of the simulation run. */
+    private final RandomSource random;
 
     /** A mapping that maps individuals to exits. */
     private IndividualToExitMapping individualToExitMapping;
@@ -87,16 +93,86 @@ public class MutableEvacuationState implements EvacuationState {
     public CAStatisticWriter caStatisticWriter;
 
     public MutableEvacuationState(EvacuationCellularAutomaton ca, List<Individual> individuals) {
+        this(ca, individuals, RandomSource.global());
+    }
+
+    /**
+     * Creates the state of a simulation run that owns the given source of random numbers. The dynamic potential is
+     * stored in a {@link DynamicPotentialMode#MAP map}.
+     *
+     * @param ca the cellular automaton
+     * @param individuals the individuals initially in the simulation
+     * @param random the random source of the simulation run
+     */
+    public MutableEvacuationState(EvacuationCellularAutomaton ca, List<Individual> individuals, RandomSource random) {
+        this(ca, individuals, random, DynamicPotentialMode.MAP);
+    }
+
+    /**
+     * Creates the state of a simulation run that owns the given source of random numbers and stores the dynamic
+     * potential in the given storage scheme. The storage scheme is only taken into account if the cells of the
+     * cellular automaton are indexed.
+     *
+     * @param ca the cellular automaton
+     * @param individuals the individuals initially in the simulation
+     * @param random the random source of the simulation run
+     * @param mode the storage scheme of the dynamic potential
+     */
+    public MutableEvacuationState(EvacuationCellularAutomaton ca, List<Individual> individuals, RandomSource random,
+            DynamicPotentialMode mode) {
         this.ca = ca;
-        individualProperties = new HashMap<>();
+        this.random = Objects.requireNonNull(random, "Random source must not be null.");
+        individualProperties = new IndividualStateStore(individuals.size());
+        initialIndividuals = individualProperties.individuals();
+        remainingIndividuals = new ActiveIndividuals(individualProperties);
+        deadIndividuals = new SlotSet(individualProperties);
+        safeIndividuals = new SlotSet(individualProperties);
+        evacuatedIndividuals = new SlotSet(individualProperties);
         individuals.stream().forEach(individual -> addIndividualInt(individual));
-        dynamicPotential = new DynamicPotential();
+        dynamicPotential = createDynamicPotential(ca, random, Objects.requireNonNull(mode, "Mode must not be null."));
         caStatisticWriter = new CAStatisticWriter(this);
+    }
+
+    /**
+     * Creates the dynamic floor field for a cellular automaton. The array based storage schemes are only used if the
+     * cells of the cellular automaton are indexed, otherwise the map based floor field is used.
+     *
+     * @param ca the cellular automaton
+     * @param random the random source used for diffusion and decay
+     * @param mode the storage scheme
+     * @return the dynamic floor field
+     */
+    private static DynamicFloorField createDynamicPotential(EvacuationCellularAutomaton ca, RandomSource random,
+            DynamicPotentialMode mode) {
+        int cellCount = ca == null ? 0 : ca.getCellCount();
+        if (cellCount > 0) {
+            switch (mode) {
+                case LIST:
+                    return new DenseDynamicPotential(cellCount, random);
+                case GRID:
+                    return new GridDynamicPotential(ca.getRooms(), cellCount, random);
+                case AUTOMATIC:
+                    return new AdaptiveDynamicPotential(ca.getRooms(), cellCount, random);
+                default:
+                    break;
+            }
         }
+        return new DynamicPotential(random);
+    }
+
+    /**
+     * Returns the source of random numbers of the simulation run.
+     *
+     * @return the random source
+     */
+    public RandomSource getRandomSource() {
+        return random;
+    }
     
     @Override
     public IndividualProperty propertyFor(Individual i) {
-        return Objects.requireNonNull(individualProperties.get(i), () -> ERROR_NOT_EXISTING.format(new Object[] {i}));
+        return Objects.requireNonNull(individualProperties.propertyFor(i),
+                () -> ERROR_NOT_EXISTING.format(new Object[] {i}));
     }
 
     @Override
@@ -109,12 +185,13 @@ public class MutableEvacuationState implements EvacuationState {
         updateNecessaryTime();
     }
     
+    /**
+     * Extends the necessary time to the latest step end time of the remaining individuals. The maximum is maintained
+     * by the store whenever a step end time changes, thus the update takes constant time.
+     */
     private void updateNecessaryTime() {
-        double tempTime = necessaryTime;
-        for( Individual i : remainingIndividuals ) {
-            tempTime = Math.max(necessaryTime, propertyFor(i).getStepEndTime());
-        }
-        necessaryTime = (int)Math.ceil(tempTime);        
+        double tempTime = Math.max(necessaryTime, individualProperties.getMaxStepEndTime());
+        necessaryTime = (int)Math.ceil(tempTime);
     }
 
     /**
@@ -159,6 +236,33 @@ public class MutableEvacuationState implements EvacuationState {
         dynamicPotential.update(probabilityDynamicIncrease, probabilityDynamicDecrease);
     }
 
+    /**
+     * Starts to collect the changes of the dynamic potential. The changes are merged into one diff per step that is
+     * retrieved by {@link #takeDynamicPotentialDiff()}.
+     *
+     * @throws IllegalStateException if the cells of the cellular automaton are not indexed
+     */
+    public void recordDynamicPotentialDiffs() {
+        int cellCount = ca.getCellCount();
+        if (cellCount == 0) {
+            throw new IllegalStateException("Recording dynamic potential diffs requires indexed cells.");
+        }
+        dynamicPotentialDiff = new DynamicPotentialDiffAction.Builder(cellCount);
+        dynamicPotential.setDiffBuilder(dynamicPotentialDiff);
+    }
+
+    /**
+     * Returns the diff of the changes of the dynamic potential since the last call and starts a new diff.
+     *
+     * @return the diff, empty if changes are not recorded or the potential has not changed
+     */
+    public Optional<DynamicPotentialDiffAction> takeDynamicPotentialDiff() {
+        if (dynamicPotentialDiff == null || dynamicPotentialDiff.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(dynamicPotentialDiff.build());
+    }
+
     @Override
     public EvacuationCellularAutomaton getCellularAutomaton() {
         return ca;
@@ -197,12 +301,10 @@ public class MutableEvacuationState implements EvacuationState {
         addIndividualInt(i);
     }
     private void addIndividualInt(Individual i) {
-        if (initialIndividuals.contains(i)) {
+        if (individualProperties.slotOf(i) >= 0) {
             throw new IllegalArgumentException("Individual with id " + i.id() + " exists already in list individuals.");
         } else {
-            individualProperties.put(i, new IndividualProperty(i));
-            initialIndividuals.add(i);
-            remainingIndividuals.add(i);
+            remainingIndividuals.add(individualProperties.add(i));
         }
 
         notSaveIndividualsCount++;
@@ -225,7 +327,7 @@ public class MutableEvacuationState implements EvacuationState {
      * @return list of active initialIndividuals
      */
     public List<Individual> getRemainingIndividuals() {
-        return Collections.unmodifiableList(remainingIndividuals);
+        return remainingIndividuals.view();
     }
 
     /**
@@ -234,7 +336,7 @@ public class MutableEvacuationState implements EvacuationState {
      * @return the view
      */
     public List<Individual> getInitialIndividuals() {
-        return Collections.unmodifiableList(initialIndividuals);
+        return initialIndividuals;
     }
 
     @Override
@@ -248,7 +350,8 @@ public class MutableEvacuationState implements EvacuationState {
      * @param i indicates wheather the individual is save or not
      */
     public void addToSafe(Individual i) {
-        if (safeIndividuals.contains(i)) {
+        int slot = individualProperties.slotOf(i);
+        if (safeIndividuals.contains(slot)) {
             return;
         }
 
@@ -256,7 +359,7 @@ public class MutableEvacuationState implements EvacuationState {
             throw new IllegalArgumentException(ERROR_NOT_SAFE.format(new Object[] {i}));
         }
 
-        safeIndividuals.add(i);
+        safeIndividuals.add(slot);
         notSaveIndividualsCount--;
     }
 
@@ -269,16 +372,17 @@ public class MutableEvacuationState implements EvacuationState {
      * @param i specifies the Individual object which has to be removed from the list and added to the other list
      */
     public void addToEvacuated(Individual i) {
-        if (!initialIndividuals.contains(i)) {
+        int slot = individualProperties.slotOf(i);
+        if (slot < 0) {
             throw new IllegalArgumentException(ERROR_NOT_IN_LIST.format(new Object[] {i}));
         }
         if(!propertyFor(i).isEvacuated()) {
             throw new IllegalArgumentException(ERROR_NOT_EVACUATED.format(new Object[] {i}));
         }
         addToSafe(i);
-        remainingIndividuals.remove(i);
+        remainingIndividuals.remove(slot);
 
-        evacuatedIndividuals.add(i);
+        evacuatedIndividuals.add(slot);
     }
 
     /**
@@ -287,7 +391,7 @@ public class MutableEvacuationState implements EvacuationState {
      * @return the view
      */
     public Collection<Individual> getEvacuatedIndividuals() {
-        return Collections.unmodifiableSet(evacuatedIndividuals);
+        return evacuatedIndividuals.view();
     }
 
     public int evacuatedIndividualsCount() {
@@ -295,13 +399,14 @@ public class MutableEvacuationState implements EvacuationState {
     }
 
     public void addToDead(Individual i) {
-        if (!remainingIndividuals.remove(i)) {
+        int slot = individualProperties.slotOf(i);
+        if (!remainingIndividuals.remove(slot)) {
             throw new IllegalArgumentException(ERROR_NOT_IN_LIST.format(new Object[] {i}));
         }
         if(!propertyFor(i).isDead()) {
             throw new IllegalArgumentException(ERROR_NOT_DEAD.format(new Object[] {i}));
         }
-        deadIndividuals.add(i);
+        deadIndividuals.add(slot);
 
         notSaveIndividualsCount--;
     }
@@ -316,7 +421,7 @@ public class MutableEvacuationState implements EvacuationState {
      * @return the view
      */
     public Collection<Individual> getDeadIndividuals() {
-        return Collections.unmodifiableSet(deadIndividuals);
+        return deadIndividuals.view();
     }
 
     public int getNotSafeIndividualsCount() {
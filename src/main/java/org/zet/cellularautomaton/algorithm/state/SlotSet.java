@@ -0,0 +1,121 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm.state;
+
+import java.util.AbstractCollection;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.zet.cellularautomaton.Individual;
+
+/**
+ * A set of individuals of an {@link IndividualStateStore} represented by a bit for each slot. Insertion, removal and
+ * membership tests take constant time. The {@link #view() view} iterates the individuals in the order of their slots.
+ */
+class SlotSet {
+
+    private final IndividualStateStore store;
+    private final BitSet slots = new BitSet();
+    private int size;
+    private final Collection<Individual> view = new View();
+
+    SlotSet(IndividualStateStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Adds a slot to the set.
+     *
+     * @param slot the slot
+     * @return {@code true} if the slot was not yet contained
+     */
+    boolean add(int slot) {
+        if (slots.get(slot)) {
+            return false;
+        }
+        slots.set(slot);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a slot from the set.
+     *
+     * @param slot the slot, may be -1 for individuals that are not stored
+     * @return {@code true} if the slot was contained
+     */
+    boolean remove(int slot) {
+        if (!contains(slot)) {
+            return false;
+        }
+        slots.clear(slot);
+        size--;
+        return true;
+    }
+
+    boolean contains(int slot) {
+        return slot >= 0 && slots.get(slot);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns an unmodifiable view of the individuals in the set.
+     *
+     * @return the view
+     */
+    Collection<Individual> view() {
+        return view;
+    }
+
+    private class View extends AbstractCollection<Individual> {
+
+        @Override
+        public Iterator<Individual> iterator() {
+            return new Iterator<Individual>() {
+                private int next = slots.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Individual next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    Individual individual = store.getIndividual(next);
+                    next = slots.nextSetBit(next + 1);
+                    return individual;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Individual && SlotSet.this.contains(store.slotOf((Individual) o));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
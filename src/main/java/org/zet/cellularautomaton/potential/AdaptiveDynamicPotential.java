@@ -0,0 +1,142 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.Collection;
+import java.util.Iterator;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.Room;
+import org.zet.cellularautomaton.random.RandomSource;
+import org.zet.cellularautomaton.results.DynamicPotentialDiffAction;
+
+/**
+ * A dynamic potential that switches between the {@link DenseDynamicPotential list based} and the
+ * {@link GridDynamicPotential grid based} storage depending on the share of cells that carry potential. The storage is
+ * only switched at the beginning of an {@link #update(double, double) update}. The two thresholds differ, such that
+ * the storage does not change back and forth if the occupancy stays around one threshold.
+ */
+public class AdaptiveDynamicPotential implements DynamicFloorField {
+
+    /** Share of cells with potential above which the grid is used. */
+    static final double DENSE_OCCUPANCY = 0.5;
+    /** Share of cells with potential below which the list is used. */
+    static final double SPARSE_OCCUPANCY = 0.25;
+
+    private final DenseDynamicPotential sparse;
+    private final GridDynamicPotential dense;
+    private final int cellCount;
+    /** The storage currently holding the values, either {@link #sparse} or {@link #dense}. */
+    private DynamicFloorField current;
+
+    /**
+     * Creates an empty dynamic potential for the given rooms using the random source of a simulation. The potential
+     * initially uses the list based storage.
+     *
+     * @param rooms the rooms of the cellular automaton
+     * @param cellCount the number of indexed cells
+     * @param random the random source used for diffusion and decay
+     * @throws IllegalArgumentException if a cell of the rooms is not indexed
+     */
+    public AdaptiveDynamicPotential(Collection<? extends Room> rooms, int cellCount, RandomSource random) {
+        sparse = new DenseDynamicPotential(cellCount, random);
+        dense = new GridDynamicPotential(rooms, cellCount, random);
+        this.cellCount = cellCount;
+        current = sparse;
+    }
+
+    /**
+     * Returns whether the values are currently stored in the grid based storage.
+     *
+     * @return {@code true} if the grid based storage is used, {@code false} if the list based storage is used
+     */
+    public boolean isDense() {
+        return current == dense;
+    }
+
+    @Override
+    public void setPotential(EvacCellInterface cell, double value) {
+        current.setPotential(cell, value);
+    }
+
+    @Override
+    public void increase(EvacCellInterface cell) {
+        current.increase(cell);
+    }
+
+    @Override
+    public void decrease(EvacCellInterface cell) {
+        current.decrease(cell);
+    }
+
+    @Override
+    public void setDiffBuilder(DynamicPotentialDiffAction.Builder diff) {
+        sparse.setDiffBuilder(diff);
+        dense.setDiffBuilder(diff);
+    }
+
+    @Override
+    public void update(double diffusion, double decay) {
+        if (isDense()) {
+            if (dense.getMappedCellCount() < SPARSE_OCCUPANCY * cellCount) {
+                moveValues(dense, sparse);
+                dense.clear();
+                current = sparse;
+            }
+        } else if (sparse.getMappedCellCount() > DENSE_OCCUPANCY * cellCount) {
+            moveValues(sparse, dense);
+            sparse.clear();
+            current = dense;
+        }
+        current.update(diffusion, decay);
+    }
+
+    private static void moveValues(Potential from, DenseDynamicPotential to) {
+        for (EvacCellInterface cell : from) {
+            to.load(cell, from.getPotential(cell));
+        }
+    }
+
+    private static void moveValues(Potential from, GridDynamicPotential to) {
+        for (EvacCellInterface cell : from) {
+            to.load(cell, from.getPotential(cell));
+        }
+    }
+
+    @Override
+    public int getPotential(EvacCellInterface cell) {
+        return current.getPotential(cell);
+    }
+
+    @Override
+    public double getPotentialDouble(EvacCellInterface cell) {
+        return current.getPotentialDouble(cell);
+    }
+
+    @Override
+    public int getMaxPotential() {
+        return current.getMaxPotential();
+    }
+
+    @Override
+    public boolean hasValidPotential(EvacCellInterface cell) {
+        return current.hasValidPotential(cell);
+    }
+
+    @Override
+    public Iterator<EvacCellInterface> iterator() {
+        return current.iterator();
+    }
+}
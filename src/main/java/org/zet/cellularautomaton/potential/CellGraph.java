@@ -0,0 +1,199 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.zet.cellularautomaton.DoorCell;
+import org.zet.cellularautomaton.EvacCell;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.Room;
+import org.zet.cellularautomaton.Stairs;
+
+/**
+ * An immutable, compact representation of the reachable neighbours of all cells. The cells are identified by their
+ * {@link EvacCellInterface#getId() id} and the neighbours of each cell are stored consecutively in a single array.
+ * The graph is built once and can be shared by several potential computations, also concurrently.
+ */
+public final class CellGraph {
+
+    /** The distance between orthogonal neighbours in meters. */
+    static final double ORTHOGONAL_DISTANCE = 0.4;
+    /** The distance between diagonal neighbours in meters. */
+    static final double DIAGONAL_DISTANCE = Math.sqrt(2) * 0.4;
+
+    private final EvacCellInterface[] cells;
+    private final boolean[] exit;
+    /** The neighbours of cell {@code i} are stored at the positions {@code first[i]} to {@code first[i+1] - 1}. */
+    private final int[] first;
+    private final int[] target;
+    private final boolean[] orthogonal;
+    /** The speed factor for entering the cell of an edge from its neighbour. */
+    private final double[] entryFactor;
+
+    private CellGraph(EvacCellInterface[] cells, boolean[] exit, int[] first, int[] target, boolean[] orthogonal,
+            double[] entryFactor) {
+        this.cells = cells;
+        this.exit = exit;
+        this.first = first;
+        this.target = target;
+        this.orthogonal = orthogonal;
+        this.entryFactor = entryFactor;
+    }
+
+    /**
+     * Creates the graph for the cells of the given rooms. The ids of the cells in the rooms must be exactly the
+     * numbers from {@code 0} to {@code n - 1}, as assigned by the builder of the cellular automaton.
+     *
+     * @param rooms the rooms
+     * @return the neighbour graph of all cells
+     * @throws IllegalArgumentException if the cells are not indexed densely
+     */
+    public static CellGraph of(Iterable<? extends Room> rooms) {
+        List<EvacCell> cellList = new ArrayList<>();
+        rooms.forEach(room -> cellList.addAll(room.getAllCells()));
+        int n = cellList.size();
+        EvacCellInterface[] cells = new EvacCellInterface[n];
+        for (EvacCell cell : cellList) {
+            int id = cell.getId();
+            if (id < 0 || id >= n || cells[id] != null) {
+                throw new IllegalArgumentException("Cells are not indexed densely: " + cell);
+            }
+            cells[id] = cell;
+        }
+
+        boolean[] exit = new boolean[n];
+        int[] first = new int[n + 1];
+        int[] target = new int[8 * n];
+        boolean[] orthogonal = new boolean[8 * n];
+        double[] entryFactor = new double[8 * n];
+        int edges = 0;
+        for (int i = 0; i < n; ++i) {
+            EvacCellInterface cell = cells[i];
+            exit[i] = cell instanceof ExitCell;
+            first[i] = edges;
+            for (EvacCellInterface neighbour : cell.getNeighbours()) {
+                int id = neighbour.getId();
+                if (id < 0 || id >= n || cells[id] != neighbour) {
+                    throw new IllegalArgumentException("Neighbour " + neighbour + " of " + cell + " is not indexed.");
+                }
+                if (edges == target.length) {
+                    target = Arrays.copyOf(target, 2 * edges);
+                    orthogonal = Arrays.copyOf(orthogonal, 2 * edges);
+                    entryFactor = Arrays.copyOf(entryFactor, 2 * edges);
+                }
+                boolean teleport = cell instanceof DoorCell && neighbour instanceof DoorCell;
+                target[edges] = id;
+                orthogonal[edges] = teleport || cell.getX() == neighbour.getX() || cell.getY() == neighbour.getY();
+                entryFactor[edges] = cell.getSpeedFactor();
+                if (!teleport && cell instanceof Stairs) {
+                    entryFactor[edges] *= ((Stairs) cell).getStairSpeedFactor(neighbour.getRelative(cell));
+                }
+                edges++;
+            }
+        }
+        first[n] = edges;
+        return new CellGraph(cells, exit, first, Arrays.copyOf(target, edges), Arrays.copyOf(orthogonal, edges),
+                Arrays.copyOf(entryFactor, edges));
+    }
+
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    public EvacCellInterface getCell(int id) {
+        return cells[id];
+    }
+
+    /**
+     * The cells indexed by their id. The array is shared and must not be modified.
+     *
+     * @return the cells
+     */
+    EvacCellInterface[] cells() {
+        return cells;
+    }
+
+    public boolean isExit(int id) {
+        return exit[id];
+    }
+
+    /**
+     * Returns the index of the first neighbour edge of a cell.
+     *
+     * @param id the id of the cell
+     * @return the index of the first edge
+     */
+    public int firstEdge(int id) {
+        return first[id];
+    }
+
+    /**
+     * Returns the index after the last neighbour edge of a cell.
+     *
+     * @param id the id of the cell
+     * @return the index after the last edge
+     */
+    public int endEdge(int id) {
+        return first[id + 1];
+    }
+
+    /**
+     * Returns the id of the neighbour cell of an edge.
+     *
+     * @param edge the index of the edge
+     * @return the id of the neighbour
+     */
+    public int target(int edge) {
+        return target[edge];
+    }
+
+    /**
+     * Decides whether the cells of an edge are orthogonal neighbours. Neighbouring door cells are considered
+     * orthogonal.
+     *
+     * @param edge the index of the edge
+     * @return {@code true} if the cells are orthogonal neighbours, {@code false} if they are diagonal neighbours
+     */
+    public boolean isOrthogonal(int edge) {
+        return orthogonal[edge];
+    }
+
+    /**
+     * Returns the length of an edge in meters, i.e. the distance between the centers of the cells. Neighbouring door
+     * cells have the distance of orthogonal neighbours.
+     *
+     * @param edge the index of the edge
+     * @return the length of the edge
+     */
+    public double length(int edge) {
+        return orthogonal[edge] ? ORTHOGONAL_DISTANCE : DIAGONAL_DISTANCE;
+    }
+
+    /**
+     * Returns the factor by which the speed is reduced when an individual moves from the neighbour of an edge into
+     * the cell the edge belongs to. This is the speed factor of the cell, multiplied with the stair speed factor for
+     * the direction of the movement if the cell is a stair.
+     *
+     * @param edge the index of the edge
+     * @return the speed factor for entering the cell
+     */
+    public double entryFactor(int edge) {
+        return entryFactor[edge];
+    }
+}
@@ -0,0 +1,299 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.localization.CellularAutomatonLocalization;
+import org.zet.cellularautomaton.random.RandomSource;
+import org.zet.cellularautomaton.results.DynamicPotentialDiffAction;
+
+/**
+ * A dynamic potential that stores its values in an {@code int} array indexed by the
+ * {@link EvacCellInterface#getId() id} of the cells. The dynamic potential only takes non-negative integral values, a
+ * value of 0 means that the cell has no dynamic potential. Additionally the cells with positive potential are kept in
+ * a list, such that iteration and updates only visit cells that actually carry potential.
+ *
+ * The {@link #update(double, double) update} works on buffers that are allocated once, so that a simulation step does
+ * not create garbage proportional to the number of cells with potential.
+ */
+public class DenseDynamicPotential implements DynamicFloorField {
+
+    /** The potential values, 0 for cells without potential. */
+    private final int[] potential;
+    /** The cells, indexed by their id. */
+    private final EvacCellInterface[] cells;
+    /** The ids of the cells with positive potential in the first {@code activeCount} entries. */
+    private final int[] active;
+    /** The position of a cell in {@link #active}, only valid for cells with positive potential. */
+    private final int[] position;
+    private int activeCount;
+    /** The maximal potential value, if not {@link #maxPotentialValid valid} it has to be recomputed. */
+    private int maxPotential;
+    private boolean maxPotentialValid = true;
+    /** Collects the changes of the current step, {@code null} if changes are not recorded. */
+    private DynamicPotentialDiffAction.Builder diff;
+    /** Applies diffusion and decay to the cells that are visited during an update. */
+    private final DiffusionDecaySweep sweep;
+
+    /**
+     * Creates an empty dynamic potential for a cellular automaton with a given number of cells using the global random
+     * generator.
+     *
+     * @param cellCount the number of cells
+     */
+    public DenseDynamicPotential(int cellCount) {
+        this(cellCount, RandomSource.global());
+    }
+
+    /**
+     * Creates an empty dynamic potential for a cellular automaton with a given number of cells using the random source
+     * of a simulation.
+     *
+     * @param cellCount the number of cells
+     * @param random the random source used for diffusion and decay
+     */
+    public DenseDynamicPotential(int cellCount, RandomSource random) {
+        Objects.requireNonNull(random, "Random source must not be null.");
+        if (cellCount < 0) {
+            throw new IllegalArgumentException("Cell count must be non-negative.");
+        }
+        potential = new int[cellCount];
+        cells = new EvacCellInterface[cellCount];
+        active = new int[cellCount];
+        position = new int[cellCount];
+        sweep = new DiffusionDecaySweep(random);
+    }
+
+    /**
+     * Sets the potential of a cell. A value of 0 removes the potential from the cell.
+     *
+     * @param cell the cell
+     * @param value the new non-negative value
+     * @throws IllegalArgumentException if the cell is not indexed or the value is negative
+     */
+    public void setPotential(EvacCellInterface cell, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Dynamic potential must be non-negative.");
+        }
+        int id = index(cell);
+        cells[id] = cell;
+        set(id, value);
+        recordChange(cell, value);
+    }
+
+    /**
+     * Sets the potential of a cell. The value is rounded to the next integral value.
+     *
+     * @param cell the cell
+     * @param value the new non-negative value
+     * @throws IllegalArgumentException if the cell is not indexed or the value is negative
+     */
+    @Override
+    public void setPotential(EvacCellInterface cell, double value) {
+        setPotential(cell, (int) Math.round(value));
+    }
+
+    private void set(int id, int value) {
+        int old = potential[id];
+        potential[id] = value;
+        if (old == 0 && value > 0) {
+            position[id] = activeCount;
+            active[activeCount++] = id;
+        } else if (old > 0 && value == 0) {
+            int last = active[--activeCount];
+            active[position[id]] = last;
+            position[last] = position[id];
+        }
+        if (value >= maxPotential) {
+            maxPotential = value;
+            maxPotentialValid = true;
+        } else if (old == maxPotential) {
+            maxPotentialValid = false;
+        }
+    }
+
+    /**
+     * Sets the potential of a cell without recording the change. Used to move the values between storage schemes.
+     *
+     * @param cell the cell
+     * @param value the new non-negative value
+     */
+    void load(EvacCellInterface cell, int value) {
+        int id = index(cell);
+        cells[id] = cell;
+        set(id, value);
+    }
+
+    /**
+     * Removes the potential of all cells without recording the change.
+     */
+    void clear() {
+        for (int i = 0; i < activeCount; ++i) {
+            potential[active[i]] = 0;
+        }
+        activeCount = 0;
+        maxPotential = 0;
+        maxPotentialValid = true;
+    }
+
+    @Override
+    public void setDiffBuilder(DynamicPotentialDiffAction.Builder diff) {
+        this.diff = diff;
+    }
+
+    /**
+     * Records a change of the potential of a cell in the diff of the current step, if a diff builder is set.
+     *
+     * @param cell the cell
+     * @param value the new value of the cell
+     */
+    protected void recordChange(EvacCellInterface cell, double value) {
+        if (diff != null) {
+            diff.set(cell.getId(), value);
+        }
+    }
+
+    /**
+     * Increases the potential of the specified cell by one.
+     *
+     * @param cell the cell whose potential is increased
+     */
+    @Override
+    public void increase(EvacCellInterface cell) {
+        int id = index(cell);
+        cells[id] = cell;
+        set(id, potential[id] + 1);
+        recordChange(cell, potential[id]);
+    }
+
+    /**
+     * Decreases the potential of the specified cell by one.
+     *
+     * @param cell the cell whose potential is decreased
+     * @throws IllegalArgumentException if the cell has no dynamic potential
+     */
+    @Override
+    public void decrease(EvacCellInterface cell) {
+        if (!hasValidPotential(cell)) {
+            throw new IllegalArgumentException(CellularAutomatonLocalization.LOC.getString("algo.ca.InsertCellPreviouslyException"));
+        }
+        int id = cell.getId();
+        set(id, potential[id] - 1);
+        recordChange(cell, potential[id]);
+    }
+
+    /**
+     * Updates the values in the same way as {@link DynamicPotential#update(double, double)}. With the probability
+     * {@code diffusion} a cell passes one unit of its potential to a random neighbour, with probability {@code decay}
+     * the potential of a cell decreases by one.
+     *
+     * The cells that carry potential at the beginning of the update are visited in the order in which they are stored
+     * internally, cells that receive potential during the update are not visited. The diffusion and decay random
+     * numbers for all visited cells are drawn in one batch before the cells are processed, the random neighbour is
+     * only drawn for cells that actually diffuse.
+     *
+     * @param diffusion the probability of diffusing to a neighbour cell
+     * @param decay the probability of decreasing the dynamic potential of a cell
+     */
+    @Override
+    public void update(double diffusion, double decay) {
+        final int count = activeCount;
+        EvacCellInterface[] visited = sweep.cells(count);
+        for (int i = 0; i < count; ++i) {
+            visited[i] = cells[active[i]];
+        }
+        sweep.apply(this, count, diffusion, decay);
+    }
+
+    /**
+     * Returns the potential of a cell, 0 if the cell has no dynamic potential.
+     *
+     * @param cell the cell
+     * @return the potential of the cell
+     */
+    @Override
+    public int getPotential(EvacCellInterface cell) {
+        int id = cell.getId();
+        return id >= 0 && id < potential.length ? potential[id] : 0;
+    }
+
+    @Override
+    public double getPotentialDouble(EvacCellInterface cell) {
+        return getPotential(cell);
+    }
+
+    @Override
+    public int getMaxPotential() {
+        if (!maxPotentialValid) {
+            maxPotential = 0;
+            for (int i = 0; i < activeCount; ++i) {
+                maxPotential = Math.max(maxPotential, potential[active[i]]);
+            }
+            maxPotentialValid = true;
+        }
+        return maxPotential;
+    }
+
+    @Override
+    public boolean hasValidPotential(EvacCellInterface cell) {
+        return getPotential(cell) > 0;
+    }
+
+    /**
+     * Returns the number of cells with positive dynamic potential.
+     *
+     * @return the number of cells with positive dynamic potential
+     */
+    public int getMappedCellCount() {
+        return activeCount;
+    }
+
+    private int index(EvacCellInterface cell) {
+        int id = Objects.requireNonNull(cell).getId();
+        if (id < 0 || id >= potential.length) {
+            throw new IllegalArgumentException("Cell " + cell + " is not indexed for " + potential.length + " cells.");
+        }
+        return id;
+    }
+
+    /**
+     * Iterates the cells with positive dynamic potential. The order is unspecified.
+     *
+     * @return an iterator of the cells with positive potential
+     */
+    @Override
+    public Iterator<EvacCellInterface> iterator() {
+        return new Iterator<EvacCellInterface>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < activeCount;
+            }
+
+            @Override
+            public EvacCellInterface next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return cells[active[next++]];
+            }
+        };
+    }
+}
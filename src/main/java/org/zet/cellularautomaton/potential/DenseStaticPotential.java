@@ -0,0 +1,234 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import org.zet.cellularautomaton.EvacCellInterface;
+
+/**
+ * A static potential that stores its values in arrays indexed by the {@link EvacCellInterface#getId() id} of the
+ * cells. In contrast to the {@link StaticPotential} no boxing and hashing is necessary to access a potential value and
+ * the memory consumption is two {@code double} values per cell of the cellular automaton. Only cells that have been
+ * indexed by a cellular automaton can be stored.
+ */
+public class DenseStaticPotential implements Potential {
+
+    /** The potential values, {@code NaN} for cells without potential. */
+    private final double[] potential;
+    /** The exact distance values. */
+    private final double[] distance;
+    /** The cells indexed by their id, used for iteration. May be shared with other potentials. */
+    private EvacCellInterface[] cells;
+    /** Whether the array of cells is shared and has to be copied before it is modified. */
+    private boolean sharedCells;
+    /** Stores the maximal value of this potential. */
+    private double maxPotential = AbstractPotential.INVALID;
+
+    /**
+     * Creates an empty potential for a cellular automaton with a given number of cells.
+     *
+     * @param cellCount the number of cells
+     */
+    public DenseStaticPotential(int cellCount) {
+        if (cellCount < 0) {
+            throw new IllegalArgumentException("Cell count must be non-negative.");
+        }
+        potential = new double[cellCount];
+        Arrays.fill(potential, Double.NaN);
+        distance = new double[cellCount];
+        cells = new EvacCellInterface[cellCount];
+    }
+
+    /**
+     * Creates a potential from precomputed values. The arrays are not copied. The array of cells may be shared, it is
+     * copied before a cell is {@link #setPotential(EvacCellInterface, double) set} that is not contained. Cells with
+     * potential {@code NaN} have no valid potential.
+     *
+     * @param potential the potential values
+     * @param distance the distance values
+     * @param cells the cells, indexed by their id
+     */
+    DenseStaticPotential(double[] potential, double[] distance, EvacCellInterface[] cells) {
+        if (potential.length != distance.length || potential.length != cells.length) {
+            throw new IllegalArgumentException("Array sizes differ.");
+        }
+        this.potential = potential;
+        this.distance = distance;
+        this.cells = cells;
+        this.sharedCells = true;
+        recomputeMaxPotential();
+    }
+
+    /**
+     * Creates a dense copy of a {@link StaticPotential}. All cells of the potential must be indexed.
+     *
+     * @param staticPotential the potential that is copied
+     * @param cellCount the number of cells of the cellular automaton
+     * @return the dense potential with the same potential and distance values
+     */
+    public static DenseStaticPotential of(StaticPotential staticPotential, int cellCount) {
+        DenseStaticPotential dense = new DenseStaticPotential(cellCount);
+        for (EvacCellInterface cell : staticPotential) {
+            dense.setPotential(cell, staticPotential.getPotentialDouble(cell));
+            dense.setDistance(cell, staticPotential.getDistance(cell));
+        }
+        return dense;
+    }
+
+    /**
+     * Associates the potential with the cell and also stores the same value as distance. An existing value is
+     * overwritten.
+     *
+     * @param cell the cell which has to be updated or mapped
+     * @param value potential of the cell
+     * @throws IllegalArgumentException if the cell is not indexed
+     */
+    public void setPotential(EvacCellInterface cell, double value) {
+        int id = index(cell);
+        double old = potential[id];
+        potential[id] = value;
+        distance[id] = value;
+        if (cells[id] != cell) {
+            if (sharedCells) {
+                cells = cells.clone();
+                sharedCells = false;
+            }
+            cells[id] = cell;
+        }
+        if (!Double.isNaN(old) && old == maxPotential && value < old) {
+            recomputeMaxPotential();
+        } else {
+            maxPotential = Math.max(maxPotential, value);
+        }
+    }
+
+    private void recomputeMaxPotential() {
+        maxPotential = AbstractPotential.INVALID;
+        for (double value : potential) {
+            if (!Double.isNaN(value)) {
+                maxPotential = Math.max(maxPotential, value);
+            }
+        }
+    }
+
+    /**
+     * Stores the distance for a cell that already has a potential.
+     *
+     * @param cell the cell which has to be updated
+     * @param value the distance of the cell
+     * @throws IllegalStateException if the cell has no valid potential
+     */
+    public void setDistance(EvacCellInterface cell, double value) {
+        if (!hasValidPotential(cell)) {
+            throw new IllegalStateException(cell + " has no valid potential. Set potential first!");
+        }
+        distance[cell.getId()] = value;
+    }
+
+    /**
+     * Returns the distance of a cell, or -1 if the cell is not mapped by this potential.
+     *
+     * @param cell the cell
+     * @return distance of the specified cell or -1 if the cell is not mapped by this potential
+     */
+    public double getDistance(EvacCellInterface cell) {
+        return hasValidPotential(Objects.requireNonNull(cell)) ? distance[cell.getId()] : -1;
+    }
+
+    public double getMaxDistance() {
+        double maxDistance = 0;
+        for (int i = 0; i < distance.length; ++i) {
+            if (!Double.isNaN(potential[i])) {
+                maxDistance = Math.max(maxDistance, distance[i]);
+            }
+        }
+        return maxDistance;
+    }
+
+    @Override
+    public int getPotential(EvacCellInterface cell) {
+        return (int) Math.round(getPotentialDouble(cell));
+    }
+
+    @Override
+    public double getPotentialDouble(EvacCellInterface cell) {
+        if (hasValidPotential(cell)) {
+            return potential[cell.getId()];
+        }
+        throw new IllegalArgumentException("Potential for " + cell + " not defined");
+    }
+
+    @Override
+    public int getMaxPotential() {
+        return (int) Math.round(maxPotential);
+    }
+
+    public double getMaxPotentialDouble() {
+        return maxPotential;
+    }
+
+    @Override
+    public boolean hasValidPotential(EvacCellInterface cell) {
+        int id = cell.getId();
+        return id >= 0 && id < potential.length && !Double.isNaN(potential[id]);
+    }
+
+    private int index(EvacCellInterface cell) {
+        int id = Objects.requireNonNull(cell).getId();
+        if (id < 0 || id >= potential.length) {
+            throw new IllegalArgumentException("Cell " + cell + " is not indexed for " + potential.length + " cells.");
+        }
+        return id;
+    }
+
+    /**
+     * Iterates the cells with a valid potential in the order of their ids.
+     *
+     * @return an iterator of the cells with a valid potential
+     */
+    @Override
+    public Iterator<EvacCellInterface> iterator() {
+        return new Iterator<EvacCellInterface>() {
+            private int next = advance(0);
+
+            private int advance(int from) {
+                int i = from;
+                while (i < cells.length && Double.isNaN(potential[i])) {
+                    i++;
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < cells.length;
+            }
+
+            @Override
+            public EvacCellInterface next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                EvacCellInterface cell = cells[next];
+                next = advance(next + 1);
+                return cell;
+            }
+        };
+    }
+}
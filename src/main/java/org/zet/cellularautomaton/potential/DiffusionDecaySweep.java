@@ -0,0 +1,142 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.List;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.random.RandomSource;
+
+/**
+ * Applies the diffusion and decay of {@link DynamicPotential#update(double, double)} to a batch of cells of an array
+ * based dynamic floor field. The diffusion and decay random numbers for all cells of a batch are drawn before the
+ * cells are processed, the random neighbour and the second decay number are only drawn for cells that diffuse. The
+ * buffers for the cells and the random numbers are allocated once and grow when needed.
+ *
+ * The random numbers are drawn as uniformly distributed 53 bit integers and compared with {@link #threshold(double)
+ * thresholds} computed once per update, an event with probability {@code p} happens if the number is below the
+ * threshold of {@code p}. This is the same decision as {@code p > nextDouble()} for sources that compute their doubles
+ * from the upper 53 bits of {@link RandomSource#nextLong()}.
+ */
+class DiffusionDecaySweep {
+
+    /** The number of distinct values of a draw. */
+    private static final double DRAW_RANGE = 0x1p53;
+
+    /** The random source used for diffusion and decay. */
+    private final RandomSource random;
+    /** The cells of the current batch. */
+    private EvacCellInterface[] cells = new EvacCellInterface[0];
+    /** The diffusion and decay random numbers of a batch, two for each cell. */
+    private long[] draws = new long[0];
+
+    DiffusionDecaySweep(RandomSource random) {
+        this.random = random;
+    }
+
+    /**
+     * Returns the threshold for an event of the given probability. A {@link #draw() draw} is below the threshold with
+     * the given probability.
+     *
+     * @param probability the probability of the event
+     * @return the number of draws for which the event happens
+     */
+    static long threshold(double probability) {
+        if (!(probability > 0)) {
+            return 0;
+        }
+        return probability >= 1 ? (long) DRAW_RANGE : (long) Math.ceil(probability * DRAW_RANGE);
+    }
+
+    /**
+     * Draws a uniformly distributed integer in {@code [0, 2^53)}.
+     *
+     * @return the random number
+     */
+    long draw() {
+        return random.nextLong() >>> 11;
+    }
+
+    /**
+     * Draws the diffusion and decay random numbers for a batch of cells. The numbers of the cell {@code i} of the batch
+     * are stored at index {@code 2 * i} and {@code 2 * i + 1} of the returned buffer.
+     *
+     * @param count the number of cells in the batch
+     * @return the buffer containing the random numbers
+     */
+    long[] draw(int count) {
+        if (draws.length < 2 * count) {
+            draws = new long[Math.max(2 * count, 2 * draws.length)];
+        }
+        for (int i = 0; i < 2 * count; ++i) {
+            draws[i] = draw();
+        }
+        return draws;
+    }
+
+    /**
+     * Chooses the neighbour a cell diffuses to.
+     *
+     * @param neighbours the number of neighbours of the cell
+     * @return the index of the neighbour
+     */
+    int neighbour(int neighbours) {
+        return random.nextInt(neighbours);
+    }
+
+    /**
+     * Returns a buffer that can hold a batch of the given size. The caller fills in the cells to visit and passes the
+     * number of cells to {@link #apply(DynamicFloorField, int, double, double)}.
+     *
+     * @param size the number of cells in the batch
+     * @return the buffer for the cells of the batch
+     */
+    EvacCellInterface[] cells(int size) {
+        if (cells.length < size) {
+            cells = new EvacCellInterface[Math.max(size, 2 * cells.length)];
+        }
+        return cells;
+    }
+
+    /**
+     * Visits the first {@code count} cells of the {@link #cells(int) buffer} in order. With the probability
+     * {@code diffusion} a cell passes one unit of its potential to a random neighbour, with probability {@code decay}
+     * the potential of a cell decreases by one.
+     *
+     * @param field the floor field whose values are changed
+     * @param count the number of cells in the batch
+     * @param diffusion the probability of diffusing to a neighbour cell
+     * @param decay the probability of decreasing the dynamic potential of a cell
+     */
+    void apply(DynamicFloorField field, int count, double diffusion, double decay) {
+        final long diffusionThreshold = threshold(diffusion);
+        final long decayThreshold = threshold(decay);
+        final long[] batch = draw(count);
+        for (int i = 0; i < count; ++i) {
+            final EvacCellInterface c = cells[i];
+            if (batch[2 * i] < diffusionThreshold) {
+                List<EvacCellInterface> neighbours = c.getNeighbours();
+                EvacCellInterface randomNeighbour = neighbours.get(neighbour(neighbours.size()));
+                field.decrease(c);
+                if (!(field.getPotential(c) == 0 && draw() < decayThreshold)) {
+                    field.increase(randomNeighbour);
+                }
+            }
+            if (field.getPotential(c) > 0 && batch[2 * i + 1] < decayThreshold) {
+                field.decrease(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import org.zet.cellularautomaton.ExitCell;
+import org.zetool.common.algorithm.AbstractAlgorithm;
+
+/**
+ * Computes the exact travel time potential on a {@link CellGraph} using Dijkstra's algorithm. In contrast to the
+ * smoothed wavefront of the {@link PotentialAlgorithm}, the cost of moving into a cell is the length of the step
+ * divided by the {@link CellGraph#entryFactor(int) speed factor} of the cell, thus slow {@link
+ * org.zet.cellularautomaton.DoorCell door cells} and {@link org.zet.cellularautomaton.StairCell stairs} are avoided
+ * if a faster path exists. The potential uses the same scale as the other algorithms, a step of 0.4 meters with speed
+ * factor 1 costs 10. The distance is the length of the fastest path in meters.
+ *
+ * By default the cells are processed using an indexed binary heap. Alternatively, the step costs can be
+ * {@link #withBucketQueue(CellGraph) rounded to integers} which allows to use a bucket queue whose operations need
+ * constant time. The work arrays are kept between runs, an instance can be used to compute the potentials of several
+ * exits one after another.
+ */
+public class DijkstraPotentialAlgorithm extends AbstractAlgorithm<Collection<ExitCell>, DenseStaticPotential> {
+
+    /** Converts the travel time of a path in meters at speed factor 1 to the potential scale. */
+    private static final double POTENTIAL_PER_METER = 10 / CellGraph.ORTHOGONAL_DISTANCE;
+    private static final int NOT_QUEUED = -1;
+
+    private final CellGraph graph;
+    private final boolean bucketQueue;
+    /** The tentative potential of the cells, {@code NaN} if a cell has not been reached. */
+    private final double[] key;
+    private final boolean[] settled;
+    /** The binary heap of queued cells. */
+    private final int[] heap;
+    /** The position of a cell in the heap, or the bucket of a cell in the bucket queue. */
+    private final int[] position;
+    /** The integer weight of each edge for the bucket queue. */
+    private final int[] weight;
+    private final int[] bucketHead;
+    private final int[] next;
+    private final int[] previous;
+
+    /**
+     * Initializes the algorithm using a binary heap with exact step costs.
+     *
+     * @param graph the graph of the cells
+     */
+    public DijkstraPotentialAlgorithm(CellGraph graph) {
+        this(graph, false);
+    }
+
+    private DijkstraPotentialAlgorithm(CellGraph graph, boolean bucketQueue) {
+        this.graph = Objects.requireNonNull(graph, "Cell graph must not be null.");
+        this.bucketQueue = bucketQueue;
+        int n = graph.getCellCount();
+        key = new double[n];
+        settled = new boolean[n];
+        position = new int[n];
+        if (bucketQueue) {
+            heap = null;
+            int edges = n == 0 ? 0 : graph.endEdge(n - 1);
+            weight = new int[edges];
+            int maxWeight = 1;
+            for (int e = 0; e < edges; ++e) {
+                weight[e] = integerWeight(e);
+                if (weight[e] != Integer.MAX_VALUE) {
+                    maxWeight = Math.max(maxWeight, weight[e]);
+                }
+            }
+            bucketHead = new int[maxWeight + 1];
+            next = new int[n];
+            previous = new int[n];
+        } else {
+            heap = new int[n];
+            weight = null;
+            bucketHead = null;
+            next = null;
+            previous = null;
+        }
+    }
+
+    /**
+     * Creates an algorithm that rounds the cost of each step to an integer and uses a bucket queue. A step into a
+     * cell with speed factor {@code f} costs {@code round(10 / f)} if the step is orthogonal and
+     * {@code round(14 / f)} if it is diagonal, the same approximation as used by the {@link PotentialAlgorithm}.
+     *
+     * @param graph the graph of the cells
+     * @return the algorithm using a bucket queue
+     */
+    public static DijkstraPotentialAlgorithm withBucketQueue(CellGraph graph) {
+        return new DijkstraPotentialAlgorithm(graph, true);
+    }
+
+    @Override
+    protected DenseStaticPotential runAlgorithm(Collection<ExitCell> problem) {
+        return createStaticPotential(problem);
+    }
+
+    /**
+     * Calculates the potential starting at the given exit cells.
+     *
+     * @param exitBlock the exit cells
+     * @return the calculated potential
+     */
+    public DenseStaticPotential createStaticPotential(Collection<ExitCell> exitBlock) {
+        int n = graph.getCellCount();
+        double[] distance = new double[n];
+        Arrays.fill(key, Double.NaN);
+        Arrays.fill(settled, false);
+        Arrays.fill(position, NOT_QUEUED);
+
+        for (ExitCell c : exitBlock) {
+            int id = c.getId();
+            if (id < 0 || id >= n || graph.getCell(id) != c) {
+                throw new IllegalArgumentException("Exit cell " + c + " is not contained in the graph.");
+            }
+            key[id] = 0;
+            settled[id] = true;
+        }
+        if (bucketQueue) {
+            runBucketQueue(exitBlock, distance);
+        } else {
+            runBinaryHeap(exitBlock, distance);
+        }
+        return new DenseStaticPotential(Arrays.copyOf(key, n), distance, graph.cells());
+    }
+
+    private void runBinaryHeap(Collection<ExitCell> exitBlock, double[] distance) {
+        int size = 0;
+        for (ExitCell c : exitBlock) {
+            size = relaxNeighbours(c.getId(), distance, size);
+        }
+        while (size > 0) {
+            int p = heap[0];
+            size--;
+            if (size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                siftDown(0, size);
+            }
+            position[p] = NOT_QUEUED;
+            settled[p] = true;
+            size = relaxNeighbours(p, distance, size);
+        }
+    }
+
+    private int relaxNeighbours(int p, double[] distance, int size) {
+        for (int e = graph.firstEdge(p); e < graph.endEdge(p); ++e) {
+            int c = graph.target(e);
+            double factor = graph.entryFactor(e);
+            if (settled[c] || graph.isExit(c) || factor <= 0) {
+                continue;
+            }
+            double candidate = key[p] + graph.length(e) * POTENTIAL_PER_METER / factor;
+            if (Double.isNaN(key[c])) {
+                key[c] = candidate;
+                distance[c] = distance[p] + graph.length(e);
+                heap[size] = c;
+                position[c] = size;
+                siftUp(size);
+                size++;
+            } else if (candidate < key[c]) {
+                key[c] = candidate;
+                distance[c] = distance[p] + graph.length(e);
+                siftUp(position[c]);
+            }
+        }
+        return size;
+    }
+
+    private void siftUp(int i) {
+        int cell = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (key[heap[parent]] <= key[cell]) {
+                break;
+            }
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = cell;
+        position[cell] = i;
+    }
+
+    private void siftDown(int i, int size) {
+        int cell = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && key[heap[child + 1]] < key[heap[child]]) {
+                child++;
+            }
+            if (key[cell] <= key[heap[child]]) {
+                break;
+            }
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = cell;
+        position[cell] = i;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm using a circular array of buckets. As all edge weights are at most the number of
+     * buckets minus one, all queued cells are contained in distinct buckets. The cells in a bucket are stored as a
+     * doubly linked list in the {@code next} and {@code previous} arrays.
+     */
+    private void runBucketQueue(Collection<ExitCell> exitBlock, double[] distance) {
+        Arrays.fill(bucketHead, NOT_QUEUED);
+        int queued = 0;
+        for (ExitCell c : exitBlock) {
+            queued += relaxNeighbours(c.getId(), distance);
+        }
+        int current = 0;
+        while (queued > 0) {
+            int bucket = current % bucketHead.length;
+            int p = bucketHead[bucket];
+            if (p == NOT_QUEUED) {
+                current++;
+                continue;
+            }
+            unlink(p);
+            queued--;
+            settled[p] = true;
+            queued += relaxNeighbours(p, distance);
+        }
+    }
+
+    private int relaxNeighbours(int p, double[] distance) {
+        int added = 0;
+        for (int e = graph.firstEdge(p); e < graph.endEdge(p); ++e) {
+            int c = graph.target(e);
+            if (settled[c] || graph.isExit(c) || weight[e] == Integer.MAX_VALUE) {
+                continue;
+            }
+            double candidate = key[p] + weight[e];
+            if (Double.isNaN(key[c])) {
+                added++;
+            } else if (candidate < key[c]) {
+                unlink(c);
+            } else {
+                continue;
+            }
+            key[c] = candidate;
+            distance[c] = distance[p] + graph.length(e);
+            link(c, (int) candidate % bucketHead.length);
+        }
+        return added;
+    }
+
+    private void link(int cell, int bucket) {
+        int head = bucketHead[bucket];
+        next[cell] = head;
+        previous[cell] = NOT_QUEUED;
+        if (head != NOT_QUEUED) {
+            previous[head] = cell;
+        }
+        bucketHead[bucket] = cell;
+        position[cell] = bucket;
+    }
+
+    private void unlink(int cell) {
+        if (previous[cell] == NOT_QUEUED) {
+            bucketHead[position[cell]] = next[cell];
+        } else {
+            next[previous[cell]] = next[cell];
+        }
+        if (next[cell] != NOT_QUEUED) {
+            previous[next[cell]] = previous[cell];
+        }
+        position[cell] = NOT_QUEUED;
+    }
+
+    private int integerWeight(int edge) {
+        double factor = graph.entryFactor(edge);
+        if (factor <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        double steps = graph.isOrthogonal(edge) ? 10 : 14;
+        return Math.max(1, (int) Math.round(steps / factor));
+    }
+}
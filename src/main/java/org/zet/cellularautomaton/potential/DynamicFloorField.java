@@ -0,0 +1,68 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.results.DynamicPotentialDiffAction;
+
+/**
+ * A dynamic floor field is a {@link Potential} that is changed by the individuals during the simulation. Individuals
+ * leave a trace on the cells they move to, and in each step the traces diffuse to neighbour cells and decay.
+ */
+public interface DynamicFloorField extends Potential {
+
+    /**
+     * Sets the potential of a cell. A value of 0 removes the potential from the cell.
+     *
+     * @param cell the cell
+     * @param value the new value
+     */
+    void setPotential(EvacCellInterface cell, double value);
+
+    /**
+     * Increases the potential of the specified cell by one.
+     *
+     * @param cell the cell whose potential is increased
+     */
+    void increase(EvacCellInterface cell);
+
+    /**
+     * Decreases the potential of the specified cell by one.
+     *
+     * @param cell the cell whose potential is decreased
+     * @throws IllegalArgumentException if the cell has no dynamic potential
+     */
+    void decrease(EvacCellInterface cell);
+
+    /**
+     * Performs one step of diffusion and decay. With the probability {@code diffusion} a cell with positive potential
+     * passes one unit of its potential to a random neighbour, with the probability {@code decay} its potential
+     * decreases by one. Only cells that have positive potential at the beginning of the update are visited.
+     *
+     * @param diffusion the probability of diffusing to a neighbour cell
+     * @param decay the probability of decreasing the dynamic potential of a cell
+     */
+    void update(double diffusion, double decay);
+
+    /**
+     * Sets a builder that collects all changes of the potential. Changes made by {@link #setPotential}, the increase
+     * and decrease of cells and the {@link #update(double, double) update} are recorded, changes that only move the
+     * values between storage schemes are not.
+     *
+     * @param diff the builder collecting the changes or {@code null} if changes are not recorded
+     */
+    void setDiffBuilder(DynamicPotentialDiffAction.Builder diff);
+}
@@ -16,29 +16,44 @@
 package org.zet.cellularautomaton.potential;
 
 import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.localization.CellularAutomatonLocalization;
-import org.zet.cellularautomaton.results.Action;
-import org.zet.cellularautomaton.results.DynamicPotentialChangeAction;
-import org.zetool.rndutils.RandomUtils;
-import org.zetool.rndutils.generators.GeneralRandom;
+import org.zet.cellularautomaton.results.DynamicPotentialDiffAction;
+import org.zet.cellularautomaton.random.RandomSource;
 
 /**
  * A DynamicPotential is a potential that additionally to handling a potential sends out messages to store the results.
  */
-public class DynamicPotential extends AbstractPotential {
+public class DynamicPotential extends AbstractPotential implements DynamicFloorField {
+
+    /** The random source used for diffusion and decay. */
+    private final RandomSource random;
+    /** Collects the changes of the current step, {@code null} if changes are not recorded. */
+    private DynamicPotentialDiffAction.Builder diff;
 
     /**
-     * Creates a DynamicPotential.
+     * Creates a DynamicPotential using the global random generator.
      */
     public DynamicPotential() {
+        this(RandomSource.global());
+    }
+
+    /**
+     * Creates a DynamicPotential using the random source of a simulation.
+     *
+     * @param random the random source used for diffusion and decay
+     */
+    public DynamicPotential(RandomSource random) {
         super();
+        this.random = Objects.requireNonNull(random, "Random source must not be null.");
     }
 
     @Override
     public void setPotential(EvacCellInterface cell, double value) {
         super.setPotential(cell, value);
-        recordAction(new DynamicPotentialChangeAction(cell, value));
+        recordChange(cell, value);
     }
 
     /**
@@ -50,11 +65,24 @@ public class DynamicPotential extends AbstractPotential {
     @Override
     public void deleteCell(EvacCellInterface cell) {
         super.deleteCell(cell);
-        recordAction(new DynamicPotentialChangeAction(cell, 0));
+        recordChange(cell, 0);
+    }
+
+    @Override
+    public void setDiffBuilder(DynamicPotentialDiffAction.Builder diff) {
+        this.diff = diff;
     }
 
-    protected void recordAction(Action a) {
-        // ignore publishing
+    /**
+     * Records a change of the potential of a cell in the diff of the current step, if a diff builder is set.
+     *
+     * @param cell the cell
+     * @param value the new value of the cell
+     */
+    protected void recordChange(EvacCellInterface cell, double value) {
+        if (diff != null) {
+            diff.set(cell.getId(), value);
+        }
     }
 
     /**
@@ -89,29 +117,30 @@ public class DynamicPotential extends AbstractPotential {
      * a cell with a dynamic potential greater than zero by one.
      * @param decay The probability of decreasing the dynamic potential of a cell.
      */
+    @Override
     public void update(double diffusion, double decay) {
-        GeneralRandom rnd = RandomUtils.getInstance().getRandomGenerator();
         DynamicPotential dynPot = this;
         EvacCellInterface[] cellsCopy = dynPot.getMappedCells().toArray(new EvacCellInterface[dynPot.getMappedCells().size()]);
         /* NEW CODE */
         for (EvacCellInterface c : cellsCopy) {
-            double randomNumber = rnd.nextDouble();
+            double randomNumber = random.nextDouble();
             if ( /*dynPot.getPotential(c) > 0 && */diffusion > randomNumber) {
                 // Potential diffuses to a a neighbour cell. It should not increase, so
                 // reduce it afterwards on this cell!
+                List<EvacCellInterface> neighbours = c.getNeighbours();
                 EvacCellInterface randomNeighbour = null;
                 while (randomNeighbour == null) {
-                    final int randomInt = rnd.nextInt((c.getNeighbours()).size());
-                    randomNeighbour = (c.getNeighbours()).get(randomInt);
+                    final int randomInt = random.nextInt(neighbours.size());
+                    randomNeighbour = neighbours.get(randomInt);
                 }
                 decrease(c);
                 // test, if now potential is 0 so the potential in the diffused cell can decrease already in this step.
-                randomNumber = rnd.nextDouble();
+                randomNumber = random.nextDouble();
                 if (!(dynPot.getPotential(c) == 0 && decay > randomNumber)) {
                     increase(randomNeighbour);
                 }
             }
-            randomNumber = rnd.nextDouble();
+            randomNumber = random.nextDouble();
             if (dynPot.getPotential(c) > 0 && decay > randomNumber) {
                 decrease(c);
             }
@@ -124,6 +153,7 @@ public class DynamicPotential extends AbstractPotential {
      *
      * @param cell A cell which potential you want to increase.
      */
+    @Override
     public void increase(EvacCellInterface cell) {
         int newPotential;
         DynamicPotential dynPot = this;
@@ -145,6 +175,7 @@ public class DynamicPotential extends AbstractPotential {
      *
      * @param cell A cell which potential you want to decrease.
      */
+    @Override
     public void decrease(EvacCellInterface cell) {
         if (!hasValidPotential(cell)) {
             throw new IllegalArgumentException(CellularAutomatonLocalization.LOC.getString("algo.ca.InsertCellPreviouslyException"));
@@ -0,0 +1,33 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+/**
+ * The storage scheme of the dynamic floor field of a simulation run.
+ */
+public enum DynamicPotentialMode {
+    /** The cells carrying potential are stored in a map, as by {@link DynamicPotential}. Cells are visited and random
+     * numbers are drawn in the same order as in the original model. */
+    MAP,
+    /** The potential is stored in an array indexed by cell id, only the cells carrying potential are kept in a list and
+     * visited during an update. Suitable for sparse crowds. */
+    LIST,
+    /** The potential is stored in one grid per room which is swept completely during an update. Suitable for dense
+     * crowds where most cells carry potential. */
+    GRID,
+    /** Switches between {@link #LIST} and {@link #GRID} depending on the share of cells carrying potential. */
+    AUTOMATIC;
+}
@@ -0,0 +1,428 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.Room;
+import org.zet.cellularautomaton.localization.CellularAutomatonLocalization;
+import org.zet.cellularautomaton.random.RandomSource;
+import org.zet.cellularautomaton.results.DynamicPotentialDiffAction;
+
+/**
+ * A dynamic potential for dense crowds that stores the values of each room in an {@code int} grid aligned with the
+ * coordinates of the room. The potential of the cell at position {@code (x,y)} of a room of width {@code w} is stored
+ * at index {@code y * w + x} of the grid of the room. The cells are located in the grids using their
+ * {@link EvacCellInterface#getId() ids}.
+ *
+ * An {@link #update(double, double) update} sweeps over the complete grids instead of following a list of cells with
+ * positive potential. This is cheaper than the list if most of the cells carry potential. The neighbours of the cells
+ * are stored as positions in the grids when the potential is created, thus the neighbourhood of the cells must not
+ * change afterwards.
+ */
+public class GridDynamicPotential implements DynamicFloorField {
+
+    /** The potential values of the rooms, 0 for cells without potential. */
+    private final int[][] grids;
+    /** The values of the grids at the beginning of an update. */
+    private final int[][] snapshot;
+    /** The cells of the rooms at their grid positions, {@code null} if a room has no cell at a position. */
+    private final EvacCellInterface[][] gridCells;
+    /** The room of a cell, indexed by the id of the cell. */
+    private final int[] roomOf;
+    /** The position of a cell in the grid of its room, indexed by the id of the cell. */
+    private final int[] offsetOf;
+    /**
+     * The neighbours of the cell at position {@code p} of room {@code r} are stored in {@code neighbours[r]} from index
+     * {@code neighbourStart[r][p]} (inclusive) to {@code neighbourStart[r][p + 1]} (exclusive).
+     */
+    private final int[][] neighbourStart;
+    /**
+     * The neighbours of the cells of each room. A non-negative value is the position of a neighbour in the grid of the
+     * same room, a negative value {@code -(id + 1)} references a neighbour with the given id in another room.
+     */
+    private final int[][] neighbours;
+    /** The number of cells with positive potential. */
+    private int activeCount;
+    /** The maximal potential value, if not {@link #maxPotentialValid valid} it has to be recomputed. */
+    private int maxPotential;
+    private boolean maxPotentialValid = true;
+    /** Collects the changes of the current step, {@code null} if changes are not recorded. */
+    private DynamicPotentialDiffAction.Builder diff;
+    /** Applies diffusion and decay to the cells of a room that are visited during an update. */
+    private final DiffusionDecaySweep sweep;
+
+    /**
+     * Creates an empty dynamic potential for the given rooms using the global random generator.
+     *
+     * @param rooms the rooms of the cellular automaton
+     * @param cellCount the number of indexed cells
+     * @throws IllegalArgumentException if a cell of the rooms is not indexed
+     */
+    public GridDynamicPotential(Collection<? extends Room> rooms, int cellCount) {
+        this(rooms, cellCount, RandomSource.global());
+    }
+
+    /**
+     * Creates an empty dynamic potential for the given rooms using the random source of a simulation.
+     *
+     * @param rooms the rooms of the cellular automaton
+     * @param cellCount the number of indexed cells
+     * @param random the random source used for diffusion and decay
+     * @throws IllegalArgumentException if a cell of the rooms is not indexed
+     */
+    public GridDynamicPotential(Collection<? extends Room> rooms, int cellCount, RandomSource random) {
+        Objects.requireNonNull(random, "Random source must not be null.");
+        if (cellCount < 0) {
+            throw new IllegalArgumentException("Cell count must be non-negative.");
+        }
+        grids = new int[rooms.size()][];
+        snapshot = new int[rooms.size()][];
+        gridCells = new EvacCellInterface[rooms.size()][];
+        roomOf = new int[cellCount];
+        offsetOf = new int[cellCount];
+        neighbourStart = new int[rooms.size()][];
+        neighbours = new int[rooms.size()][];
+        sweep = new DiffusionDecaySweep(random);
+        int r = 0;
+        for (Room room : rooms) {
+            int width = room.getWidth();
+            grids[r] = new int[width * room.getHeight()];
+            snapshot[r] = new int[grids[r].length];
+            gridCells[r] = new EvacCellInterface[grids[r].length];
+            for (EvacCellInterface cell : room.getAllCells()) {
+                int id = cell.getId();
+                if (id < 0 || id >= cellCount) {
+                    throw new IllegalArgumentException("Cell " + cell + " is not indexed for " + cellCount + " cells.");
+                }
+                int offset = cell.getY() * width + cell.getX();
+                roomOf[id] = r;
+                offsetOf[id] = offset;
+                gridCells[r][offset] = cell;
+            }
+            r++;
+        }
+        r = 0;
+        for (Room room : rooms) {
+            storeNeighbours(r++, room);
+        }
+    }
+
+    private void storeNeighbours(int r, Room room) {
+        EvacCellInterface[] cells = gridCells[r];
+        int[] start = new int[cells.length + 1];
+        for (int offset = 0; offset < cells.length; ++offset) {
+            start[offset + 1] = start[offset] + (cells[offset] == null ? 0 : cells[offset].getNeighbours().size());
+        }
+        int[] stencil = new int[start[cells.length]];
+        for (int offset = 0; offset < cells.length; ++offset) {
+            if (cells[offset] != null) {
+                int i = start[offset];
+                for (EvacCellInterface neighbour : cells[offset].getNeighbours()) {
+                    stencil[i++] = neighbour.getRoom() == room
+                            ? neighbour.getY() * room.getWidth() + neighbour.getX()
+                            : -(index(neighbour) + 1);
+                }
+            }
+        }
+        neighbourStart[r] = start;
+        neighbours[r] = stencil;
+    }
+
+    /**
+     * Sets the potential of a cell. A value of 0 removes the potential from the cell.
+     *
+     * @param cell the cell
+     * @param value the new non-negative value
+     * @throws IllegalArgumentException if the cell is not indexed or the value is negative
+     */
+    public void setPotential(EvacCellInterface cell, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Dynamic potential must be non-negative.");
+        }
+        int id = index(cell);
+        set(grids[roomOf[id]], offsetOf[id], value);
+        recordChange(cell, value);
+    }
+
+    /**
+     * Sets the potential of a cell. The value is rounded to the next integral value.
+     *
+     * @param cell the cell
+     * @param value the new non-negative value
+     * @throws IllegalArgumentException if the cell is not indexed or the value is negative
+     */
+    @Override
+    public void setPotential(EvacCellInterface cell, double value) {
+        setPotential(cell, (int) Math.round(value));
+    }
+
+    private void set(int[] grid, int offset, int value) {
+        int old = grid[offset];
+        grid[offset] = value;
+        if (old == 0 && value > 0) {
+            activeCount++;
+        } else if (old > 0 && value == 0) {
+            activeCount--;
+        }
+        if (value >= maxPotential) {
+            maxPotential = value;
+            maxPotentialValid = true;
+        } else if (old == maxPotential) {
+            maxPotentialValid = false;
+        }
+    }
+
+    /**
+     * Sets the potential of a cell without recording the change. Used to move the values between storage schemes.
+     *
+     * @param cell the cell
+     * @param value the new non-negative value
+     */
+    void load(EvacCellInterface cell, int value) {
+        int id = index(cell);
+        set(grids[roomOf[id]], offsetOf[id], value);
+    }
+
+    /**
+     * Removes the potential of all cells without recording the change.
+     */
+    void clear() {
+        for (int[] grid : grids) {
+            Arrays.fill(grid, 0);
+        }
+        activeCount = 0;
+        maxPotential = 0;
+        maxPotentialValid = true;
+    }
+
+    @Override
+    public void setDiffBuilder(DynamicPotentialDiffAction.Builder diff) {
+        this.diff = diff;
+    }
+
+    /**
+     * Records a change of the potential of a cell in the diff of the current step, if a diff builder is set.
+     *
+     * @param cell the cell
+     * @param value the new value of the cell
+     */
+    protected void recordChange(EvacCellInterface cell, double value) {
+        if (diff != null) {
+            diff.set(cell.getId(), value);
+        }
+    }
+
+    @Override
+    public void increase(EvacCellInterface cell) {
+        int id = index(cell);
+        int[] grid = grids[roomOf[id]];
+        int offset = offsetOf[id];
+        set(grid, offset, grid[offset] + 1);
+        recordChange(cell, grid[offset]);
+    }
+
+    @Override
+    public void decrease(EvacCellInterface cell) {
+        if (!hasValidPotential(cell)) {
+            throw new IllegalArgumentException(CellularAutomatonLocalization.LOC.getString("algo.ca.InsertCellPreviouslyException"));
+        }
+        int id = cell.getId();
+        int[] grid = grids[roomOf[id]];
+        int offset = offsetOf[id];
+        set(grid, offset, grid[offset] - 1);
+        recordChange(cell, grid[offset]);
+    }
+
+    /**
+     * Updates the values in the same way as {@link DynamicPotential#update(double, double)}. With the probability
+     * {@code diffusion} a cell passes one unit of its potential to a random neighbour, with probability {@code decay}
+     * the potential of a cell decreases by one.
+     *
+     * The grids are copied before the update and swept room by room in row major order, only cells with positive
+     * potential in the copy are visited. The values are changed directly in the grids, the neighbour a cell diffuses
+     * to is taken from the stored grid positions. The probabilities are converted to integer thresholds once per update
+     * and for each room the diffusion and decay random numbers of all visited cells are drawn in one batch before the
+     * sweep.
+     *
+     * @param diffusion the probability of diffusing to a neighbour cell
+     * @param decay the probability of decreasing the dynamic potential of a cell
+     */
+    @Override
+    public void update(double diffusion, double decay) {
+        for (int r = 0; r < grids.length; ++r) {
+            System.arraycopy(grids[r], 0, snapshot[r], 0, grids[r].length);
+        }
+        final long diffusionThreshold = DiffusionDecaySweep.threshold(diffusion);
+        final long decayThreshold = DiffusionDecaySweep.threshold(decay);
+        for (int r = 0; r < grids.length; ++r) {
+            final int[] before = snapshot[r];
+            final int[] grid = grids[r];
+            final int[] start = neighbourStart[r];
+            int count = 0;
+            for (int value : before) {
+                if (value > 0) {
+                    count++;
+                }
+            }
+            if (count == 0) {
+                continue;
+            }
+            final long[] draws = sweep.draw(count);
+            int i = 0;
+            for (int offset = 0; offset < before.length; ++offset) {
+                if (before[offset] == 0) {
+                    continue;
+                }
+                if (draws[i] < diffusionThreshold) {
+                    int target = neighbours[r][start[offset] + sweep.neighbour(start[offset + 1] - start[offset])];
+                    add(r, offset, -1);
+                    if (!(grid[offset] == 0 && sweep.draw() < decayThreshold)) {
+                        if (target >= 0) {
+                            add(r, target, 1);
+                        } else {
+                            add(roomOf[-target - 1], offsetOf[-target - 1], 1);
+                        }
+                    }
+                }
+                if (grid[offset] > 0 && draws[i + 1] < decayThreshold) {
+                    add(r, offset, -1);
+                }
+                i += 2;
+            }
+        }
+    }
+
+    private void add(int room, int offset, int delta) {
+        int[] grid = grids[room];
+        set(grid, offset, grid[offset] + delta);
+        if (diff != null) {
+            recordChange(gridCells[room][offset], grid[offset]);
+        }
+    }
+
+    /**
+     * Returns the potential of a cell, 0 if the cell has no dynamic potential.
+     *
+     * @param cell the cell
+     * @return the potential of the cell
+     */
+    @Override
+    public int getPotential(EvacCellInterface cell) {
+        int id = cell.getId();
+        return id >= 0 && id < roomOf.length ? grids[roomOf[id]][offsetOf[id]] : 0;
+    }
+
+    @Override
+    public double getPotentialDouble(EvacCellInterface cell) {
+        return getPotential(cell);
+    }
+
+    @Override
+    public int getMaxPotential() {
+        if (!maxPotentialValid) {
+            maxPotential = 0;
+            for (int[] grid : grids) {
+                for (int value : grid) {
+                    maxPotential = Math.max(maxPotential, value);
+                }
+            }
+            maxPotentialValid = true;
+        }
+        return maxPotential;
+    }
+
+    @Override
+    public boolean hasValidPotential(EvacCellInterface cell) {
+        return getPotential(cell) > 0;
+    }
+
+    /**
+     * Returns the number of cells with positive dynamic potential.
+     *
+     * @return the number of cells with positive dynamic potential
+     */
+    public int getMappedCellCount() {
+        return activeCount;
+    }
+
+    /**
+     * Returns the number of cells that can carry potential.
+     *
+     * @return the number of cells
+     */
+    public int getCellCount() {
+        return roomOf.length;
+    }
+
+    private int index(EvacCellInterface cell) {
+        int id = Objects.requireNonNull(cell).getId();
+        if (id < 0 || id >= roomOf.length) {
+            throw new IllegalArgumentException("Cell " + cell + " is not indexed for " + roomOf.length + " cells.");
+        }
+        return id;
+    }
+
+    /**
+     * Iterates the cells with positive dynamic potential in the order of the rooms and row major order within a room.
+     *
+     * @return an iterator of the cells with positive potential
+     */
+    @Override
+    public Iterator<EvacCellInterface> iterator() {
+        return new Iterator<EvacCellInterface>() {
+            private int room = 0;
+            private int offset = -1;
+
+            {
+                advance();
+            }
+
+            private void advance() {
+                offset++;
+                while (room < grids.length) {
+                    while (offset < grids[room].length) {
+                        if (grids[room][offset] > 0) {
+                            return;
+                        }
+                        offset++;
+                    }
+                    room++;
+                    offset = 0;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return room < grids.length;
+            }
+
+            @Override
+            public EvacCellInterface next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                EvacCellInterface cell = gridCells[room][offset];
+                advance();
+                return cell;
+            }
+        };
+    }
+}
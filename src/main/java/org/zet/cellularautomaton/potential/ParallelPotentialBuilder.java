@@ -0,0 +1,160 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import org.zet.cellularautomaton.Exit;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton.EvacuationCellularAutomatonBuilder;
+import org.zetool.common.algorithm.AbstractAlgorithm;
+
+/**
+ * Computes the static potentials of several exits concurrently. The potential of each exit only depends on the
+ * (unmodified) cell structure, thus the waves of all exits are independent and are computed as separate tasks on a
+ * {@link ForkJoinPool}. Each task uses its own instance of the potential algorithm.
+ *
+ * @param <P> the type of potential computed by the algorithm
+ */
+public class ParallelPotentialBuilder<P extends Potential> {
+
+    /** Creates a new algorithm instance for each exit. */
+    private final Supplier<? extends AbstractAlgorithm<Collection<ExitCell>, ? extends P>> algorithmFactory;
+    /** The number of exits that are computed concurrently. */
+    private final int parallelism;
+
+    /**
+     * Creates a builder computing the potentials with the {@link PotentialAlgorithm} using as many threads as
+     * processors are available.
+     *
+     * @return the parallel builder
+     */
+    public static ParallelPotentialBuilder<StaticPotential> withDefaultAlgorithm() {
+        return withDefaultAlgorithm(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a builder computing the potentials with the {@link PotentialAlgorithm} using the given number of
+     * threads.
+     *
+     * @param parallelism the number of threads
+     * @return the parallel builder
+     */
+    public static ParallelPotentialBuilder<StaticPotential> withDefaultAlgorithm(int parallelism) {
+        return new ParallelPotentialBuilder<>(PotentialAlgorithm::new, parallelism);
+    }
+
+    /**
+     * Creates a builder computing the potentials with the given method using as many threads as processors are
+     * available.
+     *
+     * @param method the algorithm used to compute the potentials
+     * @param graph the graph of all cells, shared by all algorithm instances
+     * @return the parallel builder
+     */
+    public static ParallelPotentialBuilder<Potential> withMethod(StaticPotentialMethod method, CellGraph graph) {
+        return withMethod(method, graph, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a builder computing the potentials with the given method using the given number of threads.
+     *
+     * @param method the algorithm used to compute the potentials
+     * @param graph the graph of all cells, shared by all algorithm instances
+     * @param parallelism the number of threads
+     * @return the parallel builder
+     */
+    public static ParallelPotentialBuilder<Potential> withMethod(StaticPotentialMethod method, CellGraph graph,
+            int parallelism) {
+        Objects.requireNonNull(method, "Method must not be null.");
+        Objects.requireNonNull(graph, "Cell graph must not be null.");
+        return new ParallelPotentialBuilder<>(() -> method.createAlgorithm(graph), parallelism);
+    }
+
+    /**
+     * Initializes the builder with an algorithm and the parallelism.
+     *
+     * @param algorithmFactory creates a new algorithm instance for each exit
+     * @param parallelism the number of threads
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public ParallelPotentialBuilder(
+            Supplier<? extends AbstractAlgorithm<Collection<ExitCell>, ? extends P>> algorithmFactory, int parallelism) {
+        this.algorithmFactory = Objects.requireNonNull(algorithmFactory, "Algorithm factory must not be null.");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive, was " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Computes the potentials of all given exits. The cells must not be modified during the computation. Computed
+     * {@link StaticPotential static potentials} get their {@link StaticPotential#getID() ids} in the order of the
+     * exits after all computations have finished, thus the ids are the same in each run.
+     *
+     * @param exits the exits
+     * @return a map containing the potential for each exit, iterating in the order of the given exits
+     */
+    public Map<Exit, P> computePotentials(Collection<Exit> exits) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<P>> tasks = new ArrayList<>(exits.size());
+            for (Exit exit : exits) {
+                tasks.add(pool.submit(() -> computePotential(exit)));
+            }
+            Map<Exit, P> potentials = new LinkedHashMap<>();
+            int i = 0;
+            for (Exit exit : exits) {
+                potentials.put(exit, tasks.get(i++).join());
+            }
+            for (P potential : potentials.values()) {
+                if (potential instanceof StaticPotential) {
+                    ((StaticPotential) potential).renumber();
+                }
+            }
+            return potentials;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Computes the potentials for all exits that have been added to a builder and sets them as the potentials of the
+     * respective exits.
+     *
+     * @param builder the builder of the cellular automaton
+     */
+    public void computePotentials(EvacuationCellularAutomatonBuilder builder) {
+        computePotentials(builder.getExits()).forEach(builder::setPotentialFor);
+    }
+
+    private P computePotential(Exit exit) {
+        AbstractAlgorithm<Collection<ExitCell>, ? extends P> algorithm = algorithmFactory.get();
+        algorithm.setProblem(exit.getExitCluster());
+        return algorithm.call();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+}
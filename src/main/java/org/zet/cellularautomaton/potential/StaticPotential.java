@@ -55,11 +55,24 @@ public class StaticPotential extends AbstractPotential {
     public StaticPotential() {
         super();
         distance = new HashMap<>();
-        this.id = idCount;
-        idCount++;
+        synchronized (StaticPotential.class) {
+            this.id = idCount;
+            idCount++;
+        }
         associatedExitCells = new ArrayList<>();
     }
     
+    /**
+     * Assigns the next unique ID to this StaticPotential. Potentials that are created concurrently are renumbered in a
+     * fixed order afterwards, such that their IDs do not depend on the scheduling of the threads.
+     */
+    void renumber() {
+        synchronized (StaticPotential.class) {
+            this.id = idCount;
+            idCount++;
+        }
+    }
+
     /**
      * Get the ID of this StaticPotential.
      *
@@ -0,0 +1,63 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.Collection;
+import org.zet.cellularautomaton.ExitCell;
+import org.zetool.common.algorithm.AbstractAlgorithm;
+
+/**
+ * The algorithms that can be used to compute the static potentials of the exits. The method can be selected for each
+ * run, e.g. using {@link ParallelPotentialBuilder#withMethod(StaticPotentialMethod, CellGraph)}.
+ */
+public enum StaticPotentialMethod {
+    /** The smoothed wavefront of the {@link PotentialAlgorithm}, ignoring speed factors. */
+    SMOOTHED_WAVEFRONT {
+        @Override
+        public AbstractAlgorithm<Collection<ExitCell>, ? extends Potential> createAlgorithm(CellGraph graph) {
+            return new PotentialAlgorithm();
+        }
+    },
+    /** The same smoothed wavefront computed by the {@link WavefrontPotentialAlgorithm} on a {@link CellGraph}. */
+    ARRAY_WAVEFRONT {
+        @Override
+        public AbstractAlgorithm<Collection<ExitCell>, ? extends Potential> createAlgorithm(CellGraph graph) {
+            return new WavefrontPotentialAlgorithm(graph);
+        }
+    },
+    /** The exact travel time respecting the speed factors, computed using a binary heap. */
+    DIJKSTRA {
+        @Override
+        public AbstractAlgorithm<Collection<ExitCell>, ? extends Potential> createAlgorithm(CellGraph graph) {
+            return new DijkstraPotentialAlgorithm(graph);
+        }
+    },
+    /** The travel time respecting the speed factors with integer step costs, computed using a bucket queue. */
+    DIJKSTRA_BUCKET_QUEUE {
+        @Override
+        public AbstractAlgorithm<Collection<ExitCell>, ? extends Potential> createAlgorithm(CellGraph graph) {
+            return DijkstraPotentialAlgorithm.withBucketQueue(graph);
+        }
+    };
+
+    /**
+     * Creates a new instance of the algorithm. The graph is ignored by algorithms working directly on the cells.
+     *
+     * @param graph the graph of all cells of the cellular automaton
+     * @return a new algorithm instance
+     */
+    public abstract AbstractAlgorithm<Collection<ExitCell>, ? extends Potential> createAlgorithm(CellGraph graph);
+}
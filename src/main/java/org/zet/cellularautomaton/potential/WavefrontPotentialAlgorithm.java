@@ -0,0 +1,130 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import org.zet.cellularautomaton.ExitCell;
+import org.zetool.common.algorithm.AbstractAlgorithm;
+
+/**
+ * Computes the same smoothed potential as the {@link PotentialAlgorithm} on a {@link CellGraph}. The wavefront is
+ * stored in two reusable queues of cell ids and the smoothing values of the cells in the current wave are accumulated
+ * in arrays, thus besides the resulting potential no objects are created. The work arrays are kept between runs, an
+ * instance can be used to compute the potentials of several exits one after another.
+ *
+ * The resulting potential and distance values equal the values of the {@link PotentialAlgorithm}, except for the
+ * order in which the potentials of several parents of a cell are summed up for the smoothing.
+ */
+public class WavefrontPotentialAlgorithm extends AbstractAlgorithm<Collection<ExitCell>, DenseStaticPotential> {
+
+    private static final int APPROXIMATE_ORTHOGONAL_DISTANCE = 10;
+    private static final int APPROXIMATE_DIAGONAL_DISTANCE = 14;
+    private static final int SMOOTHING_FACTOR = 3;
+
+    private final CellGraph graph;
+    private int[] parents;
+    private int[] children;
+    /** The wave in which a cell has been reached first, used to detect the first parent of a cell. */
+    private final int[] reachedInWave;
+    /** The minimal potential over all parents of a cell in the current wave. */
+    private final double[] minimum;
+    /** The sum of the potentials of all parents of a cell in the current wave. */
+    private final double[] parentSum;
+    private final int[] parentCount;
+
+    public WavefrontPotentialAlgorithm(CellGraph graph) {
+        this.graph = Objects.requireNonNull(graph, "Cell graph must not be null.");
+        int n = graph.getCellCount();
+        parents = new int[n];
+        children = new int[n];
+        reachedInWave = new int[n];
+        minimum = new double[n];
+        parentSum = new double[n];
+        parentCount = new int[n];
+    }
+
+    @Override
+    protected DenseStaticPotential runAlgorithm(Collection<ExitCell> problem) {
+        return createStaticPotential(problem);
+    }
+
+    /**
+     * Calculates the potential starting at the given exit cells.
+     *
+     * @param exitBlock the exit cells
+     * @return the calculated potential
+     */
+    public DenseStaticPotential createStaticPotential(Collection<ExitCell> exitBlock) {
+        int n = graph.getCellCount();
+        double[] potential = new double[n];
+        double[] distance = new double[n];
+        Arrays.fill(potential, Double.NaN);
+        Arrays.fill(reachedInWave, 0);
+
+        int parentCountInWave = 0;
+        for (ExitCell c : exitBlock) {
+            int id = c.getId();
+            if (id < 0 || id >= n || graph.getCell(id) != c) {
+                throw new IllegalArgumentException("Exit cell " + c + " is not contained in the graph.");
+            }
+            potential[id] = 0;
+            distance[id] = 0;
+            parents[parentCountInWave++] = id;
+        }
+
+        int wave = 0;
+        while (parentCountInWave > 0) {
+            wave++;
+            int childCount = 0;
+            for (int p = 0; p < parentCountInWave; ++p) {
+                int parent = parents[p];
+                for (int e = graph.firstEdge(parent); e < graph.endEdge(parent); ++e) {
+                    int c = graph.target(e);
+                    if (graph.isExit(c) || !Double.isNaN(potential[c])) {
+                        continue;
+                    }
+                    boolean orthogonal = graph.isOrthogonal(e);
+                    int difference = orthogonal ? APPROXIMATE_ORTHOGONAL_DISTANCE : APPROXIMATE_DIAGONAL_DISTANCE;
+                    double realDistance = orthogonal ? CellGraph.ORTHOGONAL_DISTANCE : CellGraph.DIAGONAL_DISTANCE;
+                    if (reachedInWave[c] != wave) {
+                        reachedInWave[c] = wave;
+                        minimum[c] = potential[parent] + difference;
+                        parentSum[c] = potential[parent];
+                        parentCount[c] = 1;
+                        distance[c] = realDistance + distance[parent];
+                        children[childCount++] = c;
+                    } else {
+                        minimum[c] = Math.min(minimum[c], potential[parent] + difference);
+                        parentSum[c] += potential[parent];
+                        parentCount[c]++;
+                        distance[c] = Math.min(distance[c], distance[parent] + realDistance);
+                    }
+                }
+            }
+            for (int i = 0; i < childCount; ++i) {
+                int c = children[i];
+                potential[c] = (SMOOTHING_FACTOR * minimum[c] + parentSum[c]) / (SMOOTHING_FACTOR + parentCount[c]);
+            }
+            int[] swap = parents;
+            parents = children;
+            children = swap;
+            parentCountInWave = childCount;
+        }
+        return new DenseStaticPotential(potential, distance, graph.cells());
+    }
+}
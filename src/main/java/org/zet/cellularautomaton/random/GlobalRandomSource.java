@@ -0,0 +1,65 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.random;
+
+import java.util.Collections;
+import java.util.List;
+import org.zetool.rndutils.RandomUtils;
+import org.zetool.rndutils.generators.GeneralRandomWrapper;
+
+/**
+ * Delegates to the global generator. All simulations using this source share the generator, thus it must not be used
+ * by concurrent simulations.
+ */
+enum GlobalRandomSource implements RandomSource {
+
+    INSTANCE;
+
+    @Override
+    public double nextDouble() {
+        return RandomUtils.getInstance().getRandomGenerator().nextDouble();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return RandomUtils.getInstance().getRandomGenerator().nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return RandomUtils.getInstance().getRandomGenerator().nextLong();
+    }
+
+    /**
+     * Returns the global source itself, as there is only one global generator.
+     *
+     * @return this source
+     */
+    @Override
+    public RandomSource split() {
+        return this;
+    }
+
+    @Override
+    public int chooseRandomlyAbsolute(double[] weights) {
+        return RandomUtils.getInstance().chooseRandomlyAbsolute(weights);
+    }
+
+    @Override
+    public void shuffle(List<?> list) {
+        Collections.shuffle(list, new GeneralRandomWrapper(RandomUtils.getInstance().getRandomGenerator()));
+    }
+}
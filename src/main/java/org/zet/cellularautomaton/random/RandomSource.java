@@ -0,0 +1,96 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.random;
+
+import java.util.List;
+
+/**
+ * The source of random numbers of a single simulation run. Each simulation owns its own source, such that several
+ * simulations can run concurrently in one virtual machine and each seed reproduces the same run. A source is not
+ * thread-safe; threads working for the same simulation use independent sources obtained by {@link #split()}.
+ */
+public interface RandomSource {
+
+    /**
+     * Returns the source delegating to the global generator of {@link org.zetool.rndutils.RandomUtils}. The generator
+     * is looked up on each call, thus replacing the global generator also affects this source.
+     *
+     * @return the source delegating to the global generator
+     */
+    public static RandomSource global() {
+        return GlobalRandomSource.INSTANCE;
+    }
+
+    /**
+     * Returns a uniformly distributed value between 0 (inclusive) and 1 (exclusive).
+     *
+     * @return a uniformly distributed value in {@code [0,1)}
+     */
+    public double nextDouble();
+
+    /**
+     * Returns a uniformly distributed value between 0 (inclusive) and {@code bound} (exclusive).
+     *
+     * @param bound the upper bound, must be positive
+     * @return a uniformly distributed value in {@code [0,bound)}
+     */
+    public int nextInt(int bound);
+
+    public long nextLong();
+
+    /**
+     * Returns a new source that is independent of this one. The new source can be used concurrently to this source.
+     *
+     * @return a new independent source
+     */
+    public RandomSource split();
+
+    /**
+     * Chooses an index randomly. The probability of an index to be chosen is proportional to the (non negative)
+     * weight at the index.
+     *
+     * @param weights the weights of the indices
+     * @return the chosen index
+     */
+    public default int chooseRandomlyAbsolute(double[] weights) {
+        double sum = 0;
+        for (double weight : weights) {
+            sum += weight;
+        }
+        double value = nextDouble() * sum;
+        double accumulated = 0;
+        for (int i = 0; i < weights.length; ++i) {
+            accumulated += weights[i];
+            if (value < accumulated) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Randomly permutes a list. All permutations are equally likely.
+     *
+     * @param list the list that is permuted
+     */
+    public default void shuffle(List<?> list) {
+        @SuppressWarnings("unchecked")
+        List<Object> elements = (List<Object>) list;
+        for (int i = elements.size() - 1; i > 0; --i) {
+            elements.set(i, elements.set(nextInt(i + 1), elements.get(i)));
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.results;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.zet.cellularautomaton.DeathCause;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.InitialConfiguration;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton;
+
+/**
+ * Encodes {@link Action actions} into a compact binary representation and decodes them again. Cells and individuals
+ * are stored by their ids, so the cells have to be {@link EvacCellInterface#getId() indexed}. An encoded action starts
+ * with a byte denoting its type, followed by the values of the action:
+ * <ul>
+ * <li>move: individual, from cell, to cell, start time, arrival time</li>
+ * <li>swap: for both individuals the individual, its cell, start time and arrival time</li>
+ * <li>die: individual, cell, death cause</li>
+ * <li>exit: individual, exit cell, time step</li>
+ * <li>save: individual, time step</li>
+ * <li>reaction: number of individuals, individuals</li>
+ * <li>state change: individual, panic, exhaustion, speed, alarmed</li>
+ * <li>dynamic potential change: cell, new potential</li>
+ * <li>dynamic potential diff: number of cells, number of bytes of the encoded cell ids, encoded cell ids, values</li>
+ * </ul>
+ * Missing cells and individuals are stored as {@code -1}. A move decoded from the binary representation only updates
+ * the step times of the individual.
+ */
+final class ActionCodec {
+
+    private static final byte MOVE = 1;
+    private static final byte SWAP = 2;
+    private static final byte DIE = 3;
+    private static final byte EXIT = 4;
+    private static final byte SAVE = 5;
+    private static final byte REACTION = 6;
+    private static final byte STATE_CHANGE = 7;
+    private static final byte DYNAMIC_POTENTIAL_CHANGE = 8;
+    private static final byte VOID = 9;
+    private static final byte DYNAMIC_POTENTIAL_DIFF = 10;
+    private static final int NONE = -1;
+
+    private final MultiFloorEvacuationCellularAutomaton cellularAutomaton;
+    private final Individual[] individuals;
+
+    /**
+     * Creates a codec that decodes actions referring to the cells and individuals of an initial configuration.
+     *
+     * @param initialConfig the initial configuration
+     */
+    ActionCodec(InitialConfiguration initialConfig) {
+        cellularAutomaton = initialConfig.getCellularAutomaton();
+        int maxId = initialConfig.getIndividuals().stream().mapToInt(Individual::id).max().orElse(-1);
+        individuals = new Individual[maxId + 1];
+        initialConfig.getIndividuals().forEach(individual -> individuals[individual.id()] = individual);
+    }
+
+    /**
+     * Appends an action to a buffer. If the remaining space is not sufficient, the content of the buffer is copied to
+     * a larger buffer.
+     *
+     * @param action the action
+     * @param buffer the buffer in write mode
+     * @return the buffer containing the action, either {@code buffer} or a larger copy
+     * @throws IllegalArgumentException if the action cannot be encoded
+     */
+    static ByteBuffer encode(Action action, ByteBuffer buffer) {
+        ByteBuffer out = ensureRemaining(buffer, size(action));
+        if (action instanceof MoveAction) {
+            MoveAction move = (MoveAction) action;
+            out.put(MOVE).putInt(move.getFrom() == null ? NONE : move.getIndividualNumber())
+                    .putInt(id(move.getFrom())).putInt(id(move.getTo()))
+                    .putDouble(move.getStartTime()).putDouble(move.getArrivalTime());
+        } else if (action instanceof SwapAction) {
+            SwapAction swap = (SwapAction) action;
+            out.put(SWAP).putInt(swap.getIndividualNumber1()).putInt(id(swap.cell1()))
+                    .putDouble(swap.startTime1()).putDouble(swap.arrivalTime1())
+                    .putInt(swap.getIndividualNumber2()).putInt(id(swap.cell2()))
+                    .putDouble(swap.startTime2()).putDouble(swap.arrivalTime2());
+        } else if (action instanceof DieAction) {
+            DieAction die = (DieAction) action;
+            out.put(DIE).putInt(id(die.getIndividual())).putInt(id(die.getPlaceOfDeath()))
+                    .put((byte) (die.getDeathCause() == null ? NONE : die.getDeathCause().ordinal()));
+        } else if (action instanceof ExitAction) {
+            ExitAction exit = (ExitAction) action;
+            out.put(EXIT).putInt(id(exit.getIndividual())).putInt(id(exit.getExit())).putInt(exit.getTimeStep());
+        } else if (action instanceof SaveAction) {
+            SaveAction save = (SaveAction) action;
+            out.put(SAVE).putInt(id(save.getSavedIndividual())).putInt(save.getTimeStep());
+        } else if (action instanceof ReactionAction) {
+            Collection<Individual> alarmed = ((ReactionAction) action).getIndividuals();
+            out.put(REACTION).putInt(alarmed.size());
+            alarmed.forEach(individual -> out.putInt(id(individual)));
+        } else if (action instanceof IndividualStateChangeAction) {
+            IndividualStateChangeAction change = (IndividualStateChangeAction) action;
+            out.put(STATE_CHANGE).putInt(id(change.getIndividual())).putDouble(change.getPanic())
+                    .putDouble(change.getExhaustion()).putDouble(change.getCurrentSpeed())
+                    .put((byte) (change.isAlarmed() ? 1 : 0));
+        } else if (action instanceof DynamicPotentialChangeAction) {
+            DynamicPotentialChangeAction change = (DynamicPotentialChangeAction) action;
+            out.put(DYNAMIC_POTENTIAL_CHANGE).putInt(id(change.affectedCell)).putDouble(change.newPotential);
+        } else if (action instanceof DynamicPotentialDiffAction) {
+            DynamicPotentialDiffAction diff = (DynamicPotentialDiffAction) action;
+            out.put(DYNAMIC_POTENTIAL_DIFF).putInt(diff.size()).putInt(diff.getEncodedCells().length)
+                    .put(diff.getEncodedCells());
+            out.asDoubleBuffer().put(diff.getValues());
+            ((Buffer) out).position(out.position() + diff.size() * Double.BYTES);
+        } else {
+            out.put(VOID);
+        }
+        return out;
+    }
+
+    private static int size(Action action) {
+        if (action instanceof MoveAction) {
+            return 1 + 3 * Integer.BYTES + 2 * Double.BYTES;
+        } else if (action instanceof SwapAction) {
+            return 1 + 4 * Integer.BYTES + 4 * Double.BYTES;
+        } else if (action instanceof DieAction) {
+            return 2 + 2 * Integer.BYTES;
+        } else if (action instanceof ExitAction) {
+            return 1 + 3 * Integer.BYTES;
+        } else if (action instanceof SaveAction) {
+            return 1 + 2 * Integer.BYTES;
+        } else if (action instanceof ReactionAction) {
+            return 1 + (1 + ((ReactionAction) action).getIndividuals().size()) * Integer.BYTES;
+        } else if (action instanceof IndividualStateChangeAction) {
+            return 2 + Integer.BYTES + 3 * Double.BYTES;
+        } else if (action instanceof DynamicPotentialChangeAction) {
+            return 1 + Integer.BYTES + Double.BYTES;
+        } else if (action instanceof DynamicPotentialDiffAction) {
+            DynamicPotentialDiffAction diff = (DynamicPotentialDiffAction) action;
+            return 1 + 2 * Integer.BYTES + diff.getEncodedCells().length + diff.size() * Double.BYTES;
+        } else if (action instanceof VoidAction) {
+            return 1;
+        }
+        throw new IllegalArgumentException("Cannot encode action " + action.getClass().getName());
+    }
+
+    /**
+     * Ensures that a buffer in write mode has at least the given number of bytes remaining.
+     *
+     * @param buffer the buffer
+     * @param bytes the number of bytes
+     * @return the buffer or a larger copy of it
+     */
+    static ByteBuffer ensureRemaining(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + bytes));
+        ((Buffer) buffer).flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    private static int id(EvacCellInterface cell) {
+        if (cell == null) {
+            return NONE;
+        }
+        if (cell.getId() == EvacCellInterface.NO_ID) {
+            throw new IllegalArgumentException("Cell " + cell + " is not indexed.");
+        }
+        return cell.getId();
+    }
+
+    private static int id(Individual individual) {
+        return individual == null ? NONE : individual.id();
+    }
+
+    /**
+     * Decodes a number of actions from a buffer.
+     *
+     * @param buffer the buffer in read mode positioned at the first action
+     * @param count the number of actions
+     * @return the decoded actions
+     */
+    List<Action> decode(ByteBuffer buffer, int count) {
+        List<Action> actions = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            actions.add(decode(buffer));
+        }
+        return actions;
+    }
+
+    /**
+     * Decodes a single action from a buffer.
+     *
+     * @param buffer the buffer in read mode positioned at the action
+     * @return the decoded action
+     */
+    Action decode(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case MOVE:
+                Individual moving = individual(buffer.getInt());
+                EvacCellInterface from = cell(buffer.getInt());
+                EvacCellInterface to = cell(buffer.getInt());
+                double start = buffer.getDouble();
+                return new MoveAction(moving, from, to, buffer.getDouble(), start);
+            case SWAP:
+                int individual1 = buffer.getInt();
+                EvacCellInterface cell1 = cell(buffer.getInt());
+                double start1 = buffer.getDouble();
+                double arrival1 = buffer.getDouble();
+                int individual2 = buffer.getInt();
+                EvacCellInterface cell2 = cell(buffer.getInt());
+                double start2 = buffer.getDouble();
+                double arrival2 = buffer.getDouble();
+                return new SwapAction(cell1, cell2, arrival1, start1, individual1, arrival2, start2, individual2);
+            case DIE:
+                Individual dying = individual(buffer.getInt());
+                EvacCellInterface place = cell(buffer.getInt());
+                byte cause = buffer.get();
+                return new DieAction(place, cause == NONE ? null : DeathCause.values()[cause], dying);
+            case EXIT:
+                Individual leaving = individual(buffer.getInt());
+                EvacCellInterface exit = cell(buffer.getInt());
+                return new ExitAction((ExitCell) exit, buffer.getInt(), leaving);
+            case SAVE:
+                return new SaveAction(individual(buffer.getInt()), buffer.getInt());
+            case REACTION:
+                int count = buffer.getInt();
+                List<Individual> alarmed = new ArrayList<>(count);
+                for (int i = 0; i < count; ++i) {
+                    alarmed.add(individual(buffer.getInt()));
+                }
+                return new ReactionAction(alarmed);
+            case STATE_CHANGE:
+                return new IndividualStateChangeAction(individual(buffer.getInt()), buffer.getDouble(),
+                        buffer.getDouble(), buffer.getDouble(), buffer.get() != 0);
+            case DYNAMIC_POTENTIAL_CHANGE:
+                return new DynamicPotentialChangeAction(cell(buffer.getInt()), buffer.getDouble());
+            case DYNAMIC_POTENTIAL_DIFF:
+                double[] values = new double[buffer.getInt()];
+                byte[] encodedCells = new byte[buffer.getInt()];
+                buffer.get(encodedCells);
+                buffer.asDoubleBuffer().get(values);
+                ((Buffer) buffer).position(buffer.position() + values.length * Double.BYTES);
+                return new DynamicPotentialDiffAction(encodedCells, values);
+            case VOID:
+                return VoidAction.VOID_ACTION;
+            default:
+                throw new IllegalStateException("Unknown action type " + type);
+        }
+    }
+
+    private EvacCellInterface cell(int id) {
+        return id == NONE ? null : cellularAutomaton.getCell(id);
+    }
+
+    private Individual individual(int id) {
+        if (id == NONE) {
+            return null;
+        }
+        if (id >= individuals.length || individuals[id] == null) {
+            throw new IllegalStateException("No individual with id " + id + " in the initial configuration.");
+        }
+        return individuals[id];
+    }
+}
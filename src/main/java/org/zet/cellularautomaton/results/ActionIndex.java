@@ -0,0 +1,225 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.results;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes the actions of a recording by their type. For each concrete action class the actions are stored in the order
+ * of their recording together with their time step and their position in the whole recording. Queries for a type
+ * only visit the actions of the matching classes, queries for a time step find the actions of the step by binary
+ * search. Aggregates over the actions, like the maximal dynamic potential, are updated when an action is added.
+ *
+ * Actions have to be added in the order of their time steps.
+ */
+final class ActionIndex {
+
+    private final Map<Class<? extends Action>, TypeIndex> types = new LinkedHashMap<>();
+    private int size;
+    private int lastStep;
+    private long maxDynamicPotential;
+
+    /**
+     * Creates an index of the actions of a recording.
+     *
+     * @param allActions the actions for each time step, the time steps starting at {@code 0}
+     * @return the index
+     */
+    static ActionIndex of(Map<Integer, List<Action>> allActions) {
+        ActionIndex index = new ActionIndex();
+        for (int step = 0; step < allActions.size(); ++step) {
+            List<Action> actions = allActions.get(step);
+            if (actions != null) {
+                for (Action action : actions) {
+                    index.add(step, action);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Adds an action at a time step.
+     *
+     * @param step the time step, not smaller than the time step of the previously added action
+     * @param action the action
+     * @throws IllegalArgumentException if the time step is smaller than the time step of the previous action
+     */
+    void add(int step, Action action) {
+        if (step < lastStep) {
+            throw new IllegalArgumentException("Action at step " + step + " added after step " + lastStep);
+        }
+        lastStep = step;
+        types.computeIfAbsent(action.getClass(), type -> new TypeIndex()).add(step, size++, action);
+        if (action instanceof DynamicPotentialChangeAction) {
+            maxDynamicPotential = Math.max(maxDynamicPotential,
+                    ((DynamicPotentialChangeAction) action).getNewPotentialValue());
+        } else if (action instanceof DynamicPotentialDiffAction) {
+            maxDynamicPotential = Math.max(maxDynamicPotential,
+                    ((DynamicPotentialDiffAction) action).getMaxPotentialValue());
+        }
+    }
+
+    /**
+     * Returns all actions of a type in the order of their recording.
+     *
+     * @param <T> the type of the actions
+     * @param type the type, including subclasses
+     * @return an unmodifiable list of the actions
+     */
+    <T extends Action> List<T> actions(Class<T> type) {
+        return actions(type, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the actions of a type at a time step in the order of their recording.
+     *
+     * @param <T> the type of the actions
+     * @param type the type, including subclasses
+     * @param step the time step
+     * @return an unmodifiable list of the actions
+     */
+    <T extends Action> List<T> actions(Class<T> type, int step) {
+        return actions(type, step, step + 1);
+    }
+
+    private <T extends Action> List<T> actions(Class<T> type, int fromStep, int toStep) {
+        List<Range<T>> ranges = new ArrayList<>(1);
+        for (Map.Entry<Class<? extends Action>, TypeIndex> entry : types.entrySet()) {
+            if (type.isAssignableFrom(entry.getKey())) {
+                TypeIndex typeIndex = entry.getValue();
+                Range<T> range = new Range<>(typeIndex, typeIndex.firstIndex(fromStep), typeIndex.firstIndex(toStep));
+                if (range.from < range.to) {
+                    ranges.add(range);
+                }
+            }
+        }
+        if (ranges.isEmpty()) {
+            return Collections.emptyList();
+        } else if (ranges.size() == 1) {
+            return ranges.get(0);
+        }
+        return Collections.unmodifiableList(merge(ranges));
+    }
+
+    /**
+     * Merges the actions of several types by their position in the recording.
+     */
+    private static <T extends Action> List<T> merge(List<Range<T>> ranges) {
+        int total = ranges.stream().mapToInt(Range::size).sum();
+        List<T> merged = new ArrayList<>(total);
+        int[] next = new int[ranges.size()];
+        for (int i = 0; i < total; ++i) {
+            int min = -1;
+            for (int r = 0; r < ranges.size(); ++r) {
+                Range<T> range = ranges.get(r);
+                if (next[r] < range.size()
+                        && (min == -1 || range.position(next[r]) < ranges.get(min).position(next[min]))) {
+                    min = r;
+                }
+            }
+            merged.add(ranges.get(min).get(next[min]++));
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the maximal value of all recorded dynamic potential changes.
+     *
+     * @return the maximal dynamic potential, {@code 0} if no change has been recorded
+     */
+    long getMaxDynamicPotential() {
+        return maxDynamicPotential;
+    }
+
+    /**
+     * The actions of a single class with their time steps and positions.
+     */
+    private static class TypeIndex {
+
+        private final List<Action> actions = new ArrayList<>();
+        private int[] steps = new int[16];
+        private int[] positions = new int[16];
+
+        void add(int step, int position, Action action) {
+            int index = actions.size();
+            if (index == steps.length) {
+                steps = Arrays.copyOf(steps, 2 * index);
+                positions = Arrays.copyOf(positions, 2 * index);
+            }
+            steps[index] = step;
+            positions[index] = position;
+            actions.add(action);
+        }
+
+        /**
+         * Returns the index of the first action at or after a time step.
+         */
+        int firstIndex(int step) {
+            int low = 0;
+            int high = actions.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (steps[mid] < step) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * An unmodifiable view of the actions of a type between two indices.
+     */
+    private static class Range<T> extends AbstractList<T> {
+
+        private final TypeIndex typeIndex;
+        private final int from;
+        private final int to;
+
+        Range(TypeIndex typeIndex, int from, int to) {
+            this.typeIndex = typeIndex;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " of " + size());
+            }
+            return (T) typeIndex.actions.get(from + index);
+        }
+
+        int position(int index) {
+            return typeIndex.positions[from + index];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
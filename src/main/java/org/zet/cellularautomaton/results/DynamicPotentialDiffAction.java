@@ -0,0 +1,229 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.results;
+
+import java.util.Arrays;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.algorithm.state.EvacuationState;
+import org.zet.cellularautomaton.algorithm.state.EvacuationStateControllerInterface;
+
+/**
+ * The changes of the dynamic potential during one time step. Instead of one {@link DynamicPotentialChangeAction} per
+ * change, the diff stores the final value of each changed cell once. The cells are stored by their
+ * {@link EvacCellInterface#getId() ids} in ascending order, each id is stored as the difference to the previous id in
+ * a variable length encoding using seven bits per byte. For cells next to each other a single byte per cell suffices.
+ *
+ * The values have already been applied to the dynamic potential when the diff is created, executing the action does
+ * not change the state. Diffs are created by a {@link Builder}.
+ */
+public class DynamicPotentialDiffAction extends Action {
+
+    /** The differences of the ascending cell ids, each encoded in one or more bytes. */
+    private final byte[] encodedCells;
+    private final double[] values;
+    private final long maxValue;
+
+    /**
+     * Creates a diff from encoded cell ids and the values of the cells.
+     *
+     * @param encodedCells the encoded cell ids
+     * @param values the new values of the cells
+     */
+    DynamicPotentialDiffAction(byte[] encodedCells, double[] values) {
+        this.encodedCells = encodedCells;
+        this.values = values;
+        long max = 0;
+        for (double value : values) {
+            max = Math.max(max, Math.round(value));
+        }
+        this.maxValue = max;
+    }
+
+    @Override
+    public void execute(EvacuationState es, EvacuationStateControllerInterface ec)
+            throws InconsistentPlaybackStateException {
+    }
+
+    @Override
+    public void executeDelayed(EvacuationState es, EvacuationStateControllerInterface ec) {
+    }
+
+    /**
+     * Returns the number of changed cells.
+     *
+     * @return the number of changed cells
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Passes the id and the new value of each changed cell in ascending order of the ids to a consumer.
+     *
+     * @param consumer the consumer
+     */
+    public void forEachChange(ChangeConsumer consumer) {
+        int position = 0;
+        int id = -1;
+        for (double value : values) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = encodedCells[position++];
+                delta |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += delta;
+            consumer.accept(id, value);
+        }
+    }
+
+    /**
+     * Returns the ids of the changed cells in ascending order.
+     *
+     * @return the ids of the changed cells
+     */
+    public int[] getCellIds() {
+        int[] ids = new int[values.length];
+        int[] index = new int[1];
+        forEachChange((id, value) -> ids[index[0]++] = id);
+        return ids;
+    }
+
+    /**
+     * Returns the maximal new value of the diff. The values are rounded like
+     * {@link DynamicPotentialChangeAction#getNewPotentialValue()}.
+     *
+     * @return the maximal new value, at least {@code 0}
+     */
+    public long getMaxPotentialValue() {
+        return maxValue;
+    }
+
+    byte[] getEncodedCells() {
+        return encodedCells;
+    }
+
+    double[] getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "The dynamic potential of " + values.length + " cells is changed.";
+    }
+
+    /**
+     * Consumes the change of a single cell.
+     */
+    @FunctionalInterface
+    public interface ChangeConsumer {
+
+        /**
+         * Consumes the change of a cell.
+         *
+         * @param cellId the id of the cell
+         * @param value the new value of the cell
+         */
+        void accept(int cellId, double value);
+    }
+
+    /**
+     * Collects the changes of the dynamic potential during a time step. Multiple changes of the same cell are merged,
+     * only the last value is kept. The changes are collected in arrays indexed by the cell ids, so recording a change
+     * does not allocate memory.
+     */
+    public static class Builder {
+
+        /** The position of each cell in {@link #changedCells}, {@code -1} for unchanged cells. */
+        private final int[] position;
+        private final int[] changedCells;
+        private final double[] changedValues;
+        private int size;
+
+        /**
+         * Creates a builder for cellular automata with a given number of indexed cells.
+         *
+         * @param cellCount the number of cells
+         */
+        public Builder(int cellCount) {
+            if (cellCount < 0) {
+                throw new IllegalArgumentException("Cell count must be non-negative.");
+            }
+            position = new int[cellCount];
+            Arrays.fill(position, -1);
+            changedCells = new int[cellCount];
+            changedValues = new double[cellCount];
+        }
+
+        /**
+         * Records the new value of a cell.
+         *
+         * @param cellId the id of the cell
+         * @param value the new value
+         * @throws IllegalArgumentException if the cell id is not valid
+         */
+        public void set(int cellId, double value) {
+            if (cellId < 0 || cellId >= position.length) {
+                throw new IllegalArgumentException("No cell with id " + cellId + " exists.");
+            }
+            if (position[cellId] == -1) {
+                position[cellId] = size;
+                changedCells[size++] = cellId;
+            }
+            changedValues[position[cellId]] = value;
+        }
+
+        /**
+         * Returns whether no changes have been recorded since the last diff has been built.
+         *
+         * @return {@code true} if no changes have been recorded
+         */
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Creates a diff of the recorded changes and starts recording a new diff.
+         *
+         * @return the diff of the recorded changes
+         */
+        public DynamicPotentialDiffAction build() {
+            int[] ids = Arrays.copyOf(changedCells, size);
+            Arrays.sort(ids);
+            double[] values = new double[size];
+            byte[] encoded = new byte[5 * size];
+            int length = 0;
+            int previous = -1;
+            for (int i = 0; i < size; ++i) {
+                values[i] = changedValues[position[ids[i]]];
+                int delta = ids[i] - previous;
+                previous = ids[i];
+                while ((delta & ~0x7f) != 0) {
+                    encoded[length++] = (byte) ((delta & 0x7f) | 0x80);
+                    delta >>>= 7;
+                }
+                encoded[length++] = (byte) delta;
+            }
+            for (int i = 0; i < size; ++i) {
+                position[changedCells[i]] = -1;
+            }
+            size = 0;
+            return new DynamicPotentialDiffAction(Arrays.copyOf(encoded, length), values);
+        }
+    }
+}
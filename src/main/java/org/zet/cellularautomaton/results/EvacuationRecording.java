@@ -15,7 +15,8 @@
  */
 package org.zet.cellularautomaton.results;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
@@ -46,6 +47,8 @@ public class EvacuationRecording {
     /** A vector which stores a vector of actions for every time step. */
     //private Map<Integer, Vector<Action>> actions;
     private Map<Integer, List<Action>> allActions;
+    /** The actions indexed by their type, {@code null} if the actions are not kept in memory. */
+    private final ActionIndex index;
     /** The current time step. */
     private int curTime;
     private long maxDynamicPotential = -1;
@@ -57,15 +60,34 @@ public class EvacuationRecording {
      * @param actions A vector which contains a vector of actions for every time step.
      */
     public EvacuationRecording(InitialConfiguration initialConfig, Map<Integer, List<Action>> allActions) {
+        this(initialConfig, allActions, ActionIndex.of(allActions));
+    }
+
+    /**
+     * Creates a recording whose actions have been indexed while recording.
+     *
+     * @param initialConfig the initial configuration of a cellular automaton
+     * @param allActions the actions for every time step
+     * @param index the index of the actions
+     */
+    EvacuationRecording(InitialConfiguration initialConfig, Map<Integer, List<Action>> allActions,
+            ActionIndex index) {
         this.initialConfig = initialConfig;
-        //this.actions = new HashMap<>();
         this.allActions = allActions;
-        //for (Action action: allActions) {
-        //    int step = action.executeDelayed(es, ec);
-        //}
+        this.index = index;
         this.curTime = -1;
     }
 
+    /**
+     * Creates a recording that does not keep its actions in memory. Subclasses override {@link #length()} and
+     * {@link #actionsAt(int)}, queries for action types scan the actions of all time steps.
+     *
+     * @param initialConfig the initial configuration of a cellular automaton
+     */
+    protected EvacuationRecording(InitialConfiguration initialConfig) {
+        this(initialConfig, Collections.emptyMap(), null);
+    }
+
     /**
      * Returns the initial configuration corresponding to the actions stored in this class. The parameters of the
      * actions stored here refer to objects in this initial configuration.
@@ -82,7 +104,7 @@ public class EvacuationRecording {
      * @return {@code true} if the recording extends to the next time step or {@code false} otherwise.
      */
     public boolean hasNext() {
-        return (curTime < allActions.size() - 1);
+        return (curTime < length() - 1);
     }
 
     /**
@@ -114,7 +136,7 @@ public class EvacuationRecording {
      * Fast forwards the recording to its end, i.e. sets the current time step to {@code length-1}.
      */
     public void forward() {
-        curTime = Math.max(0, allActions.size() - 1);
+        curTime = Math.max(0, length() - 1);
     }
 
     /**
@@ -123,7 +145,7 @@ public class EvacuationRecording {
      * @param time The time you want to jump to.
      */
     public void jumpToTime(int time) {
-        if (time >= allActions.size() || time < 0) {
+        if (time >= length() || time < 0) {
             throw new IndexOutOfBoundsException("Index " + time + " is not a valid timestep.");
         }
 
@@ -137,12 +159,12 @@ public class EvacuationRecording {
      * @return A vector with all actions at the next time step
      */
     public List<Action> nextActions() {
-        if (curTime >= allActions.size() - 1) {
+        if (curTime >= length() - 1) {
             throw new IndexOutOfBoundsException("There is no next action (from Index" + curTime + ")");
         }
 
         curTime++;
-        return allActions.get(curTime);
+        return actionsAt(curTime);
     }
 
     /**
@@ -157,7 +179,7 @@ public class EvacuationRecording {
             throw new IndexOutOfBoundsException("Please call nextActions() once before calling this method.");
         }
 
-        return allActions.get(curTime);
+        return actionsAt(curTime);
     }
 
     /**
@@ -171,7 +193,7 @@ public class EvacuationRecording {
         }
 
         curTime--;
-        return allActions.get(curTime);
+        return actionsAt(curTime);
     }
 
     /**
@@ -181,35 +203,74 @@ public class EvacuationRecording {
      * @param <T> An action type. All removed actions will be a sub-type of this type.
      * @param actionType All actions of this type will be removed. Must be a sub-type of T.
      * @return All actions that have been removed in the same order as they were in the recording.
+     * @deprecated use {@link #getActions(java.lang.Class, int)}, which does not copy the actions
      */
-    @SuppressWarnings("unchecked")
+    @Deprecated
     public <T extends Action> Vector<T> filterActions(Class<? extends T> actionType) {
-        Vector<T> filteredActions = new Vector<T>();
-
-        Iterator<Action> actions = curActions().iterator();
-        while (actions.hasNext()) {
-            Action nextAction = actions.next();
-            if (actionType.isInstance(nextAction)) {
-                filteredActions.add((T) nextAction); //actions.remove();
-            }
+        if (curTime < 0) {
+            throw new IndexOutOfBoundsException("Please call nextActions() once before calling this method.");
         }
-
-        return filteredActions;
+        return new Vector<>(getActions(actionType, curTime));
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Returns all actions of the given type in the recording.
+     *
+     * @param <T> An action type
+     * @param actionType the action type
+     * @return all actions of the type in the order of their recording
+     * @deprecated use {@link #getActions(java.lang.Class)}, which does not copy the actions
+     */
+    @Deprecated
     public <T extends Action> Vector<T> filterAllActions(Class<? extends T> actionType) {
-        Vector<T> filteredActions = new Vector<T>();
+        return new Vector<>(getActions(actionType));
+    }
 
-        for (List<Action> actionsForStep : this.allActions.values()) {
-            for (Action action : actionsForStep) {
-                if (actionType.isInstance(action)) {
-                    filteredActions.add((T) action);
-                }
-            }
+    /**
+     * Returns all actions of a type in the recording. The actions are looked up in the index of the recording, so only
+     * the actions of the type are visited.
+     *
+     * @param <T> the action type
+     * @param actionType the action type, subtypes are included
+     * @return an unmodifiable list of the actions of the type in the order of their recording
+     */
+    public <T extends Action> List<T> getActions(Class<T> actionType) {
+        if (index != null) {
+            return index.actions(actionType);
+        }
+        List<T> actions = new ArrayList<>();
+        for (int step = 0; step < length(); ++step) {
+            addMatching(actionsAt(step), actionType, actions);
         }
+        return Collections.unmodifiableList(actions);
+    }
 
-        return filteredActions;
+    /**
+     * Returns the actions of a type at a time step.
+     *
+     * @param <T> the action type
+     * @param actionType the action type, subtypes are included
+     * @param step the time step between {@code 0} and {@code length() - 1}
+     * @return an unmodifiable list of the actions of the type at the time step in the order of their recording
+     */
+    public <T extends Action> List<T> getActions(Class<T> actionType, int step) {
+        if (step >= length() || step < 0) {
+            throw new IndexOutOfBoundsException("Index " + step + " is not a valid timestep.");
+        }
+        if (index != null) {
+            return index.actions(actionType, step);
+        }
+        List<T> actions = new ArrayList<>();
+        addMatching(actionsAt(step), actionType, actions);
+        return Collections.unmodifiableList(actions);
+    }
+
+    private static <T extends Action> void addMatching(List<Action> actions, Class<T> actionType, List<T> matching) {
+        for (Action action : actions) {
+            if (actionType.isInstance(action)) {
+                matching.add(actionType.cast(action));
+            }
+        }
     }
 
     /**
@@ -221,23 +282,34 @@ public class EvacuationRecording {
         return allActions.size();
     }
 
+    /**
+     * Returns the actions recorded at a time step. Recordings that do not keep their actions in memory override this
+     * method together with {@link #length()}.
+     *
+     * @param step the time step between {@code 0} and {@code length() - 1}
+     * @return the actions recorded at the time step
+     */
+    protected List<Action> actionsAt(int step) {
+        return allActions.get(step);
+    }
+
+    /**
+     * Returns the maximal value of all dynamic potential changes and diffs in the recording. For recordings that keep
+     * their actions in memory the value is maintained by the index of the actions, otherwise it is computed once.
+     *
+     * @return the maximal dynamic potential, {@code 0} if no changes have been recorded
+     */
     public long getMaxDynamicPotential() {
+        if (index != null) {
+            return index.getMaxDynamicPotential();
+        }
         if (maxDynamicPotential == -1) {
-            calculateMaxDynamicPotential();
+            long changeMax = getActions(DynamicPotentialChangeAction.class).stream()
+                    .mapToLong(DynamicPotentialChangeAction::getNewPotentialValue).reduce(0, Math::max);
+            long diffMax = getActions(DynamicPotentialDiffAction.class).stream()
+                    .mapToLong(DynamicPotentialDiffAction::getMaxPotentialValue).reduce(0, Math::max);
+            maxDynamicPotential = Math.max(changeMax, diffMax);
         }
         return maxDynamicPotential;
     }
-
-    private void calculateMaxDynamicPotential() {
-        long maxDynamicPotential = 0;
-
-        Vector<DynamicPotentialChangeAction> potentialChanges = filterAllActions(DynamicPotentialChangeAction.class);
-        for (DynamicPotentialChangeAction change : potentialChanges) {
-            if (change.getNewPotentialValue() > maxDynamicPotential) {
-                maxDynamicPotential = change.getNewPotentialValue();
-            }
-        }
-
-        this.maxDynamicPotential = maxDynamicPotential;
-    }
 }
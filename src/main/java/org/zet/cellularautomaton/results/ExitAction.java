@@ -46,6 +46,20 @@ public class ExitAction extends Action {
         this.individual = exit.getState().getIndividual();
     }
 
+    /**
+     * Creates an exit action of an individual that is not known by the state of the exit cell, e.g. when an action is
+     * read from a recording.
+     *
+     * @param exit the cell from where the individual leaves the system
+     * @param timeStep the time step
+     * @param individual the leaving individual
+     */
+    ExitAction(ExitCell exit, int timeStep, Individual individual) {
+        this.exit = exit;
+        this.timeStep = timeStep;
+        this.individual = individual;
+    }
+
     @Override
     public void execute(EvacuationState es, EvacuationStateControllerInterface ec) throws InconsistentPlaybackStateException {
         if (adoptCell(exit).getState().isEmpty()) {
@@ -67,4 +81,12 @@ public class ExitAction extends Action {
         return individual;
     }
 
+    public ExitCell getExit() {
+        return exit;
+    }
+
+    public int getTimeStep() {
+        return timeStep;
+    }
+
 }
@@ -113,6 +113,27 @@ public class MoveAction extends Action {
         }
     }
 
+    /**
+     * Creates a move of an individual that is not known by the state of the starting cell, e.g. when an action is read
+     * from a recording. The update only sets the step times.
+     *
+     * @param individual the moving individual
+     * @param from the starting cell
+     * @param to the target cell
+     * @param arrivalTime the time at which the individual arrives
+     * @param startTime the time at which the individual starts moving
+     */
+    MoveAction(Individual individual, EvacCellInterface from, EvacCellInterface to, double arrivalTime,
+            double startTime) {
+        this.from = from;
+        this.to = to;
+        this.arrivalTime = arrivalTime;
+        this.startTime = startTime;
+        this.individual = individual;
+        this.individualNumber = individual == null ? 0 : individual.getNumber();
+        this.update = PropertyUpdate.forMove(startTime, arrivalTime).createUpdate();
+    }
+
     public MoveAction(MoveAction a, PropertyUpdate update) {
         this.from = a.from;
         this.to = a.to;
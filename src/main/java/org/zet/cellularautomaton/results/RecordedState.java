@@ -0,0 +1,284 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.results;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import org.zet.cellularautomaton.EvacCell;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.InitialConfiguration;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton;
+
+/**
+ * The positions and properties of all individuals of a recording, together with the values of the dynamic potential,
+ * after a time step. The state is obtained by applying the {@link Action actions} of a recording to the initial
+ * configuration. In contrast to an {@link org.zet.cellularautomaton.algorithm.state.EvacuationState} it does not
+ * modify the cells of the cellular automaton, so any time step can be restored without replaying the recording.
+ *
+ * Moves only update the step times of the moving individual, as only these are contained in a recording.
+ */
+public class RecordedState {
+
+    private static final int NONE = -1;
+    private static final byte EVACUATED = 1;
+    private static final byte DEAD = 2;
+    private static final byte SAFE = 4;
+    private static final byte ALARMED = 8;
+
+    private final MultiFloorEvacuationCellularAutomaton cellularAutomaton;
+    private int timeStep;
+    /** The cell id of each individual by its id, {@code -1} if the individual is not in the building. */
+    private final int[] cells;
+    private final byte[] flags;
+    private final double[] panic;
+    private final double[] exhaustion;
+    private final double[] relativeSpeed;
+    private final double[] stepStartTime;
+    private final double[] stepEndTime;
+    /** The dynamic potential of each cell by its id. */
+    private final double[] dynamicPotential;
+
+    /**
+     * Creates the state of an initial configuration before the first time step.
+     *
+     * @param initialConfig the initial configuration
+     */
+    public RecordedState(InitialConfiguration initialConfig) {
+        cellularAutomaton = initialConfig.getCellularAutomaton();
+        int individualCount = initialConfig.getIndividuals().stream().mapToInt(Individual::id).max().orElse(-1) + 1;
+        cells = new int[individualCount];
+        flags = new byte[individualCount];
+        panic = new double[individualCount];
+        exhaustion = new double[individualCount];
+        relativeSpeed = new double[individualCount];
+        stepStartTime = new double[individualCount];
+        stepEndTime = new double[individualCount];
+        dynamicPotential = new double[cellularAutomaton.getCellCount()];
+        reset(initialConfig);
+    }
+
+    /**
+     * Resets the state to the initial configuration.
+     *
+     * @param initialConfig the initial configuration this state has been created for
+     */
+    final void reset(InitialConfiguration initialConfig) {
+        timeStep = -1;
+        Arrays.fill(cells, NONE);
+        Arrays.fill(flags, (byte) 0);
+        Arrays.fill(panic, 0);
+        Arrays.fill(exhaustion, 0);
+        Arrays.fill(stepStartTime, -1);
+        Arrays.fill(stepEndTime, 0);
+        Arrays.fill(dynamicPotential, 0);
+        for (Individual individual : initialConfig.getIndividuals()) {
+            relativeSpeed[individual.id()] = individual.getMaxSpeed();
+            EvacCellInterface start = initialConfig.getIndividualStartPositions().get(individual);
+            cells[individual.id()] = start == null ? NONE : start.getId();
+        }
+    }
+
+    /**
+     * Returns the time step after which this state holds. The initial configuration has time step {@code -1}.
+     *
+     * @return the time step
+     */
+    public int getTimeStep() {
+        return timeStep;
+    }
+
+    void setTimeStep(int timeStep) {
+        this.timeStep = timeStep;
+    }
+
+    /**
+     * Updates the state by an action.
+     *
+     * @param action the action
+     */
+    void apply(Action action) {
+        if (action instanceof MoveAction) {
+            MoveAction move = (MoveAction) action;
+            if (move.getFrom() != null) {
+                move(move.getIndividualNumber(), move.getTo(), move.getStartTime(), move.getArrivalTime());
+            }
+        } else if (action instanceof SwapAction) {
+            SwapAction swap = (SwapAction) action;
+            move(swap.getIndividualNumber1(), swap.cell2(), swap.startTime1(), swap.arrivalTime1());
+            move(swap.getIndividualNumber2(), swap.cell1(), swap.startTime2(), swap.arrivalTime2());
+        } else if (action instanceof DieAction) {
+            remove(((DieAction) action).getIndividual(), DEAD);
+        } else if (action instanceof ExitAction) {
+            remove(((ExitAction) action).getIndividual(), EVACUATED);
+        } else if (action instanceof SaveAction) {
+            int id = ((SaveAction) action).getSavedIndividual().id();
+            flags[id] |= SAFE;
+            panic[id] = 0;
+        } else if (action instanceof ReactionAction) {
+            ((ReactionAction) action).getIndividuals().forEach(individual -> flags[individual.id()] |= ALARMED);
+        } else if (action instanceof IndividualStateChangeAction) {
+            IndividualStateChangeAction change = (IndividualStateChangeAction) action;
+            int id = change.getIndividual().id();
+            panic[id] = change.getPanic();
+            exhaustion[id] = change.getExhaustion();
+            relativeSpeed[id] = change.getCurrentSpeed();
+            if (change.isAlarmed()) {
+                flags[id] |= ALARMED;
+            }
+        } else if (action instanceof DynamicPotentialChangeAction) {
+            DynamicPotentialChangeAction change = (DynamicPotentialChangeAction) action;
+            dynamicPotential[change.affectedCell.getId()] = change.newPotential;
+        } else if (action instanceof DynamicPotentialDiffAction) {
+            ((DynamicPotentialDiffAction) action).forEachChange((cell, value) -> dynamicPotential[cell] = value);
+        }
+    }
+
+    private void move(int id, EvacCellInterface to, double startTime, double arrivalTime) {
+        cells[id] = to.getId();
+        stepStartTime[id] = startTime;
+        stepEndTime[id] = arrivalTime;
+    }
+
+    private void remove(Individual individual, byte flag) {
+        cells[individual.id()] = NONE;
+        flags[individual.id()] |= flag;
+    }
+
+    /**
+     * Returns the cell on which an individual stands.
+     *
+     * @param individual the individual
+     * @return the cell of the individual or {@code null} if the individual has left the building or died
+     */
+    public EvacCell getCell(Individual individual) {
+        int cell = cells[individual.id()];
+        return cell == NONE ? null : cellularAutomaton.getCell(cell);
+    }
+
+    public boolean isEvacuated(Individual individual) {
+        return (flags[individual.id()] & EVACUATED) != 0;
+    }
+
+    public boolean isDead(Individual individual) {
+        return (flags[individual.id()] & DEAD) != 0;
+    }
+
+    public boolean isSafe(Individual individual) {
+        return (flags[individual.id()] & SAFE) != 0;
+    }
+
+    public boolean isAlarmed(Individual individual) {
+        return (flags[individual.id()] & ALARMED) != 0;
+    }
+
+    public double getPanic(Individual individual) {
+        return panic[individual.id()];
+    }
+
+    public double getExhaustion(Individual individual) {
+        return exhaustion[individual.id()];
+    }
+
+    public double getRelativeSpeed(Individual individual) {
+        return relativeSpeed[individual.id()];
+    }
+
+    public double getStepStartTime(Individual individual) {
+        return stepStartTime[individual.id()];
+    }
+
+    public double getStepEndTime(Individual individual) {
+        return stepEndTime[individual.id()];
+    }
+
+    /**
+     * Returns the value of the dynamic potential on a cell.
+     *
+     * @param cell the cell
+     * @return the value of the dynamic potential
+     */
+    public double getDynamicPotential(EvacCellInterface cell) {
+        return dynamicPotential[Objects.requireNonNull(cell, "Cell must not be null.").getId()];
+    }
+
+    /**
+     * Appends the state to a buffer. The values of the individuals are stored column by column, the dynamic potential
+     * is stored as the number of cells with non-zero potential followed by their ids and values.
+     *
+     * @param buffer the buffer in write mode
+     * @return the buffer containing the state, either {@code buffer} or a larger copy
+     */
+    ByteBuffer write(ByteBuffer buffer) {
+        int nonZero = 0;
+        for (double value : dynamicPotential) {
+            if (value != 0) {
+                nonZero++;
+            }
+        }
+        int count = cells.length;
+        ByteBuffer out = ActionCodec.ensureRemaining(buffer, 2 * Integer.BYTES + count * (Integer.BYTES + 1
+                + 5 * Double.BYTES) + Integer.BYTES + nonZero * (Integer.BYTES + Double.BYTES));
+        out.putInt(timeStep).putInt(count);
+        out.asIntBuffer().put(cells);
+        ((Buffer) out).position(out.position() + count * Integer.BYTES);
+        out.put(flags);
+        for (double[] column : columns()) {
+            out.asDoubleBuffer().put(column);
+            ((Buffer) out).position(out.position() + count * Double.BYTES);
+        }
+        out.putInt(nonZero);
+        for (int cell = 0; cell < dynamicPotential.length; ++cell) {
+            if (dynamicPotential[cell] != 0) {
+                out.putInt(cell).putDouble(dynamicPotential[cell]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Replaces the state by a state stored in a buffer by {@link #write(ByteBuffer)}.
+     *
+     * @param buffer the buffer in read mode positioned at the state
+     * @throws IllegalStateException if the stored state belongs to a different number of individuals
+     */
+    void read(ByteBuffer buffer) {
+        timeStep = buffer.getInt();
+        int count = buffer.getInt();
+        if (count != cells.length) {
+            throw new IllegalStateException("Expected state of " + cells.length + " individuals but found " + count);
+        }
+        buffer.asIntBuffer().get(cells);
+        ((Buffer) buffer).position(buffer.position() + count * Integer.BYTES);
+        buffer.get(flags);
+        for (double[] column : columns()) {
+            buffer.asDoubleBuffer().get(column);
+            ((Buffer) buffer).position(buffer.position() + count * Double.BYTES);
+        }
+        Arrays.fill(dynamicPotential, 0);
+        int nonZero = buffer.getInt();
+        for (int i = 0; i < nonZero; ++i) {
+            int cell = buffer.getInt();
+            dynamicPotential[cell] = buffer.getDouble();
+        }
+    }
+
+    private double[][] columns() {
+        return new double[][]{panic, exhaustion, relativeSpeed, stepStartTime, stepEndTime};
+    }
+}
@@ -0,0 +1,311 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.results;
+
+import static org.zet.cellularautomaton.results.StreamingResultsRecorder.FRAME_HEADER_SIZE;
+import static org.zet.cellularautomaton.results.StreamingResultsRecorder.HEADER_SIZE;
+import static org.zet.cellularautomaton.results.StreamingResultsRecorder.KEYFRAME;
+import static org.zet.cellularautomaton.results.StreamingResultsRecorder.TRAILER_SIZE;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.zet.cellularautomaton.InitialConfiguration;
+
+/**
+ * An {@link EvacuationRecording} that reads the actions of a time step on demand from a file written by the
+ * {@link StreamingResultsRecorder}. The file is mapped into memory, only the offsets of the time steps and keyframes
+ * and the actions of the most recently read time step are kept on the heap. The offsets are read from the index of a
+ * closed recording; if the recording has not been closed, the frames are scanned once instead. A frame that has only
+ * partially been written when the recording was interrupted is ignored.
+ *
+ * The {@link RecordedState state} at any time step can be restored with {@link #stateAt(int)} by reading at most one
+ * keyframe and the frames of less than one keyframe interval.
+ */
+public class StreamedEvacuationRecording extends EvacuationRecording {
+
+    private final ActionCodec codec;
+    private final int keyframeInterval;
+    /** The file offset of the frame of each time step. */
+    private long[] frameOffsets = new long[16];
+    private int length;
+    /** The file offset of each keyframe. Keyframe {@code i} contains the state after time step {@code (i+1)k-1}. */
+    private long[] keyframeOffsets = new long[16];
+    private int keyframeCount;
+    /** The mapped parts of the file. No frame spans two segments. */
+    private MappedByteBuffer[] segments;
+    /** The file offset of each segment. */
+    private long[] segmentStarts;
+    private final RecordedState state;
+    private int cachedStep = -1;
+    private List<Action> cachedActions;
+
+    /**
+     * Opens a recording.
+     *
+     * @param initialConfig the initial configuration of the recorded simulation, providing the cells and individuals
+     * @param channel the channel of the recording, opened for reading
+     * @throws IOException if reading fails or the channel does not contain a valid recording
+     */
+    public StreamedEvacuationRecording(InitialConfiguration initialConfig, FileChannel channel) throws IOException {
+        this(initialConfig, channel, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Opens a recording that is mapped in segments of at most the given size.
+     *
+     * @param initialConfig the initial configuration of the recorded simulation
+     * @param channel the channel of the recording, opened for reading
+     * @param maxSegmentSize the maximal size of a mapped segment in bytes
+     * @throws IOException if reading fails or the channel does not contain a valid recording
+     */
+    StreamedEvacuationRecording(InitialConfiguration initialConfig, FileChannel channel, int maxSegmentSize)
+            throws IOException {
+        super(initialConfig);
+        this.codec = new ActionCodec(initialConfig);
+        this.state = new RecordedState(initialConfig);
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            throw new IOException("The channel does not contain a recording.");
+        }
+        ByteBuffer header = read(channel, 0, HEADER_SIZE);
+        if (header.getInt() != StreamingResultsRecorder.MAGIC) {
+            throw new IOException("The channel does not contain a recording.");
+        }
+        int version = header.getInt();
+        if (version != StreamingResultsRecorder.VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+        keyframeInterval = header.getInt();
+        if (keyframeInterval < 1) {
+            throw new IOException("Invalid keyframe interval " + keyframeInterval);
+        }
+        long end = readIndex(channel, size);
+        if (end < 0) {
+            end = scan(channel, size);
+        }
+        map(channel, end, maxSegmentSize);
+    }
+
+    /**
+     * Reads the index of a closed recording.
+     *
+     * @return the offset of the index or {@code -1} if the recording has no valid index
+     */
+    private long readIndex(FileChannel channel, long size) throws IOException {
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+            return -1;
+        }
+        ByteBuffer trailer = read(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+        int frames = trailer.getInt();
+        int keyframes = trailer.getInt();
+        long indexPosition = trailer.getLong();
+        if (trailer.getInt() != StreamingResultsRecorder.INDEX_MAGIC || frames < 0 || keyframes < 0
+                || indexPosition < HEADER_SIZE
+                || indexPosition + ((long) frames + keyframes) * Long.BYTES + TRAILER_SIZE != size) {
+            return -1;
+        }
+        LongBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexPosition,
+                ((long) frames + keyframes) * Long.BYTES).asLongBuffer();
+        length = frames;
+        frameOffsets = new long[frames];
+        index.get(frameOffsets);
+        keyframeCount = keyframes;
+        keyframeOffsets = new long[keyframes];
+        index.get(keyframeOffsets);
+        return indexPosition;
+    }
+
+    /**
+     * Scans the frames of a recording that has not been closed. The scan stops at the last complete frame, as the
+     * recorder may have been interrupted while writing a frame.
+     *
+     * @return the end of the last complete frame
+     */
+    private long scan(FileChannel channel, long size) throws IOException {
+        long position = HEADER_SIZE;
+        while (position + FRAME_HEADER_SIZE <= size) {
+            ByteBuffer frameHeader = read(channel, position, FRAME_HEADER_SIZE);
+            int step = frameHeader.getInt();
+            boolean keyframe = frameHeader.getInt() == KEYFRAME;
+            int bytes = frameHeader.getInt();
+            if (bytes < 0 || position + FRAME_HEADER_SIZE + bytes > size) {
+                break;
+            }
+            if (keyframe) {
+                if (step != keyframeStep(keyframeCount)) {
+                    throw new IOException("Expected keyframe of time step " + keyframeStep(keyframeCount)
+                            + " but found " + step);
+                }
+                if (keyframeCount == keyframeOffsets.length) {
+                    keyframeOffsets = Arrays.copyOf(keyframeOffsets, 2 * keyframeCount);
+                }
+                keyframeOffsets[keyframeCount++] = position;
+            } else {
+                if (step != length) {
+                    throw new IOException("Expected frame of time step " + length + " but found " + step);
+                }
+                if (length == frameOffsets.length) {
+                    frameOffsets = Arrays.copyOf(frameOffsets, 2 * length);
+                }
+                frameOffsets[length++] = position;
+            }
+            position += FRAME_HEADER_SIZE + bytes;
+        }
+        return position;
+    }
+
+    /**
+     * Maps the frames into segments. A segment ends before the first frame that would exceed the maximal size.
+     */
+    private void map(FileChannel channel, long end, int maxSegmentSize) throws IOException {
+        List<Long> starts = new ArrayList<>();
+        List<Long> ends = new ArrayList<>();
+        long segmentStart = HEADER_SIZE;
+        int frame = 0;
+        int keyframe = 0;
+        while (frame < length || keyframe < keyframeCount) {
+            long next = keyframe == keyframeCount || frame < length && frameOffsets[frame] < keyframeOffsets[keyframe]
+                    ? frameOffsets[frame++] : keyframeOffsets[keyframe++];
+            long nextEnd = frame < length || keyframe < keyframeCount
+                    ? Math.min(frame < length ? frameOffsets[frame] : Long.MAX_VALUE,
+                            keyframe < keyframeCount ? keyframeOffsets[keyframe] : Long.MAX_VALUE)
+                    : end;
+            if (nextEnd - next > maxSegmentSize) {
+                throw new IOException("Frame at position " + next + " exceeds the maximal segment size.");
+            }
+            if (nextEnd - segmentStart > maxSegmentSize) {
+                starts.add(segmentStart);
+                ends.add(next);
+                segmentStart = next;
+            }
+        }
+        starts.add(segmentStart);
+        ends.add(end);
+        segments = new MappedByteBuffer[starts.size()];
+        segmentStarts = new long[starts.size()];
+        for (int i = 0; i < segments.length; ++i) {
+            segmentStarts[i] = starts.get(i);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, starts.get(i), ends.get(i) - starts.get(i));
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the number of time steps between two keyframes.
+     *
+     * @return the keyframe interval
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    @Override
+    protected List<Action> actionsAt(int step) {
+        if (step != cachedStep) {
+            ByteBuffer frame = frame(frameOffsets[step]);
+            int count = frame.getInt(frame.position() + Integer.BYTES);
+            ((Buffer) frame).position(frame.position() + FRAME_HEADER_SIZE);
+            cachedActions = Collections.unmodifiableList(codec.decode(frame, count));
+            cachedStep = step;
+        }
+        return cachedActions;
+    }
+
+    /**
+     * Returns the state after a time step. The state is restored from the closest keyframe before the time step, or
+     * from the current state if it is closer.
+     *
+     * @param step the time step between {@code 0} and {@code length() - 1}
+     * @return the state after the time step. The state is reused, it changes on the next call of this method
+     * @throws IndexOutOfBoundsException if the time step is not part of the recording
+     */
+    public RecordedState stateAt(int step) {
+        if (step < 0 || step >= length) {
+            throw new IndexOutOfBoundsException("Index " + step + " is not a valid timestep.");
+        }
+        int keyframe = Math.min((step + 1) / keyframeInterval, keyframeCount) - 1;
+        int keyframeStep = keyframe < 0 ? -1 : keyframeStep(keyframe);
+        if (state.getTimeStep() < keyframeStep || state.getTimeStep() > step) {
+            if (keyframe < 0) {
+                state.reset(getInitialConfig());
+            } else {
+                ByteBuffer frame = frame(keyframeOffsets[keyframe]);
+                ((Buffer) frame).position(frame.position() + FRAME_HEADER_SIZE);
+                state.read(frame);
+            }
+        }
+        for (int t = state.getTimeStep() + 1; t <= step; ++t) {
+            ByteBuffer frame = frame(frameOffsets[t]);
+            int count = frame.getInt(frame.position() + Integer.BYTES);
+            ((Buffer) frame).position(frame.position() + FRAME_HEADER_SIZE);
+            for (int i = 0; i < count; ++i) {
+                state.apply(codec.decode(frame));
+            }
+            state.setTimeStep(t);
+        }
+        return state;
+    }
+
+    private int keyframeStep(int keyframe) {
+        return (keyframe + 1) * keyframeInterval - 1;
+    }
+
+    /**
+     * Returns a view of the mapped frame at a file offset.
+     *
+     * @return the view positioned at the frame header
+     */
+    private ByteBuffer frame(long offset) {
+        int segment = Arrays.binarySearch(segmentStarts, offset);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        ByteBuffer frame = segments[segment].duplicate();
+        ((Buffer) frame).position((int) (offset - segmentStarts[segment]));
+        return frame;
+    }
+
+    /**
+     * Reads a number of bytes at a position of the channel.
+     *
+     * @return the buffer in read mode containing exactly the bytes read
+     */
+    private static ByteBuffer read(FileChannel channel, long position, int bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, current);
+            if (read < 0) {
+                throw new IOException("Unexpected end of recording at position " + current);
+            }
+            current += read;
+        }
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,264 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.results;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import org.zet.cellularautomaton.InitialConfiguration;
+import org.zet.cellularautomaton.algorithm.EvacuationCellularAutomatonAlgorithm;
+import org.zet.cellularautomaton.algorithm.EvacuationInitializationCompleteEvent;
+import org.zet.cellularautomaton.algorithm.EvacuationStepCompleteEvent;
+import org.zetool.common.algorithm.AbstractAlgorithmEvent;
+import org.zetool.common.algorithm.AlgorithmListener;
+
+/**
+ * Records the actions of a simulation to a channel while the simulation is running. In contrast to the
+ * {@link VisualResultsRecorder} no actions are kept in memory: the actions of a time step are encoded into a single
+ * binary frame that is written as soon as the step is complete. The memory consumption only depends on the number of
+ * actions of a single step and the number of individuals.
+ *
+ * The channel starts with a header consisting of the magic number {@link #MAGIC}, the {@link #VERSION} of the format
+ * and the keyframe interval. It is followed by one frame per time step, starting at time {@code 0}. A frame consists
+ * of the time step, the number of actions and the number of bytes of the encoded actions, followed by the actions.
+ * After every keyframe interval time steps a keyframe follows, containing the complete {@link RecordedState} after the
+ * step. A keyframe has the same header as a frame, with {@link #KEYFRAME} as number of actions.
+ *
+ * When the recorder is closed, an index with the offsets of all frames and keyframes is appended, followed by a
+ * trailer consisting of the number of frames, the number of keyframes, the offset of the index and the magic number
+ * {@link #INDEX_MAGIC}. Offsets are relative to the start of the recording. The recording can be read with a
+ * {@link StreamedEvacuationRecording}.
+ */
+public class StreamingResultsRecorder implements Closeable {
+
+    /** The magic number at the start of a recording. */
+    public static final int MAGIC = 0x5a455452;
+    /** The version of the binary format. */
+    public static final int VERSION = 2;
+    /** The magic number at the end of a recording that has been closed. */
+    public static final int INDEX_MAGIC = 0x5a455449;
+    /** The default number of time steps between two keyframes. */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+    /** The number of actions stored in the header of a keyframe. */
+    static final int KEYFRAME = -1;
+    /** The size of the header of a recording in bytes. */
+    static final int HEADER_SIZE = 3 * Integer.BYTES;
+    /** The size of the header of a frame in bytes. */
+    static final int FRAME_HEADER_SIZE = 3 * Integer.BYTES;
+    /** The size of the trailer of a closed recording in bytes. */
+    static final int TRAILER_SIZE = 3 * Integer.BYTES + Long.BYTES;
+
+    private final WritableByteChannel channel;
+    private final int keyframeInterval;
+    /** The state after the last completed time step, used to write the keyframes. */
+    private final RecordedState state;
+    /** The frame of the current time step, in write mode. The frame header is filled in when the frame is written. */
+    private ByteBuffer frame = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer keyframe = ByteBuffer.allocate(1 << 16);
+    private long position;
+    private long[] frameOffsets = new long[256];
+    private long[] keyframeOffsets = new long[16];
+    private int keyframeCount;
+    private int actionCount;
+    private int timeStep;
+    private boolean pending;
+    private boolean closed;
+
+    /**
+     * Creates a recorder writing to a channel and writes the header of the recording.
+     *
+     * @param channel the channel
+     * @param initialConfig the initial configuration of the recorded simulation
+     * @param keyframeInterval the number of time steps between two keyframes
+     * @throws IOException if writing the header fails
+     * @throws IllegalArgumentException if the keyframe interval is not positive
+     */
+    public StreamingResultsRecorder(WritableByteChannel channel, InitialConfiguration initialConfig,
+            int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be positive: " + keyframeInterval);
+        }
+        this.channel = Objects.requireNonNull(channel, "Channel must not be null.");
+        this.keyframeInterval = keyframeInterval;
+        this.state = new RecordedState(
+                Objects.requireNonNull(initialConfig, "Initial configuration must not be null."));
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(keyframeInterval);
+        ((Buffer) header).flip();
+        writeFully(header);
+        startFrame();
+    }
+
+    /**
+     * Creates a recorder writing to a channel with the {@link #DEFAULT_KEYFRAME_INTERVAL default keyframe interval}.
+     *
+     * @param channel the channel
+     * @param initialConfig the initial configuration of the recorded simulation
+     * @throws IOException if writing the header fails
+     */
+    public StreamingResultsRecorder(WritableByteChannel channel, InitialConfiguration initialConfig)
+            throws IOException {
+        this(channel, initialConfig, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Creates a recorder writing to a channel that records all actions of a simulation.
+     *
+     * @param channel the channel
+     * @param initialConfig the initial configuration of the simulation
+     * @param algorithm the simulation
+     * @throws IOException if writing the header fails
+     */
+    public StreamingResultsRecorder(WritableByteChannel channel, InitialConfiguration initialConfig,
+            EvacuationCellularAutomatonAlgorithm algorithm) throws IOException {
+        this(channel, initialConfig);
+        algorithm.addAlgorithmListener(createListener());
+    }
+
+    private AlgorithmListener createListener() {
+        return (AbstractAlgorithmEvent event) -> {
+            try {
+                if (event instanceof EvacuationStepCompleteEvent) {
+                    record(((EvacuationStepCompleteEvent) event).getInitializationActions());
+                    nextTimestep();
+                } else if (event instanceof EvacuationInitializationCompleteEvent) {
+                    record(((EvacuationInitializationCompleteEvent) event).getInitializationActions());
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        };
+    }
+
+    /**
+     * Records actions at the current time step.
+     *
+     * @param actions the actions
+     * @throws IllegalArgumentException if an action refers to cells without id
+     */
+    public void record(Collection<? extends Action> actions) {
+        for (Action action : actions) {
+            frame = ActionCodec.encode(action, frame);
+            state.apply(action);
+            actionCount++;
+        }
+        pending = true;
+    }
+
+    /**
+     * Writes the frame of the current time step and advances the time step by one. If the time step completes a
+     * keyframe interval, the keyframe is written after the frame.
+     *
+     * @throws IOException if writing the frame fails
+     */
+    public void nextTimestep() throws IOException {
+        if (timeStep == frameOffsets.length) {
+            frameOffsets = Arrays.copyOf(frameOffsets, 2 * timeStep);
+        }
+        frameOffsets[timeStep] = position;
+        writeFrame(frame, actionCount);
+        state.setTimeStep(timeStep);
+        if ((timeStep + 1) % keyframeInterval == 0) {
+            writeKeyframe();
+        }
+        timeStep++;
+        startFrame();
+    }
+
+    private void writeKeyframe() throws IOException {
+        if (keyframeCount == keyframeOffsets.length) {
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, 2 * keyframeCount);
+        }
+        keyframeOffsets[keyframeCount++] = position;
+        ((Buffer) keyframe).clear();
+        ((Buffer) keyframe).position(FRAME_HEADER_SIZE);
+        keyframe = state.write(keyframe);
+        writeFrame(keyframe, KEYFRAME);
+    }
+
+    /**
+     * Fills in the header of a frame and writes it.
+     *
+     * @param buffer the frame in write mode, starting with space for the header
+     * @param count the number of actions or {@link #KEYFRAME}
+     */
+    private void writeFrame(ByteBuffer buffer, int count) throws IOException {
+        int length = buffer.position() - FRAME_HEADER_SIZE;
+        buffer.putInt(0, timeStep).putInt(Integer.BYTES, count).putInt(2 * Integer.BYTES, length);
+        ((Buffer) buffer).flip();
+        writeFully(buffer);
+    }
+
+    private void startFrame() {
+        ((Buffer) frame).clear();
+        ((Buffer) frame).position(FRAME_HEADER_SIZE);
+        actionCount = 0;
+        pending = false;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+
+    /**
+     * Returns the current time step. Actions recorded now are stored at this time step.
+     *
+     * @return the current time step
+     */
+    public int getTimeStep() {
+        return timeStep;
+    }
+
+    /**
+     * Returns the number of time steps between two keyframes.
+     *
+     * @return the keyframe interval
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Writes the frame of the current time step if actions have been recorded for it, followed by the index of the
+     * recording. The channel is not closed.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (pending) {
+            nextTimestep();
+        }
+        long indexPosition = position;
+        ByteBuffer index = ByteBuffer.allocate((timeStep + keyframeCount) * Long.BYTES + TRAILER_SIZE);
+        index.asLongBuffer().put(frameOffsets, 0, timeStep).put(keyframeOffsets, 0, keyframeCount);
+        ((Buffer) index).position((timeStep + keyframeCount) * Long.BYTES);
+        index.putInt(timeStep).putInt(keyframeCount).putLong(indexPosition).putInt(INDEX_MAGIC);
+        ((Buffer) index).flip();
+        writeFully(index);
+    }
+}
@@ -69,7 +69,7 @@ public class SwapAction extends Action {
         }
     }
 
-    private SwapAction(
+    SwapAction(
             EvacCellInterface cell1,
             EvacCellInterface cell2,
             double getStepEndTime1,
@@ -61,6 +61,8 @@ public class VisualResultsRecorder {
      * occurrence.
      */
     private final Map<Integer, List<Action>> actions = new HashMap<>();
+    /** The recorded actions indexed by their type. */
+    private final ActionIndex index = new ActionIndex();
 
     private boolean doRecord;
     private final InitialConfiguration initialConfiguration;
@@ -80,16 +82,19 @@ public class VisualResultsRecorder {
                 //System.out.println(cellularAutomatonAlgorithm.getEvacuationState().getTimeStep() + ": Event: " + event);
                 //int timeStep = event.getEventTime(). .getEvacuationState().getTimeStep();
                 if (event instanceof EvacuationStepCompleteEvent) {
-                    List<Action> actions = getActionsFor(step++);
-                    actions.addAll(((EvacuationStepCompleteEvent) event).getInitializationActions());
+                    record(step++, ((EvacuationStepCompleteEvent) event).getInitializationActions());
                 } else if (event instanceof EvacuationInitializationCompleteEvent) {
-                    List<Action> actions = getActionsFor(step);
-                    actions.addAll(((EvacuationInitializationCompleteEvent) event).getInitializationActions());
+                    record(step, ((EvacuationInitializationCompleteEvent) event).getInitializationActions());
                 }
             }
         };
     }
     
+    private void record(int step, List<Action> recorded) {
+        getActionsFor(step).addAll(recorded);
+        recorded.forEach(action -> index.add(step, action));
+    }
+
     private List<Action> getActionsFor(int step) {
         if (!actions.containsKey(step)) {
             actions.put(step, new LinkedList<>());
@@ -154,7 +159,7 @@ public class VisualResultsRecorder {
      * @return A new {@code EvacuationRecording} containing all recorded actions and the corresponding configuration.
      */
     public EvacuationRecording getRecording() {
-        return new EvacuationRecording(initialConfiguration, actions);
+        return new EvacuationRecording(initialConfiguration, actions, index);
     }
 
     public int getRecordedCount() {
@@ -15,19 +15,73 @@
  */
 package org.zet.cellularautomaton.statistic;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
 import org.zet.cellularautomaton.algorithm.state.EvacuationState;
 import org.zet.cellularautomaton.statistic.results.StoredCAStatisticResults;
 
 /**
+ * Records the statistic of a simulation run. Which values are recorded is controlled by a {@link StatisticLevel} and
+ * can be refined for each {@link StatisticMetric metric}. The rules check {@link #isRecording(StatisticMetric)} before
+ * they compute and store a value. By default, all metrics are recorded.
  *
  * @author Sylvie Temme
  */
 public class CAStatisticWriter {
 
   private StoredCAStatisticResults storedCAStatisticResults;
+  private StatisticLevel level = StatisticLevel.FULL;
+  private final EnumSet<StatisticMetric> recorded = EnumSet.allOf( StatisticMetric.class );
 
   public CAStatisticWriter(EvacuationState es) {
-    storedCAStatisticResults = new StoredCAStatisticResults(es);
+    storedCAStatisticResults = new StoredCAStatisticResults(es, Collections.unmodifiableSet( recorded ));
+  }
+
+  /**
+   * Sets the level of recorded values. All metrics of the level are recorded, all others are not recorded.
+   *
+   * @param level the level
+   */
+  public void setLevel( StatisticLevel level ) {
+    this.level = Objects.requireNonNull( level, "Statistic level must not be null." );
+    recorded.clear();
+    recorded.addAll( level.getMetrics() );
+  }
+
+  /**
+   * Returns the level last set. The recorded metrics may differ from the level if single metrics have been turned on
+   * or off afterwards.
+   *
+   * @return the level
+   */
+  public StatisticLevel getLevel() {
+    return level;
+  }
+
+  /**
+   * Turns the recording of a single metric on or off.
+   *
+   * @param metric the metric
+   * @param enabled whether the metric is recorded
+   */
+  public void setRecording( StatisticMetric metric, boolean enabled ) {
+    Objects.requireNonNull( metric, "Metric must not be null." );
+    if( enabled ) {
+      recorded.add( metric );
+    } else {
+      recorded.remove( metric );
+    }
+  }
+
+  /**
+   * Checks whether a metric is recorded.
+   *
+   * @param metric the metric
+   * @return {@code true} if the metric is recorded
+   */
+  public boolean isRecording( StatisticMetric metric ) {
+    return recorded.contains( metric );
   }
 
   public StoredCAStatisticResults getStoredCAStatisticResults() {
@@ -17,10 +17,9 @@ package org.zet.cellularautomaton.statistic;
 
 import java.util.HashMap;
 import java.util.ArrayList;
-import java.util.Collections;
 import org.zet.cellularautomaton.EvacCell;
-import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.Room;
+import org.zet.cellularautomaton.statistic.results.CellOccupancySeries;
 import org.zet.cellularautomaton.statistic.results.StoredCAStatisticResultsForCells;
 
 /**
@@ -37,16 +36,15 @@ import org.zet.cellularautomaton.statistic.results.StoredCAStatisticResultsForCe
 public class CellStatistic implements CellStatisticMethods {
 
   /**
-   * associate each cell with an ArrayList which contains all timesteps the cell
-   * is occupied
+   * stores for each cell all timesteps the cell is occupied
    */
-  private HashMap<EvacCellInterface, ArrayList<Integer>> cellUtilization;
+  private CellOccupancySeries cellUtilization;
 
   /**
-   * associate each cell with an ArrayList which contains all timesteps at which
-   * an individual standing at the cell is waiting
+   * stores for each cell all timesteps at which an individual standing at the
+   * cell is waiting
    */
-  private HashMap<EvacCellInterface, ArrayList<Integer>> waitingTime;
+  private CellOccupancySeries waitingTime;
 
   /**
    * stores utilization for each room
@@ -68,16 +66,12 @@ public class CellStatistic implements CellStatisticMethods {
   private int maxWaiting;
 
   public CellStatistic( StoredCAStatisticResultsForCells stored ) {
-    cellUtilization = stored.getHashMapCellUtilization();
-    waitingTime = stored.getHashMapWaitingTime();
+    cellUtilization = stored.getCellUtilization();
+    waitingTime = stored.getWaitingTime();
     overallRoomUtilization = new HashMap<Room, Double>();
     overallRoomWaitingTime = new HashMap<Room, Double>();
-    for( ArrayList<Integer> array : cellUtilization.values() ) {
-      maxUtilization = Math.max( maxUtilization, array.size() );
-    }
-    for( ArrayList<Integer> array : cellUtilization.values() ) {
-      maxWaiting = Math.max( maxWaiting, array.size() );
-    }
+    maxUtilization = cellUtilization.getMaxCount();
+    maxWaiting = waitingTime.getMaxCount();
   }
 
   /**
@@ -90,8 +84,8 @@ public class CellStatistic implements CellStatisticMethods {
    * @throws IllegalArgumentException
    */
   public ArrayList<Integer> getCellUtilizationStatistic( EvacCell c ) throws IllegalArgumentException {
-    if( cellUtilization.containsKey( c ) ) {
-      return cellUtilization.get( c );
+    if( cellUtilization.contains( c ) ) {
+      return new ArrayList<>( cellUtilization.timeSteps( c ) );
     }
     return null;
   }
@@ -106,8 +100,8 @@ public class CellStatistic implements CellStatisticMethods {
    * @throws IllegalArgumentException
    */
   public ArrayList<Integer> getCellWaitingStatistic( EvacCell c ) throws IllegalArgumentException {
-    if( cellUtilization.containsKey( c ) ) {
-      return cellUtilization.get( c );
+    if( waitingTime.contains( c ) ) {
+      return new ArrayList<>( waitingTime.timeSteps( c ) );
     }
     return null;
   }
@@ -116,16 +110,7 @@ public class CellStatistic implements CellStatisticMethods {
    * @see statistic.ca.CellStatisticMethods#getCellUtilization(ds.ca.EvacCell, int)
    */
   public int getCellUtilization( EvacCell c, int t ) throws IllegalArgumentException {
-    if( cellUtilization.containsKey( c ) ) {
-      int index = (Collections.binarySearch( cellUtilization.get( c ), t ));
-      if( index < 0 ) {
-        index = -index - 2;
-      }
-      if( index >= 0 ) {
-        return index + 1;
-      }
-    }
-    return 0;
+    return cellUtilization.countUntil( c, t );
   }
 
   /**
@@ -143,23 +128,14 @@ public class CellStatistic implements CellStatisticMethods {
    * @return the maximal waiting time
    */
   public int getMaxWaiting() {
-    return maxUtilization;
+    return maxWaiting;
   }
 
   /* (non-Javadoc)
    * @see statistic.ca.CellStatisticMethods#getCellWaitingTime(ds.ca.EvacCell, int)
    */
   public int getCellWaitingTime( EvacCell c, int t ) throws IllegalArgumentException {
-    if( waitingTime.containsKey( c ) ) {
-      int index = (Collections.binarySearch( waitingTime.get( c ), t ));
-      if( index < 0 ) {
-        index = -index - 2;
-      }
-      if( index >= 0 ) {
-        return index + 1;
-      }
-    }
-    return 0;
+    return waitingTime.countUntil( c, t );
   }
 
   /**
@@ -171,30 +147,21 @@ public class CellStatistic implements CellStatisticMethods {
    * Otherwise false is returned.
    */
   public boolean isCellOccupied( EvacCell c, int t ) {
-    if( cellUtilization.containsKey( c ) ) {
-      return cellUtilization.get( c ).contains( new Integer( t ) );
-    }
-    return false;
+    return cellUtilization.contains( c, t );
   }
 
   /* (non-Javadoc)
    * @see statistic.ca.CellStatisticMethods#getOverallCellUtilization(ds.ca.EvacCell, int)
    */
   public double getOverallCellUtilization( EvacCell c, int o ) {
-    if( cellUtilization.containsKey( c ) ) {
-      return cellUtilization.get( c ).get( cellUtilization.get( c ).size() ) / o;
-    }
-    return 0.0;
+    return (double) cellUtilization.count( c ) / o;
   }
 
   /* (non-Javadoc)
    * @see statistic.ca.CellStatisticMethods#getOverallWaitingTime(ds.ca.EvacCell, int)
    */
   public double getOverallWaitingTime( EvacCell c, int o ) {
-    if( waitingTime.containsKey( c ) ) {
-      return waitingTime.get( c ).get( waitingTime.get( c ).size() ) / o;
-    }
-    return 0.0;
+    return (double) waitingTime.count( c ) / o;
   }
 
   /* (non-Javadoc)
@@ -26,6 +26,7 @@ import org.zet.cellularautomaton.ExitCell;
 import org.zet.cellularautomaton.algorithm.state.EvacuationState;
 import org.zet.cellularautomaton.algorithm.state.IndividualProperty;
 import org.zet.cellularautomaton.algorithm.state.PropertyAccess;
+import org.zet.cellularautomaton.statistic.results.IndividualTimeSeries;
 import org.zet.cellularautomaton.statistic.results.StoredCAStatisticResultsForIndividuals;
 import org.zet.cellularautomaton.potential.StaticPotential;
 import org.zet.cellularautomaton.statistic.exception.GroupOfIndividualsException;
@@ -39,6 +40,8 @@ import org.zet.cellularautomaton.statistic.exception.OneIndNoValueBecauseAlready
 import org.zet.cellularautomaton.statistic.exception.OneIndNotSafeException;
 
 /**
+ * Evaluates the statistic stored for the individuals of a simulation run. Values of a {@link StatisticMetric metric}
+ * that was not recorded cannot be evaluated, the methods reading them throw an {@link IllegalStateException}.
  *
  * @author Sylvie Temme
  */
@@ -49,38 +52,36 @@ public class IndividualStatistic {
     HashMap<Individual, Integer> safetyTimes;
     HashMap<Individual, ArrayList<Integer>> changePotentialTimes;
     private Map<Individual, List<Exit>> potentials;
-    HashMap<Individual, ArrayList<Integer>> coveredDistanceTimes;
-    private HashMap<Individual, ArrayList<Double>> coveredDistance;
-    HashMap<Individual, ArrayList<Integer>> waitedTimeTimes;
-    private HashMap<Individual, ArrayList<Integer>> waitedTime;
+    private IndividualTimeSeries coveredDistance;
+    private IndividualTimeSeries waitedTime;
     HashMap<Individual, Double> minDistanceToNearestExit;
     HashMap<Individual, Double> minDistanceToPlannedExit;
     private HashMap<Individual, Exit> takenExit;
-    HashMap<Individual, ArrayList<Integer>> panicTimes;
-    private HashMap<Individual, ArrayList<Double>> panic;
-    HashMap<Individual, ArrayList<Integer>> exhaustionTimes;
-    private HashMap<Individual, ArrayList<Double>> exhaustion;
-    HashMap<Individual, ArrayList<Integer>> currentSpeedTimes;
-    private HashMap<Individual, ArrayList<Double>> currentSpeed;
+    private IndividualTimeSeries panic;
+    private IndividualTimeSeries exhaustion;
+    private IndividualTimeSeries currentSpeed;
     PropertyAccess es;
+    private final StoredCAStatisticResultsForIndividuals stored;
 
     public IndividualStatistic(StoredCAStatisticResultsForIndividuals stored) {
+        this.stored = stored;
         safetyTimes = stored.getHashMapSafetyTimes();
         changePotentialTimes = stored.getHashMapChangePotentialTimes();
         potentials = stored.getHashMapPotentials();
-        coveredDistanceTimes = stored.getHashMapCoveredDistanceTimes();
-        coveredDistance = stored.getHashMapCoveredDistance();
-        waitedTimeTimes = stored.getHashMapWaitedTimeTimes();
-        waitedTime = stored.getHashMapWaitedTime();
+        coveredDistance = stored.getCoveredDistance();
+        waitedTime = stored.getWaitedTime();
         minDistanceToNearestExit = stored.getHashMapMinDistanceToNearestExit();
         minDistanceToPlannedExit = stored.getHashMapMinDistanceToPlannedExit();
         takenExit = stored.getHashMapTakenExit();
-        panicTimes = stored.getHashMapPanicTimes();
-        panic = stored.getHashMapPanic();
-        exhaustionTimes = stored.getHashMapExhaustionTimes();
-        exhaustion = stored.getHashMapExhaustion();
-        currentSpeedTimes = stored.getHashMapCurrentSpeedTimes();
-        currentSpeed = stored.getHashMapCurrentSpeed();
+        panic = stored.getPanic();
+        exhaustion = stored.getExhaustion();
+        currentSpeed = stored.getCurrentSpeed();
+    }
+
+    private void requireRecorded(StatisticMetric metric) {
+        if (!stored.isRecorded(metric)) {
+            throw new IllegalStateException("The metric " + metric + " was not recorded.");
+        }
     }
 
 //coveredDistance
@@ -94,13 +95,14 @@ public class IndividualStatistic {
      * @throws org.zet.cellularautomaton.statistic.exception.IncorrectTimeException if "t" is less than 0
      */
     public double getCoveredDistance(Individual ind, int t) throws OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.COVERED_DISTANCE);
 
         if (ip.getDeathCause() != null && ip.getDeathCause().compareTo(org.zet.cellularautomaton.DeathCause.EXIT_UNREACHABLE) == 0) {
             // ind tot weil eingeschlossen
             throw new OneIndNoPotentialException(ind);
         }
 
-        if (!coveredDistanceTimes.containsKey(ind)) {
+        if (!coveredDistance.contains(ind)) {
             // ind hat sich nie bewegt und ist nie stehengeblieben--> ind ist eingeschlossen
             throw new OneIndNoPotentialException(ind);
         }
@@ -114,17 +116,14 @@ public class IndividualStatistic {
             return 0;
         }
 
-        int index = Collections.binarySearch(coveredDistanceTimes.get(ind), t);
-        if (index < 0) {
-            index = -index - 2;
-        }
+        int index = coveredDistance.indexAt(ind, t);
 
         if (index < 0) {
             // ind hat sich zum Zeitpunkt t noch nicht bewegt
             return 0;
         }
 
-        return coveredDistance.get(ind).get(index);
+        return coveredDistance.value(ind, index);
 
     }
 
@@ -243,6 +242,7 @@ public class IndividualStatistic {
      * speedvalue in timestep 1
      */
     public double getCurrentSpeed(Individual ind, int t) throws OneIndNoValueBecauseAlreadySafeException, OneIndNoPotentialException, IncorrectTimeException, MissingStoredValueException {
+        requireRecorded(StatisticMetric.CURRENT_SPEED);
         if (is.propertyFor(ind).isSafe()) {
             if (t > es.propertyFor(ind).getSafetyTime()) {
                 throw new OneIndNoValueBecauseAlreadySafeException(ind);
@@ -254,7 +254,7 @@ public class IndividualStatistic {
             throw new OneIndNoPotentialException(ind);
         }
 
-        if (!currentSpeedTimes.containsKey(ind)) {
+        if (!currentSpeed.contains(ind)) {
             // ind hat sich nie bewegt und ist nie stehengeblieben--> ind ist eingeschlossen
             throw new OneIndNoPotentialException(ind);
         }
@@ -268,17 +268,14 @@ public class IndividualStatistic {
             return 0;
         }
 
-        int index = Collections.binarySearch(currentSpeedTimes.get(ind), t);
-        if (index < 0) {
-            index = -index - 2;
-        }
+        int index = currentSpeed.indexAt(ind, t);
 
         if (index < 0) {
             // Fall sollte nicht eintreten
             throw new MissingStoredValueException("Individual hat zum Zeitpunkt 1 keinen Speed-Eintrag!");
         }
 
-        return currentSpeed.get(ind).get(index);
+        return currentSpeed.value(ind, index);
 
     }
 
@@ -317,6 +314,7 @@ public class IndividualStatistic {
      * speedvalue in timestep 1
      */
     public double calculateAverageSpeed(Individual ind, int from, int to) throws MissingStoredValueException, OneIndNoValueBecauseAlreadySafeException, OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.CURRENT_SPEED);
         if (is.propertyFor(ind).isSafe()) {
             if (from >= es.propertyFor(ind).getSafetyTime()) {
                 throw new OneIndNoValueBecauseAlreadySafeException(ind);
@@ -328,7 +326,7 @@ public class IndividualStatistic {
             throw new OneIndNoPotentialException(ind);
         }
 
-        if (!currentSpeedTimes.containsKey(ind)) {
+        if (!currentSpeed.contains(ind)) {
             // ind hat sich nie bewegt und ist nie stehengeblieben--> ind ist eingeschlossen
             throw new OneIndNoPotentialException(ind);
         }
@@ -351,36 +349,30 @@ public class IndividualStatistic {
             return getCurrentSpeed(ind, from);
         }
 
-        int indexOfFrom = (Collections.binarySearch(currentSpeedTimes.get(ind), from));
-        if (indexOfFrom < 0) {
-            indexOfFrom = -indexOfFrom - 2;
-        }
+        int indexOfFrom = currentSpeed.indexAt(ind, from);
         if (indexOfFrom < 0) {
             // Fall sollte nicht eintreten
             throw new MissingStoredValueException("Individual hat zum Zeitpunkt 1 keinen Speed-Eintrag!");
         }
-        int indexOfTo = (Collections.binarySearch(currentSpeedTimes.get(ind), to));
-        if (indexOfTo < 0) {
-            indexOfTo = -indexOfTo - 2;
-        }
+        int indexOfTo = currentSpeed.indexAt(ind, to);
         if (indexOfTo < 0) {
             // Fall sollte nicht eintreten
             throw new MissingStoredValueException("Individual hat zum Zeitpunkt 1 keinen Speed-Eintrag!");
         }
 
         if (indexOfFrom == indexOfTo) {
-            return currentSpeed.get(ind).get(indexOfFrom);
+            return currentSpeed.value(ind, indexOfFrom);
         }
 
-        double lastSpeed = currentSpeed.get(ind).get(indexOfFrom);
+        double lastSpeed = currentSpeed.value(ind, indexOfFrom);
         double weightedSpeedSum = 0;
         int stepTo;
         int stepFrom = from;
 
         for (int i = indexOfFrom + 1; i < indexOfTo; i++) {
-            stepTo = currentSpeedTimes.get(ind).get(i);
+            stepTo = currentSpeed.time(ind, i);
             weightedSpeedSum += lastSpeed * (stepTo - stepFrom);
-            lastSpeed = currentSpeed.get(ind).get(i);
+            lastSpeed = currentSpeed.value(ind, i);
             stepFrom = stepTo;
         }
         //last step:
@@ -435,6 +427,7 @@ public class IndividualStatistic {
      * speedvalue in timestep 1
      */
     public double calculateMaxSpeed(Individual ind, int from, int to) throws MissingStoredValueException, OneIndNoValueBecauseAlreadySafeException, OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.CURRENT_SPEED);
 
         if (is.propertyFor(ind).isSafe()) {
             if (from >= es.propertyFor(ind).getSafetyTime()) {
@@ -448,7 +441,7 @@ public class IndividualStatistic {
             throw new OneIndNoPotentialException(ind);
         }
 
-        if (!currentSpeedTimes.containsKey(ind)) {
+        if (!currentSpeed.contains(ind)) {
             // ind hat sich nie bewegt und ist nie stehengeblieben--> ind ist eingeschlossen
             throw new OneIndNoPotentialException(ind);
         }
@@ -471,32 +464,26 @@ public class IndividualStatistic {
             return getCurrentSpeed(ind, from);
         }
 
-        int indexOfFrom = (Collections.binarySearch(currentSpeedTimes.get(ind), from));
-        if (indexOfFrom < 0) {
-            indexOfFrom = -indexOfFrom - 2;
-        }
+        int indexOfFrom = currentSpeed.indexAt(ind, from);
         if (indexOfFrom < 0) {
             // Fall sollte nicht eintreten
             throw new MissingStoredValueException("Individual hat zum Zeitpunkt 1 keinen Speed-Eintrag!");
         }
 
-        int indexOfTo = (Collections.binarySearch(currentSpeedTimes.get(ind), to));
-        if (indexOfTo < 0) {
-            indexOfTo = -indexOfTo - 2;
-        }
+        int indexOfTo = currentSpeed.indexAt(ind, to);
         if (indexOfTo < 0) {
             // Fall sollte nicht eintreten
             throw new MissingStoredValueException("Individual hat zum Zeitpunkt 1 keinen Speed-Eintrag!");
         }
 
         if (indexOfFrom == indexOfTo) {
-            return currentSpeed.get(ind).get(indexOfFrom);
+            return currentSpeed.value(ind, indexOfFrom);
         }
         double maxSpeed = 0;
         double speed;
 
         for (int i = indexOfFrom; i < indexOfTo; i++) {
-            speed = currentSpeed.get(ind).get(i);
+            speed = currentSpeed.value(ind, i);
             if (speed > maxSpeed) {
                 maxSpeed = speed;
             }
@@ -891,6 +878,7 @@ public class IndividualStatistic {
      *
      */
     public double getExhaustion(Individual ind, int t) throws OneIndNoValueBecauseAlreadySafeException, OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.EXHAUSTION);
         if (is.propertyFor(ind).isSafe()) {
             if (t > es.propertyFor(ind).getSafetyTime()) {
                 throw new OneIndNoValueBecauseAlreadySafeException(ind);
@@ -902,7 +890,7 @@ public class IndividualStatistic {
             throw new OneIndNoPotentialException(ind);
         }
 
-        if (!exhaustionTimes.containsKey(ind)) {
+        if (!exhaustion.contains(ind)) {
             // ind hat sich nie bewegt und ist nie stehengeblieben--> ind ist eingeschlossen
             throw new OneIndNoPotentialException(ind);
         }
@@ -916,16 +904,13 @@ public class IndividualStatistic {
             return 0;
         }
 
-        int index = Collections.binarySearch(exhaustionTimes.get(ind), t);
-        if (index < 0) {
-            index = -index - 2;
-        }
+        int index = exhaustion.indexAt(ind, t);
 
         if (index < 0) {
             return 0;
         }
 
-        return exhaustion.get(ind).get(index);
+        return exhaustion.value(ind, index);
 
     }
 
@@ -977,6 +962,8 @@ public class IndividualStatistic {
      * than 0 OR are in wrong order OR are both greater than the individual's safetyTime
      */
     public double calculateAverageExhaustion(Individual ind, int from, int to) throws OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.EXHAUSTION);
+        requireRecorded(StatisticMetric.CURRENT_SPEED);
         if (is.propertyFor(ind).isSafe()) {
             int safetyTime = es.propertyFor(ind).getSafetyTime();
             if (to > safetyTime) {
@@ -989,39 +976,33 @@ public class IndividualStatistic {
 
         if (from < to) {
             if (!(ip.getDeathCause() != null && ip.getDeathCause().compareTo(org.zet.cellularautomaton.DeathCause.EXIT_UNREACHABLE) == 0)) {
-                if (exhaustionTimes.containsKey(ind)) {
+                if (exhaustion.contains(ind)) {
                     if (from == 0) {
                         from = 1;
                     }
-                    int indexOfFrom = (Collections.binarySearch(exhaustionTimes.get(ind), from));
-                    if (indexOfFrom < 0) {
-                        indexOfFrom = -indexOfFrom - 2;
-                    }
+                    int indexOfFrom = exhaustion.indexAt(ind, from);
                     if (indexOfFrom < 0) {
                         throw new IncorrectTimeException();
                     }
 
-                    int indexOfTo = (Collections.binarySearch(exhaustionTimes.get(ind), to));
-                    if (indexOfTo < 0) {
-                        indexOfTo = -indexOfTo - 2;
-                    }
+                    int indexOfTo = exhaustion.indexAt(ind, to);
                     if (indexOfTo < 0) {
                         throw new IncorrectTimeException();
                     }
 
-                    double lastExhaustion = exhaustion.get(ind).get(indexOfFrom);
+                    double lastExhaustion = exhaustion.value(ind, indexOfFrom);
                     double weightedExhaustionSum = 0;
                     int stepTo;
                     int stepFrom = from;
 
                     if (indexOfFrom == indexOfTo) {
-                        return currentSpeed.get(ind).get(indexOfFrom);
+                        return currentSpeed.value(ind, indexOfFrom);
                     }
 
                     for (int i = indexOfFrom + 1; i < indexOfTo; i++) {
-                        stepTo = exhaustionTimes.get(ind).get(i);
+                        stepTo = exhaustion.time(ind, i);
                         weightedExhaustionSum += lastExhaustion * (stepTo - stepFrom);
-                        lastExhaustion = exhaustion.get(ind).get(i);
+                        lastExhaustion = exhaustion.value(ind, i);
                         stepFrom = stepTo;
                     }
                     //last step:
@@ -1072,27 +1053,22 @@ public class IndividualStatistic {
      * than 0 or are in wrong order
      */
     public double calculateMaxExhaustion(Individual ind, int from, int to) throws OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.EXHAUSTION);
         if (from < to) {
             if (!(ip.getDeathCause() != null && ip.getDeathCause().compareTo(org.zet.cellularautomaton.DeathCause.EXIT_UNREACHABLE) == 0)) {
-                if (exhaustionTimes.containsKey(ind)) {
+                if (exhaustion.contains(ind)) {
                     if (is.propertyFor(ind).isSafe()) {
                         int safetyTime = es.propertyFor(ind).getSafetyTime();
                         if (to > safetyTime) {
                             to = safetyTime;
                         }
                     }
-                    int indexOfFrom = (Collections.binarySearch(exhaustionTimes.get(ind), from));
-                    if (indexOfFrom < 0) {
-                        indexOfFrom = -indexOfFrom - 2;
-                    }
+                    int indexOfFrom = exhaustion.indexAt(ind, from);
                     if (indexOfFrom < 0) {
                         throw new IllegalArgumentException();
                     }
 
-                    int indexOfTo = (Collections.binarySearch(exhaustionTimes.get(ind), to));
-                    if (indexOfTo < 0) {
-                        indexOfTo = -indexOfTo - 2;
-                    }
+                    int indexOfTo = exhaustion.indexAt(ind, to);
                     if (indexOfTo < 0) {
                         throw new IllegalArgumentException();
                     }
@@ -1101,7 +1077,7 @@ public class IndividualStatistic {
                     double maxExhaustion = 0;
 
                     for (int i = indexOfFrom; i <= indexOfTo; i++) {
-                        actualExhaustion = exhaustion.get(ind).get(i);
+                        actualExhaustion = exhaustion.value(ind, i);
                         if (actualExhaustion > maxExhaustion) {
                             maxExhaustion = actualExhaustion;
                         }
@@ -1154,9 +1130,10 @@ public class IndividualStatistic {
      * than 0 or are in wrong order
      */
     public double calculateMinExhaustionExceptingStartExhaustion(Individual ind, int from, int to) throws OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.EXHAUSTION);
         if (from < to) {
             if (!(ip.getDeathCause() != null && ip.getDeathCause().compareTo(org.zet.cellularautomaton.DeathCause.EXIT_UNREACHABLE) == 0)) {
-                if (exhaustionTimes.containsKey(ind)) {
+                if (exhaustion.contains(ind)) {
                     if (is.propertyFor(ind).isSafe()) {
                         int safetyTime = es.propertyFor(ind).getSafetyTime();
                         if (to > safetyTime) {
@@ -1165,26 +1142,20 @@ public class IndividualStatistic {
                     }
                     if (from == 0) {
                         try {
-                            from = exhaustionTimes.get(ind).get(1);
+                            from = exhaustion.time(ind, 1);
                         } catch (Exception e) {
-                            return exhaustion.get(ind).get(0);
+                            return exhaustion.value(ind, 0);
                         }
                         if (to < from) {
-                            return exhaustion.get(ind).get(0);
+                            return exhaustion.value(ind, 0);
                         }
                     }
-                    int indexOfFrom = (Collections.binarySearch(exhaustionTimes.get(ind), from));
-                    if (indexOfFrom < 0) {
-                        indexOfFrom = -indexOfFrom - 2;
-                    }
+                    int indexOfFrom = exhaustion.indexAt(ind, from);
                     if (indexOfFrom < 0) {
                         throw new IllegalArgumentException();
                     }
 
-                    int indexOfTo = (Collections.binarySearch(exhaustionTimes.get(ind), to));
-                    if (indexOfTo < 0) {
-                        indexOfTo = -indexOfTo - 2;
-                    }
+                    int indexOfTo = exhaustion.indexAt(ind, to);
                     if (indexOfTo < 0) {
                         throw new IllegalArgumentException();
                     }
@@ -1193,7 +1164,7 @@ public class IndividualStatistic {
                     double minExhaustion = Double.MAX_VALUE;
 
                     for (int i = indexOfFrom; i <= indexOfTo; i++) {
-                        actualExhaustion = exhaustion.get(ind).get(i);
+                        actualExhaustion = exhaustion.value(ind, i);
                         if (actualExhaustion < minExhaustion) {
                             minExhaustion = actualExhaustion;
                         }
@@ -1614,6 +1585,7 @@ public class IndividualStatistic {
      *
      */
     public double getPanic(Individual ind, int t) throws OneIndNoValueBecauseAlreadySafeException, OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.PANIC);
         if (is.propertyFor(ind).isSafe()) {
             if (t > es.propertyFor(ind).getSafetyTime()) {
                 throw new OneIndNoValueBecauseAlreadySafeException(ind);
@@ -1625,7 +1597,7 @@ public class IndividualStatistic {
             throw new OneIndNoPotentialException(ind);
         }
 
-        if (!panicTimes.containsKey(ind)) {
+        if (!panic.contains(ind)) {
             // ind hat sich nie bewegt und ist nie stehengeblieben--> ind ist eingeschlossen
             throw new OneIndNoPotentialException(ind);
         }
@@ -1639,16 +1611,13 @@ public class IndividualStatistic {
             return 0;
         }
 
-        int index = Collections.binarySearch(panicTimes.get(ind), t);
-        if (index < 0) {
-            index = -index - 2;
-        }
+        int index = panic.indexAt(ind, t);
 
         if (index < 0) {
             return 0;
         }
 
-        return panic.get(ind).get(index);
+        return panic.value(ind, index);
 
     }
 
@@ -1700,6 +1669,8 @@ public class IndividualStatistic {
      * than 0 OR are in wrong order OR are both greater than the individual's safetyTime
      */
     public double calculateAveragePanic(Individual ind, int from, int to) throws OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.PANIC);
+        requireRecorded(StatisticMetric.CURRENT_SPEED);
         if (is.propertyFor(ind).isSafe()) {
             int safetyTime = es.propertyFor(ind).getSafetyTime();
             if (to > safetyTime) {
@@ -1712,39 +1683,33 @@ public class IndividualStatistic {
 
         if (from < to) {
             if (!(ip.getDeathCause() != null && ip.getDeathCause().compareTo(org.zet.cellularautomaton.DeathCause.EXIT_UNREACHABLE) == 0)) {
-                if (panicTimes.containsKey(ind)) {
+                if (panic.contains(ind)) {
                     if (from == 0) {
                         from = 1;
                     }
-                    int indexOfFrom = (Collections.binarySearch(panicTimes.get(ind), from));
-                    if (indexOfFrom < 0) {
-                        indexOfFrom = -indexOfFrom - 2;
-                    }
+                    int indexOfFrom = panic.indexAt(ind, from);
                     if (indexOfFrom < 0) {
                         throw new IncorrectTimeException();
                     }
 
-                    int indexOfTo = (Collections.binarySearch(panicTimes.get(ind), to));
-                    if (indexOfTo < 0) {
-                        indexOfTo = -indexOfTo - 2;
-                    }
+                    int indexOfTo = panic.indexAt(ind, to);
                     if (indexOfTo < 0) {
                         throw new IncorrectTimeException();
                     }
 
-                    double lastPanic = panic.get(ind).get(indexOfFrom);
+                    double lastPanic = panic.value(ind, indexOfFrom);
                     double weightedPanicSum = 0;
                     int stepTo;
                     int stepFrom = from;
 
                     if (indexOfFrom == indexOfTo) {
-                        return currentSpeed.get(ind).get(indexOfFrom);
+                        return currentSpeed.value(ind, indexOfFrom);
                     }
 
                     for (int i = indexOfFrom + 1; i < indexOfTo; i++) {
-                        stepTo = panicTimes.get(ind).get(i);
+                        stepTo = panic.time(ind, i);
                         weightedPanicSum += lastPanic * (stepTo - stepFrom);
-                        lastPanic = panic.get(ind).get(i);
+                        lastPanic = panic.value(ind, i);
                         stepFrom = stepTo;
                     }
                     //last step:
@@ -1795,27 +1760,22 @@ public class IndividualStatistic {
      * than 0 or are in wrong order
      */
     public double calculateMaxPanic(Individual ind, int from, int to) throws OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.PANIC);
         if (from < to) {
             if (!(ip.getDeathCause() != null && ip.getDeathCause().compareTo(org.zet.cellularautomaton.DeathCause.EXIT_UNREACHABLE) == 0)) {
-                if (panicTimes.containsKey(ind)) {
+                if (panic.contains(ind)) {
                     if (is.propertyFor(ind).isSafe()) {
                         int safetyTime = es.propertyFor(ind).getSafetyTime();
                         if (to > safetyTime) {
                             to = safetyTime;
                         }
                     }
-                    int indexOfFrom = (Collections.binarySearch(panicTimes.get(ind), from));
-                    if (indexOfFrom < 0) {
-                        indexOfFrom = -indexOfFrom - 2;
-                    }
+                    int indexOfFrom = panic.indexAt(ind, from);
                     if (indexOfFrom < 0) {
                         throw new IllegalArgumentException();
                     }
 
-                    int indexOfTo = (Collections.binarySearch(panicTimes.get(ind), to));
-                    if (indexOfTo < 0) {
-                        indexOfTo = -indexOfTo - 2;
-                    }
+                    int indexOfTo = panic.indexAt(ind, to);
                     if (indexOfTo < 0) {
                         throw new IllegalArgumentException();
                     }
@@ -1824,7 +1784,7 @@ public class IndividualStatistic {
                     double maxPanic = 0;
 
                     for (int i = indexOfFrom; i <= indexOfTo; i++) {
-                        actualPanic = panic.get(ind).get(i);
+                        actualPanic = panic.value(ind, i);
                         if (actualPanic > maxPanic) {
                             maxPanic = actualPanic;
                         }
@@ -1877,9 +1837,10 @@ public class IndividualStatistic {
      * than 0 or are in wrong order
      */
     public double calculateMinPanicExceptingStartPanic(Individual ind, int from, int to) throws OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.PANIC);
         if (from < to) {
             if (!(ip.getDeathCause() != null && ip.getDeathCause().compareTo(org.zet.cellularautomaton.DeathCause.EXIT_UNREACHABLE) == 0)) {
-                if (panicTimes.containsKey(ind)) {
+                if (panic.contains(ind)) {
                     if (is.propertyFor(ind).isSafe()) {
                         int safetyTime = es.propertyFor(ind).getSafetyTime();
                         if (to > safetyTime) {
@@ -1888,26 +1849,20 @@ public class IndividualStatistic {
                     }
                     if (from == 0) {
                         try {
-                            from = panicTimes.get(ind).get(1);
+                            from = panic.time(ind, 1);
                         } catch (Exception e) {
-                            return panic.get(ind).get(0);
+                            return panic.value(ind, 0);
                         }
                         if (to < from) {
-                            return panic.get(ind).get(0);
+                            return panic.value(ind, 0);
                         }
                     }
-                    int indexOfFrom = (Collections.binarySearch(panicTimes.get(ind), from));
-                    if (indexOfFrom < 0) {
-                        indexOfFrom = -indexOfFrom - 2;
-                    }
+                    int indexOfFrom = panic.indexAt(ind, from);
                     if (indexOfFrom < 0) {
                         throw new IllegalArgumentException();
                     }
 
-                    int indexOfTo = (Collections.binarySearch(panicTimes.get(ind), to));
-                    if (indexOfTo < 0) {
-                        indexOfTo = -indexOfTo - 2;
-                    }
+                    int indexOfTo = panic.indexAt(ind, to);
                     if (indexOfTo < 0) {
                         throw new IllegalArgumentException();
                     }
@@ -1916,7 +1871,7 @@ public class IndividualStatistic {
                     double minPanic = Double.MAX_VALUE;
 
                     for (int i = indexOfFrom; i <= indexOfTo; i++) {
-                        actualPanic = panic.get(ind).get(i);
+                        actualPanic = panic.value(ind, i);
                         if (actualPanic < minPanic) {
                             minPanic = actualPanic;
                         }
@@ -2334,6 +2289,7 @@ public class IndividualStatistic {
      * @throws java.lang.IllegalArgumentException
      */
     public Exit getPlannedExit(Individual ind, int t) throws OneIndNoPotentialException, IllegalArgumentException {
+        requireRecorded(StatisticMetric.POTENTIAL_CHANGE);
         if (changePotentialTimes.containsKey(ind)) {
             int index = (Collections.binarySearch(changePotentialTimes.get(ind), t));
             if (index < 0) {
@@ -2359,6 +2315,7 @@ public class IndividualStatistic {
      * potential (there`s no exit reachable from the individual's position)
      */
     public Exit getTakenExit(Individual ind) throws OneIndNoPotentialException {
+        requireRecorded(StatisticMetric.TAKEN_EXIT);
         if (!takenExit.containsKey(ind)) {
             // ind hat keinen Ausgang genommen (ist gestorben)
             throw new OneIndNoPotentialException(ind);
@@ -2374,6 +2331,7 @@ public class IndividualStatistic {
      * potential (there`s no exit reachable from the individual's position)
      */
     public double minDistanceToNearestExit(Individual ind) throws OneIndNoPotentialException {
+        requireRecorded(StatisticMetric.MIN_DISTANCE);
         if (!minDistanceToNearestExit.containsKey(ind)) {
             // Ind tot weil eingeschlossen
             throw new OneIndNoPotentialException(ind);
@@ -2389,6 +2347,7 @@ public class IndividualStatistic {
      * potential (there`s no exit reachable from the individual's position)
      */
     public double minDistanceToPlannedExit(Individual ind) throws OneIndNoPotentialException {
+        requireRecorded(StatisticMetric.MIN_DISTANCE);
         if (!minDistanceToPlannedExit.containsKey(ind)) {
             // Ind tot weil eingeschlossen
             throw new OneIndNoPotentialException(ind);
@@ -2488,6 +2447,7 @@ public class IndividualStatistic {
      * a save- or exitcell
      */
     public int getSafetyTime(Individual ind) throws OneIndNotSafeException {
+        requireRecorded(StatisticMetric.SAFETY_TIME);
         if (safetyTimes.containsKey(ind)) {
             return safetyTimes.get(ind);
         }
@@ -2648,13 +2608,14 @@ public class IndividualStatistic {
      * @throws org.zet.cellularautomaton.statistic.exception.IncorrectTimeException if "t" is less than 0
      */
     public int getWaitedTime(Individual ind, int t) throws OneIndNoPotentialException, IncorrectTimeException {
+        requireRecorded(StatisticMetric.WAITED_TIME);
 
         if (ip.getDeathCause() != null && ip.getDeathCause().compareTo(org.zet.cellularautomaton.DeathCause.EXIT_UNREACHABLE) == 0) {
             // ind tot weil eingeschlossen
             throw new OneIndNoPotentialException(ind);
         }
 
-        if (!waitedTimeTimes.containsKey(ind)) {
+        if (!waitedTime.contains(ind)) {
             //ind hat nie gewartet
             return 0;
         }
@@ -2668,17 +2629,14 @@ public class IndividualStatistic {
             return 0;
         }
 
-        int index = Collections.binarySearch(waitedTimeTimes.get(ind), t);
-        if (index < 0) {
-            index = -index - 2;
-        }
+        int index = waitedTime.indexAt(ind, t);
 
         if (index < 0) {
             // ind hat zum Zeitpunkt t noch nicht gewartet
             return 0;
         }
 
-        return waitedTime.get(ind).get(index);
+        return (int) waitedTime.value(ind, index);
 
     }
 
@@ -0,0 +1,71 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.statistic;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The amount of statistic values recorded by the {@link CAStatisticWriter} during a simulation run.
+ */
+public enum StatisticLevel {
+    /** No statistic is recorded. */
+    NONE,
+    /** Only the {@link StatisticMetric#isTrace() aggregates} are recorded. */
+    AGGREGATES,
+    /** All aggregates and all per step traces are recorded. */
+    FULL,
+    /** {@link #FULL} for runs whose traces fit into memory, {@link #AGGREGATES} for larger runs. */
+    AUTOMATIC;
+
+    /**
+     * The maximal number of individuals times steps for which {@link #AUTOMATIC} records traces. A trace sample needs 6
+     * bytes and about four trace samples are recorded per individual and step, so the traces of such a run take about
+     * 600 MB.
+     */
+    static final long TRACE_BUDGET = 25_000_000;
+
+    /**
+     * Returns the level used for a run of the given size. Only {@link #AUTOMATIC} depends on the size of the run.
+     *
+     * @param individuals the number of individuals
+     * @param steps the maximal number of steps
+     * @return the level used for the run
+     */
+    public StatisticLevel forRun(int individuals, int steps) {
+        if (this != AUTOMATIC) {
+            return this;
+        }
+        return (long) individuals * steps <= TRACE_BUDGET ? FULL : AGGREGATES;
+    }
+
+    /**
+     * Returns the metrics recorded at this level. {@link #AUTOMATIC} records all metrics unless it is resolved for
+     * the size of a run using {@link #forRun(int, int)}.
+     *
+     * @return a new modifiable set of the recorded metrics
+     */
+    public Set<StatisticMetric> getMetrics() {
+        EnumSet<StatisticMetric> metrics = EnumSet.noneOf(StatisticMetric.class);
+        if (this != NONE) {
+            Arrays.stream(StatisticMetric.values())
+                    .filter(metric -> this != AGGREGATES || !metric.isTrace())
+                    .forEach(metrics::add);
+        }
+        return metrics;
+    }
+}
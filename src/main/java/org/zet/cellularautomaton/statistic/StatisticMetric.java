@@ -0,0 +1,61 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.statistic;
+
+/**
+ * The values that can be recorded by the {@link CAStatisticWriter} during a simulation run. Aggregates are recorded
+ * at most once per individual, traces are recorded in (almost) every step.
+ */
+public enum StatisticMetric {
+    /** The time step at which an individual is safe. */
+    SAFETY_TIME(false),
+    /** The exit an individual used to leave the building. */
+    TAKEN_EXIT(false),
+    /** The initial distances of an individual to the nearest and the planned exit. */
+    MIN_DISTANCE(false),
+    /** The time steps at which an individual changed its static potential. */
+    POTENTIAL_CHANGE(true),
+    /** The distance covered by an individual. */
+    COVERED_DISTANCE(true),
+    /** The time steps an individual was waiting. */
+    WAITED_TIME(true),
+    /** The panic of an individual. */
+    PANIC(true),
+    /** The exhaustion of an individual. */
+    EXHAUSTION(true),
+    /** The speed of an individual. */
+    CURRENT_SPEED(true),
+    /** The time steps at which a cell is occupied. */
+    CELL_UTILIZATION(true),
+    /** The time steps at which an individual on a cell is waiting. */
+    CELL_WAITING(true);
+
+    private final boolean trace;
+
+    private StatisticMetric(boolean trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Returns whether the metric is a per step trace. Otherwise it is an aggregate recorded at most once per
+     * individual.
+     *
+     * @return {@code true} if the metric is a trace
+     */
+    public boolean isTrace() {
+        return trace;
+    }
+}
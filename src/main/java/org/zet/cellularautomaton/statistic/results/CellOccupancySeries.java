@@ -0,0 +1,272 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.statistic.results;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.zet.cellularautomaton.EvacCellInterface;
+
+/**
+ * Stores for each cell the time steps at which an event, e.g. the occupation of the cell, occurred. The time steps of
+ * a cell are stored as run-length encoded intervals of consecutive time steps in primitive arrays indexed by the
+ * {@link EvacCellInterface#getId() id} of the cell. Cells that are not indexed are mapped to slots of a separate
+ * store.
+ *
+ * The time steps of a cell have to be recorded in non-decreasing order. Recording the same time step several times
+ * counts as a single occurrence.
+ */
+public class CellOccupancySeries {
+
+    private final RunStore indexed = new RunStore();
+    private final RunStore unindexed = new RunStore();
+    private final Map<EvacCellInterface, Integer> unindexedSlots = new HashMap<>();
+    /** The maximal number of time steps recorded for a single cell. */
+    private int maxCount;
+
+    /**
+     * Records that the event occurred at a cell in a time step.
+     *
+     * @param cell the cell
+     * @param t the time step
+     * @throws IllegalArgumentException if a later time step has been recorded for the cell before
+     */
+    public void record(EvacCellInterface cell, int t) {
+        int id = Objects.requireNonNull(cell, "Cell must not be null.").getId();
+        int count;
+        if (id >= 0) {
+            count = indexed.add(id, cell, t);
+        } else {
+            Integer slot = unindexedSlots.get(cell);
+            if (slot == null) {
+                slot = unindexedSlots.size();
+                unindexedSlots.put(cell, slot);
+            }
+            count = unindexed.add(slot, cell, t);
+        }
+        maxCount = Math.max(maxCount, count);
+    }
+
+    /**
+     * Returns whether any time step has been recorded for a cell.
+     *
+     * @param cell the cell
+     * @return {@code true} if time steps have been recorded for the cell
+     */
+    public boolean contains(EvacCellInterface cell) {
+        return count(cell) > 0;
+    }
+
+    /**
+     * Returns the number of distinct time steps recorded for a cell.
+     *
+     * @param cell the cell
+     * @return the number of time steps
+     */
+    public int count(EvacCellInterface cell) {
+        int slot = slot(cell);
+        return slot < 0 ? 0 : store(cell).count(slot);
+    }
+
+    /**
+     * Returns the number of distinct time steps up to and including {@code t} recorded for a cell.
+     *
+     * @param cell the cell
+     * @param t the time step
+     * @return the number of time steps not after {@code t}
+     */
+    public int countUntil(EvacCellInterface cell, int t) {
+        int slot = slot(cell);
+        return slot < 0 ? 0 : store(cell).countUntil(slot, t);
+    }
+
+    /**
+     * Checks whether a time step has been recorded for a cell.
+     *
+     * @param cell the cell
+     * @param t the time step
+     * @return {@code true} if the time step has been recorded for the cell
+     */
+    public boolean contains(EvacCellInterface cell, int t) {
+        int slot = slot(cell);
+        return slot >= 0 && store(cell).contains(slot, t);
+    }
+
+    /**
+     * Returns the maximal number of time steps recorded for a single cell.
+     *
+     * @return the maximal number of time steps
+     */
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    /**
+     * Returns the recorded time steps of a cell in increasing order.
+     *
+     * @param cell the cell
+     * @return the time steps, empty if none have been recorded
+     */
+    public List<Integer> timeSteps(EvacCellInterface cell) {
+        int slot = slot(cell);
+        return slot < 0 ? new ArrayList<>() : store(cell).decode(slot);
+    }
+
+    /**
+     * Creates a map of all cells with recorded time steps to the list of their time steps.
+     *
+     * @return the map of cells to their time steps
+     */
+    public HashMap<EvacCellInterface, ArrayList<Integer>> toMap() {
+        HashMap<EvacCellInterface, ArrayList<Integer>> result = new HashMap<>();
+        indexed.decodeAll(result);
+        unindexed.decodeAll(result);
+        return result;
+    }
+
+    private RunStore store(EvacCellInterface cell) {
+        return cell.getId() >= 0 ? indexed : unindexed;
+    }
+
+    private int slot(EvacCellInterface cell) {
+        int id = cell.getId();
+        if (id >= 0) {
+            return id;
+        }
+        Integer slot = unindexedSlots.get(cell);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * The runs of all cells. The runs of a slot are stored as triples of the first time step, the last time step and
+     * the number of time steps in all previous runs.
+     */
+    private static class RunStore {
+
+        private static final int[] NO_RUNS = new int[0];
+
+        private EvacCellInterface[] cells = new EvacCellInterface[0];
+        private int[][] runs = new int[0][];
+        private int[] runCount = new int[0];
+        private int[] counts = new int[0];
+
+        int add(int slot, EvacCellInterface cell, int t) {
+            ensureCapacity(slot);
+            cells[slot] = cell;
+            int[] slotRuns = runs[slot];
+            int r = runCount[slot];
+            if (r > 0) {
+                int lastEnd = slotRuns[3 * r - 2];
+                if (t < lastEnd) {
+                    throw new IllegalArgumentException("Time step " + t + " recorded after " + lastEnd + ".");
+                }
+                if (t == lastEnd) {
+                    return counts[slot];
+                }
+                if (t == lastEnd + 1) {
+                    slotRuns[3 * r - 2] = t;
+                    return ++counts[slot];
+                }
+            }
+            if (slotRuns.length < 3 * (r + 1)) {
+                slotRuns = Arrays.copyOf(slotRuns, Math.max(6, 2 * slotRuns.length));
+                runs[slot] = slotRuns;
+            }
+            slotRuns[3 * r] = t;
+            slotRuns[3 * r + 1] = t;
+            slotRuns[3 * r + 2] = counts[slot];
+            runCount[slot] = r + 1;
+            return ++counts[slot];
+        }
+
+        private void ensureCapacity(int slot) {
+            if (slot >= counts.length) {
+                int size = Math.max(slot + 1, 2 * counts.length);
+                int old = counts.length;
+                cells = Arrays.copyOf(cells, size);
+                runs = Arrays.copyOf(runs, size);
+                Arrays.fill(runs, old, size, NO_RUNS);
+                runCount = Arrays.copyOf(runCount, size);
+                counts = Arrays.copyOf(counts, size);
+            }
+        }
+
+        int count(int slot) {
+            return slot < counts.length ? counts[slot] : 0;
+        }
+
+        /**
+         * Returns the index of the last run of a slot starting not after {@code t}.
+         *
+         * @return the index of the run or -1 if all runs start after {@code t}
+         */
+        private int runAt(int slot, int t) {
+            if (slot >= counts.length) {
+                return -1;
+            }
+            int[] slotRuns = runs[slot];
+            int low = 0;
+            int high = runCount[slot] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (slotRuns[3 * mid] <= t) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+
+        int countUntil(int slot, int t) {
+            int r = runAt(slot, t);
+            if (r < 0) {
+                return 0;
+            }
+            int[] slotRuns = runs[slot];
+            return slotRuns[3 * r + 2] + Math.min(t, slotRuns[3 * r + 1]) - slotRuns[3 * r] + 1;
+        }
+
+        boolean contains(int slot, int t) {
+            int r = runAt(slot, t);
+            return r >= 0 && t <= runs[slot][3 * r + 1];
+        }
+
+        ArrayList<Integer> decode(int slot) {
+            ArrayList<Integer> result = new ArrayList<>(count(slot));
+            if (slot < counts.length) {
+                int[] slotRuns = runs[slot];
+                for (int r = 0; r < runCount[slot]; ++r) {
+                    for (int t = slotRuns[3 * r]; t <= slotRuns[3 * r + 1]; ++t) {
+                        result.add(t);
+                    }
+                }
+            }
+            return result;
+        }
+
+        void decodeAll(Map<EvacCellInterface, ArrayList<Integer>> into) {
+            for (int slot = 0; slot < counts.length; ++slot) {
+                if (counts[slot] > 0) {
+                    into.put(cells[slot], decode(slot));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.statistic.results;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+import org.zet.cellularautomaton.Individual;
+
+/**
+ * Stores a time series of values for each individual. The columns of all individuals are stored in primitive arrays
+ * indexed by the {@link Individual#id() id} of the individuals. Values are stored with {@code float} precision.
+ * Running totals that are {@link #accumulate(Individual, int, double) accumulated} are summed up in {@code double}
+ * precision, such that rounding errors do not add up over the steps.
+ *
+ * The time steps of an individual are divided into chunks of consecutive samples. Each chunk stores the absolute time
+ * step of its first sample, the other samples store the difference to it as a {@code char}. A sample needs 6 bytes,
+ * lookups for a time step are binary searches over the chunks and inside of a chunk.
+ *
+ * The samples of an individual have to be recorded with non-decreasing time steps.
+ */
+public class IndividualTimeSeries {
+
+    /** The maximal number of samples in a chunk. */
+    static final int CHUNK_SIZE = 256;
+    private static final int MAX_DELTA = Character.MAX_VALUE;
+    private static final int[] NO_INTS = new int[0];
+    private static final char[] NO_DELTAS = new char[0];
+    private static final float[] NO_VALUES = new float[0];
+
+    private Individual[] individuals = new Individual[0];
+    /** The number of samples for each individual. */
+    private int[] sizes = new int[0];
+    private float[][] values = new float[0][];
+    /** The running total of each individual, only used by {@link #accumulate(Individual, int, double)}. */
+    private double[] totals = new double[0];
+    /** The time step of each sample relative to the first time step of its chunk. */
+    private char[][] deltas = new char[0][];
+    /** The number of chunks for each individual. */
+    private int[] chunkCounts = new int[0];
+    /** The absolute time step of the first sample of each chunk. */
+    private int[][] chunkTimes = new int[0][];
+    /** The index of the first sample of each chunk. */
+    private int[][] chunkStarts = new int[0][];
+
+    /**
+     * Records the value of an individual in a time step.
+     *
+     * @param individual the individual
+     * @param t the time step
+     * @param value the value
+     * @throws IllegalArgumentException if a later time step has been recorded for the individual before
+     */
+    public void record(Individual individual, int t, double value) {
+        int id = Objects.requireNonNull(individual, "Individual must not be null.").id();
+        if (id < 0) {
+            throw new IllegalArgumentException("Individual id must not be negative: " + id);
+        }
+        ensureCapacity(id);
+        individuals[id] = individual;
+        int size = sizes[id];
+        int chunks = chunkCounts[id];
+        if (size > 0) {
+            int last = time(id, size - 1, chunks - 1);
+            if (t < last) {
+                throw new IllegalArgumentException("Time step " + t + " recorded after " + last + ".");
+            }
+        }
+        if (chunks == 0 || size - chunkStarts[id][chunks - 1] == CHUNK_SIZE
+                || t - chunkTimes[id][chunks - 1] > MAX_DELTA) {
+            if (chunkTimes[id].length == chunks) {
+                int capacity = Math.max(4, 2 * chunks);
+                chunkTimes[id] = Arrays.copyOf(chunkTimes[id], capacity);
+                chunkStarts[id] = Arrays.copyOf(chunkStarts[id], capacity);
+            }
+            chunkTimes[id][chunks] = t;
+            chunkStarts[id][chunks] = size;
+            chunkCounts[id] = ++chunks;
+        }
+        if (values[id].length == size) {
+            int capacity = Math.max(8, 2 * size);
+            values[id] = Arrays.copyOf(values[id], capacity);
+            deltas[id] = Arrays.copyOf(deltas[id], capacity);
+        }
+        values[id][size] = (float) value;
+        deltas[id][size] = (char) (t - chunkTimes[id][chunks - 1]);
+        sizes[id] = size + 1;
+    }
+
+    /**
+     * Adds an increment to the running total of an individual and records the new total in a time step.
+     *
+     * @param individual the individual
+     * @param t the time step
+     * @param increment the value added to the total
+     * @throws IllegalArgumentException if a later time step has been recorded for the individual before
+     */
+    public void accumulate(Individual individual, int t, double increment) {
+        int id = Objects.requireNonNull(individual, "Individual must not be null.").id();
+        double total = (id >= 0 && id < totals.length ? totals[id] : 0) + increment;
+        record(individual, t, total);
+        totals[id] = total;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= sizes.length) {
+            int old = sizes.length;
+            int capacity = Math.max(id + 1, 2 * old);
+            individuals = Arrays.copyOf(individuals, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            totals = Arrays.copyOf(totals, capacity);
+            chunkCounts = Arrays.copyOf(chunkCounts, capacity);
+            values = Arrays.copyOf(values, capacity);
+            deltas = Arrays.copyOf(deltas, capacity);
+            chunkTimes = Arrays.copyOf(chunkTimes, capacity);
+            chunkStarts = Arrays.copyOf(chunkStarts, capacity);
+            Arrays.fill(values, old, capacity, NO_VALUES);
+            Arrays.fill(deltas, old, capacity, NO_DELTAS);
+            Arrays.fill(chunkTimes, old, capacity, NO_INTS);
+            Arrays.fill(chunkStarts, old, capacity, NO_INTS);
+        }
+    }
+
+    /**
+     * Returns whether any value has been recorded for an individual.
+     *
+     * @param individual the individual
+     * @return {@code true} if values have been recorded for the individual
+     */
+    public boolean contains(Individual individual) {
+        return size(individual) > 0;
+    }
+
+    /**
+     * Returns the number of values recorded for an individual.
+     *
+     * @param individual the individual
+     * @return the number of values
+     */
+    public int size(Individual individual) {
+        int id = individual.id();
+        return id >= 0 && id < sizes.length ? sizes[id] : 0;
+    }
+
+    /**
+     * Returns the index of the last value of an individual that has been recorded not after a time step. This is the
+     * value valid at the time step.
+     *
+     * @param individual the individual
+     * @param t the time step
+     * @return the index of the value or -1 if all values are recorded after {@code t}
+     */
+    public int indexAt(Individual individual, int t) {
+        int id = individual.id();
+        if (size(individual) == 0) {
+            return -1;
+        }
+        int chunk = lastNotAfter(chunkTimes[id], chunkCounts[id], t);
+        if (chunk < 0) {
+            return -1;
+        }
+        int start = chunkStarts[id][chunk];
+        int end = chunk + 1 < chunkCounts[id] ? chunkStarts[id][chunk + 1] : sizes[id];
+        long delta = (long) t - chunkTimes[id][chunk];
+        char[] chunkDeltas = deltas[id];
+        int low = start;
+        int high = end - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (chunkDeltas[mid] <= delta) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private static int lastNotAfter(int[] sorted, int length, int t) {
+        int low = 0;
+        int high = length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= t) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Returns the time step of a recorded value of an individual.
+     *
+     * @param individual the individual
+     * @param index the index of the value
+     * @return the time step at which the value has been recorded
+     */
+    public int time(Individual individual, int index) {
+        int id = checkIndex(individual, index);
+        return time(id, index, lastNotAfter(chunkStarts[id], chunkCounts[id], index));
+    }
+
+    private int time(int id, int index, int chunk) {
+        return chunkTimes[id][chunk] + deltas[id][index];
+    }
+
+    /**
+     * Returns a recorded value of an individual.
+     *
+     * @param individual the individual
+     * @param index the index of the value
+     * @return the value
+     */
+    public double value(Individual individual, int index) {
+        return values[checkIndex(individual, index)][index];
+    }
+
+    /**
+     * Returns the last recorded value of an individual.
+     *
+     * @param individual the individual
+     * @param defaultValue the value returned if no values have been recorded for the individual
+     * @return the last recorded value or the default value
+     */
+    public double lastValue(Individual individual, double defaultValue) {
+        int size = size(individual);
+        return size == 0 ? defaultValue : values[individual.id()][size - 1];
+    }
+
+    private int checkIndex(Individual individual, int index) {
+        if (index < 0 || index >= size(individual)) {
+            throw new IndexOutOfBoundsException("Index " + index + " for " + size(individual) + " values.");
+        }
+        return individual.id();
+    }
+
+    /**
+     * Creates a map of all individuals with recorded values to the time steps of their values.
+     *
+     * @return the map of individuals to their time steps
+     */
+    public HashMap<Individual, ArrayList<Integer>> toTimesMap() {
+        HashMap<Individual, ArrayList<Integer>> result = new HashMap<>();
+        for (int id = 0; id < sizes.length; ++id) {
+            if (sizes[id] > 0) {
+                ArrayList<Integer> times = new ArrayList<>(sizes[id]);
+                for (int i = 0; i < sizes[id]; ++i) {
+                    times.add(time(individuals[id], i));
+                }
+                result.put(individuals[id], times);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a map of all individuals with recorded values to their values.
+     *
+     * @return the map of individuals to their values
+     */
+    public HashMap<Individual, ArrayList<Double>> toValuesMap() {
+        HashMap<Individual, ArrayList<Double>> result = new HashMap<>();
+        for (int id = 0; id < sizes.length; ++id) {
+            if (sizes[id] > 0) {
+                ArrayList<Double> list = new ArrayList<>(sizes[id]);
+                for (int i = 0; i < sizes[id]; ++i) {
+                    list.add((double) values[id][i]);
+                }
+                result.put(individuals[id], list);
+            }
+        }
+        return result;
+    }
+}
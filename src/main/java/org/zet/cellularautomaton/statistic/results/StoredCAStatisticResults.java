@@ -15,7 +15,9 @@
  */
 package org.zet.cellularautomaton.statistic.results;
 
+import java.util.Set;
 import org.zet.cellularautomaton.algorithm.state.EvacuationState;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 
 /**
  *
@@ -32,6 +34,17 @@ public class StoredCAStatisticResults {
         storedCAStatisticResultsForIndividuals=new StoredCAStatisticResultsForIndividuals(es);
         storedCAStatisticResultsForCells=new StoredCAStatisticResultsForCells();
     }
+
+    /**
+     * Creates the storage for the values of the given metrics.
+     *
+     * @param es the evacuation state
+     * @param recorded the recorded metrics, changes are reflected
+     */
+    public StoredCAStatisticResults(EvacuationState es, Set<StatisticMetric> recorded) {
+        storedCAStatisticResultsForIndividuals = new StoredCAStatisticResultsForIndividuals(es, recorded);
+        storedCAStatisticResultsForCells = new StoredCAStatisticResultsForCells();
+    }
     
     
     public StoredCAStatisticResultsForCells getStoredCAStatisticResultsForCells() {
@@ -25,17 +25,18 @@ import org.zet.cellularautomaton.EvacCellInterface;
 import org.zet.cellularautomaton.Room;
 
 /**
+ * Stores the statistic values of the cells. Values are added by synchronized methods, thus rules running in different
+ * threads can record concurrently.
  *
  * @author Sylvie
  */
 public class StoredCAStatisticResultsForCells {
 
-    /** Associate each cell with an ArrayList which contains all timesteps the cell is occupied. */
-    private HashMap<EvacCellInterface, ArrayList<Integer>> cellUtilization;
+    /** Stores for each cell all timesteps the cell is occupied. */
+    private final CellOccupancySeries cellUtilization;
 
-    /** Associate each cell with an ArrayList which contains all timesteps at which an individual standing at the cell
-     * is waiting. */
-    private HashMap<EvacCellInterface, ArrayList<Integer>> waitingTime;
+    /** Stores for each cell all timesteps at which an individual standing at the cell is waiting. */
+    private final CellOccupancySeries waitingTime;
 
     /** Stores utilization for each room. */
     private HashMap<Room, Double> overallRoomUtilization;
@@ -45,23 +46,19 @@ public class StoredCAStatisticResultsForCells {
 
     public StoredCAStatisticResultsForCells() {
 
-        cellUtilization = new HashMap<>();
-        waitingTime = new HashMap<>();
+        cellUtilization = new CellOccupancySeries();
+        waitingTime = new CellOccupancySeries();
     }
 
     /**
-     * Is invoked if an individual occupied a cell c in timestep t and stores this values.
+     * Is invoked if an individual occupied a cell c in timestep t and stores this values. The timesteps of a cell have
+     * to be added in non-decreasing order.
      *
      * @param c cell occupied
      * @param t timestep
      */
-    public void addCellToUtilizationStatistic(EvacCellInterface c, int t) {
-        if (cellUtilization.containsKey(c)) {
-            cellUtilization.get(c).add(t);
-        } else {
-            cellUtilization.put(c, new ArrayList<>());
-            cellUtilization.get(c).add(t);
-        }
+    public synchronized void addCellToUtilizationStatistic(EvacCellInterface c, int t) {
+        cellUtilization.record(c, t);
     }
 
     /**
@@ -70,21 +67,40 @@ public class StoredCAStatisticResultsForCells {
      * @param c cell occupied
      * @param t timestep
      */
-    public void addCellToWaitingStatistic(EvacCellInterface c, int t) {
-        if (waitingTime.containsKey(c)) {
-            waitingTime.get(c).add(t);
-        } else {
-            waitingTime.put(c, new ArrayList<>());
-            waitingTime.get(c).add(t);
-        }
+    public synchronized void addCellToWaitingStatistic(EvacCellInterface c, int t) {
+        waitingTime.record(c, t);
     }
 
-    public HashMap<EvacCellInterface, ArrayList<Integer>> getHashMapCellUtilization() {
+    public CellOccupancySeries getCellUtilization() {
         return cellUtilization;
     }
 
-    public HashMap<EvacCellInterface, ArrayList<Integer>> getHashMapWaitingTime() {
+    public CellOccupancySeries getWaitingTime() {
         return waitingTime;
     }
 
+    /**
+     * Creates a map of the occupied cells to the timesteps they are occupied. The map is decoded from the compact
+     * representation on each call.
+     *
+     * @return the map of cells to the timesteps they are occupied
+     * @deprecated use {@link #getCellUtilization()} instead
+     */
+    @Deprecated
+    public HashMap<EvacCellInterface, ArrayList<Integer>> getHashMapCellUtilization() {
+        return cellUtilization.toMap();
+    }
+
+    /**
+     * Creates a map of the cells to the timesteps at which an individual standing at the cell is waiting. The map is
+     * decoded from the compact representation on each call.
+     *
+     * @return the map of cells to the waiting timesteps
+     * @deprecated use {@link #getWaitingTime()} instead
+     */
+    @Deprecated
+    public HashMap<EvacCellInterface, ArrayList<Integer>> getHashMapWaitingTime() {
+        return waitingTime.toMap();
+    }
+
 }
@@ -15,17 +15,23 @@
  */
 package org.zet.cellularautomaton.statistic.results;
 
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import org.zet.cellularautomaton.Exit;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.ExitCell;
 import org.zet.cellularautomaton.algorithm.state.EvacuationState;
 import org.zet.cellularautomaton.algorithm.state.PropertyAccess;
 import org.zet.cellularautomaton.potential.Potential;
+import org.zet.cellularautomaton.statistic.StatisticMetric;
 
 /**
+ * Stores the statistic values of the individuals. Values are added by synchronized methods, thus rules running in
+ * different threads can record concurrently.
  *
  * @author Sylvie Temme
  */
@@ -34,48 +40,51 @@ public class StoredCAStatisticResultsForIndividuals {
     HashMap<Individual, Integer> safetyTimes;
     HashMap<Individual, ArrayList<Integer>> changePotentialTimes;
     private final HashMap<Individual, List<Exit>> potentials;
-    HashMap<Individual, ArrayList<Integer>> coveredDistanceTimes;
-    private final HashMap<Individual, ArrayList<Double>> coveredDistance;
-    HashMap<Individual, ArrayList<Integer>> waitedTimeTimes;
-    private final HashMap<Individual, ArrayList<Integer>> waitedTime;
+    private final IndividualTimeSeries coveredDistance;
+    private final IndividualTimeSeries waitedTime;
     HashMap<Individual, Double> minDistanceToNearestExit;
     HashMap<Individual, Double> minDistanceToPlannedExit;
     private final HashMap<Individual, Exit> takenExit;
-    HashMap<Individual, ArrayList<Integer>> panicTimes;
-    private final HashMap<Individual, ArrayList<Double>> panic;
-    HashMap<Individual, ArrayList<Integer>> exhaustionTimes;
-    private final HashMap<Individual, ArrayList<Double>> exhaustion;
-    HashMap<Individual, ArrayList<Integer>> currentSpeedTimes;
-    private final HashMap<Individual, ArrayList<Double>> currentSpeed;
+    private final IndividualTimeSeries panic;
+    private final IndividualTimeSeries exhaustion;
+    private final IndividualTimeSeries currentSpeed;
+    private final Set<StatisticMetric> recorded;
 
     public StoredCAStatisticResultsForIndividuals(EvacuationState es) {
+        this(es, EnumSet.allOf(StatisticMetric.class));
+    }
+
+    /**
+     * Creates the storage for the values of the given metrics. The set is not copied, changes of the recorded metrics
+     * during the run are reflected.
+     *
+     * @param es the evacuation state
+     * @param recorded the recorded metrics
+     */
+    public StoredCAStatisticResultsForIndividuals(EvacuationState es, Set<StatisticMetric> recorded) {
         this.es = es;
+        this.recorded = Objects.requireNonNull(recorded, "Recorded metrics must not be null.");
         safetyTimes = new HashMap<>();
         changePotentialTimes = new HashMap<>();
         potentials = new HashMap<>();
-        coveredDistanceTimes = new HashMap<>();
-        coveredDistance = new HashMap<>();
-        waitedTimeTimes = new HashMap<>();
-        waitedTime = new HashMap<>();
+        coveredDistance = new IndividualTimeSeries();
+        waitedTime = new IndividualTimeSeries();
         minDistanceToNearestExit = new HashMap<>();
         minDistanceToPlannedExit = new HashMap<>();
         takenExit = new HashMap<>();
-        panicTimes = new HashMap<>();
-        panic = new HashMap<>();
-        exhaustionTimes = new HashMap<>();
-        exhaustion = new HashMap<>();
-        currentSpeedTimes = new HashMap<>();
-        currentSpeed = new HashMap<>();
+        panic = new IndividualTimeSeries();
+        exhaustion = new IndividualTimeSeries();
+        currentSpeed = new IndividualTimeSeries();
     }
 
-    public void addSafeIndividualToStatistic(Individual ind) {
+    public synchronized void addSafeIndividualToStatistic(Individual ind) {
 
         if (!(safetyTimes.containsKey(ind))) {
             safetyTimes.put(ind, es.propertyFor(ind).getSafetyTime());
         }
     }
 
-    public void addChangedPotentialToStatistic(Individual ind, int t) {
+    public synchronized void addChangedPotentialToStatistic(Individual ind, int t) {
         if (!(changePotentialTimes.containsKey(ind))) {
             changePotentialTimes.put(ind, new ArrayList<>());
             potentials.put(ind, new ArrayList<>());
@@ -84,31 +93,15 @@ public class StoredCAStatisticResultsForIndividuals {
         potentials.get(ind).add(es.propertyFor(ind).getExit());
     }
 
-    public void addCoveredDistanceToStatistic(Individual ind, int t, double distance) {
-        double lastCoveredDistance = 0;
-        if (!(coveredDistanceTimes.containsKey(ind))) {
-            coveredDistanceTimes.put(ind, new ArrayList<>());
-            coveredDistance.put(ind, new ArrayList<>());
-        } else {
-            lastCoveredDistance = coveredDistance.get(ind).get(coveredDistance.get(ind).size() - 1);
-        }
-        coveredDistanceTimes.get(ind).add(t);
-        coveredDistance.get(ind).add(distance + lastCoveredDistance);
+    public synchronized void addCoveredDistanceToStatistic(Individual ind, int t, double distance) {
+        coveredDistance.accumulate(ind, t, distance);
     }
 
-    public void addWaitedTimeToStatistic(Individual ind, int t) {
-        int lastWaitedTime = 0;
-        if (!(waitedTimeTimes.containsKey(ind))) {
-            waitedTimeTimes.put(ind, new ArrayList<>());
-            waitedTime.put(ind, new ArrayList<>());
-        } else {
-            lastWaitedTime = waitedTime.get(ind).get(waitedTime.get(ind).size() - 1);
-        }
-        waitedTimeTimes.get(ind).add(t);
-        waitedTime.get(ind).add(1 + lastWaitedTime);
+    public synchronized void addWaitedTimeToStatistic(Individual ind, int t) {
+        waitedTime.accumulate(ind, t, 1);
     }
 
-    public void addMinDistancesToStatistic(Individual ind, double distNearest, double distPlanned) {
+    public synchronized void addMinDistancesToStatistic(Individual ind, double distNearest, double distPlanned) {
         if (!(minDistanceToNearestExit.containsKey(ind))) {
             minDistanceToNearestExit.put(ind, distNearest);
         }
@@ -117,48 +110,46 @@ public class StoredCAStatisticResultsForIndividuals {
         }
     }
 
-    public void addExitToStatistic(Individual ind, Exit exit) {
+    public synchronized void addExitToStatistic(Individual ind, Exit exit) {
         takenExit.put(ind, exit);
     }
 
-    public void addExhaustionToStatistic(Individual ind, int t, double actualExhaustion) {
-        if (!(exhaustionTimes.containsKey(ind))) {
-            exhaustionTimes.put(ind, new ArrayList<>());
-            exhaustion.put(ind, new ArrayList<>());
-        }
-        exhaustionTimes.get(ind).add(t);
-        exhaustion.get(ind).add(actualExhaustion);
-
+    public synchronized void addExhaustionToStatistic(Individual ind, int t, double actualExhaustion) {
+        exhaustion.record(ind, t, actualExhaustion);
     }
 
-    public void addPanicToStatistic(Individual ind, int t, double actualPanic) {
-        if (!(panicTimes.containsKey(ind))) {
-            panicTimes.put(ind, new ArrayList<>());
-            panic.put(ind, new ArrayList<>());
-        }
-        panicTimes.get(ind).add(t);
-        panic.get(ind).add(actualPanic);
+    public synchronized void addPanicToStatistic(Individual ind, int t, double actualPanic) {
+        panic.record(ind, t, actualPanic);
     }
 
-    public void addCurrentSpeedToStatistic(Individual ind, int t, double speed) {
-        if (!(currentSpeedTimes.containsKey(ind))) {
-            currentSpeedTimes.put(ind, new ArrayList<>());
-            currentSpeed.put(ind, new ArrayList<>());
-        }
-        currentSpeedTimes.get(ind).add(t);
-        currentSpeed.get(ind).add(speed);
+    public synchronized void addCurrentSpeedToStatistic(Individual ind, int t, double speed) {
+        currentSpeed.record(ind, t, speed);
     }
 
     public HashMap<Individual, ArrayList<Integer>> getHashMapChangePotentialTimes() {
         return changePotentialTimes;
     }
 
+    /**
+     * Decodes the covered distance samples of the individuals into a map.
+     *
+     * @return the map of individuals to their values
+     * @deprecated use {@link #getCoveredDistance()} instead
+     */
+    @Deprecated
     public HashMap<Individual, ArrayList<Double>> getHashMapCoveredDistance() {
-        return coveredDistance;
+        return coveredDistance.toValuesMap();
     }
 
+    /**
+     * Decodes the time steps of the covered distance samples of the individuals into a map.
+     *
+     * @return the map of individuals to their time steps
+     * @deprecated use {@link #getCoveredDistance()} instead
+     */
+    @Deprecated
     public HashMap<Individual, ArrayList<Integer>> getHashMapCoveredDistanceTimes() {
-        return coveredDistanceTimes;
+        return coveredDistance.toTimesMap();
     }
 
     public HashMap<Individual, Double> getHashMapMinDistanceToNearestExit() {
@@ -177,40 +168,133 @@ public class StoredCAStatisticResultsForIndividuals {
         return safetyTimes;
     }
 
+    /**
+     * Decodes the waited time samples of the individuals into a map.
+     *
+     * @return the map of individuals to their values
+     * @deprecated use {@link #getWaitedTime()} instead
+     */
+    @Deprecated
     public HashMap<Individual, ArrayList<Integer>> getHashMapWaitedTime() {
-        return waitedTime;
+        HashMap<Individual, ArrayList<Integer>> result = new HashMap<>();
+        waitedTime.toValuesMap().forEach((individual, values) -> {
+            ArrayList<Integer> counts = new ArrayList<>(values.size());
+            values.forEach(value -> counts.add(value.intValue()));
+            result.put(individual, counts);
+        });
+        return result;
     }
 
+    /**
+     * Decodes the time steps of the waited time samples of the individuals into a map.
+     *
+     * @return the map of individuals to their time steps
+     * @deprecated use {@link #getWaitedTime()} instead
+     */
+    @Deprecated
     public HashMap<Individual, ArrayList<Integer>> getHashMapWaitedTimeTimes() {
-        return waitedTimeTimes;
+        return waitedTime.toTimesMap();
     }
 
     public HashMap<Individual, Exit> getHashMapTakenExit() {
         return takenExit;
     }
 
+    /**
+     * Decodes the exhaustion samples of the individuals into a map.
+     *
+     * @return the map of individuals to their values
+     * @deprecated use {@link #getExhaustion()} instead
+     */
+    @Deprecated
     public HashMap<Individual, ArrayList<Double>> getHashMapExhaustion() {
-        return exhaustion;
+        return exhaustion.toValuesMap();
     }
 
+    /**
+     * Decodes the time steps of the exhaustion samples of the individuals into a map.
+     *
+     * @return the map of individuals to their time steps
+     * @deprecated use {@link #getExhaustion()} instead
+     */
+    @Deprecated
     public HashMap<Individual, ArrayList<Integer>> getHashMapExhaustionTimes() {
-        return exhaustionTimes;
+        return exhaustion.toTimesMap();
     }
 
+    /**
+     * Decodes the panic samples of the individuals into a map.
+     *
+     * @return the map of individuals to their values
+     * @deprecated use {@link #getPanic()} instead
+     */
+    @Deprecated
     public HashMap<Individual, ArrayList<Double>> getHashMapPanic() {
-        return panic;
+        return panic.toValuesMap();
     }
 
+    /**
+     * Decodes the time steps of the panic samples of the individuals into a map.
+     *
+     * @return the map of individuals to their time steps
+     * @deprecated use {@link #getPanic()} instead
+     */
+    @Deprecated
     public HashMap<Individual, ArrayList<Integer>> getHashMapPanicTimes() {
-        return panicTimes;
+        return panic.toTimesMap();
     }
 
+    /**
+     * Decodes the current speed samples of the individuals into a map.
+     *
+     * @return the map of individuals to their values
+     * @deprecated use {@link #getCurrentSpeed()} instead
+     */
+    @Deprecated
     public HashMap<Individual, ArrayList<Double>> getHashMapCurrentSpeed() {
-        return currentSpeed;
+        return currentSpeed.toValuesMap();
     }
 
+    /**
+     * Decodes the time steps of the current speed samples of the individuals into a map.
+     *
+     * @return the map of individuals to their time steps
+     * @deprecated use {@link #getCurrentSpeed()} instead
+     */
+    @Deprecated
     public HashMap<Individual, ArrayList<Integer>> getHashMapCurrentSpeedTimes() {
-        return currentSpeedTimes;
+        return currentSpeed.toTimesMap();
+    }
+
+    /**
+     * Checks whether the values of a metric are recorded. Values of metrics that are not recorded are missing, even
+     * for individuals that have moved.
+     *
+     * @param metric the metric
+     * @return {@code true} if the metric is recorded
+     */
+    public boolean isRecorded(StatisticMetric metric) {
+        return recorded.contains(metric);
+    }
+
+    public IndividualTimeSeries getCoveredDistance() {
+        return coveredDistance;
+    }
+
+    public IndividualTimeSeries getWaitedTime() {
+        return waitedTime;
+    }
+
+    public IndividualTimeSeries getExhaustion() {
+        return exhaustion;
+    }
+
+    public IndividualTimeSeries getPanic() {
+        return panic;
+    }
+
+    public IndividualTimeSeries getCurrentSpeed() {
+        return currentSpeed;
     }
 
 }
@@ -16,27 +16,44 @@
 package org.zetool.simulation.cellularautomaton;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
  * A virtual compund {@link CellMatrix} that consists of multiple, non-overlapping cell matrices
  * creating a larger cell matrix. The composite cell matrix may contain holes.
  *
+ * Coordinate lookups use a grid of square tiles covering the bounding box of all matrices. Each tile stores the
+ * matrices overlapping it, such that a lookup only has to check the few matrices of a single tile instead of all
+ * matrices. The grid is extended when a matrix outside of the current grid is added.
+ *
  * @param <M> the geometric matrix type with location
  * @param <E>
  * @author Jan-Philipp Kappmeier
  */
 public class CompositeCellMatrix<M extends LocatedCellMatrix<E>, E extends Cell> implements CellMatrix<E> {
 
+    /** The edge length of the tiles of the lookup grid. */
+    static final int TILE_SIZE = 16;
+    private static final Object[] NO_MATRICES = new Object[0];
+
     int minx = Integer.MAX_VALUE;
     int miny = Integer.MAX_VALUE;
     int maxx = Integer.MIN_VALUE;
     int maxy = Integer.MIN_VALUE;
 
-    List<M> lists = new LinkedList<>();
+    List<M> lists = new ArrayList<>();
+
+    /** The matrices overlapping each tile in the order they have been added, row major. */
+    private Object[][] tiles = new Object[0][];
+    /** The tile coordinates of the upper left tile of the grid. */
+    private int tileMinX;
+    private int tileMinY;
+    /** The number of tiles in each direction. */
+    private int tilesX;
+    private int tilesY;
 
     public void addMatrix(M matrix) {
         lists.add(matrix);
@@ -44,6 +61,91 @@ public class CompositeCellMatrix<M extends LocatedCellMatrix<E>, E extends Cell>
         miny = Math.min(miny, matrix.getYOffset());
         maxx = Math.max(maxx, matrix.getXOffset() + matrix.getWidth() - 1);
         maxy = Math.max(maxy, matrix.getYOffset() + matrix.getHeight() - 1);
+        if (matrix.getWidth() > 0 && matrix.getHeight() > 0) {
+            index(matrix);
+        }
+    }
+
+    /**
+     * Adds a matrix to all tiles it overlaps. If the matrix lies outside of the grid, the grid is extended to at least
+     * twice its size in the corresponding direction and all matrices are inserted again.
+     *
+     * @param matrix the matrix
+     */
+    private void index(M matrix) {
+        int fromX = tile(matrix.getXOffset());
+        int fromY = tile(matrix.getYOffset());
+        int toX = tile(matrix.getXOffset() + matrix.getWidth() - 1);
+        int toY = tile(matrix.getYOffset() + matrix.getHeight() - 1);
+        if (fromX < tileMinX || fromY < tileMinY || toX >= tileMinX + tilesX || toY >= tileMinY + tilesY) {
+            resize(fromX, fromY, toX, toY);
+        } else {
+            insert(matrix, fromX, fromY, toX, toY);
+        }
+    }
+
+    private void resize(int fromX, int fromY, int toX, int toY) {
+        int lowX = fromX;
+        int lowY = fromY;
+        int highX = toX;
+        int highY = toY;
+        if (tiles.length != 0) {
+            lowX = fromX < tileMinX ? Math.min(fromX, tileMinX - tilesX) : tileMinX;
+            lowY = fromY < tileMinY ? Math.min(fromY, tileMinY - tilesY) : tileMinY;
+            highX = toX >= tileMinX + tilesX ? Math.max(toX, tileMinX + 2 * tilesX - 1) : tileMinX + tilesX - 1;
+            highY = toY >= tileMinY + tilesY ? Math.max(toY, tileMinY + 2 * tilesY - 1) : tileMinY + tilesY - 1;
+        }
+        tileMinX = lowX;
+        tileMinY = lowY;
+        tilesX = highX - lowX + 1;
+        tilesY = highY - lowY + 1;
+        tiles = new Object[tilesX * tilesY][];
+        Arrays.fill(tiles, NO_MATRICES);
+        for (M matrix : lists) {
+            if (matrix.getWidth() > 0 && matrix.getHeight() > 0) {
+                insert(matrix, tile(matrix.getXOffset()), tile(matrix.getYOffset()),
+                        tile(matrix.getXOffset() + matrix.getWidth() - 1),
+                        tile(matrix.getYOffset() + matrix.getHeight() - 1));
+            }
+        }
+    }
+
+    private void insert(M matrix, int fromX, int fromY, int toX, int toY) {
+        for (int ty = fromY; ty <= toY; ++ty) {
+            for (int tx = fromX; tx <= toX; ++tx) {
+                int position = (ty - tileMinY) * tilesX + (tx - tileMinX);
+                Object[] old = tiles[position];
+                Object[] extended = Arrays.copyOf(old, old.length + 1);
+                extended[old.length] = matrix;
+                tiles[position] = extended;
+            }
+        }
+    }
+
+    private static int tile(int coordinate) {
+        return Math.floorDiv(coordinate, TILE_SIZE);
+    }
+
+    /**
+     * Returns the matrix containing the given coordinate.
+     *
+     * @param x the {@code x}-coordinate
+     * @param y the {@code y}-coordinate
+     * @return the matrix containing the coordinate or {@code null} if no matrix contains it
+     */
+    @SuppressWarnings("unchecked")
+    private M matrixAt(int x, int y) {
+        int tx = tile(x) - tileMinX;
+        int ty = tile(y) - tileMinY;
+        if (tx < 0 || tx >= tilesX || ty < 0 || ty >= tilesY) {
+            return null;
+        }
+        for (Object candidate : tiles[ty * tilesX + tx]) {
+            if (liesInMatrix((M) candidate, x, y)) {
+                return (M) candidate;
+            }
+        }
+        return null;
     }
 
 //    public void populate(IntBiFunction<E> cellGenerator) {
@@ -69,14 +171,11 @@ public class CompositeCellMatrix<M extends LocatedCellMatrix<E>, E extends Cell>
 
     @Override
     public E getCell(int x, int y) {
-        for (M matrix : lists) {
-            if (liesInMatrix(matrix, x, y)) {
-                int translatedX = x - matrix.getXOffset();
-                int translatedY = y - matrix.getYOffset();
-                return matrix.getCell(translatedX, translatedY);
-            }
+        M matrix = matrixAt(x, y);
+        if (matrix == null) {
+            throw new IllegalArgumentException("No cell at " + x + "," + y);
         }
-        throw new IllegalArgumentException("No cell at " + x + "," + y);
+        return matrix.getCell(x - matrix.getXOffset(), y - matrix.getYOffset());
     }
 
     /**
@@ -102,7 +201,7 @@ public class CompositeCellMatrix<M extends LocatedCellMatrix<E>, E extends Cell>
 
     @Override
     public boolean existsCellAt(int x, int y) {
-        return lists.stream().anyMatch(matrix -> liesInMatrix(matrix, x, y));
+        return matrixAt(x, y) != null;
     }
     
     protected List<M> getMatrices() {
@@ -16,22 +16,39 @@
 package org.zetool.simulation.cellularautomaton;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.zetool.common.function.IntBiFunction;
 
 /**
  * A cell matrix representing a finite rectangular area. The matrix allows fast index based access.
  *
+ * The cells are stored in a flat array in row major order, the cell at position {@code (x,y)} is stored at index
+ * {@code y * width + x}. The number of existing cells is maintained whenever a cell is set, so that reading the
+ * matrix never writes to it.
+ *
  * @author Jan-Philipp Kappmeier
  * @param <E>
  */
 public class FiniteCellMatrix<E extends Cell> implements CellMatrix<E> {
 
-    /** Manages the Cells into which the room is divided. */
-    private final ArrayList2D<E> cells;
+    /** Manages the Cells into which the room is divided, in row major order. */
+    private final E[] cells;
+    private final int width;
+    private final int height;
+    /** Counts the changes of the cells, used to detect outdated information derived from the matrix. */
+    private int modifications;
+    /** The number of positions that contain a cell. */
+    private int cellCount;
 
+    @SuppressWarnings("unchecked")
     protected FiniteCellMatrix(int width, int height) {
-        cells = new ArrayList2D(width, height);
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Invalid size: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        cells = (E[]) new Cell[width * height];
     }
 
     /**
@@ -43,11 +60,7 @@ public class FiniteCellMatrix<E extends Cell> implements CellMatrix<E> {
      */
     protected FiniteCellMatrix(int width, int height, IntBiFunction<E> cellGenerator) {
         this(width, height);
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                setCellInt(i, j, cellGenerator.apply(i, j));
-            }
-        }
+        populate(cellGenerator);
     }
 
     public void populate(IntBiFunction<E> cellGenerator) {
@@ -59,11 +72,9 @@ public class FiniteCellMatrix<E extends Cell> implements CellMatrix<E> {
     }
 
     public void clear() {
-        for (int i = 0; i < cells.getWidth(); i++) {
-            for (int j = 0; j < cells.getHeight(); j++) {
-                cells.set(i, j, null);
-            }
-        }
+        Arrays.fill(cells, null);
+        cellCount = 0;
+        modifications++;
     }
 
     /**
@@ -73,7 +84,7 @@ public class FiniteCellMatrix<E extends Cell> implements CellMatrix<E> {
      */
     @Override
     public int getWidth() {
-        return cells.getWidth();
+        return width;
     }
 
     /**
@@ -83,7 +94,7 @@ public class FiniteCellMatrix<E extends Cell> implements CellMatrix<E> {
      */
     @Override
     public int getHeight() {
-        return cells.getHeight();
+        return height;
     }
 
     /**
@@ -93,12 +104,12 @@ public class FiniteCellMatrix<E extends Cell> implements CellMatrix<E> {
      */
     @Override
     public List<E> getAllCells() {
-        List<E> collectedCells = new ArrayList<>();
-        for (int i = 0; i < getWidth(); i++) {
-            for (int j = 0; j < getHeight(); j++) {
-                E cell = getCell(i, j);
-                if( cell != null) {
-                    collectedCells.add(cell);                
+        List<E> collectedCells = new ArrayList<>(cellCount);
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                E cell = cells[j * width + i];
+                if (cell != null) {
+                    collectedCells.add(cell);
                 }
             }
         }
@@ -117,7 +128,19 @@ public class FiniteCellMatrix<E extends Cell> implements CellMatrix<E> {
     @Override
     public E getCell(int x, int y) {
         checkCoordinates(x, y);
-        return cells.get(x, y);
+        return cells[y * width + x];
+    }
+
+    /**
+     * Returns the cell at position {@code (x,y)} or {@code null} if the position is outside of the matrix or contains
+     * no cell. Combines {@link #existsCellAt(int, int)} and {@link #getCell(int, int)} in a single lookup.
+     *
+     * @param x {@code x}-coordinate of the cell
+     * @param y {@code y}-coordinate of the cell
+     * @return the cell at position {@code (x,y)} or {@code null}
+     */
+    public final E getCellOrNull(int x, int y) {
+        return inBounds(x, y) ? cells[y * width + x] : null;
     }
 
     public void setCell(int x, int y, E value) {
@@ -126,14 +149,35 @@ public class FiniteCellMatrix<E extends Cell> implements CellMatrix<E> {
     }
 
     private void setCellInt(int x, int y, E value) {
-        cells.set(x, y, value);
+        int position = y * width + x;
+        if (cells[position] != null) {
+            cellCount--;
+        }
+        if (value != null) {
+            cellCount++;
+        }
+        cells[position] = value;
+        modifications++;
+    }
+
+    /**
+     * Returns the number of changes of the cells of the matrix. The value changes whenever a cell is set or removed.
+     *
+     * @return the number of changes of the cells
+     */
+    protected int getModificationCount() {
+        return modifications;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
     }
-    
+
     private void checkCoordinates(int x, int y) {
-        if ((x < 0) || (x > cells.getWidth() - 1)) {
+        if ((x < 0) || (x > width - 1)) {
             throw new IllegalArgumentException("Invalid x-value: " + x);
         }
-        if ((y < 0) || (y > cells.getHeight() - 1)) {
+        if ((y < 0) || (y > height - 1)) {
             throw new IllegalArgumentException("Invalid y-value: " + y);
         }
     }
@@ -148,13 +192,7 @@ public class FiniteCellMatrix<E extends Cell> implements CellMatrix<E> {
      */
     @Override
     public boolean existsCellAt(int x, int y) {
-        if ((x < 0) || (x > cells.getWidth() - 1)) {
-            return false;
-        } else if ((y < 0) || (y > cells.getHeight() - 1)) {
-            return false;
-        } else {
-            return this.getCell(x, y) != null;
-        }
+        return inBounds(x, y) && cells[y * width + x] != null;
     }
 
     /**
@@ -166,19 +204,7 @@ public class FiniteCellMatrix<E extends Cell> implements CellMatrix<E> {
      * @return the number of cells
      */
     public int getCellCount(boolean allCells) {
-        int count = 0;
-        if (allCells) {
-            count = cells.getHeight() * cells.getWidth();
-        } else {
-            for (int i = 0; i < cells.getWidth(); i++) {
-                for (int j = 0; j < cells.getHeight(); j++) {
-                    if (cells.get(i, j) != null) {
-                        count++;
-                    }
-                }
-            }
-        }
-        return count;
+        return allCells ? cells.length : cellCount;
     }
 
     /**
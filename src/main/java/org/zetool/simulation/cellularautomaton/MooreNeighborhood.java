@@ -26,25 +26,36 @@ import org.zetool.common.util.Direction8;
  */
 public class MooreNeighborhood<E extends SquareCell<?>> implements Neighborhood<E> {
 
+    /** The directions, cached as {@link Direction8#values()} creates a new array on each call. */
+    private static final Direction8[] DIRECTIONS = Direction8.values();
     private final CellMatrix<E> matrix;
+    /** The matrix if it supports the combined lookup of {@link FiniteCellMatrix}, {@code null} otherwise. */
+    private final FiniteCellMatrix<E> finiteMatrix;
 
     public MooreNeighborhood(CellMatrix<E> matrix) {
         this.matrix = matrix;
+        this.finiteMatrix = matrix instanceof FiniteCellMatrix ? (FiniteCellMatrix<E>) matrix : null;
     }
     
     @Override
     public Collection<E> getNeighbors(E cell) {
-        List<E> neighbours = new ArrayList<>();
-        for (Direction8 direction : Direction8.values()) {
-            int cellx = cell.x + direction.xOffset();
-            int celly = cell.y + direction.yOffset();
-            if (matrix.existsCellAt(cellx, celly) && accept(matrix.getCell(cellx, celly))) {
-                neighbours.add(matrix.getCell(cellx, celly));
+        List<E> neighbours = new ArrayList<>(DIRECTIONS.length);
+        for (Direction8 direction : DIRECTIONS) {
+            E neighbour = cellAt(cell.x + direction.xOffset(), cell.y + direction.yOffset());
+            if (neighbour != null && accept(neighbour)) {
+                neighbours.add(neighbour);
             }
         }
 
         return neighbours;
     }
+
+    private E cellAt(int x, int y) {
+        if (finiteMatrix != null) {
+            return finiteMatrix.getCellOrNull(x, y);
+        }
+        return matrix.existsCellAt(x, y) ? matrix.getCell(x, y) : null;
+    }
     
     protected boolean accept(E cell) {
         return true;
@@ -31,6 +31,7 @@ import org.zet.cellularautomaton.IndividualBuilder;
 import org.zet.cellularautomaton.RoomCell;
 import org.zet.cellularautomaton.algorithm.state.IndividualProperty;
 import org.zet.cellularautomaton.algorithm.state.PropertyAccess;
+import org.zet.cellularautomaton.potential.DenseStaticPotential;
 import org.zet.cellularautomaton.potential.StaticPotential;
 
 /**
@@ -109,4 +110,26 @@ public class TestEvacPotential {
         
         assertThat(ep.getPotential(newCell), is(equalTo(Integer.MAX_VALUE)));
     }
+
+    @Test
+    public void copiesDensePotential() {
+        RoomCell cell = new RoomCell(1, 1) {
+            @Override
+            public int getId() {
+                return 1;
+            }
+        };
+        DenseStaticPotential dense = new DenseStaticPotential(2);
+        dense.setPotential(cell, NEW_POTENTIAL);
+        context.checking(new Expectations() {{
+            allowing(checker).canPass(i, individualCell, cell);
+            will(returnValue(true));
+        }});
+
+        EvacPotential copy = new EvacPotential(dense, i, checker);
+        copy.setPropertyAccess(ep.es);
+
+        assertThat(copy.getPotential(cell), is(equalTo(NEW_POTENTIAL)));
+        assertThat(copy.getPotential(exitCell), is(equalTo(Integer.MAX_VALUE)));
+    }
 }
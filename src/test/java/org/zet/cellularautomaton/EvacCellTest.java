@@ -0,0 +1,105 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+import org.zetool.common.util.Direction8;
+
+/**
+ * Tests the cached neighbours of cells.
+ */
+public class EvacCellTest {
+
+    private final RoomImpl room = new RoomImpl(3, 1, 0, 0, 0);
+    private final RoomCell left = new RoomCell(0, 0);
+    private final RoomCell middle = new RoomCell(1, 0);
+
+    public EvacCellTest() {
+        room.setCell(left);
+        room.setCell(middle);
+    }
+
+    @Test
+    public void neighboursAreCached() {
+        assertThat(middle.getNeighbours(), containsInAnyOrder(left));
+        assertThat(middle.getNeighbours(), is(sameInstance(middle.getNeighbours())));
+        assertThat(middle.getFreeNeighbours(), is(sameInstance(middle.getNeighbours())));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void neighboursUnmodifiable() {
+        middle.getNeighbours().clear();
+    }
+
+    @Test
+    public void newCellInRoomUpdatesNeighbours() {
+        assertThat(middle.getNeighbours(), containsInAnyOrder(left));
+        RoomCell right = new RoomCell(2, 0);
+        room.setCell(right);
+
+        assertThat(middle.getNeighbours(), containsInAnyOrder(left, right));
+        assertThat(middle.getDirectNeighbors(), containsInAnyOrder(left, right));
+    }
+
+    @Test
+    public void boundsUpdateNeighbours() {
+        assertThat(left.getNeighbours(), containsInAnyOrder(middle));
+        middle.setUnPassable(Direction8.Left);
+
+        assertThat(middle.getNeighbours().isEmpty(), is(true));
+        assertThat(left.getNeighbours().isEmpty(), is(true));
+        assertThat(middle.getDirectNeighbors(), containsInAnyOrder(left));
+
+        left.setPassable(Direction8.Right);
+        assertThat(middle.getNeighbours(), containsInAnyOrder(left));
+        assertThat(left.getNeighbours(), containsInAnyOrder(middle));
+    }
+
+    @Test
+    public void freeNeighboursSkipOccupied() {
+        RoomCell right = new RoomCell(2, 0);
+        room.setCell(right);
+        left.getState().setIndividual(new IndividualBuilder().build());
+
+        assertThat(middle.getFreeNeighbours(), containsInAnyOrder(right));
+        assertThat(middle.getFreeNeighbours(), is(not(sameInstance(middle.getNeighbours()))));
+        assertThat(middle.getNeighbours(), containsInAnyOrder(left, right));
+    }
+
+    @Test
+    public void doorTargetsUpdateNeighbours() {
+        RoomImpl other = new RoomImpl(1, 1, 0, 3, 0);
+        DoorCell door = new DoorCell(2, 0);
+        DoorCell otherDoor = new DoorCell(0, 0);
+        room.setCell(door);
+        other.setCell(otherDoor);
+        assertThat(door.getNeighbours(), containsInAnyOrder(middle));
+
+        door.addTarget(otherDoor);
+        assertThat(door.getNeighbours(), containsInAnyOrder(middle, otherDoor));
+        assertThat(otherDoor.getNeighbours(), containsInAnyOrder(door));
+
+        door.removeTarget(otherDoor);
+        assertThat(door.getNeighbours(), containsInAnyOrder(middle));
+        assertThat(otherDoor.getNeighbours().isEmpty(), is(true));
+    }
+}
@@ -172,6 +172,40 @@ public class MultiFloorEvacuationCellularAutomatonTest {
         assertThat(ca.minPotentialFor(r.getCell(0, 0)), is(equalTo(1)));
     }
 
+    @Test
+    public void cellsAreIndexed() {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+
+        builder.addFloor(0, "floor1");
+        builder.addFloor(1, "floor2");
+        Room r1 = roomWithTwoExits();
+        RoomImpl r2 = new RoomImpl(2, 1, 1, 0, 0);
+        r2.setCell(new RoomCell(0, 0));
+        r2.setCell(new ExitCell(1, 0));
+
+        builder.addRoom(r1);
+        assertThat(builder.getCellCount(), is(equalTo(16)));
+        builder.addRoom(r2);
+        assertThat(builder.getCellCount(), is(equalTo(18)));
+
+        MultiFloorEvacuationCellularAutomaton ca = builder.build();
+        assertThat(ca.getCellCount(), is(equalTo(18)));
+        boolean[] seen = new boolean[18];
+        for (Room r : Arrays.asList(r1, r2)) {
+            for (EvacCell cell : r.getAllCells()) {
+                assertThat(seen[cell.getId()], is(false));
+                seen[cell.getId()] = true;
+                assertThat(ca.getCell(cell.getId()), is(sameInstance(cell)));
+            }
+        }
+    }
+
+    @Test
+    public void cellsNotIndexedWithoutAutomaton() {
+        assertThat(new RoomCell(0, 0).getId(), is(equalTo(EvacCellInterface.NO_ID)));
+        assertThat(new MultiFloorEvacuationCellularAutomaton().getCellCount(), is(equalTo(0)));
+    }
+
     @Test
     public void assertGraphicalRepresentation() {
         EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
@@ -0,0 +1,162 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.zet.cellularautomaton.algorithm.TestParallelUpdateCellularAutomaton.evacuatedCount;
+import static org.zet.cellularautomaton.algorithm.TestParallelUpdateCellularAutomaton.run;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.zet.cellularautomaton.DoorCell;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.IndividualBuilder;
+import org.zet.cellularautomaton.InitialConfiguration;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton.EvacuationCellularAutomatonBuilder;
+import org.zet.cellularautomaton.RoomCell;
+import org.zet.cellularautomaton.RoomImpl;
+import org.zet.cellularautomaton.algorithm.TestParallelUpdateCellularAutomaton.ParallelRuleSet;
+import org.zet.cellularautomaton.potential.ParallelPotentialBuilder;
+import org.zet.cellularautomaton.potential.StaticPotential;
+import org.zet.cellularautomaton.random.SplittableRandomSource;
+
+/**
+ * Tests the domain decomposition and the simulation using it.
+ */
+public class TestDomainDecompositionCellularAutomaton {
+
+    private static final int WIDTH = 6;
+    private static final int HEIGHT = 3;
+
+    /**
+     * Creates a building with two floors. The lower floor has exits on the left side, the upper floor is connected to
+     * the lower floor by a door on the right side. Individuals are placed on both floors.
+     */
+    private static InitialConfiguration twoFloors() {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "ground floor");
+        builder.addFloor(1, "first floor");
+        RoomImpl lower = new RoomImpl(WIDTH, HEIGHT, 0, 0, 0);
+        RoomImpl upper = new RoomImpl(WIDTH, HEIGHT, 1, 0, 0);
+        for (int x = 0; x < WIDTH; ++x) {
+            for (int y = 0; y < HEIGHT; ++y) {
+                boolean door = x == WIDTH - 1 && y == 1;
+                lower.setCell(door ? new DoorCell(1, x, y) : x == 0 ? new ExitCell(1, x, y) : new RoomCell(x, y));
+                upper.setCell(door ? new DoorCell(1, x, y) : new RoomCell(x, y));
+            }
+        }
+        ((DoorCell) lower.getCell(WIDTH - 1, 1)).addTarget((DoorCell) upper.getCell(WIDTH - 1, 1));
+        builder.addRoom(lower);
+        builder.addRoom(upper);
+        ParallelPotentialBuilder.withDefaultAlgorithm(1).computePotentials(builder);
+        builder.setSafePotential(new StaticPotential());
+
+        IndividualBuilder individualBuilder = new IndividualBuilder().withRelativeMaxSpeed(1);
+        List<Individual> individuals = new ArrayList<>();
+        Map<Individual, EvacCellInterface> positions = new HashMap<>();
+        for (RoomImpl room : new RoomImpl[]{lower, upper}) {
+            for (int x = 2; x < WIDTH - 1; ++x) {
+                for (int y = 0; y < HEIGHT; y += 2) {
+                    Individual individual = individualBuilder.build();
+                    individuals.add(individual);
+                    positions.put(individual, room.getCell(x, y));
+                }
+            }
+        }
+        return new InitialConfiguration(builder.build(), individuals, positions);
+    }
+
+    @Test
+    public void decompositionByFloor() {
+        MultiFloorEvacuationCellularAutomaton ca = twoFloors().getCellularAutomaton();
+
+        DomainDecomposition decomposition = DomainDecomposition.byFloor(ca);
+
+        assertThat(decomposition.getDomainCount(), is(equalTo(2)));
+        RoomImpl lower = (RoomImpl) ca.getRoomsOnFloor(0).iterator().next();
+        RoomImpl upper = (RoomImpl) ca.getRoomsOnFloor(1).iterator().next();
+        assertThat(decomposition.domainOf(lower.getCell(0, 0)), is(equalTo(0)));
+        assertThat(decomposition.domainOf(upper.getCell(0, 0)), is(equalTo(1)));
+        assertThat(decomposition.isBoundary(lower.getCell(WIDTH - 1, 1)), is(true));
+        assertThat(decomposition.isBoundary(upper.getCell(WIDTH - 1, 1)), is(true));
+        assertThat(decomposition.isBoundary(upper.getCell(WIDTH - 2, 1)), is(false));
+    }
+
+    @Test
+    public void singleDomainHasNoBoundary() {
+        MultiFloorEvacuationCellularAutomaton ca = twoFloors().getCellularAutomaton();
+
+        DomainDecomposition decomposition = DomainDecomposition.by(ca, room -> 0);
+
+        assertThat(decomposition.getDomainCount(), is(equalTo(1)));
+        RoomImpl lower = (RoomImpl) ca.getRoomsOnFloor(0).iterator().next();
+        assertThat(decomposition.isBoundary(lower.getCell(WIDTH - 1, 1)), is(false));
+    }
+
+    private static EvacuationCellularAutomatonAlgorithm runDomains(int parallelism, long seed) {
+        DomainDecompositionCellularAutomaton algorithm = new DomainDecompositionCellularAutomaton(ParallelRuleSet::new,
+                DomainDecomposition::byFloor, parallelism);
+        algorithm.setRandomSource(new SplittableRandomSource(seed));
+        return run(algorithm, twoFloors(), 300);
+    }
+
+    @Test
+    public void allIndividualsEvacuated() {
+        EvacuationCellularAutomatonAlgorithm algorithm = runDomains(2, 3);
+
+        assertThat(evacuatedCount(algorithm), is(equalTo(algorithm.getProblem().getIndividuals().size())));
+    }
+
+    @Test
+    public void independentOfParallelism() {
+        EvacuationCellularAutomatonAlgorithm sequential = runDomains(1, 13);
+        EvacuationCellularAutomatonAlgorithm parallel = runDomains(3, 13);
+
+        List<Individual> expected = sequential.getProblem().getIndividuals();
+        List<Individual> actual = parallel.getProblem().getIndividuals();
+        for (int i = 0; i < expected.size(); ++i) {
+            assertThat(parallel.getEvacuationState().propertyFor(actual.get(i)).getEvacuationTime(),
+                    is(equalTo(sequential.getEvacuationState().propertyFor(expected.get(i)).getEvacuationTime())));
+        }
+    }
+
+    @Test
+    public void rulesCreatedForEachDomain() {
+        AtomicInteger ruleSets = new AtomicInteger();
+        DomainDecompositionCellularAutomaton algorithm = new DomainDecompositionCellularAutomaton(() -> {
+            ruleSets.incrementAndGet();
+            return new ParallelRuleSet();
+        }, DomainDecomposition::byRoom, 1);
+
+        run(algorithm, twoFloors(), 1);
+
+        assertThat(ruleSets.get(), is(equalTo(2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelismMustBePositive() {
+        new DomainDecompositionCellularAutomaton(ParallelRuleSet::new, DomainDecomposition::byFloor, 0);
+    }
+}
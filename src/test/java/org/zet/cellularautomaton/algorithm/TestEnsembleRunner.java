@@ -0,0 +1,107 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.zet.cellularautomaton.algorithm.TestParallelUpdateCellularAutomaton.roomWithIndividuals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Test;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.algorithm.TestParallelUpdateCellularAutomaton.ParallelProblem;
+import org.zet.cellularautomaton.algorithm.TestParallelUpdateCellularAutomaton.ParallelRuleSet;
+import org.zet.cellularautomaton.statistic.MultipleCycleCAStatistic;
+
+/**
+ * Tests running ensembles of simulations.
+ */
+public class TestEnsembleRunner {
+
+    @Test
+    public void oneCyclePerSeed() {
+        Set<Long> usedSeeds = ConcurrentHashMap.newKeySet();
+        EnsembleRunner runner = new EnsembleRunner(seed -> {
+            usedSeeds.add(seed);
+            return new ParallelProblem(roomWithIndividuals(6, 3, 3), new ParallelRuleSet(), 200);
+        }, 2);
+
+        List<Long> seeds = Arrays.asList(3L, 5L, 7L);
+        MultipleCycleCAStatistic statistic = runner.run(seeds);
+
+        assertThat(usedSeeds, is(equalTo(new HashSet<>(seeds))));
+        for (int i = 0; i < seeds.size(); ++i) {
+            assertThat(statistic.getCycle(i), is(notNullValue()));
+        }
+        assertThat(statistic.getCycle(0), is(not(sameInstance(statistic.getCycle(1)))));
+    }
+
+    @Test
+    public void replicationsIndependentOfParallelism() {
+        List<Long> seeds = Arrays.asList(3L, 5L, 7L, 11L);
+        List<List<Integer>> evacuationTimes = new ArrayList<>();
+        for (int parallelism : new int[]{1, 3}) {
+            Map<EvacuationSimulationProblem, Long> problemSeeds = new ConcurrentHashMap<>();
+            List<EvacuationCellularAutomatonAlgorithm> algorithms = Collections.synchronizedList(new ArrayList<>());
+            EnsembleRunner runner = new EnsembleRunner(seed -> {
+                ParallelProblem problem = new ParallelProblem(roomWithIndividuals(6, 3, 3), new ParallelRuleSet(), 200);
+                problemSeeds.put(problem, seed);
+                return problem;
+            }, () -> {
+                EvacuationCellularAutomatonAlgorithm algorithm = new EvacuationCellularAutomatonAlgorithm();
+                algorithms.add(algorithm);
+                return algorithm;
+            }, parallelism);
+            runner.run(seeds);
+
+            algorithms.sort(Comparator.comparing(algorithm -> problemSeeds.get(algorithm.getProblem())));
+            List<Integer> times = new ArrayList<>();
+            for (EvacuationCellularAutomatonAlgorithm algorithm : algorithms) {
+                for (Individual i : algorithm.getProblem().getIndividuals()) {
+                    times.add(algorithm.getEvacuationState().propertyFor(i).getEvacuationTime());
+                }
+            }
+            evacuationTimes.add(times);
+        }
+
+        assertThat(evacuationTimes.get(0), is(equalTo(evacuationTimes.get(1))));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void noAdditionalCycles() {
+        EnsembleRunner runner = new EnsembleRunner(
+                seed -> new ParallelProblem(roomWithIndividuals(3, 1, 2), new ParallelRuleSet(), 50), 1);
+
+        runner.run(Arrays.asList(1L, 2L)).getCycle(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelismPositive() {
+        new EnsembleRunner(seed -> null, 0);
+    }
+}
@@ -51,7 +51,10 @@ import org.zet.cellularautomaton.algorithm.state.EvacuationState;
 import org.zet.cellularautomaton.algorithm.state.EvacuationStateControllerInterface;
 import org.zet.cellularautomaton.algorithm.state.IndividualProperty;
 import org.zet.cellularautomaton.algorithm.state.MutableEvacuationState;
+import org.zet.cellularautomaton.potential.DynamicPotentialMode;
 import org.zet.cellularautomaton.potential.StaticPotential;
+import org.zet.cellularautomaton.statistic.StatisticLevel;
+import org.zet.cellularautomaton.random.RandomSource;
 import org.zetool.common.algorithm.AlgorithmDetailedProgressEvent;
 import org.zet.cellularautomaton.EvacuationCellularAutomaton;
 import org.zet.cellularautomaton.results.DynamicPotentialChangeAction;
@@ -157,8 +160,9 @@ public class TestEvacuationCellularAutomatonAlgorithm {
         rules.add(loop, false, true);
 
         EvacuationSimulationProblem esp = context.mock(EvacuationSimulationProblem.class);
-        EvacuationCellularAutomaton eca = context.mock(EvacuationCellularAutomaton.class);
-        ParameterSet ps = context.mock(ParameterSet.class);
+        EvacuationCellularAutomaton eca = mockCellularAutomaton();
+        ParameterSet ps = mockParameterSet();
+        allowStateInjection(primary1, primary2, loop);
 
         context.checking(new Expectations() {{
                 allowing(esp).getEvacuationStepLimit();
@@ -282,8 +286,9 @@ public class TestEvacuationCellularAutomatonAlgorithm {
         rules.add(loop, false, true);
 
         EvacuationSimulationProblem esp = context.mock(EvacuationSimulationProblem.class);
-        EvacuationCellularAutomaton eca = context.mock(EvacuationCellularAutomaton.class);
-        ParameterSet ps = context.mock(ParameterSet.class);        
+        EvacuationCellularAutomaton eca = mockCellularAutomaton();
+        ParameterSet ps = mockParameterSet();        
+        allowStateInjection(primary1, primary2, loop);
         
         context.checking(new Expectations() {{
                 allowing(esp).getCellularAutomaton();
@@ -360,8 +365,8 @@ public class TestEvacuationCellularAutomatonAlgorithm {
     public void testTerminateEventAllSave() {
         MockEvacuationCellularAutomatonAlgorithm algorithm = new MockEvacuationCellularAutomatonAlgorithm(true);
         EvacuationSimulationProblem esp = context.mock(EvacuationSimulationProblem.class);
-        EvacuationCellularAutomaton eca = context.mock(EvacuationCellularAutomaton.class);
-        ParameterSet ps = context.mock(ParameterSet.class);
+        EvacuationCellularAutomaton eca = mockCellularAutomaton();
+        ParameterSet ps = mockParameterSet();
         
         context.checking(new Expectations() {{
                 allowing(esp).getCellularAutomaton();
@@ -400,8 +405,8 @@ public class TestEvacuationCellularAutomatonAlgorithm {
         isp.get(individuals.get(0)).setRoom(defaultRoom);
 
         EvacuationSimulationProblem esp = context.mock(EvacuationSimulationProblem.class);
-        EvacuationCellularAutomaton eca = context.mock(EvacuationCellularAutomaton.class);
-        ParameterSet ps = context.mock(ParameterSet.class);
+        EvacuationCellularAutomaton eca = mockCellularAutomaton();
+        ParameterSet ps = mockParameterSet();
         
         context.checking(new Expectations() {{
                 allowing(esp).getCellularAutomaton();
@@ -446,6 +451,62 @@ public class TestEvacuationCellularAutomatonAlgorithm {
         assertThat(ip.isDead(), is(false));
     }
 
+    /**
+     * Creates parameters using a map based dynamic potential and recording the full statistic.
+     *
+     * @return the mocked parameters
+     */
+    private ParameterSet mockParameterSet() {
+        return mockParameterSet(StatisticLevel.FULL);
+    }
+
+    /**
+     * Creates parameters using a map based dynamic potential and recording the statistic at a given level.
+     *
+     * @param level the statistic level
+     * @return the mocked parameters
+     */
+    private ParameterSet mockParameterSet(StatisticLevel level) {
+        ParameterSet ps = context.mock(ParameterSet.class);
+        context.checking(new Expectations() {{
+                allowing(ps).dynamicPotentialMode();
+                will(returnValue(DynamicPotentialMode.MAP));
+                allowing(ps).statisticLevel();
+                will(returnValue(level));
+                allowing(ps).recordDynamicPotentialDiffs();
+                will(returnValue(false));
+        }});
+        return ps;
+    }
+
+    /**
+     * Allows the algorithm to pass the random source and the state controller to mocked rules.
+     *
+     * @param rules the mocked rules
+     */
+    private void allowStateInjection(EvacuationRule... rules) {
+        context.checking(new Expectations() {{
+                for (EvacuationRule rule : rules) {
+                    allowing(rule).setRandomSource(with(any(RandomSource.class)));
+                    allowing(rule).setEvacuationStateController(with(any(EvacuationStateControllerInterface.class)));
+                }
+        }});
+    }
+
+    /**
+     * Creates a cellular automaton whose cells are not indexed.
+     *
+     * @return the mocked cellular automaton
+     */
+    private EvacuationCellularAutomaton mockCellularAutomaton() {
+        EvacuationCellularAutomaton eca = context.mock(EvacuationCellularAutomaton.class);
+        context.checking(new Expectations() {{
+                allowing(eca).getCellCount();
+                will(returnValue(0));
+        }});
+        return eca;
+    }
+
     /**
      * Returns a list of two individuals including cell information.
      *
@@ -503,8 +564,8 @@ public class TestEvacuationCellularAutomatonAlgorithm {
         algorithm.setNeededTime(neededTime);
 
         EvacuationSimulationProblem esp = context.mock(EvacuationSimulationProblem.class);
-        EvacuationCellularAutomaton eca = context.mock(EvacuationCellularAutomaton.class);
-        ParameterSet ps = context.mock(ParameterSet.class);
+        EvacuationCellularAutomaton eca = mockCellularAutomaton();
+        ParameterSet ps = mockParameterSet();
         context.checking(new Expectations() {{
                 allowing(esp).getCellularAutomaton();
                 will(returnValue(eca));
@@ -557,8 +618,8 @@ public class TestEvacuationCellularAutomatonAlgorithm {
 
     private void assertOrder(EvacuationCellularAutomatonAlgorithm algorithm, List<Individual> individuals, List<Individual> expectedOrder) {
         EvacuationSimulationProblem esp = context.mock(EvacuationSimulationProblem.class);
-        EvacuationCellularAutomaton eca = context.mock(EvacuationCellularAutomaton.class);
-        ParameterSet ps = context.mock(ParameterSet.class);
+        EvacuationCellularAutomaton eca = mockCellularAutomaton();
+        ParameterSet ps = mockParameterSet();
         context.checking(new Expectations() {{
                 allowing(esp).getCellularAutomaton();
                 will(returnValue(eca));
@@ -607,9 +668,9 @@ public class TestEvacuationCellularAutomatonAlgorithm {
         
         EvacuationCellularAutomatonAlgorithm algorithm = EvacuationCellularAutomatonAlgorithm.getFrontToBackAlgorithm();
         EvacuationSimulationProblem esp = context.mock(EvacuationSimulationProblem.class);
-        EvacuationCellularAutomaton eca = context.mock(EvacuationCellularAutomaton.class);
+        EvacuationCellularAutomaton eca = mockCellularAutomaton();
         EvacuationRuleSet rs = new TestEvacuationRuleSet.FakeEvacuationRuleSet();
-        ParameterSet ps = context.mock(ParameterSet.class);
+        ParameterSet ps = mockParameterSet();
         context.checking(new Expectations() {{
                 allowing(esp).getCellularAutomaton();
                 will(returnValue(eca));
@@ -658,9 +719,9 @@ public class TestEvacuationCellularAutomatonAlgorithm {
         
         EvacuationCellularAutomatonAlgorithm algorithm = EvacuationCellularAutomatonAlgorithm.getBackToFrontAlgorithm();
         EvacuationSimulationProblem esp = context.mock(EvacuationSimulationProblem.class);
-        EvacuationCellularAutomaton eca = context.mock(EvacuationCellularAutomaton.class);
+        EvacuationCellularAutomaton eca = mockCellularAutomaton();
         EvacuationRuleSet rs = new TestEvacuationRuleSet.FakeEvacuationRuleSet();
-        ParameterSet ps = context.mock(ParameterSet.class);
+        ParameterSet ps = mockParameterSet();
         context.checking(new Expectations() {
             {
                 allowing(esp).getCellularAutomaton();
@@ -799,8 +860,8 @@ public class TestEvacuationCellularAutomatonAlgorithm {
         };
 
         EvacuationSimulationProblem esp = context.mock(EvacuationSimulationProblem.class);
-        EvacuationCellularAutomaton eca = context.mock(EvacuationCellularAutomaton.class);
-        ParameterSet ps = context.mock(ParameterSet.class);
+        EvacuationCellularAutomaton eca = mockCellularAutomaton();
+        ParameterSet ps = mockParameterSet();
         context.checking(new Expectations() {{
                 allowing(esp).getCellularAutomaton();
                 will(returnValue(eca));
@@ -859,8 +920,8 @@ public class TestEvacuationCellularAutomatonAlgorithm {
             }
         };
         EvacuationSimulationProblem esp = context.mock(EvacuationSimulationProblem.class);
-        EvacuationCellularAutomaton eca = context.mock(EvacuationCellularAutomaton.class);
-        ParameterSet ps = context.mock(ParameterSet.class);
+        EvacuationCellularAutomaton eca = mockCellularAutomaton();
+        ParameterSet ps = mockParameterSet();
 
         context.checking(new Expectations() {{
                 allowing(esp).getEvacuationStepLimit();
@@ -888,4 +949,56 @@ public class TestEvacuationCellularAutomatonAlgorithm {
         assertThat(algorithm.getMaxSteps(), is(equalTo(3)));
         assertThat(stepCounter.get(), is(equalTo(3)));
     }
+
+    @Test
+    public void automaticStatisticLevelUsesSteps() {
+        MockEvacuationCellularAutomatonAlgorithm algorithm = new MockEvacuationCellularAutomatonAlgorithm(false) {
+
+            @Override
+            protected EvacuationSimulationResult terminate() {
+                return null;
+            }
+        };
+        List<Individual> individuals = getTwoIndividuals();
+        Map<Individual, MockEvacCell> isp = getIndividualPositions(individuals);
+
+        EvacuationSimulationProblem esp = context.mock(EvacuationSimulationProblem.class);
+        EvacuationCellularAutomaton eca = mockCellularAutomaton();
+        ParameterSet ps = mockParameterSet(StatisticLevel.AUTOMATIC);
+
+        context.checking(new Expectations() {{
+                // two individuals for 10 million seconds fit into the budget, but not for 25 million steps
+                allowing(esp).getEvacuationStepLimit();
+                will(returnValue(10_000_000));
+                allowing(esp).getCellularAutomaton();
+                will(returnValue(eca));
+                allowing(esp).getRuleSet();
+                will(returnValue(new EvacuationRuleSet() {
+                }));
+
+                allowing(ps).getAbsoluteMaxSpeed();
+                will(returnValue(1.0)); // 2.5 steps per second
+
+                allowing(esp).getIndividuals();
+                will(returnValue(individuals));
+                allowing(esp).individualStartPositions();
+                will(returnValue(isp));
+                allowing(esp).getParameterSet();
+                will(returnValue(ps));
+                allowing(eca).minPotentialFor(with(any(EvacCell.class)));
+                will(returnValue(sp));
+                allowing(defaultRoom).getXOffset();
+                allowing(defaultRoom).getYOffset();
+                allowing(defaultRoom).getFloor();
+                isp.entrySet().forEach(cellIndividual
+                        -> allowing(defaultRoom).addIndividual(cellIndividual.getValue(), cellIndividual.getKey()));
+            }});
+
+        algorithm.setProblem(esp);
+        algorithm.runAlgorithm();
+
+        assertThat(algorithm.getMaxSteps(), is(equalTo(25_000_000)));
+        assertThat(algorithm.getEvacuationState().getStatisticWriter().getLevel(),
+                is(equalTo(StatisticLevel.AGGREGATES)));
+    }
 }
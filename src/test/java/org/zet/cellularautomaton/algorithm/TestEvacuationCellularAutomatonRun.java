@@ -18,9 +18,14 @@ package org.zet.cellularautomaton.algorithm;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
+import static org.zet.cellularautomaton.algorithm.TestParallelUpdateCellularAutomaton.roomWithIndividuals;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -40,8 +45,11 @@ import org.zet.cellularautomaton.RoomCell;
 import org.zet.cellularautomaton.RoomImpl;
 import org.zet.cellularautomaton.algorithm.rule.EvacuateIndividualsRule;
 import org.zet.cellularautomaton.algorithm.rule.SimpleMovementRule;
+import org.zet.cellularautomaton.algorithm.state.IndividualProperty;
 import org.zet.cellularautomaton.potential.PotentialAlgorithm;
 import org.zet.cellularautomaton.potential.StaticPotential;
+import org.zet.cellularautomaton.random.SplittableRandomSource;
+import org.zet.cellularautomaton.results.Action;
 import org.zetool.common.algorithm.AbstractAlgorithmEvent;
 import org.zetool.common.algorithm.AlgorithmListener;
 
@@ -149,4 +157,44 @@ public class TestEvacuationCellularAutomatonRun {
         assertThat(caAlgorithm.isFinished(), is(true));
 
     }
+
+    @Test
+    public void directExecutionEqualsRecordedRun() {
+        List<List<Action>> recordedSteps = new ArrayList<>();
+        List<Double> recorded = runWaitingIndividuals(true, recordedSteps);
+        List<List<Action>> directSteps = new ArrayList<>();
+        List<Double> direct = runWaitingIndividuals(false, directSteps);
+
+        assertThat(direct, is(equalTo(recorded)));
+        for (List<Action> actions : directSteps) {
+            assertThat(actions, is(empty()));
+        }
+        assertThat(recordedSteps.get(1), is(not(sameInstance(recordedSteps.get(2)))));
+        assertThat(recordedSteps.get(1), is(not(empty())));
+    }
+
+    /**
+     * Runs a simulation using the waiting movement rule and returns the evacuation time, panic and exhaustion of all
+     * individuals.
+     */
+    private static List<Double> runWaitingIndividuals(boolean recordActions, List<List<Action>> steps) {
+        EvacuationCellularAutomatonAlgorithm algorithm = new EvacuationCellularAutomatonAlgorithm();
+        algorithm.setRandomSource(new SplittableRandomSource(7));
+        algorithm.setRecordActions(recordActions);
+        algorithm.addAlgorithmListener(event -> {
+            if (event instanceof EvacuationStepCompleteEvent) {
+                steps.add(((EvacuationStepCompleteEvent) event).getInitializationActions());
+            }
+        });
+        TestParallelUpdateCellularAutomaton.run(algorithm, roomWithIndividuals(8, 4, 4), 300);
+
+        List<Double> result = new ArrayList<>();
+        for (Individual i : algorithm.getProblem().getIndividuals()) {
+            IndividualProperty property = algorithm.getEvacuationState().propertyFor(i);
+            result.add((double) property.getEvacuationTime());
+            result.add(property.getPanic());
+            result.add(property.getExhaustion());
+        }
+        return result;
+    }
 }
@@ -0,0 +1,254 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.EvacuationCellularAutomaton;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.IndividualBuilder;
+import org.zet.cellularautomaton.InitialConfiguration;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton.EvacuationCellularAutomatonBuilder;
+import org.zet.cellularautomaton.RoomCell;
+import org.zet.cellularautomaton.RoomImpl;
+import org.zet.cellularautomaton.algorithm.parameter.ParameterSet;
+import org.zet.cellularautomaton.algorithm.parameter.SimpleParameterSet;
+import org.zet.cellularautomaton.algorithm.rule.EvacuateIndividualsRule;
+import org.zet.cellularautomaton.algorithm.rule.ReactionRuleOnePerson;
+import org.zet.cellularautomaton.algorithm.rule.SaveIndividualsRule;
+import org.zet.cellularautomaton.algorithm.rule.SimpleMovementRule;
+import org.zet.cellularautomaton.algorithm.rule.WaitingMovementRule;
+import org.zet.cellularautomaton.potential.ParallelPotentialBuilder;
+import org.zet.cellularautomaton.potential.StaticPotential;
+import org.zet.cellularautomaton.algorithm.state.IndividualProperty;
+import org.zetool.common.util.Direction8;
+import org.zetool.rndutils.RandomUtils;
+
+/**
+ * Tests the parallel update scheme.
+ */
+public class TestParallelUpdateCellularAutomaton {
+
+    static class ParallelRuleSet extends EvacuationRuleSet {
+
+        ParallelRuleSet() {
+            add(new ReactionRuleOnePerson(), false, true);
+            add(new WaitingMovementRule(), false, true);
+            add(new SaveIndividualsRule(), false, true);
+            add(new EvacuateIndividualsRule(), false, true);
+        }
+    }
+
+    static class ParallelProblem implements EvacuationSimulationProblem {
+
+        private final InitialConfiguration initialConfiguration;
+        private final EvacuationRuleSet ruleSet;
+        private final ParameterSet parameterSet = new SimpleParameterSet();
+        private final int stepLimit;
+
+        ParallelProblem(InitialConfiguration initialConfiguration, EvacuationRuleSet ruleSet, int stepLimit) {
+            this.initialConfiguration = initialConfiguration;
+            this.ruleSet = ruleSet;
+            this.stepLimit = stepLimit;
+        }
+
+        @Override
+        public EvacuationCellularAutomaton getCellularAutomaton() {
+            return initialConfiguration.getCellularAutomaton();
+        }
+
+        @Override
+        public ParameterSet getParameterSet() {
+            return parameterSet;
+        }
+
+        @Override
+        public List<Individual> getIndividuals() {
+            return initialConfiguration.getIndividuals();
+        }
+
+        @Override
+        public EvacuationRuleSet getRuleSet() {
+            return ruleSet;
+        }
+
+        @Override
+        public int getEvacuationStepLimit() {
+            return stepLimit;
+        }
+
+        @Override
+        public Map<Individual, EvacCellInterface> individualStartPositions() {
+            return initialConfiguration.getIndividualStartPositions();
+        }
+
+        @Override
+        public InitialConfiguration getInitialConfiguration() {
+            return initialConfiguration;
+        }
+    }
+
+    /**
+     * Creates a room with the exits on the left side and places an individual on every cell in the given columns.
+     */
+    static InitialConfiguration roomWithIndividuals(int width, int height, int firstColumn) {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        RoomImpl room = new RoomImpl(width, height, 0, 0, 0);
+        for (int x = 0; x < width; ++x) {
+            for (int y = 0; y < height; ++y) {
+                room.setCell(x == 0 ? new ExitCell(1, x, y) : new RoomCell(x, y));
+            }
+        }
+        builder.addRoom(room);
+        ParallelPotentialBuilder.withDefaultAlgorithm(1).computePotentials(builder);
+        builder.setSafePotential(new StaticPotential());
+
+        IndividualBuilder individualBuilder = new IndividualBuilder().withRelativeMaxSpeed(1);
+        List<Individual> individuals = new ArrayList<>();
+        Map<Individual, EvacCellInterface> positions = new HashMap<>();
+        for (int x = firstColumn; x < width; ++x) {
+            for (int y = 0; y < height; ++y) {
+                Individual individual = individualBuilder.build();
+                individuals.add(individual);
+                positions.put(individual, room.getCell(x, y));
+            }
+        }
+        return new InitialConfiguration(builder.build(), individuals, positions);
+    }
+
+    /**
+     * Creates a corridor with a single exit cell in the middle and an individual on each side of the exit.
+     */
+    private static InitialConfiguration conflictAtExit() {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        RoomImpl room = new RoomImpl(5, 1, 0, 0, 0);
+        for (int x = 0; x < 5; ++x) {
+            room.setCell(x == 2 ? new ExitCell(1, x, 0) : new RoomCell(x, 0));
+        }
+        builder.addRoom(room);
+        ParallelPotentialBuilder.withDefaultAlgorithm(1).computePotentials(builder);
+        builder.setSafePotential(new StaticPotential());
+
+        IndividualBuilder individualBuilder = new IndividualBuilder().withRelativeMaxSpeed(1);
+        Individual left = individualBuilder.build();
+        Individual right = individualBuilder.build();
+        Map<Individual, EvacCellInterface> positions = new HashMap<>();
+        positions.put(left, room.getCell(1, 0));
+        positions.put(right, room.getCell(3, 0));
+        List<Individual> individuals = new ArrayList<>(positions.keySet());
+        return new InitialConfiguration(builder.build(), individuals, positions);
+    }
+
+    static EvacuationCellularAutomatonAlgorithm run(EvacuationCellularAutomatonAlgorithm algorithm,
+            InitialConfiguration initialConfiguration, int stepLimit) {
+        algorithm.setProblem(new ParallelProblem(initialConfiguration, new ParallelRuleSet(), stepLimit));
+        algorithm.runAlgorithm();
+        return algorithm;
+    }
+
+    static int evacuatedCount(EvacuationCellularAutomatonAlgorithm algorithm) {
+        int evacuated = 0;
+        for (Individual i : algorithm.getProblem().getIndividuals()) {
+            if (algorithm.getEvacuationState().propertyFor(i).isEvacuated()) {
+                evacuated++;
+            }
+        }
+        return evacuated;
+    }
+
+    @Test
+    public void allIndividualsEvacuated() {
+        EvacuationCellularAutomatonAlgorithm algorithm = run(new ParallelUpdateCellularAutomaton(4, 0, 1),
+                roomWithIndividuals(8, 4, 4), 300);
+
+        assertThat(evacuatedCount(algorithm), is(equalTo(16)));
+    }
+
+    @Test
+    public void independentOfParallelism() {
+        List<Integer> evacuationTimes = new ArrayList<>();
+        for (int parallelism : new int[]{1, 3}) {
+            RandomUtils.getInstance().getRandomGenerator().setSeed(17);
+            EvacuationCellularAutomatonAlgorithm algorithm = run(
+                    new ParallelUpdateCellularAutomaton(parallelism, 0.3, 5), roomWithIndividuals(8, 4, 4), 300);
+            for (Individual i : algorithm.getProblem().getIndividuals()) {
+                evacuationTimes.add(algorithm.getEvacuationState().propertyFor(i).getEvacuationTime());
+            }
+        }
+        int half = evacuationTimes.size() / 2;
+        assertThat(evacuationTimes.subList(0, half), is(equalTo(evacuationTimes.subList(half, 2 * half))));
+    }
+
+    @Test
+    public void conflictResolvedWithoutFriction() {
+        EvacuationCellularAutomatonAlgorithm algorithm = run(new ParallelUpdateCellularAutomaton(2, 0, 3),
+                conflictAtExit(), 20);
+
+        assertThat(evacuatedCount(algorithm), is(equalTo(2)));
+    }
+
+    @Test
+    public void fullFrictionBlocksConflicts() {
+        EvacuationCellularAutomatonAlgorithm algorithm = run(new ParallelUpdateCellularAutomaton(2, 1, 3),
+                conflictAtExit(), 20);
+
+        assertThat(evacuatedCount(algorithm), is(equalTo(0)));
+    }
+
+    @Test
+    public void noTurnAround() {
+        for (long seed = 0; seed < 20; ++seed) {
+            ParallelUpdateCellularAutomaton algorithm = new ParallelUpdateCellularAutomaton(1, 0, seed);
+            algorithm.setProblem(new ParallelProblem(roomWithIndividuals(5, 1, 4), new ParallelRuleSet(), 10));
+            algorithm.initialize();
+            Individual individual = algorithm.getProblem().getIndividuals().get(0);
+            IndividualProperty property = algorithm.es.propertyFor(individual);
+            property.setAlarmed();
+            property.setDirection(Direction8.Right);
+
+            assertThat(algorithm.chooseTarget(individual), is(sameInstance(property.getCell())));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void requiresSmoothMovementRule() {
+        EvacuationRuleSet ruleSet = new EvacuationRuleSet() {
+            {
+                add(new SimpleMovementRule(), false, true);
+            }
+        };
+        EvacuationCellularAutomatonAlgorithm algorithm = new ParallelUpdateCellularAutomaton(1, 0, 0);
+        algorithm.setProblem(new ParallelProblem(roomWithIndividuals(3, 1, 2), ruleSet, 10));
+        algorithm.initialize();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void frictionOutOfRange() {
+        new ParallelUpdateCellularAutomaton(1, 1.5);
+    }
+}
@@ -296,6 +296,9 @@ import org.zetool.common.util.Direction8;
                 } else {
                     allowing(targetCell).getSpeedFactor();
                     will(returnValue(SPEED_FACTOR_TARGET_CELL));
+                    // The cell statistic is recorded for the target cell
+                    allowing(targetCell).getId();
+                    will(returnValue(EvacCellInterface.NO_ID));
                 }
                 allowing(testCell).getRelative(targetCell);
                 will(returnValue(direction));
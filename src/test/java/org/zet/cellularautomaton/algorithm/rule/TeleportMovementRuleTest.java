@@ -17,6 +17,7 @@ package org.zet.cellularautomaton.algorithm.rule;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.jmock.AbstractExpectations.returnValue;
 import static org.zet.cellularautomaton.algorithm.rule.RuleTestMatchers.executeableOn;
@@ -32,6 +33,8 @@ import org.zet.cellularautomaton.TeleportCell;
 import org.zet.cellularautomaton.algorithm.computation.Computation;
 import org.zet.cellularautomaton.algorithm.state.EvacuationState;
 import org.zet.cellularautomaton.algorithm.state.EvacuationStateControllerInterface;
+import org.zet.cellularautomaton.random.RandomSource;
+import org.zet.cellularautomaton.random.SplittableRandomSource;
 
 /**
  *
@@ -116,6 +119,7 @@ public class TeleportMovementRuleTest {
         List<EvacCellInterface> targets = Collections.singletonList(cell2);
         Computation c = context.mock(Computation.class);
         EvacuationStateControllerInterface ec = context.mock(EvacuationStateControllerInterface.class);
+        RandomSource random = new SplittableRandomSource(1);
 
         TeleportMovementRule rule = new TeleportMovementRule(mr);
         context.checking(new Expectations() {
@@ -129,6 +133,8 @@ public class TeleportMovementRuleTest {
                 exactly(1).of(mr).setComputation(c);
                 exactly(1).of(mr).setDirectExecute(true);
                 exactly(1).of(mr).setEvacuationState(es);
+                exactly(1).of(mr).setRandomSource(random);
+                exactly(1).of(mr).setEvacuationStateController(ec);
                 exactly(1).of(mr).swap(cell, cell2);
             }
         });
@@ -142,8 +148,20 @@ public class TeleportMovementRuleTest {
         rule.setComputation(c);
         rule.setDirectExecute(true);
         rule.setEvacuationState(es);
+        rule.setRandomSource(random);
+        rule.setEvacuationStateController(ec);
         rule.swap(cell, cell2);
         
         context.assertIsSatisfied();
     }
+
+    @Test
+    public void randomSourceReachesWrappedRule() {
+        WaitingMovementRule wrapped = new WaitingMovementRule();
+        RandomSource random = new SplittableRandomSource(1);
+
+        new TeleportMovementRule(wrapped).setRandomSource(random);
+
+        assertThat(wrapped.random, is(sameInstance(random)));
+    }
 }
@@ -43,6 +43,7 @@ import org.zet.cellularautomaton.EvacuationCellState;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.Room;
 import org.zet.cellularautomaton.algorithm.computation.Computation;
+import org.zet.cellularautomaton.algorithm.state.EvacuationStateControllerInterface;
 import org.zet.cellularautomaton.results.MoveAction;
 import org.zetool.common.datastructure.Tuple;
 import org.zetool.common.util.Direction8;
@@ -237,6 +238,39 @@ public class WaitingMovementRuleTest {
     @Test
     public void exhaustionUpdate() {
         EvacCellInterface targetCell = context.mock(EvacCellInterface.class, "normalMoveTarget");
+        WaitingMovementRule ruleUnderTest = prepareMove(targetCell);
+
+        MoveAction a = ruleUnderTest.execute(helper.getTestCell()).get();
+        assertThat(Double.doubleToLongBits(a.getPropertyUpdate().getExhaustion().get()), is(equalTo(Double.doubleToLongBits(NEW_EXHAUSTION))));
+        assertThat(Double.doubleToLongBits(a.getPropertyUpdate().getPanic().get()), is(equalTo(Double.doubleToLongBits(NEW_PANIC))));
+        context.assertIsSatisfied();
+    }
+
+    @Test
+    public void moveAppliedDirectly() {
+        EvacCellInterface targetCell = context.mock(EvacCellInterface.class, "directMoveTarget");
+        WaitingMovementRule ruleUnderTest = prepareMove(targetCell);
+        EvacuationStateControllerInterface ec = context.mock(EvacuationStateControllerInterface.class,
+                "directController");
+        ruleUnderTest.setEvacuationStateController(ec);
+        context.checking(new Expectations() {
+            {
+                oneOf(ec).increaseDynamicPotential(targetCell);
+                oneOf(ec).move(helper.getTestCell(), targetCell);
+            }
+        });
+
+        assertThat(ruleUnderTest.execute(helper.getTestCell()).isPresent(), is(false));
+        assertThat(helper.getIndividualProperties().getExhaustion(), is(equalTo(NEW_EXHAUSTION)));
+        assertThat(helper.getIndividualProperties().getPanic(), is(equalTo(NEW_PANIC)));
+        assertThat(helper.getIndividualProperties().getDirection(), is(equalTo(Direction8.Right)));
+        context.assertIsSatisfied();
+    }
+
+    /**
+     * Prepares a rule that moves the individual to the given target cell.
+     */
+    private WaitingMovementRule prepareMove(EvacCellInterface targetCell) {
         WaitingMovementRule ruleUnderTest = new WaitingMovementRule() {
             @Override
             public EvacCellInterface selectTargetCell(EvacCellInterface cell, List<EvacCellInterface> targets) {
@@ -295,11 +329,7 @@ public class WaitingMovementRuleTest {
                 allowing(c).idleThreshold(helper.getIndividual());
             }
         });
-
-        MoveAction a = ruleUnderTest.execute(helper.getTestCell()).get();
-        assertThat(Double.doubleToLongBits(a.getPropertyUpdate().getExhaustion().get()), is(equalTo(Double.doubleToLongBits(NEW_EXHAUSTION))));
-        assertThat(Double.doubleToLongBits(a.getPropertyUpdate().getPanic().get()), is(equalTo(Double.doubleToLongBits(NEW_PANIC))));
-        context.assertIsSatisfied();
+        return ruleUnderTest;
     }
 
     @Test
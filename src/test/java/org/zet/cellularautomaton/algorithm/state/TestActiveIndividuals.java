@@ -0,0 +1,108 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm.state;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.IndividualBuilder;
+
+/**
+ * Tests the list of active individuals with lazy compaction.
+ */
+public class TestActiveIndividuals {
+
+    private final List<Individual> individuals = new ArrayList<>();
+    private IndividualStateStore store;
+    private ActiveIndividuals active;
+
+    @Before
+    public void fill() {
+        IndividualBuilder builder = new IndividualBuilder();
+        store = new IndividualStateStore();
+        active = new ActiveIndividuals(store);
+        for (int i = 0; i < 40; ++i) {
+            Individual individual = builder.build();
+            individuals.add(individual);
+            active.add(store.add(individual));
+        }
+    }
+
+    @Test
+    public void orderPreservedOnRemoval() {
+        List<Individual> expected = new ArrayList<>();
+        for (int i = 0; i < individuals.size(); ++i) {
+            if (i % 3 == 0) {
+                assertThat(active.remove(store.slotOf(individuals.get(i))), is(true));
+            } else {
+                expected.add(individuals.get(i));
+            }
+        }
+
+        assertThat(active.size(), is(equalTo(expected.size())));
+        assertThat(active.view(), is(equalTo(expected)));
+        assertThat(active.view().get(1), is(equalTo(expected.get(1))));
+        assertThat(active.view().contains(individuals.get(0)), is(false));
+        assertThat(active.view().contains(individuals.get(1)), is(true));
+    }
+
+    @Test
+    public void removeTwice() {
+        int slot = store.slotOf(individuals.get(5));
+        assertThat(active.remove(slot), is(true));
+        assertThat(active.remove(slot), is(false));
+        assertThat(active.size(), is(equalTo(39)));
+    }
+
+    @Test
+    public void removeDuringIteration() {
+        List<Individual> visited = new ArrayList<>();
+        for (Individual individual : active.view()) {
+            visited.add(individual);
+            if (visited.size() == 1) {
+                active.remove(store.slotOf(individuals.get(1)));
+                active.remove(store.slotOf(individuals.get(2)));
+            }
+            if (visited.size() == 2) {
+                break;
+            }
+        }
+
+        assertThat(visited, contains(individuals.get(0), individuals.get(3)));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void compactionInvalidatesIterators() {
+        Iterator<Individual> iterator = active.view().iterator();
+        active.remove(store.slotOf(individuals.get(0)));
+        active.view().get(0);
+        iterator.next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addOnlyOnce() {
+        active.add(store.slotOf(individuals.get(0)));
+    }
+}
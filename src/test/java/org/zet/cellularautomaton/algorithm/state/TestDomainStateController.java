@@ -0,0 +1,102 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm.state;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import org.junit.Test;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.IndividualBuilder;
+import org.zet.cellularautomaton.RoomCell;
+import org.zet.cellularautomaton.RoomImpl;
+
+/**
+ * Tests that the controller of a domain confines movements to its domain and buffers the changes of the shared state.
+ */
+public class TestDomainStateController {
+
+    private final IndividualBuilder builder = new IndividualBuilder();
+    private final Individual first = builder.build();
+    private final Individual second = builder.build();
+    private final RoomImpl room = new RoomImpl(3, 1, 0, 0, 0);
+    private final MutableEvacuationState es = new MutableEvacuationState(null, Arrays.asList(first, second));
+    private final EvacuationStateController ec = new EvacuationStateController(es);
+
+    public TestDomainStateController() {
+        for (int x = 0; x < 3; ++x) {
+            room.setCell(new RoomCell(x, 0));
+        }
+        place(first, room.getCell(0, 0));
+        place(second, room.getCell(1, 0));
+    }
+
+    private void place(Individual i, EvacCellInterface cell) {
+        es.propertyFor(i).setCell(cell);
+        ec.add(i, cell);
+    }
+
+    @Test
+    public void evacuationMergedLater() {
+        DomainStateController controller = new DomainStateController(es, ec, cell -> true);
+
+        controller.evacuate(first);
+
+        assertThat(room.getCell(0, 0).getState().isEmpty(), is(true));
+        assertThat(es.propertyFor(first).isEvacuated(), is(true));
+        assertThat(es.getRemainingIndividualCount(), is(equalTo(2)));
+
+        controller.merge();
+
+        assertThat(es.getRemainingIndividualCount(), is(equalTo(1)));
+        assertThat(es.evacuatedIndividualsCount(), is(equalTo(1)));
+    }
+
+    @Test
+    public void dynamicPotentialMergedLater() {
+        DomainStateController controller = new DomainStateController(es, ec, cell -> true);
+
+        controller.increaseDynamicPotential(room.getCell(2, 0));
+
+        assertThat(es.getDynamicPotential(room.getCell(2, 0)), is(equalTo(0.0)));
+
+        controller.merge();
+
+        assertThat(es.getDynamicPotential(room.getCell(2, 0)), is(equalTo(1.0)));
+    }
+
+    @Test
+    public void moveInsideDomain() {
+        DomainStateController controller = new DomainStateController(es, ec, cell -> true);
+
+        controller.move(room.getCell(1, 0), room.getCell(2, 0));
+
+        assertThat(es.propertyFor(second).getCell(), is(equalTo(room.getCell(2, 0))));
+        assertThat(room.getCell(1, 0).getState().getIndividual(), is(nullValue()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void moveOutOfDomainRejected() {
+        EvacCellInterface inside = room.getCell(1, 0);
+        DomainStateController controller = new DomainStateController(es, ec, cell -> cell == inside);
+
+        controller.move(inside, room.getCell(2, 0));
+    }
+}
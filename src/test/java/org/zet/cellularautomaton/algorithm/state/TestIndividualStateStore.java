@@ -0,0 +1,108 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm.state;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.IndividualBuilder;
+import org.zetool.common.util.Direction8;
+
+/**
+ * Tests the array based storage of individual properties.
+ */
+public class TestIndividualStateStore {
+
+    @Test
+    public void initialValues() {
+        Individual individual = new IndividualBuilder().withRelativeMaxSpeed(0.5).build();
+        IndividualStateStore store = new IndividualStateStore();
+        IndividualProperty property = store.property(store.add(individual));
+
+        assertThat(property.isAlarmed(), is(false));
+        assertThat(property.getRelativeSpeed(), is(equalTo(individual.getMaxSpeed())));
+        assertThat(property.getStepEndTime(), is(equalTo(0.0)));
+        assertThat(property.getStepStartTime(), is(equalTo(-1.0)));
+        assertThat(property.getDirection(), is(equalTo(Direction8.Top)));
+        assertThat(property.isSafe(), is(false));
+        assertThat(property.isEvacuated(), is(false));
+        assertThat(property.isDead(), is(false));
+    }
+
+    @Test
+    public void viewsAreReusedAndIndependent() {
+        IndividualBuilder builder = new IndividualBuilder();
+        IndividualStateStore store = new IndividualStateStore(1);
+        List<Individual> individuals = new ArrayList<>();
+        for (int i = 0; i < 40; ++i) {
+            Individual individual = builder.build();
+            individuals.add(individual);
+            store.add(individual);
+        }
+        for (int i = 0; i < individuals.size(); ++i) {
+            store.propertyFor(individuals.get(i)).setPanic(i / 100.0);
+            store.propertyFor(individuals.get(i)).setDirection(Direction8.values()[i % 8]);
+        }
+
+        assertThat(store.size(), is(equalTo(40)));
+        for (int i = 0; i < individuals.size(); ++i) {
+            IndividualProperty property = store.propertyFor(individuals.get(i));
+            assertThat(property, is(sameInstance(store.property(store.slotOf(individuals.get(i))))));
+            assertThat(property.getPanic(), is(equalTo(i / 100.0)));
+            assertThat(property.getDirection(), is(equalTo(Direction8.values()[i % 8])));
+            assertThat(store.getIndividual(store.slotOf(individuals.get(i))), is(sameInstance(individuals.get(i))));
+        }
+    }
+
+    @Test
+    public void unknownIndividual() {
+        IndividualBuilder builder = new IndividualBuilder();
+        IndividualStateStore store = new IndividualStateStore();
+        store.add(builder.build());
+
+        Individual unknown = builder.build();
+        assertThat(store.slotOf(unknown), is(equalTo(-1)));
+        assertThat(store.propertyFor(unknown), is(nullValue()));
+    }
+
+    @Test
+    public void nullDirection() {
+        IndividualProperty property = new IndividualProperty(new IndividualBuilder().build());
+        property.setDirection(null);
+
+        assertThat(property.getDirection(), is(nullValue()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void individualsOnlyOnce() {
+        Individual individual = new IndividualBuilder().build();
+        IndividualStateStore store = new IndividualStateStore();
+        store.add(individual);
+        store.add(individual);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void invalidSlot() {
+        new IndividualStateStore().property(0);
+    }
+}
@@ -0,0 +1,60 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm.state;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests the maximum tree.
+ */
+public class TestMaxTree {
+
+    @Test
+    public void emptyTree() {
+        assertThat(new MaxTree(4).max(), is(equalTo(Double.NEGATIVE_INFINITY)));
+    }
+
+    @Test
+    public void maximumUnderUpdates() {
+        MaxTree tree = new MaxTree(3);
+        double[] values = new double[50];
+        Arrays.fill(values, Double.NEGATIVE_INFINITY);
+        Random random = new Random(3);
+        for (int i = 0; i < 1000; ++i) {
+            int position = random.nextInt(values.length);
+            values[position] = random.nextInt(10) == 0 ? Double.NEGATIVE_INFINITY : random.nextDouble() * 100;
+            tree.set(position, values[position]);
+
+            assertThat(tree.max(), is(equalTo(Arrays.stream(values).max().getAsDouble())));
+        }
+    }
+
+    @Test
+    public void decreaseMaximum() {
+        MaxTree tree = new MaxTree(2);
+        tree.set(0, 5);
+        tree.set(1, 3);
+        tree.set(0, 1);
+
+        assertThat(tree.max(), is(equalTo(3.0)));
+    }
+}
@@ -22,20 +22,28 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.junit.Assert.assertThat;
+import static org.zet.cellularautomaton.algorithm.TestEvacuationCellularAutomatonRun.getSmallExampleAutomaton;
 import static org.zetool.common.util.Helper.in;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
+import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.zet.cellularautomaton.DeathCause;
+import org.zet.cellularautomaton.EvacCell;
 import org.zet.cellularautomaton.Individual;
 import org.zet.cellularautomaton.IndividualBuilder;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton;
 import org.zet.cellularautomaton.algorithm.parameter.ParameterSet;
 import org.zet.cellularautomaton.EvacuationCellularAutomaton;
+import org.zet.cellularautomaton.potential.DynamicPotential;
+import org.zet.cellularautomaton.random.SplittableRandomSource;
+import org.zet.cellularautomaton.results.DynamicPotentialDiffAction;
 
 /**
  *
@@ -54,6 +62,10 @@ public class TestMutableEvacuationState {
     public void init() {
         ps = context.mock(ParameterSet.class);
         eca = context.mock(EvacuationCellularAutomaton.class);
+        context.checking(new Expectations() {{
+                allowing(eca).getCellCount();
+                will(returnValue(0));
+        }});
     }
     
     @Test
@@ -273,4 +285,92 @@ public class TestMutableEvacuationState {
         es.addIndividual(failIndividual);
         es.addToDead(failIndividual);
     }
+
+    @Test
+    public void necessaryTimeIsLatestStepEnd() {
+        Individual slow = builder.build();
+        Individual fast = builder.build();
+        MutableEvacuationState es = new MutableEvacuationState(eca, Arrays.asList(slow, fast));
+
+        es.propertyFor(slow).setStepEndTime(7.5);
+        es.propertyFor(fast).setStepEndTime(2.0);
+        es.increaseStep();
+
+        assertThat(es.getNecessaryTime(), is(equalTo(8)));
+    }
+
+    @Test
+    public void necessaryTimeIgnoresRemovedIndividuals() {
+        Individual evacuated = builder.build();
+        Individual remaining = builder.build();
+        MutableEvacuationState es = new MutableEvacuationState(eca, Arrays.asList(evacuated, remaining));
+
+        es.propertyFor(evacuated).setStepEndTime(20);
+        es.propertyFor(remaining).setStepEndTime(3.2);
+        es.propertyFor(evacuated).setEvacuationTime(1);
+        es.addToEvacuated(evacuated);
+        es.increaseStep();
+
+        assertThat(es.getNecessaryTime(), is(equalTo(4)));
+        es.setNecessaryTime(2);
+        es.propertyFor(evacuated).setStepEndTime(30);
+        es.increaseStep();
+        assertThat(es.getNecessaryTime(), is(equalTo(4)));
+    }
+
+    @Test
+    public void necessaryTimeDoesNotDecrease() {
+        Individual individual = builder.build();
+        MutableEvacuationState es = new MutableEvacuationState(eca, Collections.singletonList(individual));
+        es.setNecessaryTime(10);
+
+        es.propertyFor(individual).setStepEndTime(3);
+        es.increaseStep();
+
+        assertThat(es.getNecessaryTime(), is(equalTo(10)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void dynamicPotentialDiffsRequireIndexedCells() {
+        new MutableEvacuationState(eca, Collections.emptyList()).recordDynamicPotentialDiffs();
+    }
+
+    @Test
+    public void dynamicPotentialDiffPerStep() {
+        MultiFloorEvacuationCellularAutomaton indexed = getSmallExampleAutomaton();
+        EvacCell cell = indexed.getCell(1);
+        MutableEvacuationState es = new MutableEvacuationState(indexed, Collections.emptyList());
+        es.recordDynamicPotentialDiffs();
+        assertThat(es.takeDynamicPotentialDiff().isPresent(), is(false));
+
+        es.increaseDynamicPotential(cell);
+        es.increaseDynamicPotential(cell);
+
+        DynamicPotentialDiffAction diff = es.takeDynamicPotentialDiff().get();
+        assertThat(diff.size(), is(equalTo(1)));
+        assertThat(diff.getCellIds()[0], is(equalTo(1)));
+        assertThat(diff.getMaxPotentialValue(), is(equalTo(2L)));
+        assertThat(es.takeDynamicPotentialDiff().isPresent(), is(false));
+    }
+
+    @Test
+    public void mapBasedDynamicPotentialByDefault() {
+        MultiFloorEvacuationCellularAutomaton indexed = getSmallExampleAutomaton();
+        MutableEvacuationState es = new MutableEvacuationState(indexed, Collections.emptyList(),
+                new SplittableRandomSource(3));
+        DynamicPotential expected = new DynamicPotential(new SplittableRandomSource(3));
+        for (int id : new int[]{0, 1, 1, 2, 2, 2}) {
+            es.increaseDynamicPotential(indexed.getCell(id));
+            expected.increase(indexed.getCell(id));
+        }
+
+        for (int step = 0; step < 10; ++step) {
+            es.updateDynamicPotential(0.7, 0.2);
+            expected.update(0.7, 0.2);
+            for (int id = 0; id < indexed.getCellCount(); ++id) {
+                assertThat(es.getDynamicPotential(indexed.getCell(id)),
+                        is(equalTo((double) expected.getPotential(indexed.getCell(id)))));
+            }
+        }
+    }
 }
@@ -0,0 +1,90 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.algorithm.state;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.zet.cellularautomaton.IndividualBuilder;
+import org.zetool.common.util.Direction8;
+
+/**
+ * Tests the unboxed storage of the updated properties.
+ */
+public class TestPropertyUpdate {
+
+    private final static IndividualBuilder builder = new IndividualBuilder();
+
+    private IndividualProperty property;
+
+    @Before
+    public void initIndividual() {
+        property = new IndividualProperty(builder.build());
+        property.setExhaustion(0.25);
+        property.setPanic(0.5);
+    }
+
+    @Test
+    public void onlyContainedPropertiesApplied() {
+        PropertyUpdate update = PropertyUpdate.forMove(1.5, 2.5).withPanic(0.75).createUpdate();
+        update.apply(property);
+
+        assertThat(property.getStepStartTime(), is(equalTo(1.5)));
+        assertThat(property.getStepEndTime(), is(equalTo(2.5)));
+        assertThat(property.getPanic(), is(equalTo(0.75)));
+        assertThat(property.getExhaustion(), is(equalTo(0.25)));
+        assertThat(property.isAlarmed(), is(false));
+        assertThat(property.isSafe(), is(false));
+        assertThat(update.getExhaustion(), is(equalTo(Optional.empty())));
+        assertThat(update.getSafetyTime(), is(equalTo(Optional.empty())));
+    }
+
+    @Test
+    public void zeroValuesAreContained() {
+        PropertyUpdate update = new PropertyUpdate.PropertyUpdateBuilder().withExhaustion(0).withPanic(0)
+                .withDirection(Direction8.Left).createUpdate();
+        update.apply(property);
+
+        assertThat(property.getExhaustion(), is(equalTo(0.0)));
+        assertThat(property.getPanic(), is(equalTo(0.0)));
+        assertThat(property.getDirection(), is(equalTo(Direction8.Left)));
+        assertThat(update.getExhaustion(), is(equalTo(Optional.of(0.0))));
+    }
+
+    @Test
+    public void alarmedContainedIfFalse() {
+        PropertyUpdate update = new PropertyUpdate.PropertyUpdateBuilder().alarmed(false).createUpdate();
+        assertThat(update.isAlarmed(), is(equalTo(Optional.of(false))));
+        assertThat(new PropertyUpdate.PropertyUpdateBuilder().createUpdate().isAlarmed(),
+                is(equalTo(Optional.empty())));
+    }
+
+    @Test
+    public void extendKeepsProperties() {
+        PropertyUpdate update = PropertyUpdate.forMove(1, 2).withExhaustion(0.125).createUpdate();
+        PropertyUpdate extended = PropertyUpdate.extend(update).withPanic(1).createUpdate();
+
+        assertThat(extended.getStepStartTime(), is(equalTo(Optional.of(1.0))));
+        assertThat(extended.getStepEndTime(), is(equalTo(Optional.of(2.0))));
+        assertThat(extended.getExhaustion(), is(equalTo(Optional.of(0.125))));
+        assertThat(extended.getPanic(), is(equalTo(Optional.of(1.0))));
+        assertThat(update.getPanic(), is(equalTo(Optional.empty())));
+    }
+}
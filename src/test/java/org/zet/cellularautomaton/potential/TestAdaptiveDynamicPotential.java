@@ -0,0 +1,84 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.zet.cellularautomaton.potential.TestGridDynamicPotential.indexedRoom;
+
+import java.util.Collections;
+import org.junit.Test;
+import org.zet.cellularautomaton.RoomImpl;
+import org.zet.cellularautomaton.random.SplittableRandomSource;
+
+/**
+ * Tests the switching between the storage schemes of the dynamic potential.
+ */
+public class TestAdaptiveDynamicPotential {
+
+    private final RoomImpl room = indexedRoom(3, 3);
+    private final AdaptiveDynamicPotential potential = new AdaptiveDynamicPotential(Collections.singletonList(room), 9,
+            new SplittableRandomSource(1));
+
+    @Test
+    public void startsSparse() {
+        assertThat(potential.isDense(), is(false));
+        potential.update(0, 0);
+        assertThat(potential.isDense(), is(false));
+    }
+
+    @Test
+    public void switchesToGridWhenCrowded() {
+        for (int x = 0; x < 3; ++x) {
+            potential.setPotential(room.getCell(x, 0), x + 1);
+            potential.setPotential(room.getCell(x, 1), 1);
+        }
+
+        potential.update(0, 0);
+
+        assertThat(potential.isDense(), is(true));
+        for (int x = 0; x < 3; ++x) {
+            assertThat(potential.getPotential(room.getCell(x, 0)), is(equalTo(x + 1)));
+            assertThat(potential.getPotential(room.getCell(x, 1)), is(equalTo(1)));
+            assertThat(potential.getPotential(room.getCell(x, 2)), is(equalTo(0)));
+        }
+        assertThat(potential.getMaxPotential(), is(equalTo(3)));
+    }
+
+    @Test
+    public void switchesBackWhenSparse() {
+        for (int x = 0; x < 3; ++x) {
+            potential.setPotential(room.getCell(x, 0), 2);
+            potential.setPotential(room.getCell(x, 1), 1);
+        }
+        potential.update(0, 0);
+        assertThat(potential.isDense(), is(true));
+
+        // three cells are between both thresholds
+        potential.update(0, 1);
+        assertThat(potential.isDense(), is(true));
+
+        potential.setPotential(room.getCell(0, 0), 0);
+        potential.update(0, 0);
+
+        assertThat(potential.isDense(), is(false));
+        assertThat(potential.getPotential(room.getCell(0, 0)), is(equalTo(0)));
+        assertThat(potential.getPotential(room.getCell(1, 0)), is(equalTo(1)));
+        assertThat(potential.getPotential(room.getCell(2, 0)), is(equalTo(1)));
+        assertThat(potential.getPotential(room.getCell(1, 1)), is(equalTo(0)));
+    }
+}
@@ -0,0 +1,190 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.junit.Assert.assertThat;
+import static org.zet.cellularautomaton.potential.TestDenseStaticPotential.indexedCell;
+
+import java.util.Collections;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.Test;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.random.SplittableRandomSource;
+import org.zet.cellularautomaton.results.DynamicPotentialDiffAction;
+
+/**
+ * Tests the array based dynamic potential.
+ */
+public class TestDenseDynamicPotential {
+
+    private final Mockery context = new Mockery();
+
+    @Test
+    public void increaseDynamicPotential() {
+        DenseDynamicPotential potential = new DenseDynamicPotential(2);
+        EvacCellInterface cell = indexedCell(context, 1);
+
+        assertThat(potential.getPotential(cell), is(equalTo(0)));
+        potential.increase(cell);
+        assertThat(potential.getPotential(cell), is(equalTo(1)));
+        potential.increase(cell);
+        assertThat(potential.getPotential(cell), is(equalTo(2)));
+        assertThat(potential.getMaxPotential(), is(equalTo(2)));
+        assertThat(potential.getMappedCellCount(), is(equalTo(1)));
+    }
+
+    @Test
+    public void changesRecordedAsDiff() {
+        DenseDynamicPotential potential = new DenseDynamicPotential(3);
+        DynamicPotentialDiffAction.Builder diff = new DynamicPotentialDiffAction.Builder(3);
+        potential.setDiffBuilder(diff);
+        EvacCellInterface c0 = indexedCell(context, 0);
+        EvacCellInterface c2 = indexedCell(context, 2);
+
+        potential.increase(c2);
+        potential.increase(c0);
+        potential.increase(c2);
+        potential.decrease(c0);
+
+        DynamicPotentialDiffAction action = diff.build();
+        assertThat(action.getCellIds()[0], is(equalTo(0)));
+        assertThat(action.getCellIds()[1], is(equalTo(2)));
+        assertThat(action.getMaxPotentialValue(), is(equalTo(2L)));
+        assertThat(diff.isEmpty(), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decreaseFailsForNonExisting() {
+        new DenseDynamicPotential(1).decrease(indexedCell(context, 0));
+    }
+
+    @Test
+    public void decreasePotentialVanishes() {
+        DenseDynamicPotential potential = new DenseDynamicPotential(3);
+        EvacCellInterface c0 = indexedCell(context, 0);
+        EvacCellInterface c1 = indexedCell(context, 1);
+        EvacCellInterface c2 = indexedCell(context, 2);
+        potential.setPotential(c0, 1);
+        potential.setPotential(c1, 3);
+        potential.setPotential(c2, 2);
+
+        potential.decrease(c0);
+
+        assertThat(potential.getPotential(c0), is(equalTo(0)));
+        assertThat(potential.hasValidPotential(c0), is(false));
+        assertThat(potential, containsInAnyOrder(c1, c2));
+
+        potential.setPotential(c1, 0);
+        assertThat(potential.getMaxPotential(), is(equalTo(2)));
+        potential.decrease(c2);
+        potential.decrease(c2);
+        assertThat(potential.getMaxPotential(), is(equalTo(0)));
+        assertThat(potential, is(emptyIterable()));
+    }
+
+    @Test
+    public void unindexedCellsHaveNoPotential() {
+        DenseDynamicPotential potential = new DenseDynamicPotential(1);
+        assertThat(potential.getPotential(indexedCell(context, EvacCellInterface.NO_ID)), is(equalTo(0)));
+    }
+
+    @Test
+    public void updateDecaysEveryCell() {
+        DenseDynamicPotential potential = new DenseDynamicPotential(3, new SplittableRandomSource(1));
+        EvacCellInterface c0 = indexedCell(context, 0);
+        EvacCellInterface c2 = indexedCell(context, 2);
+        potential.setPotential(c0, 1);
+        potential.setPotential(c2, 3);
+
+        potential.update(0, 1);
+
+        assertThat(potential.getPotential(c0), is(equalTo(0)));
+        assertThat(potential.getPotential(c2), is(equalTo(2)));
+        assertThat(potential, containsInAnyOrder(c2));
+    }
+
+    @Test
+    public void updateDiffusesToNeighbour() {
+        DenseDynamicPotential potential = new DenseDynamicPotential(2, new SplittableRandomSource(1));
+        EvacCellInterface c0 = indexedCell(context, 0);
+        EvacCellInterface c1 = indexedCell(context, 1);
+        context.checking(new Expectations() {
+            {
+                allowing(c0).getNeighbours();
+                will(returnValue(Collections.singletonList(c1)));
+            }
+        });
+        potential.setPotential(c0, 2);
+
+        potential.update(1, 0);
+
+        assertThat(potential.getPotential(c0), is(equalTo(1)));
+        assertThat(potential.getPotential(c1), is(equalTo(1)));
+
+        // cells that receive potential during the update are not visited
+        context.checking(new Expectations() {
+            {
+                allowing(c1).getNeighbours();
+                will(returnValue(Collections.singletonList(c0)));
+            }
+        });
+        potential.update(1, 0);
+
+        assertThat(potential.getPotential(c0), is(equalTo(1)));
+        assertThat(potential.getPotential(c1), is(equalTo(1)));
+        assertThat(potential.getMappedCellCount(), is(equalTo(2)));
+    }
+
+    @Test
+    public void updateIsReproducible() {
+        int[] first = updateRepeatedly(17);
+        int[] second = updateRepeatedly(17);
+        assertThat(second, is(equalTo(first)));
+    }
+
+    private int[] updateRepeatedly(long seed) {
+        Mockery local = new Mockery();
+        EvacCellInterface[] cells = new EvacCellInterface[4];
+        for (int i = 0; i < cells.length; ++i) {
+            cells[i] = indexedCell(local, i);
+        }
+        for (int i = 0; i < cells.length; ++i) {
+            EvacCellInterface cell = cells[i];
+            EvacCellInterface neighbour = cells[(i + 1) % cells.length];
+            local.checking(new Expectations() {
+                {
+                    allowing(cell).getNeighbours();
+                    will(returnValue(Collections.singletonList(neighbour)));
+                }
+            });
+        }
+        DenseDynamicPotential potential = new DenseDynamicPotential(cells.length, new SplittableRandomSource(seed));
+        potential.setPotential(cells[0], 5);
+        for (int step = 0; step < 10; ++step) {
+            potential.update(0.5, 0.2);
+        }
+        int[] result = new int[cells.length];
+        for (int i = 0; i < cells.length; ++i) {
+            result[i] = potential.getPotential(cells[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,119 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.Test;
+import org.zet.cellularautomaton.EvacCellInterface;
+
+/**
+ * Tests the array based static potential.
+ */
+public class TestDenseStaticPotential {
+
+    private final Mockery context = new Mockery();
+
+    static EvacCellInterface indexedCell(Mockery context, int id) {
+        EvacCellInterface cell = context.mock(EvacCellInterface.class, "cell" + id);
+        context.checking(new Expectations() {
+            {
+                allowing(cell).getId();
+                will(returnValue(id));
+            }
+        });
+        return cell;
+    }
+
+    @Test
+    public void emptyPotential() {
+        DenseStaticPotential potential = new DenseStaticPotential(3);
+        EvacCellInterface cell = indexedCell(context, 1);
+
+        assertThat(potential.hasValidPotential(cell), is(false));
+        assertThat(potential.getDistance(cell), is(closeTo(-1, 10e-8)));
+        assertThat(potential.getMaxPotential(), is(equalTo(AbstractPotential.INVALID)));
+        assertThat(potential, is(emptyIterable()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getNonexistentFails() {
+        new DenseStaticPotential(3).getPotential(indexedCell(context, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unindexedCellFails() {
+        new DenseStaticPotential(3).setPotential(indexedCell(context, EvacCellInterface.NO_ID), 1);
+    }
+
+    @Test
+    public void storePotentialAndDistance() {
+        DenseStaticPotential potential = new DenseStaticPotential(3);
+        EvacCellInterface c0 = indexedCell(context, 0);
+        EvacCellInterface c2 = indexedCell(context, 2);
+
+        potential.setPotential(c2, 3.5);
+        potential.setPotential(c0, 1.2);
+        potential.setDistance(c0, 1.0);
+
+        assertThat(potential.getPotential(c2), is(equalTo(4)));
+        assertThat(potential.getPotentialDouble(c0), is(closeTo(1.2, 10e-8)));
+        assertThat(potential.getDistance(c0), is(closeTo(1.0, 10e-8)));
+        assertThat(potential.getDistance(c2), is(closeTo(3.5, 10e-8)));
+        assertThat(potential.getMaxPotentialDouble(), is(closeTo(3.5, 10e-8)));
+        assertThat(potential.getMaxDistance(), is(closeTo(3.5, 10e-8)));
+        assertThat(potential, contains(c0, c2));
+    }
+
+    @Test
+    public void maxPotentialDecreases() {
+        DenseStaticPotential potential = new DenseStaticPotential(2);
+        EvacCellInterface c0 = indexedCell(context, 0);
+        EvacCellInterface c1 = indexedCell(context, 1);
+
+        potential.setPotential(c0, 2);
+        potential.setPotential(c1, 5);
+        potential.setPotential(c1, 1);
+
+        assertThat(potential.getMaxPotential(), is(equalTo(2)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void distanceWithoutPotentialFails() {
+        new DenseStaticPotential(1).setDistance(indexedCell(context, 0), 1);
+    }
+
+    @Test
+    public void sharedCellsNotModified() {
+        EvacCellInterface c0 = indexedCell(context, 0);
+        EvacCellInterface c1 = indexedCell(context, 1);
+        EvacCellInterface[] cells = {c0, null};
+        DenseStaticPotential potential = new DenseStaticPotential(new double[]{1, Double.NaN}, new double[2], cells);
+
+        potential.setPotential(c1, 2);
+
+        assertThat(cells[1], is(nullValue()));
+        assertThat(potential, contains(c0, c1));
+    }
+}
@@ -0,0 +1,50 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+import org.zet.cellularautomaton.random.SplittableRandomSource;
+
+/**
+ * Tests the conversion of probabilities to thresholds for integer random numbers.
+ */
+public class TestDiffusionDecaySweep {
+
+    @Test
+    public void thresholds() {
+        assertThat(DiffusionDecaySweep.threshold(0), is(equalTo(0L)));
+        assertThat(DiffusionDecaySweep.threshold(-1), is(equalTo(0L)));
+        assertThat(DiffusionDecaySweep.threshold(0.5), is(equalTo(1L << 52)));
+        assertThat(DiffusionDecaySweep.threshold(1), is(equalTo(1L << 53)));
+        assertThat(DiffusionDecaySweep.threshold(2), is(equalTo(1L << 53)));
+    }
+
+    @Test
+    public void thresholdDecidesAsDouble() {
+        SplittableRandomSource doubles = new SplittableRandomSource(11);
+        DiffusionDecaySweep sweep = new DiffusionDecaySweep(new SplittableRandomSource(11));
+        for (double p : new double[]{0.1, 0.3, 0.5, 0.7, 0.9}) {
+            long threshold = DiffusionDecaySweep.threshold(p);
+            for (int i = 0; i < 1000; ++i) {
+                assertThat(sweep.draw() < threshold, is(equalTo(p > doubles.nextDouble())));
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collection;
+import java.util.Map;
+import org.junit.Test;
+import org.zet.cellularautomaton.EvacCell;
+import org.zet.cellularautomaton.Exit;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton.EvacuationCellularAutomatonBuilder;
+import org.zet.cellularautomaton.RoomCell;
+import org.zet.cellularautomaton.RoomImpl;
+import org.zet.cellularautomaton.StairCell;
+import org.zetool.common.util.Direction8;
+import org.zetool.common.util.Level;
+
+/**
+ * Tests the exact travel time potential computed by the {@link DijkstraPotentialAlgorithm}.
+ */
+public class TestDijkstraPotentialAlgorithm {
+
+    private static final double SQRT2 = Math.sqrt(2);
+
+    /**
+     * Creates an open room with a single exit cell with speed factor 1 in the top left corner.
+     */
+    private static RoomImpl openRoom(int width, int height) {
+        RoomImpl room = new RoomImpl(width, height, 0, 0, 0);
+        for (int x = 0; x < width; ++x) {
+            for (int y = 0; y < height; ++y) {
+                room.setCell(x == 0 && y == 0 ? new ExitCell(1, x, y) : new RoomCell(x, y));
+            }
+        }
+        return room;
+    }
+
+    private static EvacuationCellularAutomatonBuilder builderFor(RoomImpl room) {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        builder.addRoom(room);
+        return builder;
+    }
+
+    private static Collection<ExitCell> exitCluster(EvacuationCellularAutomatonBuilder builder) {
+        return builder.getExits().get(0).getExitCluster();
+    }
+
+    @Test
+    public void exactDistancesInOpenRoom() {
+        RoomImpl room = openRoom(6, 4);
+        EvacuationCellularAutomatonBuilder builder = builderFor(room);
+        DijkstraPotentialAlgorithm algorithm = new DijkstraPotentialAlgorithm(CellGraph.of(builder.getRooms()));
+
+        DenseStaticPotential potential = algorithm.createStaticPotential(exitCluster(builder));
+
+        for (EvacCell cell : room.getAllCells()) {
+            int diagonal = Math.min(cell.getX(), cell.getY());
+            int straight = Math.max(cell.getX(), cell.getY()) - diagonal;
+            assertThat(potential.getPotentialDouble(cell), is(closeTo(10 * straight + 10 * SQRT2 * diagonal, 10e-9)));
+            assertThat(potential.getDistance(cell), is(closeTo(0.4 * straight + 0.4 * SQRT2 * diagonal, 10e-9)));
+        }
+    }
+
+    @Test
+    public void bucketQueueUsesIntegerWeights() {
+        RoomImpl room = openRoom(6, 4);
+        EvacuationCellularAutomatonBuilder builder = builderFor(room);
+        DijkstraPotentialAlgorithm algorithm = DijkstraPotentialAlgorithm.withBucketQueue(
+                CellGraph.of(builder.getRooms()));
+
+        DenseStaticPotential potential = algorithm.createStaticPotential(exitCluster(builder));
+
+        for (EvacCell cell : room.getAllCells()) {
+            int diagonal = Math.min(cell.getX(), cell.getY());
+            int straight = Math.max(cell.getX(), cell.getY()) - diagonal;
+            assertThat(potential.getPotential(cell), is(equalTo(10 * straight + 14 * diagonal)));
+        }
+        assertThat(potential.getMaxPotential(), is(equalTo(10 * 2 + 14 * 3)));
+    }
+
+    @Test
+    public void slowCellsAreAvoided() {
+        RoomImpl room = openRoom(3, 2);
+        room.getCell(1, 0).setSpeedFactor(0.25);
+        EvacuationCellularAutomatonBuilder builder = builderFor(room);
+        CellGraph graph = CellGraph.of(builder.getRooms());
+
+        for (DijkstraPotentialAlgorithm algorithm : new DijkstraPotentialAlgorithm[]{
+            new DijkstraPotentialAlgorithm(graph), DijkstraPotentialAlgorithm.withBucketQueue(graph)}) {
+            DenseStaticPotential potential = algorithm.createStaticPotential(exitCluster(builder));
+
+            assertThat(potential.getPotential(room.getCell(1, 0)), is(equalTo(10)));
+            // the detour across the diagonal is faster than passing the slow cell
+            assertThat(potential.getPotentialDouble(room.getCell(2, 0)), is(closeTo(20 * SQRT2, 0.5)));
+            assertThat(potential.getDistance(room.getCell(2, 0)), is(closeTo(0.8 * SQRT2, 10e-9)));
+        }
+    }
+
+    @Test
+    public void stairSpeedFactorDependsOnDirection() {
+        RoomImpl room = new RoomImpl(3, 1, 0, 0, 0);
+        room.setCell(new ExitCell(1, 0, 0));
+        StairCell stair = new StairCell(1, 0);
+        room.setCell(stair);
+        room.setCell(new RoomCell(2, 0));
+        stair.setLevel(Direction8.Left, Level.Higher);
+        EvacuationCellularAutomatonBuilder builder = builderFor(room);
+        CellGraph graph = CellGraph.of(builder.getRooms());
+
+        DenseStaticPotential potential = new DijkstraPotentialAlgorithm(graph).createStaticPotential(
+                exitCluster(builder));
+
+        assertThat(potential.getPotentialDouble(stair), is(closeTo(10, 10e-9)));
+        double upstairs = 10 / StairCell.STANDARD_STAIRCELL_UP_SPEEDFACTOR;
+        assertThat(potential.getPotentialDouble(room.getCell(2, 0)), is(closeTo(10 + upstairs, 10e-9)));
+    }
+
+    @Test
+    public void unreachableCellsHaveNoPotential() {
+        RoomImpl room = openRoom(3, 3);
+        for (int y = 0; y < 3; ++y) {
+            room.getCell(1, y).setUnPassable(Direction8.Right);
+            room.getCell(1, y).setUnPassable(Direction8.TopRight);
+            room.getCell(1, y).setUnPassable(Direction8.DownRight);
+        }
+        EvacuationCellularAutomatonBuilder builder = builderFor(room);
+
+        DenseStaticPotential potential = new DijkstraPotentialAlgorithm(CellGraph.of(builder.getRooms()))
+                .createStaticPotential(exitCluster(builder));
+
+        assertThat(potential.hasValidPotential(room.getCell(1, 2)), is(true));
+        assertThat(potential.hasValidPotential(room.getCell(2, 2)), is(false));
+    }
+
+    @Test
+    public void selectableInParallelBuilder() {
+        RoomImpl room = openRoom(6, 4);
+        EvacuationCellularAutomatonBuilder builder = builderFor(room);
+        CellGraph graph = CellGraph.of(builder.getRooms());
+
+        Map<Exit, Potential> potentials = ParallelPotentialBuilder.withMethod(StaticPotentialMethod.DIJKSTRA, graph, 2)
+                .computePotentials(builder.getExits());
+
+        Potential potential = potentials.get(builder.getExits().get(0));
+        assertThat(potential.getPotentialDouble(room.getCell(5, 3)), is(closeTo(20 + 30 * SQRT2, 10e-9)));
+    }
+}
@@ -0,0 +1,173 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import org.zet.cellularautomaton.DoorCell;
+import org.zet.cellularautomaton.EvacCell;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton.EvacuationCellularAutomatonBuilder;
+import org.zet.cellularautomaton.RoomCell;
+import org.zet.cellularautomaton.RoomImpl;
+import org.zet.cellularautomaton.random.SplittableRandomSource;
+
+/**
+ * Tests the grid based dynamic potential.
+ */
+public class TestGridDynamicPotential {
+
+    /**
+     * Creates a room of the given size whose cells are indexed by an automaton builder.
+     *
+     * @param width the width of the room
+     * @param height the height of the room
+     * @return the room
+     */
+    static RoomImpl indexedRoom(int width, int height) {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        RoomImpl room = new RoomImpl(width, height, 0, 0, 0);
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                room.setCell(new RoomCell(x, y));
+            }
+        }
+        builder.addRoom(room);
+        return room;
+    }
+
+    @Test
+    public void increaseAndDecrease() {
+        RoomImpl room = indexedRoom(3, 2);
+        GridDynamicPotential potential = new GridDynamicPotential(Collections.singletonList(room), 6);
+        EvacCell cell = room.getCell(2, 1);
+
+        assertThat(potential.getPotential(cell), is(equalTo(0)));
+        potential.increase(cell);
+        potential.increase(cell);
+        assertThat(potential.getPotential(cell), is(equalTo(2)));
+        assertThat(potential.getMaxPotential(), is(equalTo(2)));
+        assertThat(potential.getMappedCellCount(), is(equalTo(1)));
+
+        potential.decrease(cell);
+        potential.decrease(cell);
+        assertThat(potential.hasValidPotential(cell), is(false));
+        assertThat(potential.getMaxPotential(), is(equalTo(0)));
+        assertThat(potential, is(emptyIterable()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decreaseFailsForNonExisting() {
+        RoomImpl room = indexedRoom(2, 2);
+        new GridDynamicPotential(Collections.singletonList(room), 4).decrease(room.getCell(0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unindexedRoomFails() {
+        RoomImpl room = new RoomImpl(1, 1, 0, 0, 0);
+        room.setCell(new RoomCell(0, 0));
+        new GridDynamicPotential(Collections.singletonList(room), 1);
+    }
+
+    @Test
+    public void iterationInRowMajorOrder() {
+        RoomImpl room = indexedRoom(3, 3);
+        GridDynamicPotential potential = new GridDynamicPotential(Collections.singletonList(room), 9);
+        potential.setPotential(room.getCell(2, 2), 1);
+        potential.setPotential(room.getCell(0, 1), 2);
+        potential.setPotential(room.getCell(1, 0), 3);
+
+        assertThat(potential, contains(room.getCell(1, 0), room.getCell(0, 1), room.getCell(2, 2)));
+        assertThat(potential.getMaxPotential(), is(equalTo(3)));
+    }
+
+    @Test
+    public void updateDecaysEveryCell() {
+        RoomImpl room = indexedRoom(3, 3);
+        GridDynamicPotential potential = new GridDynamicPotential(Collections.singletonList(room), 9,
+                new SplittableRandomSource(1));
+        potential.setPotential(room.getCell(0, 0), 1);
+        potential.setPotential(room.getCell(1, 1), 3);
+
+        potential.update(0, 1);
+
+        assertThat(potential.getPotential(room.getCell(0, 0)), is(equalTo(0)));
+        assertThat(potential.getPotential(room.getCell(1, 1)), is(equalTo(2)));
+        assertThat(potential.getMappedCellCount(), is(equalTo(1)));
+    }
+
+    @Test
+    public void updateDiffusionKeepsPotential() {
+        RoomImpl room = indexedRoom(4, 4);
+        GridDynamicPotential potential = new GridDynamicPotential(Collections.singletonList(room), 16,
+                new SplittableRandomSource(3));
+        potential.setPotential(room.getCell(1, 1), 4);
+        potential.setPotential(room.getCell(2, 3), 2);
+
+        for (int step = 0; step < 5; ++step) {
+            potential.update(1, 0);
+            int sum = 0;
+            for (EvacCellInterface cell : potential) {
+                sum += potential.getPotential(cell);
+            }
+            assertThat(sum, is(equalTo(6)));
+        }
+    }
+
+    @Test
+    public void updateDiffusesToGridNeighbour() {
+        RoomImpl room = indexedRoom(2, 1);
+        GridDynamicPotential potential = new GridDynamicPotential(Collections.singletonList(room), 2,
+                new SplittableRandomSource(5));
+        potential.setPotential(room.getCell(0, 0), 1);
+
+        potential.update(1, 0);
+
+        assertThat(potential.getPotential(room.getCell(0, 0)), is(equalTo(0)));
+        assertThat(potential.getPotential(room.getCell(1, 0)), is(equalTo(1)));
+    }
+
+    @Test
+    public void updateDiffusesThroughDoor() {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        RoomImpl first = new RoomImpl(1, 1, 0, 0, 0);
+        RoomImpl second = new RoomImpl(1, 1, 0, 1, 0);
+        DoorCell from = new DoorCell(0, 0);
+        DoorCell to = new DoorCell(0, 0);
+        first.setCell(from);
+        second.setCell(to);
+        from.addTarget(to);
+        builder.addRoom(first);
+        builder.addRoom(second);
+        GridDynamicPotential potential = new GridDynamicPotential(Arrays.asList(first, second), 2,
+                new SplittableRandomSource(7));
+        potential.setPotential(from, 2);
+
+        potential.update(1, 0);
+
+        assertThat(potential.getPotential(from), is(equalTo(1)));
+        assertThat(potential.getPotential(to), is(equalTo(1)));
+    }
+}
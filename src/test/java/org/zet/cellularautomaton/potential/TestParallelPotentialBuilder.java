@@ -0,0 +1,169 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.zet.cellularautomaton.EvacCell;
+import org.zet.cellularautomaton.Exit;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton.EvacuationCellularAutomatonBuilder;
+import org.zet.cellularautomaton.RoomCell;
+import org.zet.cellularautomaton.RoomImpl;
+
+/**
+ * Tests the concurrent computation of static potentials.
+ */
+public class TestParallelPotentialBuilder {
+
+    /**
+     * Creates a 6 x 5 room with an exit in three of the four corners.
+     */
+    private static RoomImpl roomWithThreeExits() {
+        RoomImpl room = new RoomImpl(6, 5, 0, 0, 0);
+        for (int x = 0; x < 6; ++x) {
+            for (int y = 0; y < 5; ++y) {
+                boolean exit = (x == 0 && y == 0) || (x == 5 && y == 0) || (x == 5 && y == 4);
+                room.setCell(exit ? new ExitCell(x, y) : new RoomCell(x, y));
+            }
+        }
+        return room;
+    }
+
+    @Test
+    public void sameResultAsSequential() {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        RoomImpl room = roomWithThreeExits();
+        Collection<Exit> exits = builder.addRoom(room);
+        assertThat(exits, hasSize(3));
+
+        Map<Exit, StaticPotential> potentials = ParallelPotentialBuilder.withDefaultAlgorithm(2)
+                .computePotentials(exits);
+
+        assertThat(new ArrayList<>(potentials.keySet()), contains(exits.toArray()));
+        for (Exit exit : exits) {
+            StaticPotential expected = new PotentialAlgorithm().createStaticPotential(exit.getExitCluster());
+            StaticPotential actual = potentials.get(exit);
+            for (EvacCell cell : room.getAllCells()) {
+                assertThat(actual.hasValidPotential(cell), is(equalTo(expected.hasValidPotential(cell))));
+                if (!expected.hasValidPotential(cell)) {
+                    continue;
+                }
+                assertThat(actual.getPotentialDouble(cell), is(closeTo(expected.getPotentialDouble(cell), 10e-8)));
+                assertThat(actual.getDistance(cell), is(closeTo(expected.getDistance(cell), 10e-8)));
+            }
+        }
+    }
+
+    /**
+     * Creates a room whose top and bottom rows contain an exit on every fourth cell.
+     */
+    private static RoomImpl roomWithManyExits(int size) {
+        RoomImpl room = new RoomImpl(size, size, 0, 0, 0);
+        for (int x = 0; x < size; ++x) {
+            for (int y = 0; y < size; ++y) {
+                boolean exit = (y == 0 || y == size - 1) && x % 4 == 0;
+                room.setCell(exit ? new ExitCell(x, y) : new RoomCell(x, y));
+            }
+        }
+        return room;
+    }
+
+    @Test
+    public void concurrentNeighbourAccess() {
+        for (int round = 0; round < 5; ++round) {
+            List<Map<Exit, StaticPotential>> results = new ArrayList<>();
+            List<RoomImpl> rooms = new ArrayList<>();
+            for (int parallelism : new int[]{1, 8}) {
+                EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+                builder.addFloor(0, "floor");
+                RoomImpl room = roomWithManyExits(24);
+                rooms.add(room);
+                results.add(ParallelPotentialBuilder.withDefaultAlgorithm(parallelism)
+                        .computePotentials(builder.addRoom(room)));
+            }
+
+            List<StaticPotential> sequential = new ArrayList<>(results.get(0).values());
+            List<StaticPotential> concurrent = new ArrayList<>(results.get(1).values());
+            assertThat(concurrent, hasSize(sequential.size()));
+            for (int i = 0; i < sequential.size(); ++i) {
+                for (EvacCell cell : rooms.get(0).getAllCells()) {
+                    EvacCell other = rooms.get(1).getCell(cell.getX(), cell.getY());
+                    assertThat(concurrent.get(i).hasValidPotential(other),
+                            is(equalTo(sequential.get(i).hasValidPotential(cell))));
+                    if (!sequential.get(i).hasValidPotential(cell)) {
+                        continue;
+                    }
+                    assertThat(concurrent.get(i).getPotentialDouble(other),
+                            is(closeTo(sequential.get(i).getPotentialDouble(cell), 10e-8)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void potentialsSetInBuilder() {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        builder.addRoom(roomWithThreeExits());
+
+        ParallelPotentialBuilder.withDefaultAlgorithm(4).computePotentials(builder);
+
+        MultiFloorEvacuationCellularAutomaton ca = builder.build();
+        List<Exit> exits = ca.getExits();
+        assertThat(exits, hasSize(3));
+        for (Exit exit : exits) {
+            Potential p = ca.getPotentialFor(exit);
+            assertThat(p, is(notNullValue()));
+            for (ExitCell cell : exit.getExitCluster()) {
+                assertThat(p.getPotential(cell), is(equalTo(0)));
+            }
+        }
+    }
+
+    @Test
+    public void idsAssignedInExitOrder() {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        Collection<Exit> exits = builder.addRoom(roomWithThreeExits());
+
+        Map<Exit, StaticPotential> potentials = ParallelPotentialBuilder.withDefaultAlgorithm(3)
+                .computePotentials(exits);
+
+        List<StaticPotential> ordered = new ArrayList<>(potentials.values());
+        for (int i = 1; i < ordered.size(); ++i) {
+            assertThat(ordered.get(i).getID(), is(equalTo(ordered.get(i - 1).getID() + 1)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidParallelism() {
+        ParallelPotentialBuilder.withDefaultAlgorithm(0);
+    }
+}
@@ -0,0 +1,99 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.potential;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collection;
+import org.junit.Test;
+import org.zet.cellularautomaton.EvacCell;
+import org.zet.cellularautomaton.Exit;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton.EvacuationCellularAutomatonBuilder;
+import org.zet.cellularautomaton.RoomCell;
+import org.zet.cellularautomaton.RoomImpl;
+import org.zetool.common.util.Direction8;
+
+/**
+ * Tests that the array based wavefront computes the same potentials as the {@link PotentialAlgorithm}.
+ */
+public class TestWavefrontPotentialAlgorithm {
+
+    /**
+     * Creates a 9 x 7 room with two exits and a wall in the middle that has a gap at the bottom.
+     */
+    private static RoomImpl roomWithWall() {
+        RoomImpl room = new RoomImpl(9, 7, 0, 0, 0);
+        for (int x = 0; x < 9; ++x) {
+            for (int y = 0; y < 7; ++y) {
+                boolean exit = (x == 0 && (y == 2 || y == 3)) || (x == 8 && y == 0);
+                room.setCell(exit ? new ExitCell(x, y) : new RoomCell(x, y));
+            }
+        }
+        for (int y = 0; y < 6; ++y) {
+            room.getCell(4, y).setUnPassable(Direction8.Right);
+            room.getCell(4, y).setUnPassable(Direction8.TopRight);
+            room.getCell(4, y).setUnPassable(Direction8.DownRight);
+        }
+        return room;
+    }
+
+    @Test
+    public void sameValuesAsPotentialAlgorithm() {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        RoomImpl room = roomWithWall();
+        Collection<Exit> exits = builder.addRoom(room);
+        CellGraph graph = CellGraph.of(builder.getRooms());
+        WavefrontPotentialAlgorithm wavefront = new WavefrontPotentialAlgorithm(graph);
+
+        for (Exit exit : exits) {
+            StaticPotential expected = new PotentialAlgorithm().createStaticPotential(exit.getExitCluster());
+            DenseStaticPotential actual = wavefront.createStaticPotential(exit.getExitCluster());
+
+            for (EvacCell cell : room.getAllCells()) {
+                assertThat(actual.hasValidPotential(cell), is(equalTo(expected.hasValidPotential(cell))));
+                if (expected.hasValidPotential(cell)) {
+                    assertThat(actual.getPotential(cell), is(equalTo(expected.getPotential(cell))));
+                    assertThat(actual.getPotentialDouble(cell), is(closeTo(expected.getPotentialDouble(cell), 10e-9)));
+                    assertThat(actual.getDistance(cell), is(equalTo(expected.getDistance(cell))));
+                }
+            }
+            assertThat(actual.getMaxPotential(), is(equalTo(expected.getMaxPotential())));
+        }
+    }
+
+    @Test
+    public void neighboursInGraph() {
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        RoomImpl room = roomWithWall();
+        builder.addRoom(room);
+        CellGraph graph = CellGraph.of(builder.getRooms());
+
+        assertThat(graph.getCellCount(), is(equalTo(63)));
+        EvacCell corner = room.getCell(0, 0);
+        int id = corner.getId();
+        assertThat(graph.getCell(id), is(corner));
+        assertThat(graph.endEdge(id) - graph.firstEdge(id), is(equalTo(3)));
+        EvacCell wall = room.getCell(4, 3);
+        assertThat(graph.endEdge(wall.getId()) - graph.firstEdge(wall.getId()), is(equalTo(5)));
+        assertThat(graph.isExit(room.getCell(8, 0).getId()), is(true));
+    }
+}
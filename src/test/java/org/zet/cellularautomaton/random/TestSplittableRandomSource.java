@@ -0,0 +1,74 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests the seeded random source.
+ */
+public class TestSplittableRandomSource {
+
+    private static List<Long> draw(RandomSource random, int count) {
+        List<Long> values = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            values.add(random.nextLong());
+        }
+        return values;
+    }
+
+    @Test
+    public void sameSeedSameSequence() {
+        assertThat(draw(new SplittableRandomSource(5), 10), is(equalTo(draw(new SplittableRandomSource(5), 10))));
+        assertThat(draw(new SplittableRandomSource(5), 10), is(not(equalTo(draw(new SplittableRandomSource(6), 10)))));
+    }
+
+    @Test
+    public void splitIsReproducible() {
+        RandomSource first = new SplittableRandomSource(3);
+        RandomSource second = new SplittableRandomSource(3);
+
+        assertThat(draw(first.split(), 10), is(equalTo(draw(second.split(), 10))));
+        assertThat(draw(first, 10), is(equalTo(draw(second, 10))));
+    }
+
+    @Test
+    public void zeroWeightNeverChosen() {
+        RandomSource random = new SplittableRandomSource(1);
+        double[] weights = {0, 2, 0, 1};
+        for (int i = 0; i < 1000; ++i) {
+            int chosen = random.chooseRandomlyAbsolute(weights);
+            assertThat(chosen == 1 || chosen == 3, is(true));
+        }
+    }
+
+    @Test
+    public void shuffleIsPermutation() {
+        List<Integer> values = new ArrayList<>(Arrays.asList(1, 2, 3, 4, 5, 6));
+        new SplittableRandomSource(7).shuffle(values);
+
+        assertThat(values, containsInAnyOrder(1, 2, 3, 4, 5, 6));
+    }
+}
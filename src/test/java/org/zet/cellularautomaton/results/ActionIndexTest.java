@@ -0,0 +1,117 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.results;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Tests the lookup of actions by their type.
+ */
+public class ActionIndexTest {
+
+    private final Action potential1 = new DynamicPotentialChangeAction(null, 3);
+    private final Action potential2 = new DynamicPotentialChangeAction(null, 7.4);
+    private final Action potential3 = new DynamicPotentialChangeAction(null, 5);
+    private final Action save1 = new SaveAction(null, 0);
+    private final Action save2 = new SaveAction(null, 2);
+    private final Action reaction = new ReactionAction(Collections.emptyList());
+
+    private ActionIndex createIndex() {
+        Map<Integer, List<Action>> allActions = new HashMap<>();
+        allActions.put(0, Arrays.asList(potential1, save1, reaction));
+        allActions.put(1, Collections.emptyList());
+        allActions.put(2, Arrays.asList(save2, potential2, potential3));
+        return ActionIndex.of(allActions);
+    }
+
+    @Test
+    public void actionsOfType() {
+        ActionIndex index = createIndex();
+        assertThat(index.actions(DynamicPotentialChangeAction.class), contains(potential1, potential2, potential3));
+        assertThat(index.actions(SaveAction.class), contains(save1, save2));
+        assertThat(index.actions(MoveAction.class), is(empty()));
+    }
+
+    @Test
+    public void actionsOfTypeAtStep() {
+        ActionIndex index = createIndex();
+        assertThat(index.actions(DynamicPotentialChangeAction.class, 0), contains(potential1));
+        assertThat(index.actions(DynamicPotentialChangeAction.class, 1), is(empty()));
+        assertThat(index.actions(DynamicPotentialChangeAction.class, 2), contains(potential2, potential3));
+        assertThat(index.actions(SaveAction.class, 3), is(empty()));
+    }
+
+    @Test
+    public void supertypeKeepsRecordingOrder() {
+        ActionIndex index = createIndex();
+        assertThat(index.actions(Action.class), contains(potential1, save1, reaction, save2, potential2, potential3));
+        assertThat(index.actions(Action.class, 2), contains(save2, potential2, potential3));
+    }
+
+    @Test
+    public void maxDynamicPotential() {
+        ActionIndex index = new ActionIndex();
+        assertThat(index.getMaxDynamicPotential(), is(equalTo(0L)));
+        index.add(0, potential1);
+        assertThat(index.getMaxDynamicPotential(), is(equalTo(3L)));
+        index.add(1, potential2);
+        index.add(1, potential3);
+        assertThat(index.getMaxDynamicPotential(), is(equalTo(7L)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stepsMustNotDecrease() {
+        ActionIndex index = new ActionIndex();
+        index.add(2, save1);
+        index.add(1, save2);
+    }
+
+    @Test
+    public void recordingUsesIndex() {
+        Map<Integer, List<Action>> allActions = new HashMap<>();
+        allActions.put(0, Arrays.asList(potential1, save1));
+        allActions.put(1, Arrays.asList(potential2));
+        EvacuationRecording recording = new EvacuationRecording(null, allActions);
+        assertThat(recording.getMaxDynamicPotential(), is(equalTo(7L)));
+        assertThat(recording.getActions(SaveAction.class), contains(save1));
+        assertThat(recording.getActions(DynamicPotentialChangeAction.class, 0), contains(potential1));
+        assertThat(recording.getActions(DynamicPotentialChangeAction.class, 1), contains(potential2));
+        assertThat(recording.getActions(DynamicPotentialChangeAction.class), contains(potential1, potential2));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void deprecatedFiltersUseIndex() {
+        Map<Integer, List<Action>> allActions = new HashMap<>();
+        allActions.put(0, Arrays.asList(potential1, save1));
+        allActions.put(1, Arrays.asList(potential2));
+        EvacuationRecording recording = new EvacuationRecording(null, allActions);
+        recording.nextActions();
+        assertThat(recording.filterActions(DynamicPotentialChangeAction.class), contains(potential1));
+        assertThat(recording.filterAllActions(DynamicPotentialChangeAction.class), contains(potential1, potential2));
+    }
+}
@@ -0,0 +1,99 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.results;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.zet.cellularautomaton.InitialConfiguration;
+
+/**
+ * Tests the recording of the changes of the dynamic potential in a diff.
+ */
+public class DynamicPotentialDiffActionTest {
+
+    @Test
+    public void mergesChangesOfCell() {
+        DynamicPotentialDiffAction.Builder builder = new DynamicPotentialDiffAction.Builder(10);
+        assertThat(builder.isEmpty(), is(true));
+        builder.set(7, 1);
+        builder.set(3, 2);
+        builder.set(7, 4);
+
+        DynamicPotentialDiffAction diff = builder.build();
+        assertThat(diff.size(), is(equalTo(2)));
+        assertChanges(diff, new int[]{3, 7}, new double[]{2, 4});
+        assertThat(diff.getMaxPotentialValue(), is(equalTo(4L)));
+        assertThat(builder.isEmpty(), is(true));
+
+        builder.set(7, 0);
+        assertChanges(builder.build(), new int[]{7}, new double[]{0});
+    }
+
+    @Test
+    public void encodesLargeGaps() {
+        int[] ids = {0, 1, 129, 20_000, 3_000_000};
+        DynamicPotentialDiffAction.Builder builder = new DynamicPotentialDiffAction.Builder(3_000_001);
+        for (int i = ids.length - 1; i >= 0; --i) {
+            builder.set(ids[i], i);
+        }
+
+        DynamicPotentialDiffAction diff = builder.build();
+        assertChanges(diff, ids, new double[]{0, 1, 2, 3, 4});
+        assertThat(diff.getEncodedCells().length, is(equalTo(1 + 1 + 2 + 3 + 4)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCell() {
+        new DynamicPotentialDiffAction.Builder(2).set(2, 1);
+    }
+
+    @Test
+    public void encodesDiff() {
+        DynamicPotentialDiffAction.Builder builder = new DynamicPotentialDiffAction.Builder(300);
+        builder.set(5, 1);
+        builder.set(250, 3);
+
+        ByteBuffer buffer = ActionCodec.encode(builder.build(), ByteBuffer.allocate(4));
+        ((Buffer) buffer).flip();
+        DynamicPotentialDiffAction decoded = (DynamicPotentialDiffAction) new ActionCodec(
+                new InitialConfiguration(null, new ArrayList<>(), null)).decode(buffer);
+
+        assertChanges(decoded, new int[]{5, 250}, new double[]{1, 3});
+        assertThat(buffer.hasRemaining(), is(false));
+    }
+
+    private static void assertChanges(DynamicPotentialDiffAction diff, int[] ids, double[] values) {
+        List<Integer> actualIds = new ArrayList<>();
+        List<Double> actualValues = new ArrayList<>();
+        diff.forEachChange((id, value) -> {
+            actualIds.add(id);
+            actualValues.add(value);
+        });
+        assertThat(actualIds.size(), is(equalTo(ids.length)));
+        for (int i = 0; i < ids.length; ++i) {
+            assertThat(actualIds.get(i), is(equalTo(ids[i])));
+            assertThat(actualValues.get(i), is(equalTo(values[i])));
+            assertThat(diff.getCellIds()[i], is(equalTo(ids[i])));
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.results;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+import static org.zet.cellularautomaton.algorithm.TestEvacuationCellularAutomatonRun.getSmallExampleAutomaton;
+import static org.zet.cellularautomaton.algorithm.TestEvacuationCellularAutomatonRun.getSmallProblem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.zet.cellularautomaton.DeathCause;
+import org.zet.cellularautomaton.EvacCell;
+import org.zet.cellularautomaton.ExitCell;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.InitialConfiguration;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton;
+import org.zet.cellularautomaton.algorithm.EvacuationCellularAutomatonAlgorithm;
+import org.zet.cellularautomaton.algorithm.EvacuationInitializationCompleteEvent;
+import org.zet.cellularautomaton.algorithm.EvacuationSimulationProblem;
+import org.zet.cellularautomaton.algorithm.EvacuationStepCompleteEvent;
+import org.zet.cellularautomaton.algorithm.state.IndividualProperty;
+
+/**
+ * Tests writing and reading recordings in the binary format.
+ */
+public class StreamedEvacuationRecordingTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MultiFloorEvacuationCellularAutomaton eca = getSmallExampleAutomaton();
+    private final EvacuationSimulationProblem problem = getSmallProblem(eca);
+    private final InitialConfiguration initialConfig = new InitialConfiguration(eca, problem.getIndividuals(),
+            problem.individualStartPositions());
+    private final Individual individual = problem.getIndividuals().get(0);
+
+    @Test
+    public void recordsSimulation() throws IOException {
+        EvacuationCellularAutomatonAlgorithm algorithm = new EvacuationCellularAutomatonAlgorithm();
+        algorithm.setProblem(problem);
+        VisualResultsRecorder inMemory = new VisualResultsRecorder(initialConfig, algorithm);
+        File file = folder.newFile();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+                StreamingResultsRecorder recorder = new StreamingResultsRecorder(channel, initialConfig, algorithm)) {
+            algorithm.runAlgorithm();
+        }
+
+        EvacuationRecording expected = inMemory.getRecording();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            EvacuationRecording recording = new StreamedEvacuationRecording(initialConfig, channel);
+            assertThat(recording.length(), is(equalTo(expected.length())));
+            while (expected.hasNext()) {
+                List<Action> expectedActions = expected.nextActions();
+                List<Action> actions = recording.nextActions();
+                assertThat(actions, hasSize(expectedActions.size()));
+                for (int i = 0; i < actions.size(); ++i) {
+                    assertThat(actions.get(i), is(instanceOf(expectedActions.get(i).getClass())));
+                    if (actions.get(i) instanceof MoveAction) {
+                        assertMove((MoveAction) actions.get(i), (MoveAction) expectedActions.get(i));
+                    }
+                }
+            }
+            assertThat(recording.hasNext(), is(false));
+            assertThat(recording.getActions(MoveAction.class), hasSize(expected.getActions(MoveAction.class).size()));
+            assertThat(recording.getMaxDynamicPotential(), is(equalTo(expected.getMaxDynamicPotential())));
+        }
+    }
+
+    private static void assertMove(MoveAction move, MoveAction expected) {
+        assertThat(move.getFrom(), is(sameInstance(expected.getFrom())));
+        assertThat(move.getTo(), is(sameInstance(expected.getTo())));
+        assertThat(move.getIndividualNumber(), is(equalTo(expected.getIndividualNumber())));
+        assertThat(move.getStartTime(), is(equalTo(expected.getStartTime())));
+        assertThat(move.getArrivalTime(), is(equalTo(expected.getArrivalTime())));
+    }
+
+    @Test
+    public void encodesAllActions() throws IOException {
+        EvacCell exit = eca.getCell(0);
+        EvacCell middle = eca.getCell(1);
+        File file = folder.newFile();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+                StreamingResultsRecorder recorder = new StreamingResultsRecorder(channel, initialConfig)) {
+            recorder.record(Arrays.asList(new DieAction(middle, DeathCause.NOT_ENOUGH_TIME, individual),
+                    new SaveAction(individual, 3),
+                    new ReactionAction(Collections.singletonList(individual))));
+            recorder.nextTimestep();
+            recorder.nextTimestep();
+            recorder.record(Arrays.asList(new ExitAction((ExitCell) exit, 5, individual),
+                    new IndividualStateChangeAction(individual, 0.5, 0.25, 0.75, true),
+                    new DynamicPotentialChangeAction(middle, 2),
+                    new MoveAction(individual, middle, exit, 4.5, 3.5)));
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            StreamedEvacuationRecording recording = new StreamedEvacuationRecording(initialConfig, channel);
+            assertThat(recording.length(), is(equalTo(3)));
+
+            recording.jumpToTime(0);
+            List<Action> actions = recording.curActions();
+            assertThat(actions, hasSize(3));
+            DieAction die = (DieAction) actions.get(0);
+            assertThat(die.getIndividual(), is(sameInstance(individual)));
+            assertThat(die.getPlaceOfDeath(), is(sameInstance(middle)));
+            assertThat(die.getDeathCause(), is(DeathCause.NOT_ENOUGH_TIME));
+            assertThat(((SaveAction) actions.get(1)).getTimeStep(), is(equalTo(3)));
+            assertThat(((ReactionAction) actions.get(2)).getIndividuals(), contains(individual));
+
+            assertThat(recording.nextActions(), hasSize(0));
+
+            actions = recording.nextActions();
+            ExitAction exitAction = (ExitAction) actions.get(0);
+            assertThat(exitAction.getExit(), is(sameInstance(exit)));
+            assertThat(exitAction.getTimeStep(), is(equalTo(5)));
+            IndividualStateChangeAction change = (IndividualStateChangeAction) actions.get(1);
+            assertThat(change.getPanic(), is(equalTo(0.5)));
+            assertThat(change.getExhaustion(), is(equalTo(0.25)));
+            assertThat(change.getCurrentSpeed(), is(equalTo(0.75)));
+            assertThat(change.isAlarmed(), is(true));
+            assertThat(((DynamicPotentialChangeAction) actions.get(2)).getNewPotentialValue(), is(equalTo(2L)));
+            MoveAction move = (MoveAction) actions.get(3);
+            assertThat(move.getFrom(), is(sameInstance(middle)));
+            assertThat(move.getTo(), is(sameInstance(exit)));
+            assertThat(move.getArrivalTime(), is(equalTo(4.5)));
+            assertThat(move.getStartTime(), is(equalTo(3.5)));
+            assertThat(move.getPropertyUpdate(), is(not(nullValue())));
+        }
+    }
+
+    @Test
+    public void restoresStatesFromKeyframes() throws IOException {
+        List<Integer> expectedCells = new ArrayList<>();
+        File file = recordWithKeyframes(expectedCells, true);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            assertStates(new StreamedEvacuationRecording(initialConfig, channel), expectedCells);
+        }
+    }
+
+    @Test
+    public void restoresStatesFromMappedSegments() throws IOException {
+        List<Integer> expectedCells = new ArrayList<>();
+        File file = recordWithKeyframes(expectedCells, true);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            assertStates(new StreamedEvacuationRecording(initialConfig, channel, 160), expectedCells);
+        }
+    }
+
+    @Test
+    public void restoresStatesOfUnclosedRecording() throws IOException {
+        List<Integer> expectedCells = new ArrayList<>();
+        File file = recordWithKeyframes(expectedCells, false);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            assertStates(new StreamedEvacuationRecording(initialConfig, channel), expectedCells);
+        }
+    }
+
+    @Test
+    public void ignoresPartialLastFrame() throws IOException {
+        List<Integer> expectedCells = new ArrayList<>();
+        List<Long> fileSizes = new ArrayList<>();
+        File file = recordWithKeyframes(expectedCells, fileSizes, false);
+        int steps = expectedCells.size();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(fileSizes.get(steps - 2) + StreamingResultsRecorder.FRAME_HEADER_SIZE + 1);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            StreamedEvacuationRecording recording = new StreamedEvacuationRecording(initialConfig, channel);
+            assertThat(recording.length(), is(equalTo(steps - 1)));
+            for (int step = 0; step < steps - 1; ++step) {
+                assertCell(recording.stateAt(step), expectedCells.get(step));
+            }
+        }
+    }
+
+    /**
+     * Records the simulation with a keyframe after every second step and stores the cell id of the individual after
+     * each step.
+     */
+    private File recordWithKeyframes(List<Integer> expectedCells, boolean close) throws IOException {
+        return recordWithKeyframes(expectedCells, new ArrayList<>(), close);
+    }
+
+    /**
+     * Records the simulation with a keyframe after every second step and stores the cell id of the individual and the
+     * size of the recording after each step.
+     */
+    private File recordWithKeyframes(List<Integer> expectedCells, List<Long> fileSizes, boolean close)
+            throws IOException {
+        EvacuationCellularAutomatonAlgorithm algorithm = new EvacuationCellularAutomatonAlgorithm();
+        algorithm.setProblem(problem);
+        File file = folder.newFile();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            StreamingResultsRecorder recorder = new StreamingResultsRecorder(channel, initialConfig, 2);
+            algorithm.addAlgorithmListener(event -> {
+                try {
+                    if (event instanceof EvacuationStepCompleteEvent) {
+                        recorder.record(((EvacuationStepCompleteEvent) event).getInitializationActions());
+                        recorder.nextTimestep();
+                        IndividualProperty property = algorithm.getEvacuationState().propertyFor(individual);
+                        expectedCells.add(property.isEvacuated() ? -1 : property.getCell().getId());
+                        fileSizes.add(file.length());
+                    } else if (event instanceof EvacuationInitializationCompleteEvent) {
+                        recorder.record(((EvacuationInitializationCompleteEvent) event).getInitializationActions());
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            algorithm.runAlgorithm();
+            if (close) {
+                recorder.close();
+            }
+        }
+        return file;
+    }
+
+    private void assertStates(StreamedEvacuationRecording recording, List<Integer> expectedCells) {
+        assertThat(recording.length(), is(equalTo(expectedCells.size())));
+        assertThat(recording.getKeyframeInterval(), is(equalTo(2)));
+        for (int step = expectedCells.size() - 1; step >= 0; --step) {
+            assertCell(recording.stateAt(step), expectedCells.get(step));
+        }
+        for (int step = 0; step < expectedCells.size(); ++step) {
+            assertCell(recording.stateAt(step), expectedCells.get(step));
+            assertThat(recording.stateAt(step).getTimeStep(), is(equalTo(step)));
+        }
+        assertThat(recording.stateAt(expectedCells.size() - 1).isEvacuated(individual), is(true));
+    }
+
+    private void assertCell(RecordedState state, int expectedCell) {
+        if (expectedCell == -1) {
+            assertThat(state.getCell(individual), is(nullValue()));
+        } else {
+            assertThat(state.getCell(individual), is(sameInstance(eca.getCell(expectedCell))));
+        }
+    }
+
+    @Test
+    public void initialState() {
+        RecordedState state = new RecordedState(initialConfig);
+        assertThat(state.getTimeStep(), is(equalTo(-1)));
+        assertThat(state.getCell(individual), is(sameInstance(problem.individualStartPositions().get(individual))));
+        assertThat(state.getRelativeSpeed(individual), is(equalTo(individual.getMaxSpeed())));
+        assertThat(state.isEvacuated(individual), is(false));
+    }
+
+    @Test(expected = IOException.class)
+    public void invalidRecording() throws IOException {
+        File file = folder.newFile();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            new StreamedEvacuationRecording(initialConfig, channel);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.statistic;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.jmock.Mockery;
+import org.junit.Test;
+import org.zet.cellularautomaton.IndividualBuilder;
+import org.zet.cellularautomaton.algorithm.state.EvacuationState;
+import org.zet.cellularautomaton.statistic.results.StoredCAStatisticResultsForIndividuals;
+
+/**
+ * Tests the configuration of the recorded statistic values.
+ */
+public class TestCAStatisticWriter {
+
+    private final Mockery context = new Mockery();
+    private final CAStatisticWriter writer = new CAStatisticWriter(context.mock(EvacuationState.class));
+
+    @Test
+    public void recordsEverythingByDefault() {
+        assertThat(writer.getLevel(), is(StatisticLevel.FULL));
+        for (StatisticMetric metric : StatisticMetric.values()) {
+            assertThat(writer.isRecording(metric), is(true));
+        }
+    }
+
+    @Test
+    public void levelNone() {
+        writer.setLevel(StatisticLevel.NONE);
+        for (StatisticMetric metric : StatisticMetric.values()) {
+            assertThat(writer.isRecording(metric), is(false));
+        }
+    }
+
+    @Test
+    public void levelAggregates() {
+        writer.setLevel(StatisticLevel.AGGREGATES);
+        for (StatisticMetric metric : StatisticMetric.values()) {
+            assertThat(writer.isRecording(metric), is(!metric.isTrace()));
+        }
+        assertThat(writer.isRecording(StatisticMetric.SAFETY_TIME), is(true));
+        assertThat(writer.isRecording(StatisticMetric.CURRENT_SPEED), is(false));
+    }
+
+    @Test
+    public void automaticLevelDependsOnRunSize() {
+        assertThat(StatisticLevel.AUTOMATIC.forRun(1000, 10_000), is(StatisticLevel.FULL));
+        assertThat(StatisticLevel.AUTOMATIC.forRun(50_000, 10_000), is(StatisticLevel.AGGREGATES));
+        assertThat(StatisticLevel.FULL.forRun(50_000, 10_000), is(StatisticLevel.FULL));
+        assertThat(StatisticLevel.NONE.forRun(1, 1), is(StatisticLevel.NONE));
+    }
+
+    @Test
+    public void singleMetrics() {
+        writer.setLevel(StatisticLevel.NONE);
+        writer.setRecording(StatisticMetric.CURRENT_SPEED, true);
+        assertThat(writer.isRecording(StatisticMetric.CURRENT_SPEED), is(true));
+        assertThat(writer.isRecording(StatisticMetric.COVERED_DISTANCE), is(false));
+
+        writer.setRecording(StatisticMetric.CURRENT_SPEED, false);
+        assertThat(writer.isRecording(StatisticMetric.CURRENT_SPEED), is(false));
+        assertThat(writer.getLevel(), is(StatisticLevel.NONE));
+    }
+
+    @Test
+    public void levelResetsSingleMetrics() {
+        writer.setRecording(StatisticMetric.PANIC, false);
+        writer.setLevel(StatisticLevel.FULL);
+        assertThat(writer.isRecording(StatisticMetric.PANIC), is(true));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void levelMustNotBeNull() {
+        writer.setLevel(null);
+    }
+
+    @Test
+    public void storedResultsKnowRecordedMetrics() {
+        StoredCAStatisticResultsForIndividuals stored
+                = writer.getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals();
+        assertThat(stored.isRecorded(StatisticMetric.COVERED_DISTANCE), is(true));
+
+        writer.setLevel(StatisticLevel.AGGREGATES);
+        assertThat(stored.isRecorded(StatisticMetric.COVERED_DISTANCE), is(false));
+        assertThat(stored.isRecorded(StatisticMetric.SAFETY_TIME), is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void droppedTraceIsNotRecorded() throws Exception {
+        writer.setLevel(StatisticLevel.AGGREGATES);
+        IndividualStatistic statistic = new IndividualStatistic(
+                writer.getStoredCAStatisticResults().getStoredCAStatisticResultsForIndividuals());
+        statistic.getCoveredDistance(new IndividualBuilder().build(), 1);
+    }
+}
@@ -0,0 +1,126 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.statistic.results;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import org.junit.Test;
+import org.zet.cellularautomaton.EvacCell;
+import org.zet.cellularautomaton.EvacCellInterface;
+import org.zet.cellularautomaton.MultiFloorEvacuationCellularAutomaton.EvacuationCellularAutomatonBuilder;
+import org.zet.cellularautomaton.RoomCell;
+import org.zet.cellularautomaton.RoomImpl;
+
+/**
+ * Tests the run-length encoded storage of time steps per cell.
+ */
+public class TestCellOccupancySeries {
+
+    private final RoomImpl room = new RoomImpl(2, 1, 0, 0, 0);
+    private final EvacCell first = new RoomCell(0, 0);
+    private final EvacCell second = new RoomCell(1, 0);
+
+    public TestCellOccupancySeries() {
+        room.setCell(first);
+        room.setCell(second);
+        EvacuationCellularAutomatonBuilder builder = new EvacuationCellularAutomatonBuilder();
+        builder.addFloor(0, "floor");
+        builder.addRoom(room);
+    }
+
+    @Test
+    public void countsRuns() {
+        CellOccupancySeries series = new CellOccupancySeries();
+        for (int t : new int[]{2, 3, 4, 7, 9, 10}) {
+            series.record(first, t);
+        }
+
+        assertThat(series.count(first), is(equalTo(6)));
+        assertThat(series.countUntil(first, 1), is(equalTo(0)));
+        assertThat(series.countUntil(first, 3), is(equalTo(2)));
+        assertThat(series.countUntil(first, 6), is(equalTo(3)));
+        assertThat(series.countUntil(first, 7), is(equalTo(4)));
+        assertThat(series.countUntil(first, 100), is(equalTo(6)));
+        assertThat(series.contains(first, 4), is(true));
+        assertThat(series.contains(first, 5), is(false));
+        assertThat(series.contains(first, 10), is(true));
+        assertThat(series.timeSteps(first), contains(2, 3, 4, 7, 9, 10));
+    }
+
+    @Test
+    public void duplicateTimeStepCountsOnce() {
+        CellOccupancySeries series = new CellOccupancySeries();
+        series.record(first, 1);
+        series.record(first, 1);
+        series.record(first, 2);
+
+        assertThat(series.count(first), is(equalTo(2)));
+        assertThat(series.getMaxCount(), is(equalTo(2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decreasingTimeStepFails() {
+        CellOccupancySeries series = new CellOccupancySeries();
+        series.record(first, 5);
+        series.record(first, 4);
+    }
+
+    @Test
+    public void unrecordedCell() {
+        CellOccupancySeries series = new CellOccupancySeries();
+        series.record(first, 1);
+
+        assertThat(series.contains(second), is(false));
+        assertThat(series.count(second), is(equalTo(0)));
+        assertThat(series.countUntil(second, 5), is(equalTo(0)));
+        assertThat(series.timeSteps(second), is(empty()));
+    }
+
+    @Test
+    public void unindexedCells() {
+        EvacCell unindexed = new RoomCell(0, 0);
+        CellOccupancySeries series = new CellOccupancySeries();
+        series.record(unindexed, 3);
+        series.record(first, 1);
+        series.record(unindexed, 4);
+        series.record(unindexed, 8);
+
+        assertThat(series.count(unindexed), is(equalTo(3)));
+        assertThat(series.countUntil(unindexed, 5), is(equalTo(2)));
+        assertThat(series.count(first), is(equalTo(1)));
+        assertThat(series.getMaxCount(), is(equalTo(3)));
+        assertThat(series.contains(new RoomCell(1, 1)), is(false));
+    }
+
+    @Test
+    public void decodesMap() {
+        CellOccupancySeries series = new CellOccupancySeries();
+        series.record(first, 1);
+        series.record(second, 2);
+        series.record(second, 4);
+
+        HashMap<EvacCellInterface, ArrayList<Integer>> map = series.toMap();
+        assertThat(map.size(), is(equalTo(2)));
+        assertThat(map.get(first), contains(1));
+        assertThat(map.get(second), contains(2, 4));
+    }
+}
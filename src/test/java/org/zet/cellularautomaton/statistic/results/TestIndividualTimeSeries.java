@@ -0,0 +1,139 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zet.cellularautomaton.statistic.results;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import org.junit.Test;
+import org.zet.cellularautomaton.Individual;
+import org.zet.cellularautomaton.IndividualBuilder;
+
+/**
+ * Tests the columnar storage of time series of individuals.
+ */
+public class TestIndividualTimeSeries {
+
+    private final IndividualBuilder builder = new IndividualBuilder();
+    private final Individual first = builder.build();
+    private final Individual second = builder.build();
+
+    @Test
+    public void lookupValidValue() {
+        IndividualTimeSeries series = new IndividualTimeSeries();
+        series.record(first, 1, 0.5);
+        series.record(first, 4, 1.5);
+        series.record(first, 4, 2.5);
+        series.record(first, 9, 3.5);
+
+        assertThat(series.size(first), is(equalTo(4)));
+        assertThat(series.indexAt(first, 0), is(equalTo(-1)));
+        assertThat(series.indexAt(first, 1), is(equalTo(0)));
+        assertThat(series.indexAt(first, 3), is(equalTo(0)));
+        assertThat(series.indexAt(first, 4), is(equalTo(2)));
+        assertThat(series.indexAt(first, 100), is(equalTo(3)));
+        assertThat(series.time(first, 3), is(equalTo(9)));
+        assertThat(series.value(first, 2), is(closeTo(2.5, 1e-9)));
+        assertThat(series.lastValue(first, 0), is(closeTo(3.5, 1e-9)));
+    }
+
+    @Test
+    public void accumulateKeepsDoublePrecisionTotal() {
+        IndividualTimeSeries series = new IndividualTimeSeries();
+        double total = 0;
+        for (int t = 0; t < 10_000; ++t) {
+            series.accumulate(first, t, 0.4);
+            total += 0.4;
+        }
+
+        assertThat(series.size(first), is(equalTo(10_000)));
+        assertThat(series.lastValue(first, 0), is(closeTo(total, total * 1e-7)));
+        assertThat(series.value(first, 0), is(closeTo(0.4, 1e-7)));
+    }
+
+    @Test
+    public void manyChunks() {
+        IndividualTimeSeries series = new IndividualTimeSeries();
+        int count = 3 * IndividualTimeSeries.CHUNK_SIZE + 7;
+        for (int i = 0; i < count; ++i) {
+            series.record(second, 2 * i, i);
+        }
+
+        assertThat(series.size(second), is(equalTo(count)));
+        for (int i = 0; i < count; ++i) {
+            assertThat(series.time(second, i), is(equalTo(2 * i)));
+            assertThat(series.indexAt(second, 2 * i), is(equalTo(i)));
+            assertThat(series.indexAt(second, 2 * i + 1), is(equalTo(i)));
+        }
+    }
+
+    @Test
+    public void largeGaps() {
+        IndividualTimeSeries series = new IndividualTimeSeries();
+        series.record(first, 3, 1);
+        series.record(first, 3 + Character.MAX_VALUE + 1, 2);
+        series.record(first, Integer.MAX_VALUE, 3);
+
+        assertThat(series.time(first, 1), is(equalTo(3 + Character.MAX_VALUE + 1)));
+        assertThat(series.time(first, 2), is(equalTo(Integer.MAX_VALUE)));
+        assertThat(series.indexAt(first, 3 + Character.MAX_VALUE), is(equalTo(0)));
+        assertThat(series.indexAt(first, Integer.MAX_VALUE - 1), is(equalTo(1)));
+        assertThat(series.indexAt(first, Integer.MAX_VALUE), is(equalTo(2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decreasingTimeStepFails() {
+        IndividualTimeSeries series = new IndividualTimeSeries();
+        series.record(first, 5, 0);
+        series.record(first, 4, 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void invalidIndex() {
+        IndividualTimeSeries series = new IndividualTimeSeries();
+        series.record(first, 5, 0);
+        series.value(first, 1);
+    }
+
+    @Test
+    public void unrecordedIndividual() {
+        IndividualTimeSeries series = new IndividualTimeSeries();
+        series.record(second, 1, 1);
+
+        assertThat(series.contains(first), is(false));
+        assertThat(series.indexAt(first, 4), is(equalTo(-1)));
+        assertThat(series.lastValue(first, -1), is(closeTo(-1, 1e-9)));
+    }
+
+    @Test
+    public void decodesMaps() {
+        IndividualTimeSeries series = new IndividualTimeSeries();
+        series.record(first, 1, 0.5);
+        series.record(second, 2, 1);
+        series.record(second, 3, 2);
+
+        HashMap<Individual, ArrayList<Integer>> times = series.toTimesMap();
+        HashMap<Individual, ArrayList<Double>> values = series.toValuesMap();
+        assertThat(times.get(first), contains(1));
+        assertThat(times.get(second), contains(2, 3));
+        assertThat(values.get(second), contains(1.0, 2.0));
+    }
+}
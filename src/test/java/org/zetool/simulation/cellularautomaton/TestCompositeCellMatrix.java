@@ -21,7 +21,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import org.junit.Before;
@@ -188,4 +190,38 @@ public class TestCompositeCellMatrix {
         }
         assertThat(counter, is(equalTo(13)));
     }
+
+    @Test
+    public void lookupInManyMatrices() {
+        CompositeCellMatrix<GeometricCellMatrix<FakeCell>, FakeCell> large = new CompositeCellMatrix<>();
+        List<GeometricCellMatrix<FakeCell>> matrices = new ArrayList<>();
+        // matrices of different sizes around the origin, added such that the lookup grid has to grow in all directions
+        int[] order = {0, 5, -5, 9, -9, 2, -2, 7, -7, 4};
+        for (int bx : order) {
+            for (int by : order) {
+                int size = 1 + Math.floorMod(bx + by, 3) * 9;
+                GeometricCellMatrix<FakeCell> m = new GeometricCellMatrix<>(size, size, bx * 20, by * 20,
+                        (t, u) -> new FakeCell());
+                matrices.add(m);
+                large.addMatrix(m);
+            }
+        }
+
+        for (int x = -190; x < 200; x += 3) {
+            for (int y = -190; y < 200; y += 7) {
+                FakeCell expected = null;
+                for (GeometricCellMatrix<FakeCell> m : matrices) {
+                    int tx = x - m.getXOffset();
+                    int ty = y - m.getYOffset();
+                    if (tx >= 0 && tx < m.getWidth() && ty >= 0 && ty < m.getHeight()) {
+                        expected = m.getCell(tx, ty);
+                    }
+                }
+                assertThat(large.existsCellAt(x, y), is(expected != null));
+                if (expected != null) {
+                    assertThat(large.getCell(x, y), is(sameInstance(expected)));
+                }
+            }
+        }
+    }
 }
@@ -21,6 +21,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 import org.junit.Test;
 
@@ -148,4 +149,38 @@ public class TestFiniteCellMatrix {
         cellMatrix.getAllCells().stream().forEach(c -> seen.add(c));
         assertThat(seen.size(), is(equalTo(expected)));
     }
+
+    @Test
+    public void testLookupWithoutException() {
+        FakeCell[][] cells = getCellArray();
+        FiniteCellMatrix<FakeCell> matrix = new FiniteCellMatrix<>(WIDTH, HEIGHT, (t, u) -> cells[t][u]);
+        matrix.setCell(1, 2, null);
+        for (int i = 0; i < WIDTH; ++i) {
+            for (int j = 0; j < HEIGHT; ++j) {
+                FakeCell expected = i == 1 && j == 2 ? null : cells[i][j];
+                assertThat(matrix.getCellOrNull(i, j), is(sameInstance(expected)));
+            }
+        }
+        assertThat(matrix.getCellOrNull(-1, 0), is(nullValue()));
+        assertThat(matrix.getCellOrNull(0, HEIGHT), is(nullValue()));
+    }
+
+    @Test
+    public void testCellCount() {
+        FiniteCellMatrix<FakeCell> matrix = new FiniteCellMatrix<>(WIDTH, HEIGHT, (t, u) -> new FakeCell());
+        assertThat(matrix.getCellCount(false), is(equalTo(WIDTH * HEIGHT)));
+
+        matrix.setCell(0, 1, null);
+        matrix.setCell(0, 1, null);
+        assertThat(matrix.getCellCount(false), is(equalTo(WIDTH * HEIGHT - 1)));
+        assertThat(matrix.getAllCells(), hasSize(WIDTH * HEIGHT - 1));
+
+        matrix.setCell(1, 1, new FakeCell());
+        matrix.setCell(0, 1, new FakeCell());
+        assertThat(matrix.getCellCount(false), is(equalTo(WIDTH * HEIGHT)));
+
+        matrix.clear();
+        assertThat(matrix.getCellCount(false), is(equalTo(0)));
+        assertThat(matrix.getCellCount(true), is(equalTo(WIDTH * HEIGHT)));
+    }
 }